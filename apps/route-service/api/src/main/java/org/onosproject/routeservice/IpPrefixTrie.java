@@ -0,0 +1,291 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routeservice;
+
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Path-compressed binary trie mapping the IP prefixes of a single IP version
+ * to values, for longest prefix match lookups.
+ * <p>
+ * Nodes work on the raw bits of the prefix addresses: each node holds a
+ * prefix, and its children the longer prefixes whose next bit is 0 or 1
+ * respectively. Chains of single-child nodes are compressed away, so that
+ * the trie holds at most one intermediate node per stored prefix.
+ * <p>
+ * Updates are serialized, while lookups are lock-free: nodes are fully
+ * built before being linked into the trie, so readers always see either
+ * the old or the new version of the affected branch.
+ *
+ * @param <V> type of the values
+ */
+public final class IpPrefixTrie<V> {
+
+    private final IpAddress.Version version;
+    private final int maxLength;
+
+    private volatile Node<V> root;
+    private volatile int size;
+
+    /**
+     * Creates an empty trie for the prefixes of the given IP version.
+     *
+     * @param version IP version
+     */
+    public IpPrefixTrie(IpAddress.Version version) {
+        this.version = checkNotNull(version);
+        this.maxLength = version == IpAddress.Version.INET ?
+                IpPrefix.MAX_INET_MASK_LENGTH : IpPrefix.MAX_INET6_MASK_LENGTH;
+    }
+
+    /**
+     * Associates a value with a prefix.
+     *
+     * @param prefix IP prefix
+     * @param value  value
+     * @return previous value of the prefix; null if none
+     */
+    public synchronized V put(IpPrefix prefix, V value) {
+        checkVersion(prefix.address());
+        checkNotNull(value);
+        byte[] key = prefix.address().toOctets();
+        int length = prefix.prefixLength();
+
+        Node<V> parent = null;
+        Node<V> node = root;
+        while (node != null) {
+            int common = commonLength(node.key, key, Math.min(node.length, length));
+            if (common == node.length) {
+                if (common == length) {
+                    V old = node.value;
+                    node.value = value;
+                    if (old == null) {
+                        size++;
+                    }
+                    return old;
+                }
+                parent = node;
+                node = node.child(bit(key, node.length));
+                continue;
+            }
+            // The prefix diverges from the node, or is shorter than it.
+            Node<V> inserted;
+            if (common == length) {
+                inserted = new Node<>(key, length, value);
+                inserted.setChild(bit(node.key, length), node);
+            } else {
+                // Intermediate nodes share the key of their new child.
+                inserted = new Node<>(key, common, null);
+                inserted.setChild(bit(key, common), new Node<>(key, length, value));
+                inserted.setChild(bit(node.key, common), node);
+            }
+            link(parent, key, inserted);
+            size++;
+            return null;
+        }
+        link(parent, key, new Node<>(key, length, value));
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes the value of a prefix.
+     *
+     * @param prefix IP prefix
+     * @return removed value; null if none
+     */
+    public synchronized V remove(IpPrefix prefix) {
+        checkVersion(prefix.address());
+        byte[] key = prefix.address().toOctets();
+        int length = prefix.prefixLength();
+
+        Node<V> grandParent = null;
+        Node<V> parent = null;
+        Node<V> node = root;
+        while (node != null && node.length < length && matches(node, key)) {
+            grandParent = parent;
+            parent = node;
+            node = node.child(bit(key, node.length));
+        }
+        if (node == null || node.length != length || !matches(node, key) || node.value == null) {
+            return null;
+        }
+
+        V old = node.value;
+        node.value = null;
+        size--;
+        if (node.left != null && node.right != null) {
+            // Kept as intermediate node
+            return old;
+        }
+        Node<V> child = node.left != null ? node.left : node.right;
+        link(parent, key, child);
+        if (child == null && parent != null && parent.value == null) {
+            // The parent is an intermediate node left with a single child.
+            link(grandParent, key, parent.left != null ? parent.left : parent.right);
+        }
+        return old;
+    }
+
+    /**
+     * Returns the value of a prefix.
+     *
+     * @param prefix IP prefix
+     * @return value of the prefix; null if none
+     */
+    public V get(IpPrefix prefix) {
+        checkVersion(prefix.address());
+        byte[] key = prefix.address().toOctets();
+        int length = prefix.prefixLength();
+        Node<V> node = root;
+        while (node != null && node.length < length && matches(node, key)) {
+            node = node.child(bit(key, node.length));
+        }
+        return node != null && node.length == length && matches(node, key) ? node.value : null;
+    }
+
+    /**
+     * Returns the value of the longest prefix containing the given address.
+     *
+     * @param address IP address
+     * @return value of the longest matching prefix; null if none
+     */
+    public V longestPrefixMatch(IpAddress address) {
+        checkVersion(address);
+        byte[] key = address.toOctets();
+        V match = null;
+        Node<V> node = root;
+        while (node != null && matches(node, key)) {
+            V value = node.value;
+            if (value != null) {
+                match = value;
+            }
+            if (node.length == maxLength) {
+                break;
+            }
+            node = node.child(bit(key, node.length));
+        }
+        return match;
+    }
+
+    /**
+     * Returns the values of the trie, shorter prefixes first within each
+     * branch. The result is a snapshot which may or may not reflect the
+     * concurrent updates.
+     *
+     * @return list of values
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        Deque<Node<V>> stack = new ArrayDeque<>();
+        Node<V> node = root;
+        if (node != null) {
+            stack.push(node);
+        }
+        while (!stack.isEmpty()) {
+            node = stack.pop();
+            V value = node.value;
+            if (value != null) {
+                values.add(value);
+            }
+            Node<V> right = node.right;
+            Node<V> left = node.left;
+            if (right != null) {
+                stack.push(right);
+            }
+            if (left != null) {
+                stack.push(left);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the number of prefixes holding a value.
+     *
+     * @return number of prefixes
+     */
+    public int size() {
+        return size;
+    }
+
+    private void checkVersion(IpAddress address) {
+        checkArgument(address.version() == version, "Expected an %s address: %s", version, address);
+    }
+
+    private void link(Node<V> parent, byte[] key, Node<V> child) {
+        if (parent == null) {
+            root = child;
+        } else {
+            parent.setChild(bit(key, parent.length), child);
+        }
+    }
+
+    private static boolean matches(Node<?> node, byte[] key) {
+        return commonLength(node.key, key, node.length) == node.length;
+    }
+
+    // Returns the number of leading bits a and b have in common, up to max.
+    private static int commonLength(byte[] a, byte[] b, int max) {
+        for (int i = 0; i * Byte.SIZE < max; i++) {
+            int diff = (a[i] ^ b[i]) & 0xff;
+            if (diff != 0) {
+                return Math.min(max, i * Byte.SIZE + Integer.numberOfLeadingZeros(diff) - 24);
+            }
+        }
+        return max;
+    }
+
+    private static int bit(byte[] key, int index) {
+        return (key[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    // Only the first length bits of the key are significant.
+    private static final class Node<V> {
+        private final byte[] key;
+        private final int length;
+        private volatile V value;
+        private volatile Node<V> left;
+        private volatile Node<V> right;
+
+        private Node(byte[] key, int length, V value) {
+            this.key = key;
+            this.length = length;
+            this.value = value;
+        }
+
+        private Node<V> child(int bit) {
+            return bit == 0 ? left : right;
+        }
+
+        private void setChild(int bit, Node<V> child) {
+            if (bit == 0) {
+                left = child;
+            } else {
+                right = child;
+            }
+        }
+    }
+}
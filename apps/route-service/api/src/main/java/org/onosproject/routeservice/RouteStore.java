@@ -37,6 +37,16 @@ public interface RouteStore extends Store<InternalRouteEvent, RouteStoreDelegate
      */
     void updateRoute(Route route);
 
+    /**
+     * Adds or updates the given routes in the store. Stores may apply the
+     * routes in any order, but more efficiently than one at a time.
+     *
+     * @param routes routes to add or update
+     */
+    default void updateRoutes(Collection<Route> routes) {
+        routes.forEach(this::updateRoute);
+    }
+
     /**
      * Removes the given route from the store.
      *
@@ -44,6 +54,16 @@ public interface RouteStore extends Store<InternalRouteEvent, RouteStoreDelegate
      */
     void removeRoute(Route route);
 
+    /**
+     * Removes the given routes from the store. Stores may remove the routes
+     * in any order, but more efficiently than one at a time.
+     *
+     * @param routes routes to remove
+     */
+    default void removeRoutes(Collection<Route> routes) {
+        routes.forEach(this::removeRoute);
+    }
+
     /**
      * Replaces the all the routes for a prefix
      * with the given route.
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routeservice;
+
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Unit tests for the IP prefix trie.
+ */
+public class IpPrefixTrieTest {
+
+    private final IpPrefixTrie<String> trie = new IpPrefixTrie<>(IpAddress.Version.INET);
+
+    private void put(String prefix) {
+        assertThat(trie.put(IpPrefix.valueOf(prefix), prefix), nullValue());
+    }
+
+    private String lookup(String address) {
+        return trie.longestPrefixMatch(IpAddress.valueOf(address));
+    }
+
+    /**
+     * Tests exact and longest prefix match lookups.
+     */
+    @Test
+    public void testLookups() {
+        put("10.0.0.0/8");
+        put("10.1.0.0/16");
+        put("10.1.2.0/24");
+        put("10.128.0.0/9");
+        put("192.168.0.1/32");
+
+        assertThat(trie.size(), is(5));
+        assertThat(trie.get(IpPrefix.valueOf("10.1.0.0/16")), is("10.1.0.0/16"));
+        assertThat(trie.get(IpPrefix.valueOf("10.0.0.0/9")), nullValue());
+        assertThat(lookup("10.1.2.3"), is("10.1.2.0/24"));
+        assertThat(lookup("10.1.3.3"), is("10.1.0.0/16"));
+        assertThat(lookup("10.200.0.1"), is("10.128.0.0/9"));
+        assertThat(lookup("10.2.0.1"), is("10.0.0.0/8"));
+        assertThat(lookup("192.168.0.1"), is("192.168.0.1/32"));
+        assertThat(lookup("192.168.0.2"), nullValue());
+        assertThat(trie.values(), contains("10.0.0.0/8", "10.1.0.0/16", "10.1.2.0/24",
+                                           "10.128.0.0/9", "192.168.0.1/32"));
+
+        put("0.0.0.0/0");
+        assertThat(lookup("192.168.0.2"), is("0.0.0.0/0"));
+        assertThat(trie.put(IpPrefix.valueOf("0.0.0.0/0"), "default"), is("0.0.0.0/0"));
+        assertThat(trie.size(), is(6));
+    }
+
+    /**
+     * Tests that removals only affect the removed prefixes.
+     */
+    @Test
+    public void testRemove() {
+        put("10.0.0.0/8");
+        put("10.1.0.0/16");
+        put("10.2.0.0/16");
+        put("10.1.2.0/24");
+
+        assertThat(trie.remove(IpPrefix.valueOf("10.3.0.0/16")), nullValue());
+        assertThat(trie.remove(IpPrefix.valueOf("10.1.0.0/16")), is("10.1.0.0/16"));
+        assertThat(lookup("10.1.2.1"), is("10.1.2.0/24"));
+        assertThat(lookup("10.1.3.1"), is("10.0.0.0/8"));
+        assertThat(trie.remove(IpPrefix.valueOf("10.1.2.0/24")), is("10.1.2.0/24"));
+        assertThat(trie.remove(IpPrefix.valueOf("10.0.0.0/8")), is("10.0.0.0/8"));
+        assertThat(lookup("10.1.2.1"), nullValue());
+        assertThat(trie.values(), containsInAnyOrder("10.2.0.0/16"));
+        assertThat(trie.remove(IpPrefix.valueOf("10.2.0.0/16")), is("10.2.0.0/16"));
+        assertThat(trie.size(), is(0));
+        assertThat(trie.values().isEmpty(), is(true));
+    }
+
+    /**
+     * Tests the lookups of random addresses against a linear search over
+     * random prefixes, some of them removed.
+     */
+    @Test
+    public void testRandom() {
+        Random random = new Random(42);
+        Map<IpPrefix, String> prefixes = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            IpPrefix prefix = IpPrefix.valueOf(random.nextInt(1 << 16) << 16, 8 + random.nextInt(17));
+            prefixes.put(prefix, prefix.toString());
+            trie.put(prefix, prefix.toString());
+        }
+        prefixes.keySet().removeIf(prefix -> {
+            if (random.nextInt(4) == 0) {
+                trie.remove(prefix);
+                return true;
+            }
+            return false;
+        });
+        assertThat(trie.size(), is(prefixes.size()));
+
+        for (int i = 0; i < 5000; i++) {
+            IpAddress address = IpAddress.valueOf(random.nextInt());
+            IpPrefix expected = prefixes.keySet().stream()
+                    .filter(prefix -> prefix.contains(address))
+                    .max((a, b) -> Integer.compare(a.prefixLength(), b.prefixLength()))
+                    .orElse(null);
+            assertThat(trie.longestPrefixMatch(address),
+                       is(expected == null ? null : expected.toString()));
+        }
+    }
+}
@@ -226,20 +226,16 @@ public class RouteManager implements RouteService, RouteAdminService {
     @Override
     public void update(Collection<Route> routes) {
         synchronized (this) {
-            routes.forEach(route -> {
-                log.debug("Received update {}", route);
-                routeStore.updateRoute(route);
-            });
+            routes.forEach(route -> log.debug("Received update {}", route));
+            routeStore.updateRoutes(routes);
         }
     }
 
     @Override
     public void withdraw(Collection<Route> routes) {
         synchronized (this) {
-            routes.forEach(route -> {
-                log.debug("Received withdraw {}", route);
-                routeStore.removeRoute(route);
-            });
+            routes.forEach(route -> log.debug("Received withdraw {}", route));
+            routeStore.removeRoutes(routes);
         }
     }
 
@@ -16,11 +16,17 @@
 
 package org.onosproject.routeservice.store;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -35,11 +41,13 @@ import org.onosproject.routeservice.RouteSet;
 import org.onosproject.routeservice.RouteStoreDelegate;
 import org.onosproject.routeservice.RouteTableId;
 import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.AsyncConsistentMultimap;
 import org.onosproject.store.service.ConsistentMultimap;
 import org.onosproject.store.service.DistributedPrimitive;
 import org.onosproject.store.service.MultimapEvent;
 import org.onosproject.store.service.MultimapEventListener;
 import org.onosproject.store.service.Serializer;
+import org.onosproject.store.service.StorageException;
 import org.onosproject.store.service.StorageService;
 import org.onosproject.store.service.Versioned;
 
@@ -56,11 +64,14 @@ public class DefaultRouteTable implements RouteTable {
     // The route map stores RawRoute instead of Route to translate the polymorphic IpPrefix and IpAddress types
     // into monomorphic types (specifically String). Using strings in the stored RawRoute is necessary to ensure
     // the serialized bytes are consistent whether e.g. IpAddress or Ip4Address is used when storing a route.
+    private final AsyncConsistentMultimap<String, RawRoute> asyncRoutes;
     private final ConsistentMultimap<String, RawRoute> routes;
 
     private final RouteStoreDelegate delegate;
     private final ExecutorService executor;
     private final RouteTableListener listener = new RouteTableListener();
+    // Local index of the prefixes by next hop, kept up to date by the listener.
+    private final NextHopIndex nextHopIndex = new NextHopIndex();
 
     private final Consumer<DistributedPrimitive.Status> statusChangeListener;
 
@@ -76,7 +87,8 @@ public class DefaultRouteTable implements RouteTable {
                              StorageService storageService, ExecutorService executor) {
         this.delegate = checkNotNull(delegate);
         this.id = checkNotNull(id);
-        this.routes = buildRouteMap(checkNotNull(storageService));
+        this.asyncRoutes = buildRouteMap(checkNotNull(storageService));
+        this.routes = asyncRoutes.asMultimap();
         this.executor = checkNotNull(executor);
 
         statusChangeListener = status -> {
@@ -92,11 +104,16 @@ public class DefaultRouteTable implements RouteTable {
     }
 
     private void notifyExistingRoutes() {
-        getRoutes().forEach(routeSet -> delegate.notify(
+        Collection<RouteSet> routeSets = getRoutes();
+        nextHopIndex.load(routeSets.stream()
+            .flatMap(routeSet -> routeSet.routes().stream())
+            .collect(Collectors.groupingBy(Route::nextHop,
+                Collectors.mapping(Route::prefix, Collectors.toSet()))));
+        routeSets.forEach(routeSet -> delegate.notify(
             new InternalRouteEvent(InternalRouteEvent.Type.ROUTE_ADDED, routeSet)));
     }
 
-    private ConsistentMultimap<String, RawRoute> buildRouteMap(StorageService storageService) {
+    private AsyncConsistentMultimap<String, RawRoute> buildRouteMap(StorageService storageService) {
         KryoNamespace routeTableSerializer = KryoNamespace.newBuilder()
                 .register(KryoNamespaces.API)
                 .register(Route.class)
@@ -107,7 +124,7 @@ public class DefaultRouteTable implements RouteTable {
                 .withName("onos-routes-" + id.name())
                 .withRelaxedReadConsistency()
                 .withSerializer(Serializer.using(routeTableSerializer))
-                .build();
+                .buildMultimap();
     }
 
     @Override
@@ -130,6 +147,52 @@ public class DefaultRouteTable implements RouteTable {
     @Override
     public void update(Route route) {
         routes.put(route.prefix().toString(), new RawRoute(route));
+        nextHopIndex.add(route.nextHop(), route.prefix());
+    }
+
+    @Override
+    public void update(Collection<Route> newRoutes) {
+        // Writes of different prefixes are pipelined instead of waiting for
+        // each other.
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        newRoutes.stream()
+            .collect(Collectors.groupingBy(route -> route.prefix().toString(),
+                Collectors.mapping(RawRoute::new, Collectors.toList())))
+            .forEach((prefix, rawRoutes) -> futures.add(asyncRoutes.putAll(prefix, rawRoutes)));
+        newRoutes.forEach(route -> nextHopIndex.add(route.nextHop(), route.prefix()));
+        await(futures);
+    }
+
+    @Override
+    public void remove(Collection<Route> oldRoutes) {
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        oldRoutes.stream()
+            .collect(Collectors.groupingBy(route -> route.prefix().toString(), Collectors.toSet()))
+            .forEach((prefix, prefixRoutes) -> futures.add(asyncRoutes.get(prefix).thenCompose(existing -> {
+                // Removes the stored versions of the routes, as in remove(Route)
+                Collection<? extends RawRoute> stored = Versioned.valueOrNull(existing);
+                List<RawRoute> matches = stored == null ? Collections.emptyList() :
+                    stored.stream()
+                        .filter(r -> prefixRoutes.contains(r.route()))
+                        .collect(Collectors.toList());
+                return matches.isEmpty() ? CompletableFuture.completedFuture(false) :
+                    asyncRoutes.removeAll(prefix, matches);
+            })));
+        await(futures);
+    }
+
+    private void await(List<CompletableFuture<?>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .get(DistributedPrimitive.DEFAULT_OPERATION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageException.Interrupted();
+        } catch (TimeoutException e) {
+            throw new StorageException.Timeout();
+        } catch (ExecutionException e) {
+            throw new StorageException(e.getCause());
+        }
     }
 
     @Override
@@ -173,8 +236,11 @@ public class DefaultRouteTable implements RouteTable {
 
     @Override
     public Collection<Route> getRoutesForNextHop(IpAddress nextHop) {
-        return routes.stream()
-            .map(Map.Entry::getValue)
+        // The index may lag behind the route map, let's check the routes.
+        return nextHopIndex.prefixes(nextHop).stream()
+            .map(prefix -> Versioned.valueOrNull(routes.get(prefix.toString())))
+            .filter(Objects::nonNull)
+            .flatMap(Collection::stream)
             .filter(r -> IpAddress.valueOf(r.nextHop()).equals(nextHop))
             .map(RawRoute::route)
             .collect(Collectors.toSet());
@@ -197,10 +263,16 @@ public class DefaultRouteTable implements RouteTable {
             InternalRouteEvent ire = null;
             switch (event.type()) {
             case INSERT:
+                nextHopIndex.add(IpAddress.valueOf(event.newValue().nextHop()), IpPrefix.valueOf(event.key()));
                 ire = createRouteEvent(InternalRouteEvent.Type.ROUTE_ADDED, event);
                 break;
             case REMOVE:
                 ire = createRouteEvent(InternalRouteEvent.Type.ROUTE_REMOVED, event);
+                // Routes from other sources may still use the same next hop
+                IpAddress oldNextHop = IpAddress.valueOf(event.oldValue().nextHop());
+                if (ire.subject().routes().stream().map(Route::nextHop).noneMatch(oldNextHop::equals)) {
+                    nextHopIndex.remove(oldNextHop, IpPrefix.valueOf(event.key()));
+                }
                 break;
             default:
                 break;
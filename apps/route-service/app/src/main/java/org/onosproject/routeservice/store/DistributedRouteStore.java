@@ -42,6 +42,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import static org.onlab.util.Tools.groupedThreads;
 
@@ -115,11 +116,25 @@ public class DistributedRouteStore extends AbstractStore<InternalRouteEvent, Rou
         getDefaultRouteTable(route).update(route);
     }
 
+    @Override
+    public void updateRoutes(Collection<Route> routes) {
+        routes.stream()
+                .collect(Collectors.groupingBy(this::getDefaultRouteTable))
+                .forEach(RouteTable::update);
+    }
+
     @Override
     public void removeRoute(Route route) {
         getDefaultRouteTable(route).remove(route);
     }
 
+    @Override
+    public void removeRoutes(Collection<Route> routes) {
+        routes.stream()
+                .collect(Collectors.groupingBy(this::getDefaultRouteTable))
+                .forEach(RouteTable::remove);
+    }
+
     @Override
     public void replaceRoute(Route route) {
         getDefaultRouteTable(route).replace(route);
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routeservice.store;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local index of the prefixes of a route table by the next hops of their
+ * routes, so that the routes of a next hop are found without scanning the
+ * whole route table.
+ * <p>
+ * The index is maintained from the updates of the route table, possibly
+ * asynchronously, so it may briefly hold prefixes whose route no longer
+ * goes through the next hop: lookups are expected to check the routes of
+ * the prefixes they get.
+ */
+final class NextHopIndex {
+
+    private volatile Map<IpAddress, Set<IpPrefix>> index = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes a prefix under the next hop of one of its routes.
+     *
+     * @param nextHop next hop IP address
+     * @param prefix  IP prefix
+     */
+    void add(IpAddress nextHop, IpPrefix prefix) {
+        index.computeIfAbsent(nextHop, k -> Sets.newConcurrentHashSet()).add(prefix);
+    }
+
+    /**
+     * Removes a prefix from the prefixes of a next hop.
+     *
+     * @param nextHop next hop IP address
+     * @param prefix  IP prefix
+     */
+    void remove(IpAddress nextHop, IpPrefix prefix) {
+        index.computeIfPresent(nextHop, (k, prefixes) -> {
+            prefixes.remove(prefix);
+            return prefixes.isEmpty() ? null : prefixes;
+        });
+    }
+
+    /**
+     * Replaces the content of the index with the given next hops and prefixes.
+     *
+     * @param entries prefixes of each next hop
+     */
+    void load(Map<IpAddress, ? extends Set<IpPrefix>> entries) {
+        Map<IpAddress, Set<IpPrefix>> loaded = new ConcurrentHashMap<>();
+        entries.forEach((nextHop, prefixes) -> {
+            Set<IpPrefix> set = Sets.newConcurrentHashSet();
+            set.addAll(prefixes);
+            loaded.put(nextHop, set);
+        });
+        index = loaded;
+    }
+
+    /**
+     * Returns the prefixes indexed under the given next hop.
+     *
+     * @param nextHop next hop IP address
+     * @return immutable set of prefixes
+     */
+    Set<IpPrefix> prefixes(IpAddress nextHop) {
+        Set<IpPrefix> prefixes = index.get(nextHop);
+        return prefixes != null ? ImmutableSet.copyOf(prefixes) : ImmutableSet.of();
+    }
+}
@@ -36,6 +36,15 @@ public interface RouteTable {
      */
     void update(Route route);
 
+    /**
+     * Adds routes to the route table.
+     *
+     * @param routes routes
+     */
+    default void update(Collection<Route> routes) {
+        routes.forEach(this::update);
+    }
+
     /**
      * Removes a route from the route table.
      *
@@ -43,6 +52,15 @@ public interface RouteTable {
      */
     void remove(Route route);
 
+    /**
+     * Removes routes from the route table.
+     *
+     * @param routes routes
+     */
+    default void remove(Collection<Route> routes) {
+        routes.forEach(this::remove);
+    }
+
     /**
      * Replaces a route in the route table.
      *
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routeservice.store;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.onosproject.routeservice.Route;
+import org.onosproject.routeservice.RouteTableId;
+import org.onosproject.store.service.AsyncConsistentMultimap;
+import org.onosproject.store.service.ConsistentMultimap;
+import org.onosproject.store.service.ConsistentMultimapBuilder;
+import org.onosproject.store.service.MultimapEvent;
+import org.onosproject.store.service.MultimapEventListener;
+import org.onosproject.store.service.Serializer;
+import org.onosproject.store.service.StorageServiceAdapter;
+import org.onosproject.store.service.TestConsistentMultimap;
+import org.onosproject.store.service.Versioned;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the lookups of routes by next hop of the default route table.
+ */
+public class DefaultRouteTableTest {
+
+    private static final IpAddress NH1 = IpAddress.valueOf("192.168.1.1");
+    private static final IpAddress NH2 = IpAddress.valueOf("192.168.2.1");
+    private static final IpPrefix P1 = IpPrefix.valueOf("10.0.1.0/24");
+    private static final IpPrefix P2 = IpPrefix.valueOf("10.0.2.0/24");
+
+    private static final Route R1 = new Route(Route.Source.STATIC, P1, NH1);
+    private static final Route R2 = new Route(Route.Source.STATIC, P2, NH1);
+    private static final Route R1_NH2 = new Route(Route.Source.STATIC, P1, NH2);
+    private static final Route R1_FPM = new Route(Route.Source.FPM, P1, NH1);
+
+    private final TestRouteMultimap<Object, Object> routes = new TestRouteMultimap<>();
+    private DefaultRouteTable routeTable;
+
+    @Before
+    public void setUp() {
+        routeTable = newRouteTable();
+    }
+
+    private DefaultRouteTable newRouteTable() {
+        AsyncConsistentMultimap<Object, Object> asyncRoutes = createMock(AsyncConsistentMultimap.class);
+        expect(asyncRoutes.asMultimap()).andReturn(routes).anyTimes();
+        replay(asyncRoutes);
+        return new DefaultRouteTable(new RouteTableId("test"), event -> { }, new StorageServiceAdapter() {
+            @Override
+            public <K, V> ConsistentMultimapBuilder<K, V> consistentMultimapBuilder() {
+                return new ConsistentMultimapBuilder<K, V>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public AsyncConsistentMultimap<K, V> buildMultimap() {
+                        routes.serializer = serializer();
+                        return (AsyncConsistentMultimap<K, V>) asyncRoutes;
+                    }
+
+                    @Override
+                    public ConsistentMultimap<K, V> build() {
+                        return buildMultimap().asMultimap();
+                    }
+                };
+            }
+        }, MoreExecutors.newDirectExecutorService());
+    }
+
+    /**
+     * Tests the lookups of routes added and removed through the route table.
+     */
+    @Test
+    public void testAddRemove() {
+        routeTable.update(R1);
+        routeTable.update(R2);
+        routeTable.update(R1_NH2);
+        routes.notifyListeners();
+        assertEquals(ImmutableSet.of(R1, R2), routeTable.getRoutesForNextHop(NH1));
+        assertEquals(ImmutableSet.of(R1_NH2), routeTable.getRoutesForNextHop(NH2));
+
+        routeTable.remove(R1);
+        routes.notifyListeners();
+        assertEquals(ImmutableSet.of(R2), routeTable.getRoutesForNextHop(NH1));
+        assertEquals(ImmutableSet.of(R1_NH2), routeTable.getRoutesForNextHop(NH2));
+    }
+
+    /**
+     * Tests the lookups of routes updated by other nodes.
+     */
+    @Test
+    public void testRemoteUpdates() {
+        DefaultRouteTable remoteRouteTable = newRouteTable();
+        remoteRouteTable.update(R1);
+        remoteRouteTable.update(R2);
+        assertTrue(routeTable.getRoutesForNextHop(NH1).isEmpty());
+
+        routes.notifyListeners();
+        assertEquals(ImmutableSet.of(R1, R2), routeTable.getRoutesForNextHop(NH1));
+    }
+
+    /**
+     * Tests that the routes found at startup are indexed.
+     */
+    @Test
+    public void testLoad() {
+        routeTable.update(R1);
+        routeTable.update(R1_NH2);
+        routes.notifyListeners();
+
+        DefaultRouteTable reloaded = newRouteTable();
+        assertEquals(ImmutableSet.of(R1), reloaded.getRoutesForNextHop(NH1));
+        assertEquals(ImmutableSet.of(R1_NH2), reloaded.getRoutesForNextHop(NH2));
+    }
+
+    /**
+     * Tests that routes are checked against the next hop while the index
+     * lags behind the route map.
+     */
+    @Test
+    public void testStaleIndex() {
+        routeTable.update(R1);
+        routeTable.update(R2);
+        routes.notifyListeners();
+
+        // Not notified yet, the index still holds the previous next hop
+        routeTable.replace(R1_NH2);
+        assertEquals(ImmutableSet.of(R2), routeTable.getRoutesForNextHop(NH1));
+
+        routes.notifyListeners();
+        assertEquals(ImmutableSet.of(R2), routeTable.getRoutesForNextHop(NH1));
+        assertEquals(ImmutableSet.of(R1_NH2), routeTable.getRoutesForNextHop(NH2));
+    }
+
+    /**
+     * Tests that a route removal keeps the lookups of the routes from other
+     * sources with the same prefix and next hop.
+     */
+    @Test
+    public void testRemoveOtherSource() {
+        routeTable.update(R1);
+        routeTable.update(R1_FPM);
+        routes.notifyListeners();
+        assertEquals(2, routes.size());
+
+        routeTable.remove(R1);
+        routes.notifyListeners();
+        assertEquals(ImmutableSet.of(R1), routeTable.getRoutesForNextHop(NH1));
+
+        routeTable.remove(R1_FPM);
+        routes.notifyListeners();
+        assertTrue(routeTable.getRoutesForNextHop(NH1).isEmpty());
+    }
+
+    /**
+     * Multimap whose events are delivered to its listeners on demand. As in
+     * the distributed multimap, values are compared by their serialized bytes.
+     */
+    private static class TestRouteMultimap<K, V> extends TestConsistentMultimap<K, V> {
+
+        private final Multimap<K, ByteBuffer> values = HashMultimap.create();
+        private final List<MultimapEvent<K, V>> pending = Lists.newArrayList();
+        private final List<MultimapEventListener<K, V>> listeners = Lists.newArrayList();
+        private Serializer serializer;
+
+        void notifyListeners() {
+            List<MultimapEvent<K, V>> events = ImmutableList.copyOf(pending);
+            pending.clear();
+            events.forEach(event -> listeners.forEach(listener -> listener.event(event)));
+        }
+
+        private ByteBuffer encode(V value) {
+            return ByteBuffer.wrap(serializer.encode(value));
+        }
+
+        private V decode(ByteBuffer value) {
+            return serializer.decode(value.array());
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public boolean put(K key, V value) {
+            if (!values.put(key, encode(value))) {
+                return false;
+            }
+            pending.add(new MultimapEvent<>(name(), key, value, null));
+            return true;
+        }
+
+        @Override
+        public boolean remove(K key, V value) {
+            if (!values.remove(key, encode(value))) {
+                return false;
+            }
+            pending.add(new MultimapEvent<>(name(), key, null, value));
+            return true;
+        }
+
+        @Override
+        public Versioned<Collection<? extends V>> replaceValues(K key, Collection<V> newValues) {
+            Collection<ByteBuffer> oldValues = values.replaceValues(
+                    key, newValues.stream().map(this::encode).collect(Collectors.toSet()));
+            Set<ByteBuffer> newEncoded = newValues.stream().map(this::encode).collect(Collectors.toSet());
+            Sets.difference(ImmutableSet.copyOf(oldValues), newEncoded)
+                    .forEach(value -> pending.add(new MultimapEvent<>(name(), key, null, decode(value))));
+            Sets.difference(newEncoded, ImmutableSet.copyOf(oldValues))
+                    .forEach(value -> pending.add(new MultimapEvent<>(name(), key, decode(value), null)));
+            return oldValues.isEmpty() ? null : new Versioned<>(
+                    oldValues.stream().map(this::decode).collect(Collectors.toSet()), 0);
+        }
+
+        @Override
+        public Versioned<Collection<? extends V>> get(K key) {
+            Collection<ByteBuffer> current = values.get(key);
+            return current.isEmpty() ? null : new Versioned<>(
+                    current.stream().map(this::decode).collect(Collectors.toList()), 0);
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return values.entries().stream()
+                    .map(entry -> Maps.immutableEntry(entry.getKey(), decode(entry.getValue())))
+                    .collect(Collectors.toList())
+                    .iterator();
+        }
+
+        @Override
+        public void addListener(MultimapEventListener<K, V> listener, Executor executor) {
+            listeners.add(listener);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routeservice.store;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the next hop index.
+ */
+public class NextHopIndexTest {
+
+    private static final IpAddress NH1 = IpAddress.valueOf("192.168.1.1");
+    private static final IpAddress NH2 = IpAddress.valueOf("192.168.2.1");
+    private static final IpPrefix P1 = IpPrefix.valueOf("10.0.1.0/24");
+    private static final IpPrefix P2 = IpPrefix.valueOf("10.0.2.0/24");
+    private static final IpPrefix P3 = IpPrefix.valueOf("2001:db8::/64");
+
+    private final NextHopIndex index = new NextHopIndex();
+
+    /**
+     * Tests indexing prefixes under their next hops.
+     */
+    @Test
+    public void testAdd() {
+        assertTrue(index.prefixes(NH1).isEmpty());
+
+        index.add(NH1, P1);
+        index.add(NH1, P2);
+        index.add(NH1, P2);
+        index.add(NH2, P3);
+
+        assertEquals(ImmutableSet.of(P1, P2), index.prefixes(NH1));
+        assertEquals(ImmutableSet.of(P3), index.prefixes(NH2));
+    }
+
+    /**
+     * Tests removing prefixes from their next hops.
+     */
+    @Test
+    public void testRemove() {
+        index.add(NH1, P1);
+        index.add(NH1, P2);
+
+        index.remove(NH1, P1);
+        assertEquals(ImmutableSet.of(P2), index.prefixes(NH1));
+
+        // Not indexed under these next hops
+        index.remove(NH1, P3);
+        index.remove(NH2, P2);
+        assertEquals(ImmutableSet.of(P2), index.prefixes(NH1));
+
+        index.remove(NH1, P2);
+        assertTrue(index.prefixes(NH1).isEmpty());
+    }
+
+    /**
+     * Tests replacing the content of the index.
+     */
+    @Test
+    public void testLoad() {
+        index.add(NH1, P1);
+
+        Set<IpPrefix> prefixes = Sets.newHashSet(P2, P3);
+        index.load(ImmutableMap.of(NH2, prefixes));
+        assertTrue(index.prefixes(NH1).isEmpty());
+        assertEquals(ImmutableSet.of(P2, P3), index.prefixes(NH2));
+
+        // The index does not share the loaded sets
+        prefixes.remove(P2);
+        assertEquals(ImmutableSet.of(P2, P3), index.prefixes(NH2));
+        index.add(NH2, P1);
+        assertEquals(ImmutableSet.of(P3), prefixes);
+    }
+
+    /**
+     * Tests that the returned prefixes do not change with the index.
+     */
+    @Test
+    public void testPrefixesSnapshot() {
+        index.add(NH1, P1);
+        Set<IpPrefix> prefixes = index.prefixes(NH1);
+        index.add(NH1, P2);
+        assertEquals(ImmutableSet.of(P1), prefixes);
+    }
+}
@@ -104,6 +104,10 @@ import static org.onosproject.routing.fpm.OsgiPropertyConstants.PD_PUSH_NEXT_HOP
 import static org.onosproject.routing.fpm.OsgiPropertyConstants.PD_PUSH_NEXT_HOP_IPV4_DEFAULT;
 import static org.onosproject.routing.fpm.OsgiPropertyConstants.PD_PUSH_NEXT_HOP_IPV6;
 import static org.onosproject.routing.fpm.OsgiPropertyConstants.PD_PUSH_NEXT_HOP_IPV6_DEFAULT;
+import static org.onosproject.routing.fpm.OsgiPropertyConstants.ROUTE_BATCH_SIZE;
+import static org.onosproject.routing.fpm.OsgiPropertyConstants.ROUTE_BATCH_SIZE_DEFAULT;
+import static org.onosproject.routing.fpm.OsgiPropertyConstants.ROUTE_BATCH_WINDOW;
+import static org.onosproject.routing.fpm.OsgiPropertyConstants.ROUTE_BATCH_WINDOW_DEFAULT;
 
 /**
  * Forwarding Plane Manager (FPM) route source.
@@ -116,6 +120,8 @@ import static org.onosproject.routing.fpm.OsgiPropertyConstants.PD_PUSH_NEXT_HOP
            PD_PUSH_ENABLED + ":Boolean=" + PD_PUSH_ENABLED_DEFAULT,
            PD_PUSH_NEXT_HOP_IPV4 + "=" + PD_PUSH_NEXT_HOP_IPV4_DEFAULT,
            PD_PUSH_NEXT_HOP_IPV6 + "=" + PD_PUSH_NEXT_HOP_IPV6_DEFAULT,
+           ROUTE_BATCH_SIZE + ":Integer=" + ROUTE_BATCH_SIZE_DEFAULT,
+           ROUTE_BATCH_WINDOW + ":Integer=" + ROUTE_BATCH_WINDOW_DEFAULT,
        }
 )
 public class FpmManager implements FpmInfoService {
@@ -169,6 +175,8 @@ public class FpmManager implements FpmInfoService {
     private AsyncDistributedLock asyncLock;
 
     private ExecutorService clusterEventExecutor;
+    private ExecutorService routeBatchExecutor;
+    private FpmRouteBatcher routeBatcher;
 
     private ConsistentMap<FpmPeer, Set<FpmConnectionInfo>> peers;
 
@@ -189,6 +197,12 @@ public class FpmManager implements FpmInfoService {
     /** IPv6 next-hop address for PD Pushing. */
     private List<Ip6Address> pdPushNextHopIPv6 = null;
 
+    /** Number of FPM route changes applied to the route store at once; 1 to apply them one at a time. */
+    private volatile int routeBatchSize = ROUTE_BATCH_SIZE_DEFAULT;
+
+    /** Time in ms to wait for more FPM route changes before applying a batch. */
+    private volatile int routeBatchWindowMs = ROUTE_BATCH_WINDOW_DEFAULT;
+
     protected void bindRipStore(FpmPrefixStore store) {
         if ((ripStore == null) && (store != null)) {
             ripStore = store;
@@ -241,6 +255,9 @@ public class FpmManager implements FpmInfoService {
                 .withSerializer(Serializer.using(serializer))
                 .build();
 
+        routeBatchExecutor = Executors.newSingleThreadExecutor(groupedThreads("onos/fpm", "route-batch", log));
+        routeBatcher = new FpmRouteBatcher(routeBatchExecutor, this::updateRouteStore,
+                                           routeBatchSize, routeBatchWindowMs);
         modified(context);
         startServer();
 
@@ -266,6 +283,8 @@ public class FpmManager implements FpmInfoService {
 
         clusterService.removeListener(clusterListener);
         clusterEventExecutor.shutdown();
+        routeBatcher.stop();
+        routeBatchExecutor.shutdown();
         asyncLock.unlock();
 
         log.info("Stopped");
@@ -285,6 +304,24 @@ public class FpmManager implements FpmInfoService {
             log.info("clearRoutes is {}", clearRoutes);
         }
 
+        int batchSize = Tools.getIntegerProperty(properties, ROUTE_BATCH_SIZE, routeBatchSize);
+        int batchWindow = Tools.getIntegerProperty(properties, ROUTE_BATCH_WINDOW, routeBatchWindowMs);
+        if (batchSize > 0 && batchWindow > 0) {
+            boolean changed = batchSize != routeBatchSize || batchWindow != routeBatchWindowMs;
+            routeBatchSize = batchSize;
+            routeBatchWindowMs = batchWindow;
+            routeBatcher.configure(batchSize, batchWindow);
+            if (changed) {
+                log.info("Route batch size is {}, batch window is {} ms", batchSize, batchWindow);
+                // Flushed once changes can no longer be submitted with the previous
+                // settings, so that pending changes are not overtaken by unbatched ones
+                routeBatcher.flush();
+            }
+        } else {
+            log.warn("{} and {} must be positive, using current values of {} and {}",
+                     ROUTE_BATCH_SIZE, ROUTE_BATCH_WINDOW, routeBatchSize, routeBatchWindowMs);
+        }
+
         String strPdPushEnabled = Tools.get(properties, PD_PUSH_ENABLED);
         if (strPdPushEnabled != null) {
             boolean oldValue = pdPushEnabled;
@@ -525,7 +562,15 @@ public class FpmManager implements FpmInfoService {
             break;
         }
 
-        updateRouteStore(updates, withdraws);
+        if (updates.isEmpty() && withdraws.isEmpty()) {
+            return;
+        }
+        if (routeBatchSize > 1) {
+            routeBatcher.submit(peer, prefix, withdraws.isEmpty() ? null : withdraws.get(0),
+                                updates.isEmpty() ? null : updates.get(0));
+        } else {
+            updateRouteStore(updates, withdraws);
+        }
     }
 
     private synchronized void updateRouteStore(Collection<Route> routesToAdd, Collection<Route> routesToRemove) {
@@ -535,6 +580,8 @@ public class FpmManager implements FpmInfoService {
 
     private void clearRoutes(FpmPeer peer) {
         log.info("Clearing all routes for peer {}", peer);
+        // Pending changes must not be applied after the routes are cleared
+        routeBatcher.flush();
         Map<IpPrefix, Route> routes = fpmRoutes.remove(peer);
         if (routes != null) {
             updateRouteStore(Lists.newArrayList(), routes.values());
@@ -691,6 +738,7 @@ public class FpmManager implements FpmInfoService {
 
     @Override
     public void updateAcceptRouteFlag(Collection<FpmPeerAcceptRoutes> modifiedPeers) {
+        routeBatcher.flush();
         modifiedPeers.forEach(modifiedPeer -> {
             log.debug("FPM connection to {} is disabled", modifiedPeer);
             NodeId localNode = clusterService.getLocalNode().id();
@@ -878,6 +926,7 @@ public class FpmManager implements FpmInfoService {
 
     @Override
     public void pushFpmRoutes() {
+        routeBatcher.flush();
         Set<Route> routes = fpmRoutes.values().stream()
                 .map(Map::entrySet).flatMap(Set::stream).map(Map.Entry::getValue)
                 .collect(Collectors.toSet());
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routing.fpm;
+
+import org.onlab.packet.IpPrefix;
+import org.onlab.util.SharedScheduledExecutors;
+import org.onosproject.routeservice.Route;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Accumulates the route changes learned from FPM peers into batches applied
+ * to the route store at once.
+ * <p>
+ * A batch is applied as soon as it holds the maximum number of changes, on
+ * the thread submitting the last change, such that a peer sending faster
+ * than the route store can absorb is slowed down by TCP; otherwise it is
+ * applied when the batch window elapses. Within a batch, the changes of a
+ * prefix learned from a peer are coalesced into a single change from the
+ * route the store holds to the latest route.
+ * <p>
+ * The time taken to apply bursts of changes, e.g. the initial sync of a
+ * full table, is logged once no change is received for a batch window.
+ */
+final class FpmRouteBatcher {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Executor executor;
+    // Consumer of the routes to update and of the routes to withdraw.
+    private final BiConsumer<List<Route>, List<Route>> sink;
+    // Serializes the batches, which must be applied in order.
+    private final Object flushLock = new Object();
+
+    private volatile int maxBatchSize;
+    private volatile int batchWindowMillis;
+
+    // Guarded by this.
+    private Map<FpmPeer, Map<IpPrefix, Change>> pending = new HashMap<>();
+    private int pendingSize;
+    private boolean scheduled;
+    private ScheduledFuture<?> timeout;
+    private boolean stopped;
+    private long burstStart;
+    private long burstSize;
+    private long lastSubmitted;
+    // Guarded by flushLock.
+    private long lastApplied;
+
+    /**
+     * Creates a batcher applying its batches to the given sink.
+     *
+     * @param executor          executor applying the batches whose window
+     *                          elapsed
+     * @param sink              consumer of the routes to update and of the
+     *                          routes to withdraw
+     * @param maxBatchSize      number of changes at which a batch is applied
+     *                          without waiting for the batch window
+     * @param batchWindowMillis time to wait for more changes before applying
+     *                          a batch
+     */
+    FpmRouteBatcher(Executor executor, BiConsumer<List<Route>, List<Route>> sink,
+                    int maxBatchSize, int batchWindowMillis) {
+        this.executor = executor;
+        this.sink = sink;
+        configure(maxBatchSize, batchWindowMillis);
+    }
+
+    /**
+     * Changes the batching thresholds.
+     *
+     * @param maxBatchSize      number of changes at which a batch is applied
+     *                          without waiting for the batch window
+     * @param batchWindowMillis time to wait for more changes before applying
+     *                          a batch
+     */
+    void configure(int maxBatchSize, int batchWindowMillis) {
+        checkArgument(maxBatchSize > 0, "Maximum batch size must be positive");
+        checkArgument(batchWindowMillis > 0, "Batch window must be positive");
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindowMillis = batchWindowMillis;
+    }
+
+    /**
+     * Submits the change of the route of a prefix learned from a peer.
+     *
+     * @param peer     FPM peer
+     * @param prefix   IP prefix
+     * @param oldRoute route previously learned for the prefix; null if none
+     * @param newRoute route now learned for the prefix; null if withdrawn
+     */
+    void submit(FpmPeer peer, IpPrefix prefix, Route oldRoute, Route newRoute) {
+        boolean flushNow;
+        boolean flushLater;
+        synchronized (this) {
+            Change change = pending.computeIfAbsent(peer, p -> new LinkedHashMap<>()).get(prefix);
+            if (change == null) {
+                pending.get(peer).put(prefix, new Change(oldRoute, newRoute));
+                pendingSize++;
+            } else {
+                change.newRoute = newRoute;
+            }
+            lastSubmitted = System.nanoTime();
+            if (burstSize++ == 0) {
+                burstStart = lastSubmitted;
+            }
+            flushNow = pendingSize >= maxBatchSize;
+            flushLater = !flushNow && !scheduled;
+            scheduled |= flushLater;
+        }
+        if (flushNow) {
+            flush(false);
+        } else if (flushLater) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Applies the pending changes right away, e.g. before routes are updated
+     * by other means.
+     */
+    void flush() {
+        flush(false);
+    }
+
+    /**
+     * Applies the pending changes and cancels the pending batch window, such
+     * that no batch is applied afterwards on the executor.
+     */
+    void stop() {
+        synchronized (this) {
+            stopped = true;
+            if (timeout != null) {
+                timeout.cancel(false);
+                timeout = null;
+            }
+        }
+        flush(false);
+    }
+
+    private synchronized void scheduleFlush() {
+        if (stopped) {
+            return;
+        }
+        timeout = SharedScheduledExecutors.newTimeout(() -> {
+            try {
+                executor.execute(() -> flush(true));
+            } catch (RejectedExecutionException e) {
+                log.debug("Batcher stopped while its batch window elapsed");
+            }
+        }, batchWindowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush(boolean windowElapsed) {
+        synchronized (flushLock) {
+            Map<FpmPeer, Map<IpPrefix, Change>> changes;
+            synchronized (this) {
+                changes = pending;
+                pending = new HashMap<>();
+                pendingSize = 0;
+                if (windowElapsed) {
+                    scheduled = false;
+                }
+            }
+
+            List<Route> updates = new ArrayList<>();
+            List<Route> withdraws = new ArrayList<>();
+            changes.values().forEach(prefixChanges -> prefixChanges.values().forEach(change -> {
+                if (change.oldRoute != null && !change.oldRoute.equals(change.newRoute)) {
+                    withdraws.add(change.oldRoute);
+                }
+                if (change.newRoute != null && !change.newRoute.equals(change.oldRoute)) {
+                    updates.add(change.newRoute);
+                }
+            }));
+            if (!updates.isEmpty() || !withdraws.isEmpty()) {
+                sink.accept(updates, withdraws);
+                lastApplied = System.nanoTime();
+            }
+            endBurst(windowElapsed);
+        }
+    }
+
+    // Logs the end of the current burst once no change was submitted for a
+    // batch window, or makes sure it will be checked again later.
+    private void endBurst(boolean windowElapsed) {
+        long size;
+        long duration;
+        synchronized (this) {
+            if (burstSize == 0) {
+                return;
+            }
+            long idle = System.nanoTime() - lastSubmitted;
+            if (!windowElapsed || idle < TimeUnit.MILLISECONDS.toNanos(batchWindowMillis)) {
+                if (!scheduled) {
+                    scheduled = true;
+                    scheduleFlush();
+                }
+                return;
+            }
+            size = burstSize;
+            duration = TimeUnit.NANOSECONDS.toMillis(lastApplied - burstStart);
+            burstSize = 0;
+        }
+        if (size >= maxBatchSize) {
+            log.info("Applied {} FPM route changes in {} ms", size, Math.max(duration, 0));
+        }
+    }
+
+    // Change of the route of a prefix, from the route held by the store.
+    private static final class Change {
+        private final Route oldRoute;
+        private Route newRoute;
+
+        private Change(Route oldRoute, Route newRoute) {
+            this.oldRoute = oldRoute;
+            this.newRoute = newRoute;
+        }
+    }
+}
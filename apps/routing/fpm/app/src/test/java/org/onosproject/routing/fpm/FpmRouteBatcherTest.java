@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routing.fpm;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.After;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.onosproject.routeservice.Route;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onlab.junit.TestTools.assertAfter;
+import static org.onlab.junit.TestTools.delay;
+
+/**
+ * Tests for the FPM route batcher.
+ */
+public class FpmRouteBatcherTest {
+
+    private static final int LONG_WINDOW_MS = 60_000;
+    private static final int SHORT_WINDOW_MS = 20;
+
+    private static final FpmPeer PEER = new FpmPeer(IpAddress.valueOf("10.0.0.1"), 2620);
+    private static final IpPrefix PREFIX1 = IpPrefix.valueOf("1.1.1.0/24");
+    private static final IpPrefix PREFIX2 = IpPrefix.valueOf("2.2.2.0/24");
+    private static final Route ROUTE_A =
+            new Route(Route.Source.FPM, PREFIX1, IpAddress.valueOf("192.168.1.1"));
+    private static final Route ROUTE_B =
+            new Route(Route.Source.FPM, PREFIX1, IpAddress.valueOf("192.168.1.2"));
+    private static final Route ROUTE_C =
+            new Route(Route.Source.FPM, PREFIX2, IpAddress.valueOf("192.168.1.3"));
+
+    private final List<Batch> batches = new CopyOnWriteArrayList<>();
+    private FpmRouteBatcher batcher;
+
+    @After
+    public void tearDown() {
+        if (batcher != null) {
+            batcher.stop();
+        }
+    }
+
+    private FpmRouteBatcher batcher(int maxBatchSize, int batchWindowMillis) {
+        batcher = new FpmRouteBatcher(MoreExecutors.directExecutor(),
+                                      (updates, withdraws) -> batches.add(new Batch(updates, withdraws)),
+                                      maxBatchSize, batchWindowMillis);
+        return batcher;
+    }
+
+    /**
+     * Tests that a route swapped back to the stored route yields no change.
+     */
+    @Test
+    public void swapCoalescing() {
+        batcher(100, LONG_WINDOW_MS);
+        batcher.submit(PEER, PREFIX1, ROUTE_A, ROUTE_B);
+        batcher.submit(PEER, PREFIX1, ROUTE_B, ROUTE_A);
+        batcher.flush();
+        assertTrue("no change expected", batches.isEmpty());
+
+        batcher.submit(PEER, PREFIX1, ROUTE_A, ROUTE_B);
+        batcher.flush();
+        assertEquals("incorrect batches",
+                     ImmutableList.of(new Batch(ImmutableList.of(ROUTE_B), ImmutableList.of(ROUTE_A))),
+                     batches);
+    }
+
+    /**
+     * Tests that a route added then withdrawn within a batch yields no change.
+     */
+    @Test
+    public void addThenDelete() {
+        batcher(100, LONG_WINDOW_MS);
+        batcher.submit(PEER, PREFIX1, null, ROUTE_A);
+        batcher.submit(PEER, PREFIX1, ROUTE_A, null);
+        batcher.flush();
+        assertTrue("no change expected", batches.isEmpty());
+    }
+
+    /**
+     * Tests that a batch is applied as soon as it holds the maximum number
+     * of changes.
+     */
+    @Test
+    public void sizeTriggeredFlush() {
+        batcher(2, LONG_WINDOW_MS);
+        batcher.submit(PEER, PREFIX1, null, ROUTE_A);
+        assertTrue("batch applied too early", batches.isEmpty());
+        batcher.submit(PEER, PREFIX1, ROUTE_A, ROUTE_B);
+        assertTrue("coalesced change should not count", batches.isEmpty());
+        batcher.submit(PEER, PREFIX2, null, ROUTE_C);
+        assertEquals("incorrect batches",
+                     ImmutableList.of(new Batch(ImmutableList.of(ROUTE_B, ROUTE_C), ImmutableList.of())),
+                     batches);
+    }
+
+    /**
+     * Tests that a batch is applied once the batch window elapses.
+     */
+    @Test
+    public void windowTriggeredFlush() {
+        batcher(100, SHORT_WINDOW_MS);
+        batcher.submit(PEER, PREFIX1, null, ROUTE_A);
+        assertAfter(SHORT_WINDOW_MS * 50, () -> assertEquals(
+                "incorrect batches",
+                ImmutableList.of(new Batch(ImmutableList.of(ROUTE_A), ImmutableList.of())),
+                batches));
+    }
+
+    /**
+     * Tests that stopping the batcher applies the pending changes and that no
+     * batch is applied once its window elapses afterwards.
+     */
+    @Test
+    public void stop() {
+        batcher(100, SHORT_WINDOW_MS);
+        batcher.submit(PEER, PREFIX1, null, ROUTE_A);
+        batcher.stop();
+        assertEquals("incorrect batches",
+                     ImmutableList.of(new Batch(ImmutableList.of(ROUTE_A), ImmutableList.of())),
+                     batches);
+        delay(SHORT_WINDOW_MS * 5);
+        assertEquals("no batch expected after stop", 1, batches.size());
+    }
+
+    // Routes given to the sink at once.
+    private static final class Batch {
+        private final List<Route> updates;
+        private final List<Route> withdraws;
+
+        private Batch(List<Route> updates, List<Route> withdraws) {
+            this.updates = ImmutableList.copyOf(updates);
+            this.withdraws = ImmutableList.copyOf(withdraws);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Batch)) {
+                return false;
+            }
+            Batch that = (Batch) obj;
+            return updates.equals(that.updates) && withdraws.equals(that.withdraws);
+        }
+
+        @Override
+        public int hashCode() {
+            return updates.hashCode() * 31 + withdraws.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "updates=" + updates + ", withdraws=" + withdraws;
+        }
+    }
+}
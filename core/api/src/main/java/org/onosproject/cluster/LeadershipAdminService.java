@@ -15,6 +15,8 @@
  */
 package org.onosproject.cluster;
 
+import com.google.common.collect.ImmutableMap;
+
 import java.util.Map;
 
 /**
@@ -40,6 +42,35 @@ public interface LeadershipAdminService {
      */
     boolean promoteToTopOfCandidateList(String topic, NodeId nodeId);
 
+    /**
+     * Attempts to assign leadership for several topics at once.
+     * <p>
+     * Implementations may apply the transfers concurrently, so no ordering
+     * between the topics should be assumed.
+     * @param transfers mapping from leadership topic to the node to be made leader
+     * @return mapping from leadership topic to whether its transfer was successfully executed
+     */
+    default Map<String, Boolean> transferLeaderships(Map<String, NodeId> transfers) {
+        ImmutableMap.Builder<String, Boolean> results = ImmutableMap.builder();
+        transfers.forEach((topic, nodeId) -> results.put(topic, transferLeadership(topic, nodeId)));
+        return results.build();
+    }
+
+    /**
+     * Makes nodes the next leaders of several topics at once by promoting them
+     * to top of the candidate lists.
+     * <p>
+     * Implementations may apply the promotions concurrently, so no ordering
+     * between the topics should be assumed.
+     * @param promotions mapping from leadership topic to the node to be next leader
+     * @return mapping from leadership topic to whether the node is now its top candidate
+     */
+    default Map<String, Boolean> promoteToTopOfCandidateLists(Map<String, NodeId> promotions) {
+        ImmutableMap.Builder<String, Boolean> results = ImmutableMap.builder();
+        promotions.forEach((topic, nodeId) -> results.put(topic, promoteToTopOfCandidateList(topic, nodeId)));
+        return results.build();
+    }
+
     /**
      * Removes all active leadership registrations for a given node.
      * <p>
@@ -16,6 +16,8 @@
 package org.onosproject.cluster;
 
 import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
 import org.onosproject.store.Store;
 
 /**
@@ -65,6 +67,30 @@ public interface LeadershipStore extends Store<LeadershipEvent, LeadershipStoreD
      */
     boolean makeTopCandidate(String topic, NodeId nodeId);
 
+    /**
+     * Updates state so that the given nodes are leaders for several topics.
+     *
+     * @param transfers mapping from leadership topic to the desired leader
+     * @return mapping from leadership topic to whether its transfer succeeded
+     */
+    default Map<String, Boolean> moveLeaderships(Map<String, NodeId> transfers) {
+        ImmutableMap.Builder<String, Boolean> results = ImmutableMap.builder();
+        transfers.forEach((topic, nodeId) -> results.put(topic, moveLeadership(topic, nodeId)));
+        return results.build();
+    }
+
+    /**
+     * Attempts to make the given nodes the top candidates of several topics.
+     *
+     * @param promotions mapping from leadership topic to the node to promote
+     * @return mapping from leadership topic to whether the node is now its top candidate
+     */
+    default Map<String, Boolean> makeTopCandidates(Map<String, NodeId> promotions) {
+        ImmutableMap.Builder<String, Boolean> results = ImmutableMap.builder();
+        promotions.forEach((topic, nodeId) -> results.put(topic, makeTopCandidate(topic, nodeId)));
+        return results.build();
+    }
+
     /**
      * Returns the current leadership for topic.
      *
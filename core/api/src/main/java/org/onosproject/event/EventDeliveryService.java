@@ -35,4 +35,25 @@ public interface EventDeliveryService extends EventDispatcher, EventSinkRegistry
      */
     long getDispatchTimeLimit();
 
+    /**
+     * Sets the number of ordered lanes across which topology and programming
+     * events are dispatched. Events are assigned to lanes by their subject,
+     * so events for the same subject are still dispatched in order, but
+     * sinks may process events for different subjects concurrently.
+     *
+     * @param lanes number of dispatch lanes; 1 for strictly serial dispatch
+     */
+    default void setDispatchLanes(int lanes) {
+    }
+
+    /**
+     * Returns the number of ordered lanes across which topology and
+     * programming events are dispatched.
+     *
+     * @return number of dispatch lanes
+     */
+    default int getDispatchLanes() {
+        return 1;
+    }
+
 }
@@ -15,6 +15,8 @@
  */
 package org.onosproject.mastership;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -23,6 +25,8 @@ import org.onosproject.cluster.NodeId;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.MastershipRole;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * Service for administering the inventory of device masterships.
  */
@@ -52,6 +56,20 @@ public interface MastershipAdminService {
         Tools.futureGetOrElse(setRole(instance, deviceId, role), TIMEOUT_MILLIS, TimeUnit.MILLISECONDS, null);
     }
 
+    /**
+     * Applies a mastership assignment to several devices at once, making
+     * each of them mastered by the given controller instance.
+     *
+     * @param masters mapping from device identifier to controller instance identifier
+     * @return future that is completed when the assignment has been applied
+     */
+    default CompletableFuture<Void> setMasters(Map<DeviceId, NodeId> masters) {
+        List<CompletableFuture<Void>> futures = masters.entrySet().stream()
+                .map(entry -> setRole(entry.getValue(), entry.getKey(), MastershipRole.MASTER))
+                .collect(toList());
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
     /**
      * Balances the mastership to be shared as evenly as possibly by all
      * online instances.
@@ -15,8 +15,12 @@
  */
 package org.onosproject.mastership;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 import org.onosproject.cluster.NodeId;
 import org.onosproject.cluster.RoleInfo;
@@ -82,6 +86,25 @@ public interface MastershipStore extends Store<MastershipEvent, MastershipStoreD
      */
     CompletableFuture<MastershipEvent> setMaster(NodeId nodeId, DeviceId deviceId);
 
+    /**
+     * Sets the masters of several devices at once.
+     *
+     * @param masters mapping from device identifier to the node to be made master
+     * @return future completed with the resulting mastership events, if any;
+     * stores applying the assignment asynchronously may instead notify
+     * their delegate once the mastership changes take effect
+     */
+    default CompletableFuture<List<MastershipEvent>> setMasters(Map<DeviceId, NodeId> masters) {
+        List<CompletableFuture<MastershipEvent>> futures = masters.entrySet().stream()
+                .map(entry -> setMaster(entry.getValue(), entry.getKey()))
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> futures.stream()
+                        .map(CompletableFuture::join)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()));
+    }
+
     /**
      * Returns the current master and number of past mastership hand-offs
      * (terms) for a device.
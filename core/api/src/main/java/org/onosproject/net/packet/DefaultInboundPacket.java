@@ -15,12 +15,17 @@
  */
 package org.onosproject.net.packet;
 
-import org.onosproject.net.ConnectPoint;
+import com.google.common.base.Suppliers;
+import org.onlab.packet.DeserializationException;
 import org.onlab.packet.Ethernet;
+import org.onosproject.net.ConnectPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 
@@ -30,7 +35,7 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 public final class DefaultInboundPacket implements InboundPacket {
 
     private final ConnectPoint receivedFrom;
-    private final Ethernet parsed;
+    private final Supplier<Ethernet> parsed;
     private final ByteBuffer unparsed;
     private final Optional<Long> cookie;
 
@@ -57,11 +62,45 @@ public final class DefaultInboundPacket implements InboundPacket {
     public DefaultInboundPacket(ConnectPoint receivedFrom, Ethernet parsed,
             ByteBuffer unparsed, Optional<Long> cookie) {
         this.receivedFrom = receivedFrom;
-        this.parsed = parsed;
+        this.parsed = () -> parsed;
+        this.unparsed = unparsed;
+        this.cookie = cookie;
+    }
+
+    /**
+     * Creates an immutable inbound packet with cookie, whose ethernet frame
+     * is only parsed from the raw bytes the first time it is requested.
+     *
+     * @param receivedFrom connection point where received
+     * @param unparsed     unparsed raw bytes
+     * @param cookie       cookie
+     */
+    public DefaultInboundPacket(ConnectPoint receivedFrom, ByteBuffer unparsed,
+                                Optional<Long> cookie) {
+        this.receivedFrom = receivedFrom;
+        this.parsed = Suppliers.memoize(() -> parse(unparsed));
         this.unparsed = unparsed;
         this.cookie = cookie;
     }
 
+    // Parses the ethernet frame, returning null if the frame is malformed.
+    private static Ethernet parse(ByteBuffer unparsed) {
+        try {
+            if (unparsed.hasArray()) {
+                return Ethernet.deserializer().deserialize(
+                        unparsed.array(), unparsed.arrayOffset() + unparsed.position(),
+                        unparsed.remaining());
+            }
+            byte[] data = new byte[unparsed.remaining()];
+            unparsed.duplicate().get(data);
+            return Ethernet.deserializer().deserialize(data, 0, data.length);
+        } catch (DeserializationException | RuntimeException e) {
+            Logger log = LoggerFactory.getLogger(DefaultInboundPacket.class);
+            log.error("Packet deserialization problem", e);
+            return null;
+        }
+    }
+
     @Override
     public ConnectPoint receivedFrom() {
         return receivedFrom;
@@ -69,7 +108,7 @@ public final class DefaultInboundPacket implements InboundPacket {
 
     @Override
     public Ethernet parsed() {
-        return parsed;
+        return parsed.get();
     }
 
     @Override
@@ -85,7 +124,7 @@ public final class DefaultInboundPacket implements InboundPacket {
 
     @Override
     public int hashCode() {
-        return Objects.hash(receivedFrom, parsed, unparsed);
+        return Objects.hash(receivedFrom, parsed(), unparsed);
     }
 
     @Override
@@ -96,7 +135,7 @@ public final class DefaultInboundPacket implements InboundPacket {
         if (obj instanceof InboundPacket) {
             final DefaultInboundPacket other = (DefaultInboundPacket) obj;
             return Objects.equals(this.receivedFrom, other.receivedFrom) &&
-                    Objects.equals(this.parsed, other.parsed) &&
+                    Objects.equals(this.parsed(), other.parsed()) &&
                     Objects.equals(this.unparsed, other.unparsed);
         }
         return false;
@@ -106,7 +145,7 @@ public final class DefaultInboundPacket implements InboundPacket {
     public String toString() {
         return toStringHelper(this)
                 .add("receivedFrom", receivedFrom)
-                .add("parsed", parsed)
+                .add("parsed", parsed())
                 .toString();
     }
 }
@@ -15,6 +15,8 @@
  */
 package org.onosproject.net.packet;
 
+import org.onlab.packet.DeserializationException;
+import org.onlab.packet.EthernetView;
 import org.onosproject.net.ConnectPoint;
 import org.onlab.packet.Ethernet;
 
@@ -48,6 +50,26 @@ public interface InboundPacket {
      */
     ByteBuffer unparsed();
 
+    /**
+     * Returns a read-only view of the unparsed packet data, decoding the
+     * Ethernet header fields on demand. Processors inspecting only a few
+     * header fields should favour it over {@link #parsed()}.
+     *
+     * @return Ethernet view; null if the packet data is not available or is
+     * too short to hold an Ethernet header
+     */
+    default EthernetView view() {
+        ByteBuffer unparsed = unparsed();
+        if (unparsed == null) {
+            return null;
+        }
+        try {
+            return EthernetView.view(unparsed);
+        } catch (DeserializationException e) {
+            return null;
+        }
+    }
+
     /**
      * Returns the cookie in the packet in message.
      *
@@ -15,6 +15,11 @@
  */
 package org.onosproject.net.packet;
 
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.net.flow.TrafficSelector;
+
+import java.util.Set;
+
 /**
  * Packet processor entry tracking the processor, its priority and
  * time consumption.
@@ -35,6 +40,16 @@ public interface PacketProcessorEntry {
      */
     int priority();
 
+    /**
+     * Returns the selectors describing the packets the processor is
+     * interested in; an empty set means all packets.
+     *
+     * @return packet processor interests
+     */
+    default Set<TrafficSelector> interests() {
+        return ImmutableSet.of();
+    }
+
     /**
      * Returns the number of invocations.
      *
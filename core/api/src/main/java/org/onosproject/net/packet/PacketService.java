@@ -22,6 +22,7 @@ import org.onosproject.net.flow.TrafficSelector;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service for intercepting data plane packets and for emitting synthetic
@@ -43,7 +44,27 @@ public interface PacketService {
      */
     void addProcessor(PacketProcessor processor, int priority);
 
-    // TODO allow processors to register for particular types of packets
+    /**
+     * Adds the specified processor to the list of packet processors, which
+     * will only be given the packets matching at least one of the specified
+     * interests. Interests can match on the EtherType, the IP protocol and
+     * the TCP and UDP ports of a packet; an empty set of interests means that
+     * the processor is given all packets.
+     * <p>
+     * Specifying interests allows the packet service to skip processors that
+     * would otherwise just ignore the packet, but processors must not rely on
+     * it and are still expected to validate the packets they are given.
+     * </p>
+     * @param processor processor to be added
+     * @param priority  priority in the reverse natural order
+     * @param interests selectors describing the packets of interest
+     * @throws java.lang.IllegalArgumentException if an interest matches on
+     *                                            unsupported criteria
+     */
+    default void addProcessor(PacketProcessor processor, int priority,
+                              Set<TrafficSelector> interests) {
+        addProcessor(processor, priority);
+    }
 
     /**
      * Removes the specified processor from the processing pipeline.
@@ -180,6 +180,21 @@ public interface EventuallyConsistentMapBuilder<K, V> {
      */
     EventuallyConsistentMapBuilder<K, V> withFasterConvergence();
 
+    /**
+     * Configure anti-entropy to exchange a hash tree of the map entries rather
+     * than the digests of all entries. Peers then only compare the digests of
+     * the entries hashed to the parts of the tree which differ, so that an
+     * anti-entropy cycle costs a single message while the peers are in sync.
+     * Suited to large maps where divergence is rare.
+     * <p>
+     * All instances of the map must use the same anti-entropy mode. The
+     * default behavior is to exchange the digests of all entries.
+     * </p>
+     *
+     * @return this EventuallyConsistentMapBuilder
+     */
+    EventuallyConsistentMapBuilder<K, V> withHashTreeAntiEntropy();
+
     /**
      * Configure the map to persist data to disk.
      * <p>
@@ -20,6 +20,7 @@ import java.util.Optional;
 
 import org.junit.Test;
 import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
 import org.onlab.packet.MacAddress;
 
 import com.google.common.testing.EqualsTester;
@@ -27,6 +28,8 @@ import com.google.common.testing.EqualsTester;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.onlab.junit.ImmutableClassChecker.assertThatClassIsImmutable;
 import static org.onosproject.net.NetTestTools.connectPoint;
 
@@ -87,4 +90,37 @@ public class DefaultInboundPacketTest {
         assertThat(packet1.unparsed(), notNullValue());
         assertThat(packet1.cookie(), equalTo(Optional.of(1L)));
     }
+
+    /**
+     * Tests the creation of a packet which is parsed on demand.
+     */
+    @Test
+    public void testLazyConstruction() {
+        DefaultInboundPacket packet =
+                new DefaultInboundPacket(connectPoint("d1", 1), byteBuffer, Optional.of(1L));
+        assertThat(packet.receivedFrom(), equalTo(connectPoint("d1", 1)));
+        assertThat(packet.unparsed(), sameInstance(byteBuffer));
+        assertThat(packet.cookie(), equalTo(Optional.of(1L)));
+
+        Ethernet parsed = packet.parsed();
+        assertThat(parsed.getDestinationMAC(), equalTo(MacAddress.BROADCAST));
+        assertThat(parsed.getSourceMAC(), equalTo(MacAddress.BROADCAST));
+        assertThat(packet.parsed(), sameInstance(parsed));
+
+        DefaultInboundPacket malformed =
+                new DefaultInboundPacket(connectPoint("d1", 1), ByteBuffer.allocate(4), Optional.empty());
+        assertThat(malformed.parsed(), nullValue());
+        assertThat(malformed.view(), nullValue());
+    }
+
+    /**
+     * Tests the view of the unparsed packet data.
+     */
+    @Test
+    public void testView() {
+        EthernetView view = packet1.view();
+        assertThat(view.destinationMac(), equalTo(MacAddress.BROADCAST));
+        assertThat(view.etherType(), equalTo(eth.getEtherType()));
+        assertThat(byteBuffer.position(), equalTo(0));
+    }
 }
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
  * Implementation to test ConsistentMultimap. Very limited.
@@ -99,7 +100,9 @@ public class TestConsistentMultimap<K, V> implements ConsistentMultimap<K, V> {
 
     @Override
     public Versioned<Collection<? extends V>> removeAll(K key) {
-        return null;
+        return new Versioned<>(innermap.removeAll(key).stream()
+                .map(Versioned::value)
+                .collect(Collectors.toList()), counter.incrementAndGet());
     }
 
     @Override
@@ -15,15 +15,19 @@
  */
 package org.onosproject.common;
 
+import com.codahale.metrics.Counter;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ImmutableSetMultimap.Builder;
+import com.google.common.collect.Sets;
+import org.onlab.graph.CompactDijkstraGraphSearch;
 import org.onlab.graph.DefaultEdgeWeigher;
-import org.onlab.graph.DijkstraGraphSearch;
 import org.onlab.graph.DisjointPathPair;
 import org.onlab.graph.GraphPathSearch;
 import org.onlab.graph.GraphPathSearch.Result;
@@ -33,7 +37,6 @@ import org.onlab.graph.ScalarWeight;
 import org.onlab.graph.SrlgGraphSearch;
 import org.onlab.graph.SuurballeGraphSearch;
 import org.onlab.graph.TarjanGraphSearch;
-import org.onlab.graph.TarjanGraphSearch.SccResult;
 import org.onlab.graph.Weight;
 import org.onosproject.net.AbstractModel;
 import org.onosproject.net.ConnectPoint;
@@ -59,9 +62,14 @@ import org.onosproject.net.topology.TopologyVertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -82,8 +90,8 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultTopology.class);
 
-    private static final DijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA =
-            new DijkstraGraphSearch<>();
+    private static final CompactDijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA =
+            new CompactDijkstraGraphSearch<>();
     private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN =
             new TarjanGraphSearch<>();
     private static final SuurballeGraphSearch<TopologyVertex, TopologyEdge> SUURBALLE =
@@ -92,11 +100,21 @@ public class DefaultTopology extends AbstractModel implements Topology {
             new KShortestPathsSearch<>();
     private static final LazyKShortestPathsSearch<TopologyVertex, TopologyEdge> LAZY_KSHORTEST =
             new LazyKShortestPathsSearch<>();
+    private static final LinkWeigher NO_INDIRECT_LINKS_WEIGHER = new NoIndirectLinksWeigher();
 
+    /**
+     * Default bound on the number of links held by the path cache of
+     * each topology; path caching is disabled unless explicitly enabled.
+     */
+    public static final int DEFAULT_PATH_CACHE_SIZE = 0;
 
     private static int defaultMaxPaths = ALL_PATHS;
     private static LinkWeigher defaultLinkWeigher = null;
     private static GraphPathSearch<TopologyVertex, TopologyEdge> defaultGraphPathSearch = null;
+    private static int pathCacheSize = DEFAULT_PATH_CACHE_SIZE;
+
+    private static volatile Counter pathCacheHits = null;
+    private static volatile Counter pathCacheMisses = null;
 
     private final long time;
     private final long creationTime;
@@ -105,12 +123,13 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private final LinkWeigher hopCountWeigher;
 
-    private final Supplier<SccResult<TopologyVertex, TopologyEdge>> clusterResults;
+    private final Supplier<ClusterResults> clusterResults;
     private final Supplier<ImmutableMap<ClusterId, TopologyCluster>> clusters;
     private final Supplier<ImmutableSet<ConnectPoint>> infrastructurePoints;
     private final Supplier<ImmutableSetMultimap<ClusterId, ConnectPoint>> broadcastSets;
     private final Function<ConnectPoint, Boolean> broadcastFunction;
     private final Supplier<ClusterIndexes> clusterIndexes;
+    private final Supplier<Cache<PathKey, Set<Path>>> pathCache;
 
     /**
      * Sets the default maximum path count to be used when computing paths. If
@@ -148,6 +167,37 @@ public class DefaultTopology extends AbstractModel implements Topology {
         defaultGraphPathSearch = graphPathSearch;
     }
 
+    /**
+     * Sets the bound on the total number of links held by the path cache of
+     * each topology created from now on. Path sets computed between topology
+     * changes are kept per topology, keyed by the end-points, the maximum
+     * path count and the identity of the link weigher and search algorithm.
+     * Caching should therefore only be enabled when the default and any
+     * caller-supplied weighers are stateless and long-lived; weighers that
+     * read mutable state, such as device annotations, yield stale paths and
+     * weighers created per call merely fill the cache. Zero or a negative
+     * value, the default, disables caching.
+     *
+     * @param maxLinks maximum number of links across all cached paths
+     */
+    public static synchronized void setPathCacheSize(int maxLinks) {
+        log.info("Setting new path cache size to {}", maxLinks);
+        pathCacheSize = maxLinks;
+    }
+
+    /**
+     * Sets the metrics counters for path queries answered from the path
+     * caches of all topologies and for those that required a graph search
+     * while path caching was enabled. Null counters are not updated.
+     *
+     * @param hits   path cache hit counter
+     * @param misses path cache miss counter
+     */
+    public static void setPathCacheMetrics(Counter hits, Counter misses) {
+        pathCacheHits = hits;
+        pathCacheMisses = misses;
+    }
+
 
     /**
      * Creates a topology descriptor attributed to the specified provider.
@@ -158,6 +208,24 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public DefaultTopology(ProviderId providerId, GraphDescription description,
                            Function<ConnectPoint, Boolean> broadcastFunction) {
+        this(providerId, description, broadcastFunction, null);
+    }
+
+    /**
+     * Creates a topology descriptor attributed to the specified provider,
+     * deriving its clusters from those of the previous topology. Only the
+     * clusters affected by the link and device changes between the two are
+     * searched for again, and the broadcast sets of the clusters whose
+     * broadcast trees are unaffected are carried over.
+     *
+     * @param providerId        identity of the provider
+     * @param description       data describing the new topology
+     * @param broadcastFunction broadcast point function
+     * @param previous          previous topology; null to compute from scratch
+     */
+    public DefaultTopology(ProviderId providerId, GraphDescription description,
+                           Function<ConnectPoint, Boolean> broadcastFunction,
+                           DefaultTopology previous) {
         super(providerId);
         this.broadcastFunction = broadcastFunction;
         this.time = description.timestamp();
@@ -167,7 +235,9 @@ public class DefaultTopology extends AbstractModel implements Topology {
         this.graph = new DefaultTopologyGraph(description.vertexes(),
                                               description.edges());
 
-        this.clusterResults = Suppliers.memoize(this::searchForClusters);
+        this.clusterResults = previous == null ?
+                Suppliers.memoize(this::searchForClusters) :
+                Suppliers.memoize(() -> updateClusters(previous));
         this.clusters = Suppliers.memoize(this::buildTopologyClusters);
 
         this.clusterIndexes = Suppliers.memoize(this::buildIndexes);
@@ -175,6 +245,8 @@ public class DefaultTopology extends AbstractModel implements Topology {
         this.hopCountWeigher = new HopCountLinkWeigher(graph.getVertexes().size());
         this.broadcastSets = Suppliers.memoize(this::buildBroadcastSets);
         this.infrastructurePoints = Suppliers.memoize(this::findInfrastructurePoints);
+        int maxCachedLinks = pathCacheSize;
+        this.pathCache = Suppliers.memoize(() -> buildPathCache(maxCachedLinks));
         this.computeCost = Math.max(0, System.nanoTime() - time);
     }
 
@@ -375,7 +447,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
      * destination devices, the set of returned paths will be no more than,
      * maxPaths in size.  The first {@code maxPaths} paths will be returned
      * maintaining any ordering guarantees provided by the underlying
-     * (default or if no default is specified {@link DijkstraGraphSearch})
+     * (default or if no default is specified {@link CompactDijkstraGraphSearch})
      * search. If returning all paths of a given length would exceed
      * {@code maxPaths} a subset of paths of that length will be returned,
      * which paths will be returned depends on the currently specified
@@ -397,13 +469,16 @@ public class DefaultTopology extends AbstractModel implements Topology {
             return ImmutableSet.of();
         }
 
-        GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
-                graphPathSearch().search(graph, srcV, dstV, weigher, maxPaths);
-        ImmutableSet.Builder<Path> builder = ImmutableSet.builder();
-        for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
-            builder.add(networkPath(path));
-        }
-        return builder.build();
+        GraphPathSearch<TopologyVertex, TopologyEdge> search = graphPathSearch();
+        return cachedPaths(new PathKey(search, srcV, dstV, weigher, maxPaths), () -> {
+            GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
+                    search.search(graph, srcV, dstV, weigher, maxPaths);
+            ImmutableSet.Builder<Path> builder = ImmutableSet.builder();
+            for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
+                builder.add(networkPath(path));
+            }
+            return builder.build();
+        });
     }
 
     /**
@@ -445,10 +520,47 @@ public class DefaultTopology extends AbstractModel implements Topology {
             return ImmutableSet.of();
         }
 
-        return KSHORTEST.search(graph, srcV, dstV, weigher, maxPaths)
-                .paths().stream()
-                .map(this::networkPath)
-                .collect(ImmutableSet.toImmutableSet());
+        return cachedPaths(new PathKey(KSHORTEST, srcV, dstV, weigher, maxPaths),
+                           () -> KSHORTEST.search(graph, srcV, dstV, weigher, maxPaths)
+                                   .paths().stream()
+                                   .map(this::networkPath)
+                                   .collect(ImmutableSet.toImmutableSet()));
+    }
+
+    // Returns the paths cached under the given key, running the search and
+    // caching its result on a miss.
+    private Set<Path> cachedPaths(PathKey key, Supplier<Set<Path>> search) {
+        Cache<PathKey, Set<Path>> cache = pathCache.get();
+        if (cache == null) {
+            return search.get();
+        }
+        Set<Path> paths = cache.getIfPresent(key);
+        if (paths != null) {
+            increment(pathCacheHits);
+            return paths;
+        }
+        increment(pathCacheMisses);
+        paths = search.get();
+        cache.put(key, paths);
+        return paths;
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.inc();
+        }
+    }
+
+    // Builds the path cache, bounded by the total number of links held.
+    private static Cache<PathKey, Set<Path>> buildPathCache(int maxLinks) {
+        if (maxLinks <= 0) {
+            return null;
+        }
+        return CacheBuilder.newBuilder()
+                .maximumWeight(maxLinks)
+                .weigher((PathKey key, Set<Path> paths) ->
+                                 1 + paths.stream().mapToInt(p -> p.links().size()).sum())
+                .build();
     }
 
     /**
@@ -640,31 +752,154 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     // Searches for SCC clusters in the network topology graph using Tarjan
     // algorithm.
-    private SccResult<TopologyVertex, TopologyEdge> searchForClusters() {
-        return TARJAN.search(graph, new NoIndirectLinksWeigher());
+    private ClusterResults searchForClusters() {
+        List<Set<TopologyVertex>> vertexes =
+                TARJAN.search(graph, NO_INDIRECT_LINKS_WEIGHER).clusterVertexes();
+        return new ClusterResults(graph, vertexes, new ArrayList<>(), new HashMap<>());
+    }
+
+    // Derives the SCC clusters from those of the previous topology, searching
+    // only the clusters which may have been split by removed links or devices.
+    // Added links joining distinct clusters may merge any number of them, in
+    // which case the whole graph is searched instead.
+    private ClusterResults updateClusters(DefaultTopology previous) {
+        Set<TopologyEdge> oldEdges = previous.viableEdges();
+        Set<TopologyEdge> newEdges = viableEdges();
+        Set<TopologyVertex> newVertexes = graph.getVertexes();
+        Map<DeviceId, TopologyCluster> oldClusters = previous.clustersByDevice();
+        ImmutableSetMultimap<ClusterId, ConnectPoint> oldBroadcastSets = previous.broadcastSets.get();
+
+        // Clusters whose members may have changed and those whose broadcast
+        // trees may have changed
+        Set<TopologyCluster> split = new HashSet<>();
+        Set<TopologyCluster> changed = new HashSet<>();
+
+        for (TopologyEdge edge : Sets.difference(newEdges, oldEdges)) {
+            TopologyCluster cluster = oldClusters.get(edge.src().deviceId());
+            if (cluster == null || cluster != oldClusters.get(edge.dst().deviceId())) {
+                return searchForClusters();
+            }
+            changed.add(cluster);
+        }
+
+        for (TopologyEdge edge : Sets.difference(oldEdges, newEdges)) {
+            TopologyCluster cluster = oldClusters.get(edge.src().deviceId());
+            if (cluster != oldClusters.get(edge.dst().deviceId()) || split.contains(cluster)) {
+                continue;
+            }
+            Set<ConnectPoint> points = oldBroadcastSets.get(cluster.id());
+            if (points.contains(edge.link().src()) && points.contains(edge.link().dst())) {
+                changed.add(cluster);
+            }
+            // The cluster holds together as long as the removed link can be
+            // bypassed within it.
+            if (!isReachable(edge.src(), edge.dst(), previous.devicesByCluster().get(cluster))) {
+                split.add(cluster);
+            }
+        }
+
+        for (TopologyVertex vertex : Sets.difference(previous.graph.getVertexes(), newVertexes)) {
+            split.add(oldClusters.get(vertex.deviceId()));
+        }
+
+        List<Set<TopologyVertex>> vertexes = new ArrayList<>();
+        List<TopologyVertex> roots = new ArrayList<>();
+        Map<Integer, Set<ConnectPoint>> broadcastSets = new HashMap<>();
+        ClusterResults oldResults = previous.clusterResults.get();
+        for (TopologyCluster cluster : previous.clusters.get().values()) {
+            Set<TopologyVertex> clusterVertexes = oldResults.vertexes.get(cluster.id().index());
+            if (split.contains(cluster)) {
+                Set<TopologyVertex> remaining = Sets.intersection(clusterVertexes, newVertexes);
+                if (!remaining.isEmpty()) {
+                    for (Set<TopologyVertex> part : TARJAN.search(subgraph(remaining), NO_INDIRECT_LINKS_WEIGHER)
+                            .clusterVertexes()) {
+                        vertexes.add(part);
+                        roots.add(null);
+                    }
+                }
+                continue;
+            }
+            if (!changed.contains(cluster)) {
+                broadcastSets.put(vertexes.size(), oldBroadcastSets.get(cluster.id()));
+            }
+            vertexes.add(clusterVertexes);
+            roots.add(cluster.root());
+        }
+
+        for (TopologyVertex vertex : Sets.difference(newVertexes, previous.graph.getVertexes())) {
+            vertexes.add(ImmutableSet.of(vertex));
+            roots.add(vertex);
+        }
+        return new ClusterResults(graph, vertexes, roots, broadcastSets);
+    }
+
+    // Returns the edges which may be traversed within a cluster.
+    private Set<TopologyEdge> viableEdges() {
+        return graph.getEdges().stream()
+                .filter(edge -> NO_INDIRECT_LINKS_WEIGHER.weight(edge).isViable())
+                .collect(Collectors.toSet());
+    }
+
+    // Indicates whether the destination can be reached from the source over
+    // viable edges, without leaving the given set of devices.
+    private boolean isReachable(TopologyVertex src, TopologyVertex dst, Set<DeviceId> devices) {
+        Set<TopologyVertex> seen = new HashSet<>();
+        Deque<TopologyVertex> queue = new ArrayDeque<>();
+        seen.add(src);
+        queue.add(src);
+        while (!queue.isEmpty()) {
+            for (TopologyEdge edge : graph.getEdgesFrom(queue.remove())) {
+                if (!NO_INDIRECT_LINKS_WEIGHER.weight(edge).isViable()) {
+                    continue;
+                }
+                TopologyVertex next = edge.dst();
+                if (next.equals(dst)) {
+                    return true;
+                }
+                if (devices.contains(next.deviceId()) && seen.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return false;
+    }
+
+    // Returns the subgraph induced by the given vertexes.
+    private TopologyGraph subgraph(Set<TopologyVertex> vertexes) {
+        Set<TopologyEdge> edges = new HashSet<>();
+        for (TopologyVertex vertex : vertexes) {
+            graph.getEdgesFrom(vertex).stream()
+                    .filter(edge -> vertexes.contains(edge.dst()))
+                    .forEach(edges::add);
+        }
+        return new DefaultTopologyGraph(vertexes, edges);
     }
 
     // Builds the topology clusters and returns the id-cluster bindings.
     private ImmutableMap<ClusterId, TopologyCluster> buildTopologyClusters() {
         ImmutableMap.Builder<ClusterId, TopologyCluster> clusterBuilder =
                 ImmutableMap.builder();
-        SccResult<TopologyVertex, TopologyEdge> results = clusterResults.get();
+        ClusterResults results = clusterResults.get();
 
         // Extract both vertexes and edges from the results; the lists form
         // pairs along the same index.
-        List<Set<TopologyVertex>> clusterVertexes = results.clusterVertexes();
-        List<Set<TopologyEdge>> clusterEdges = results.clusterEdges();
+        List<Set<TopologyVertex>> clusterVertexes = results.vertexes;
+        List<Set<TopologyEdge>> clusterEdges = results.edges;
 
         // Scan over the lists and create a cluster from the results.
-        for (int i = 0, n = results.clusterCount(); i < n; i++) {
+        for (int i = 0, n = clusterVertexes.size(); i < n; i++) {
             Set<TopologyVertex> vertexSet = clusterVertexes.get(i);
             Set<TopologyEdge> edgeSet = clusterEdges.get(i);
+            TopologyVertex root = i < results.roots.size() ? results.roots.get(i) : null;
+            if (root == null) {
+                root = findRoot(vertexSet);
+            }
 
             ClusterId cid = ClusterId.clusterId(i);
             DefaultTopologyCluster cluster = new DefaultTopologyCluster(cid,
                                                                         vertexSet.size(),
                                                                         edgeSet.size(),
-                                                                        findRoot(vertexSet));
+                                                                        root);
             clusterBuilder.put(cid, cluster);
         }
         return clusterBuilder.build();
@@ -686,8 +921,14 @@ public class DefaultTopology extends AbstractModel implements Topology {
     // Processes a map of broadcast sets for each cluster.
     private ImmutableSetMultimap<ClusterId, ConnectPoint> buildBroadcastSets() {
         Builder<ClusterId, ConnectPoint> builder = ImmutableSetMultimap.builder();
+        Map<Integer, Set<ConnectPoint>> reused = clusterResults.get().broadcastSets;
         for (TopologyCluster cluster : clusters.get().values()) {
-            addClusterBroadcastSet(cluster, builder);
+            Set<ConnectPoint> points = reused.get(cluster.id().index());
+            if (points != null) {
+                builder.putAll(cluster.id(), points);
+            } else {
+                addClusterBroadcastSet(cluster, builder);
+            }
         }
         return builder.build();
     }
@@ -754,13 +995,13 @@ public class DefaultTopology extends AbstractModel implements Topology {
             int i = cluster.id().index();
 
             // Scan through all the cluster vertexes.
-            for (TopologyVertex vertex : clusterResults.get().clusterVertexes().get(i)) {
+            for (TopologyVertex vertex : clusterResults.get().vertexes.get(i)) {
                 devicesBuilder.put(cluster, vertex.deviceId());
                 clusterBuilder.put(vertex.deviceId(), cluster);
             }
 
             // Scan through all the cluster edges.
-            for (TopologyEdge edge : clusterResults.get().clusterEdges().get(i)) {
+            for (TopologyEdge edge : clusterResults.get().edges.get(i)) {
                 linksBuilder.put(cluster, edge.link());
             }
         }
@@ -791,6 +1032,78 @@ public class DefaultTopology extends AbstractModel implements Topology {
         }
     }
 
+    // Vertexes and edges of the SCC clusters; the lists form pairs along the
+    // same index. Roots and broadcast sets are only known in advance for the
+    // clusters carried over from a previous topology.
+    private static final class ClusterResults {
+        final List<Set<TopologyVertex>> vertexes;
+        final List<Set<TopologyEdge>> edges;
+        final List<TopologyVertex> roots;
+        final Map<Integer, Set<ConnectPoint>> broadcastSets;
+
+        ClusterResults(TopologyGraph graph, List<Set<TopologyVertex>> vertexes,
+                       List<TopologyVertex> roots, Map<Integer, Set<ConnectPoint>> broadcastSets) {
+            this.vertexes = vertexes;
+            this.roots = roots;
+            this.broadcastSets = broadcastSets;
+
+            Map<TopologyVertex, Integer> index = new HashMap<>();
+            List<Set<TopologyEdge>> clusterEdges = new ArrayList<>(vertexes.size());
+            for (int i = 0; i < vertexes.size(); i++) {
+                for (TopologyVertex vertex : vertexes.get(i)) {
+                    index.put(vertex, i);
+                }
+                clusterEdges.add(new HashSet<>());
+            }
+            for (TopologyEdge edge : graph.getEdges()) {
+                Integer i = index.get(edge.src());
+                if (i != null && i.equals(index.get(edge.dst()))) {
+                    clusterEdges.get(i).add(edge);
+                }
+            }
+            this.edges = clusterEdges;
+        }
+    }
+
+    // Key of the path cache; the search algorithm and the link weigher are
+    // compared by identity as they are not expected to implement equality.
+    private static final class PathKey {
+        final GraphPathSearch<TopologyVertex, TopologyEdge> search;
+        final TopologyVertex src;
+        final TopologyVertex dst;
+        final LinkWeigher weigher;
+        final int maxPaths;
+
+        PathKey(GraphPathSearch<TopologyVertex, TopologyEdge> search,
+                TopologyVertex src, TopologyVertex dst, LinkWeigher weigher, int maxPaths) {
+            this.search = search;
+            this.src = src;
+            this.dst = dst;
+            this.weigher = weigher;
+            this.maxPaths = maxPaths;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(search), src, dst,
+                                System.identityHashCode(weigher), maxPaths);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof PathKey) {
+                PathKey that = (PathKey) obj;
+                return search == that.search && weigher == that.weigher &&
+                        maxPaths == that.maxPaths &&
+                        src.equals(that.src) && dst.equals(that.dst);
+            }
+            return false;
+        }
+    }
+
     static final class ClusterIndexes {
         final ImmutableMap<DeviceId, TopologyCluster> clustersByDevice;
         final ImmutableSetMultimap<TopologyCluster, DeviceId> devicesByCluster;
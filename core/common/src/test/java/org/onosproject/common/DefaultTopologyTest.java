@@ -15,6 +15,7 @@
  */
 package org.onosproject.common;
 
+import com.codahale.metrics.Counter;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.graph.DefaultEdgeWeigher;
@@ -40,6 +41,8 @@ import org.onosproject.net.topology.TopologyEdge;
 import org.onosproject.net.topology.TopologyVertex;
 
 import java.util.Set;
+import java.util.stream.Collectors;
+
 import static com.google.common.collect.ImmutableSet.of;
 import static org.junit.Assert.*;
 import static org.onosproject.net.DeviceId.deviceId;
@@ -79,6 +82,7 @@ public class DefaultTopologyTest {
 
 
     private DefaultTopology dt;
+    private GraphDescription graphDescription;
 
     public static final ClusterId C0 = ClusterId.clusterId(0);
     public static final ClusterId C1 = ClusterId.clusterId(1);
@@ -93,7 +97,7 @@ public class DefaultTopologyTest {
                              link("3", 2, "2", 2), link("2", 2, "3", 2),
                              link("1", 3, "4", 3), link("4", 3, "1", 3),
                              link("3", 4, "4", 4), link("4", 4, "3", 4));
-        GraphDescription graphDescription =
+        graphDescription =
                 new DefaultGraphDescription(now, System.currentTimeMillis(), devices, links);
 
         dt = new DefaultTopology(PID, graphDescription);
@@ -128,6 +132,47 @@ public class DefaultTopologyTest {
 
     }
 
+    @Test
+    public void uncachedPaths() {
+        Set<Path> paths = dt.getPaths(D1, D3, WEIGHER);
+        assertEquals("incorrect path count", 1, paths.size());
+        assertNotSame("paths should not be cached", paths, dt.getPaths(D1, D3, WEIGHER));
+    }
+
+    @Test
+    public void cachedPaths() {
+        Counter hits = new Counter();
+        Counter misses = new Counter();
+        DefaultTopology.setPathCacheSize(1000);
+        DefaultTopology.setPathCacheMetrics(hits, misses);
+        try {
+            dt = new DefaultTopology(PID, graphDescription);
+        } finally {
+            DefaultTopology.setPathCacheSize(DefaultTopology.DEFAULT_PATH_CACHE_SIZE);
+        }
+
+        try {
+            Set<Path> paths = dt.getPaths(D1, D3, WEIGHER);
+            assertEquals("incorrect miss count", 1, misses.getCount());
+            assertSame("paths should be cached", paths, dt.getPaths(D1, D3, WEIGHER));
+            assertEquals("incorrect hit count", 1, hits.getCount());
+
+            Set<Path> hopPaths = dt.getPaths(D1, D3);
+            assertEquals("incorrect path count", 2, hopPaths.size());
+            assertEquals("other weigher should miss", 2, misses.getCount());
+            assertEquals("incorrect path count", 1, dt.getPaths(D1, D3, new TestLinkWeigher()).size());
+            assertEquals("new weigher should miss", 3, misses.getCount());
+
+            Set<Path> kPaths = dt.getKShortestPaths(D1, D2, 42);
+            assertSame("paths should be cached", kPaths, dt.getKShortestPaths(D1, D2, 42));
+            assertEquals("incorrect path count", 1, dt.getKShortestPaths(D1, D2, 1).size());
+            assertEquals("incorrect hit count", 2, hits.getCount());
+            assertEquals("incorrect miss count", 5, misses.getCount());
+        } finally {
+            DefaultTopology.setPathCacheMetrics(null, null);
+        }
+    }
+
     @Test
     public void pointRelated() {
         assertTrue("should be infrastructure point",
@@ -148,6 +193,74 @@ public class DefaultTopologyTest {
         assertFalse("cluster should not contain D5", devs.contains(D5));
     }
 
+    @Test
+    public void incrementalClusters() {
+        Set<Device> devices = of(device("1"), device("2"), device("3"),
+                                 device("4"), device("5"));
+
+        // Links bypassed within the cluster leave it intact
+        DefaultTopology topology = assertIncremental(dt, devices,
+                of(link("3", 2, "2", 2), link("2", 2, "3", 2),
+                   link("1", 3, "4", 3), link("4", 3, "1", 3),
+                   link("3", 4, "4", 4), link("4", 4, "3", 4)));
+        assertEquals("incorrect cluster count", 2, topology.clusterCount());
+
+        // Removing the last links of a device splits its cluster
+        topology = assertIncremental(topology, devices,
+                of(link("1", 3, "4", 3), link("4", 3, "1", 3),
+                   link("3", 4, "4", 4), link("4", 4, "3", 4)));
+        assertEquals("incorrect cluster count", 3, topology.clusterCount());
+
+        // Inactive links are not traversed
+        Link inactive = DefaultLink.builder().providerId(PID)
+                .src(new ConnectPoint(did("4"), portNumber(4)))
+                .dst(new ConnectPoint(did("3"), portNumber(4)))
+                .type(Link.Type.DIRECT).state(Link.State.INACTIVE).build();
+        topology = assertIncremental(topology, devices,
+                of(link("1", 3, "4", 3), link("4", 3, "1", 3),
+                   link("3", 4, "4", 4), inactive));
+        assertEquals("incorrect cluster count", 4, topology.clusterCount());
+
+        // Links joining clusters merge them
+        topology = assertIncremental(topology, devices,
+                of(link("1", 3, "4", 3), link("4", 3, "1", 3),
+                   link("3", 4, "4", 4), link("4", 4, "3", 4),
+                   link("2", 5, "5", 5), link("5", 5, "2", 5)));
+        assertEquals("incorrect cluster count", 2, topology.clusterCount());
+
+        // Removing a device re-searches its cluster only
+        topology = assertIncremental(topology, of(device("1"), device("2"), device("3"), device("5")),
+                of(link("2", 5, "5", 5), link("5", 5, "2", 5)));
+        assertEquals("incorrect cluster count", 3, topology.clusterCount());
+    }
+
+    // Builds a topology from the previous one and checks that its clusters
+    // are the same as those of a topology built from scratch.
+    private DefaultTopology assertIncremental(DefaultTopology previous, Set<Device> devices, Set<Link> links) {
+        GraphDescription description =
+                new DefaultGraphDescription(System.nanoTime(), System.currentTimeMillis(), devices, links);
+        DefaultTopology incremental = new DefaultTopology(PID, description, null, previous);
+        DefaultTopology expected = new DefaultTopology(PID, description);
+
+        assertEquals("incorrect clusters", clusters(expected), clusters(incremental));
+        for (TopologyCluster cluster : expected.getClusters()) {
+            TopologyCluster actual = incremental.getCluster(cluster.root().deviceId());
+            assertEquals("incorrect root", cluster.root(), actual.root());
+            assertEquals("incorrect link count", cluster.linkCount(), actual.linkCount());
+            assertEquals("incorrect cluster links",
+                         expected.getClusterLinks(cluster), incremental.getClusterLinks(actual));
+            assertEquals("incorrect broadcast set size",
+                         expected.broadcastSetSize(cluster.id()), incremental.broadcastSetSize(actual.id()));
+        }
+        return incremental;
+    }
+
+    private static Set<Set<DeviceId>> clusters(DefaultTopology topology) {
+        return topology.getClusters().stream()
+                .map(topology::getClusterDevices)
+                .collect(Collectors.toSet());
+    }
+
     // Short-hand for creating a link.
     public static Link link(String src, int sp, String dst, int dp) {
         return DefaultLink.builder().providerId(PID)
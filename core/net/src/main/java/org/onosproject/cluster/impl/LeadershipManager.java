@@ -116,4 +116,14 @@ public class LeadershipManager
     public boolean promoteToTopOfCandidateList(String topic, NodeId nodeId) {
         return store.makeTopCandidate(topic, nodeId);
     }
+
+    @Override
+    public Map<String, Boolean> transferLeaderships(Map<String, NodeId> transfers) {
+        return store.moveLeaderships(transfers);
+    }
+
+    @Override
+    public Map<String, Boolean> promoteToTopOfCandidateLists(Map<String, NodeId> promotions) {
+        return store.makeTopCandidates(promotions);
+    }
 }
@@ -17,7 +17,6 @@ package org.onosproject.cluster.impl;
 
 import com.codahale.metrics.Timer;
 import com.codahale.metrics.Timer.Context;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Futures;
 import org.onlab.metrics.MetricsService;
@@ -67,10 +66,8 @@ import java.util.concurrent.CompletableFuture;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Lists.newArrayList;
-import static java.util.concurrent.CompletableFuture.allOf;
 import static org.onlab.metrics.MetricsUtil.startTimer;
 import static org.onlab.metrics.MetricsUtil.stopTimer;
-import static org.onosproject.net.MastershipRole.MASTER;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.CLUSTER_READ;
 import static org.onosproject.security.AppPermission.Type.CLUSTER_WRITE;
@@ -198,6 +195,18 @@ public class MastershipManager
                 .thenApply(v -> null);
     }
 
+    @Override
+    public CompletableFuture<Void> setMasters(Map<DeviceId, NodeId> masters) {
+        checkNotNull(masters, "Mastership assignment cannot be null");
+
+        if (masters.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        log.info("Setting the masters of {} devices", masters.size());
+        return store.setMasters(masters)
+                .thenAccept(events -> events.forEach(this::post));
+    }
+
     @Override
     public MastershipRole getLocalRole(DeviceId deviceId) {
         checkPermission(CLUSTER_READ);
@@ -291,18 +300,16 @@ public class MastershipManager
             return;
         }
 
-        List<CompletableFuture<Void>> balanceBucketsFutures = Lists.newLinkedList();
+        // Compute the whole target assignment before applying it in bulk.
+        Map<DeviceId, NodeId> assignment = new HashMap<>();
 
         // First re-balance the buckets until they are roughly even.
-        balanceControllerNodes(controllerDevices, deviceCount, balanceBucketsFutures);
+        balanceControllerNodes(controllerDevices, deviceCount, assignment);
 
         // Then attempt to distribute any orphaned devices among the buckets.
-        distributeOrphanedDevices(controllerDevices, orphanedDevices, balanceBucketsFutures);
-
-        CompletableFuture<Void> balanceRolesFuture =
-                allOf(balanceBucketsFutures.toArray(new CompletableFuture[balanceBucketsFutures.size()]));
+        distributeOrphanedDevices(controllerDevices, orphanedDevices, assignment);
 
-        Futures.getUnchecked(balanceRolesFuture);
+        Futures.getUnchecked(setMasters(assignment));
     }
 
     /**
@@ -310,18 +317,18 @@ public class MastershipManager
      *
      * @param controllerDevices controller nodes to devices map
      * @param deviceCount       number of devices mastered by controller nodes
-     * @param futures           list of setRole futures for "moved" devices
+     * @param assignment        target masters of the "moved" devices
      */
     private void balanceControllerNodes(Map<ControllerNode, Set<DeviceId>> controllerDevices,
                                         int deviceCount,
-                                        List<CompletableFuture<Void>> futures) {
+                                        Map<DeviceId, NodeId> assignment) {
         // Now re-balance the buckets until they are roughly even.
         int rounds = controllerDevices.keySet().size();
         for (int i = 0; i < rounds; i++) {
             // Iterate over the buckets and find the smallest and the largest.
             ControllerNode smallest = findBucket(true, controllerDevices);
             ControllerNode largest = findBucket(false, controllerDevices);
-            futures.add(balanceBuckets(smallest, largest, controllerDevices, deviceCount));
+            balanceBuckets(smallest, largest, controllerDevices, deviceCount, assignment);
         }
     }
 
@@ -330,17 +337,17 @@ public class MastershipManager
      *
      * @param controllerDevices controller nodes to devices map
      * @param orphanedDevices   set of orphaned devices without an active master
-     * @param futures           list of completable future to track the progress of the balancing operation
+     * @param assignment        target masters of the distributed devices
      */
     private void distributeOrphanedDevices(Map<ControllerNode, Set<DeviceId>> controllerDevices,
                                            Set<DeviceId> orphanedDevices,
-                                           List<CompletableFuture<Void>> futures) {
+                                           Map<DeviceId, NodeId> assignment) {
         // Now re-distribute the orphaned devices into buckets until they are roughly even.
         while (!orphanedDevices.isEmpty()) {
             // Iterate over the buckets and find the smallest bucket.
             ControllerNode smallest = findBucket(true, controllerDevices);
             changeMastership(smallest, controllerDevices.get(smallest),
-                             orphanedDevices, 1, futures);
+                             orphanedDevices, 1, assignment);
         }
     }
 
@@ -373,11 +380,11 @@ public class MastershipManager
      * @param largest           node that is master of the largest number of devices
      * @param controllerDevices controller nodes to devices map
      * @param deviceCount       number of devices mastered by controller nodes
-     * @return list of setRole futures for "moved" devices
+     * @param assignment        target masters of the "moved" devices
      */
-    private CompletableFuture<Void> balanceBuckets(ControllerNode smallest, ControllerNode largest,
-                                                   Map<ControllerNode, Set<DeviceId>> controllerDevices,
-                                                   int deviceCount) {
+    private void balanceBuckets(ControllerNode smallest, ControllerNode largest,
+                                Map<ControllerNode, Set<DeviceId>> controllerDevices,
+                                int deviceCount, Map<DeviceId, NodeId> assignment) {
         Collection<DeviceId> minBucket = controllerDevices.get(smallest);
         Collection<DeviceId> maxBucket = controllerDevices.get(largest);
         int bucketCount = controllerDevices.keySet().size();
@@ -385,37 +392,33 @@ public class MastershipManager
         int delta = (maxBucket.size() - minBucket.size()) / 2;
         delta = Math.min(deviceCount / bucketCount, delta);
 
-        List<CompletableFuture<Void>> setRoleFutures = Lists.newLinkedList();
-
         if (delta > 0) {
             log.info("Attempting to move {} nodes from {} to {}...", delta,
                      largest.id(), smallest.id());
-            changeMastership(smallest, minBucket, maxBucket, delta, setRoleFutures);
+            changeMastership(smallest, minBucket, maxBucket, delta, assignment);
         }
-
-        return allOf(setRoleFutures.toArray(new CompletableFuture[setRoleFutures.size()]));
     }
 
     /**
      * Changes mastership for the specified number of devices in the given source
      * bucket to the specified node and ads those devices to the given target
-     * bucket. Also adds the futures for tracking the role reassignment progress.
+     * bucket. Also records the new masters in the given target assignment.
      *
      * @param toNode     target controller node
      * @param toBucket   target bucket
      * @param fromBucket source bucket
      * @param count      number of devices
-     * @param futures    futures for tracking operation progress
+     * @param assignment target masters of the moved devices
      */
     private void changeMastership(ControllerNode toNode, Collection<DeviceId> toBucket,
                                   Collection<DeviceId> fromBucket, int count,
-                                  List<CompletableFuture<Void>> futures) {
+                                  Map<DeviceId, NodeId> assignment) {
         int i = 0;
         Iterator<DeviceId> it = fromBucket.iterator();
         while (it.hasNext() && i < count) {
             DeviceId deviceId = it.next();
             log.info("Setting {} as the master for {}", toNode.id(), deviceId);
-            futures.add(setRole(toNode.id(), deviceId, MASTER));
+            assignment.put(deviceId, toNode.id());
             toBucket.add(deviceId);
             it.remove();
             i++;
@@ -435,10 +438,11 @@ public class MastershipManager
         }
 
         // Handle nodes belonging to regions
+        Map<DeviceId, NodeId> assignment = new HashMap<>();
         Set<ControllerNode> nodesInRegions = Sets.newHashSet();
         for (Region region : regions) {
             Map<ControllerNode, Set<DeviceId>> activeRegionControllers =
-                    balanceRolesInRegion(region, allControllerDevices);
+                    balanceRolesInRegion(region, allControllerDevices, assignment);
             nodesInRegions.addAll(activeRegionControllers.keySet());
         }
 
@@ -452,14 +456,10 @@ public class MastershipManager
                 deviceCount += allControllerDevices.get(controllerNode).size();
             }
             // Now re-balance the buckets until they are roughly even.
-            List<CompletableFuture<Void>> balanceBucketsFutures = Lists.newArrayList();
-            balanceControllerNodes(controllerDevicesNotInRegions, deviceCount, balanceBucketsFutures);
-
-            CompletableFuture<Void> balanceRolesFuture = allOf(
-                    balanceBucketsFutures.toArray(new CompletableFuture[balanceBucketsFutures.size()]));
-
-            Futures.getUnchecked(balanceRolesFuture);
+            balanceControllerNodes(controllerDevicesNotInRegions, deviceCount, assignment);
         }
+
+        Futures.getUnchecked(setMasters(assignment));
         return true; // balancing was done using regions.
     }
 
@@ -468,11 +468,13 @@ public class MastershipManager
      *
      * @param region               region in which nodes are to be balanced
      * @param allControllerDevices controller nodes to devices map
+     * @param assignment           target masters of the "moved" devices
      * @return controller nodes that were balanced
      */
     private Map<ControllerNode, Set<DeviceId>>
             balanceRolesInRegion(Region region,
-                                 Map<ControllerNode, Set<DeviceId>> allControllerDevices) {
+                                 Map<ControllerNode, Set<DeviceId>> allControllerDevices,
+                                 Map<DeviceId, NodeId> assignment) {
 
         // Retrieve all devices associated with specified region
         Set<DeviceId> devicesInRegion = regionService.getRegionDevices(region.id());
@@ -494,8 +496,7 @@ public class MastershipManager
                 getRegionsPreferredMasters(region, devicesInMasters, allControllerDevices);
 
         // Now re-balance the buckets until they are roughly even.
-        List<CompletableFuture<Void>> balanceBucketsFutures = Lists.newArrayList();
-        balanceControllerNodes(regionalControllerDevices, devicesInMasters.size(), balanceBucketsFutures);
+        balanceControllerNodes(regionalControllerDevices, devicesInMasters.size(), assignment);
 
         // Handle devices that are not currently mastered by the master node set
         Set<DeviceId> devicesNotMasteredWithControllers = Sets.difference(devicesInRegion, devicesInMasters);
@@ -507,22 +508,12 @@ public class MastershipManager
             int deviceIndex = 0;
             for (DeviceId deviceId : devicesNotMasteredWithControllers) {
                 ControllerNode cnode = sorted.get(deviceIndex % sorted.size());
-                balanceBucketsFutures.add(setRole(cnode.id(), deviceId, MASTER));
+                assignment.put(deviceId, cnode.id());
                 regionalControllerDevices.get(cnode).add(deviceId);
                 deviceIndex++;
             }
         }
 
-        CompletableFuture<Void> balanceRolesFuture =
-                allOf(balanceBucketsFutures.toArray(new CompletableFuture[balanceBucketsFutures.size()]));
-
-        Futures.getUnchecked(balanceRolesFuture);
-
-        // Update the map before returning
-        regionalControllerDevices.forEach((controllerNode, deviceIds) -> {
-            regionalControllerDevices.put(controllerNode, new HashSet<>(getDevicesOf(controllerNode.id())));
-        });
-
         return regionalControllerDevices;
     }
 
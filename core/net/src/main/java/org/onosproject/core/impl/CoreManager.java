@@ -45,6 +45,8 @@ import java.util.Set;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onosproject.net.OsgiPropertyConstants.CALCULATE_PERFORMANCE_CHECK;
 import static org.onosproject.net.OsgiPropertyConstants.CALCULATE_PERFORMANCE_CHECK_DEFAULT;
+import static org.onosproject.net.OsgiPropertyConstants.EVENT_DISPATCH_LANES;
+import static org.onosproject.net.OsgiPropertyConstants.EVENT_DISPATCH_LANES_DEFAULT;
 import static org.onosproject.net.OsgiPropertyConstants.MAX_EVENT_TIME_LIMIT;
 import static org.onosproject.net.OsgiPropertyConstants.MAX_EVENT_TIME_LIMIT_DEFAULT;
 import static org.onosproject.net.OsgiPropertyConstants.SHARED_THREAD_POOL_SIZE;
@@ -62,6 +64,7 @@ import static org.onosproject.security.AppPermission.Type.APP_WRITE;
         property = {
                 SHARED_THREAD_POOL_SIZE + ":Integer=" + SHARED_THREAD_POOL_SIZE_DEFAULT,
                 MAX_EVENT_TIME_LIMIT + ":Integer=" + MAX_EVENT_TIME_LIMIT_DEFAULT,
+                EVENT_DISPATCH_LANES + ":Integer=" + EVENT_DISPATCH_LANES_DEFAULT,
                 CALCULATE_PERFORMANCE_CHECK + ":Boolean=" + CALCULATE_PERFORMANCE_CHECK_DEFAULT
         }
 )
@@ -96,6 +99,9 @@ public class CoreManager implements CoreService {
     /** Maximum number of millis an event sink has to process an event. */
     private int maxEventTimeLimit = MAX_EVENT_TIME_LIMIT_DEFAULT;
 
+    /** Number of ordered lanes used to dispatch topology and programming events. */
+    private int eventDispatchLanes = EVENT_DISPATCH_LANES_DEFAULT;
+
     /** Enable queue performance check on shared pool. */
     private boolean sharedThreadPerformanceCheck = CALCULATE_PERFORMANCE_CHECK_DEFAULT;
 
@@ -182,13 +188,22 @@ public class CoreManager implements CoreService {
             log.warn("maxEventTimeLimit must be greater than or equal to 0");
         }
 
+        Integer dispatchLanes = Tools.getIntegerProperty(properties, EVENT_DISPATCH_LANES);
+        if (dispatchLanes != null && dispatchLanes >= 1) {
+            eventDispatchLanes = dispatchLanes;
+            eventDeliveryService.setDispatchLanes(eventDispatchLanes);
+        } else if (dispatchLanes != null) {
+            log.warn("eventDispatchLanes must be greater than 0");
+        }
+
         Boolean performanceCheck = Tools.isPropertyEnabled(properties, CALCULATE_PERFORMANCE_CHECK);
         if (performanceCheck != null) {
             sharedThreadPerformanceCheck = performanceCheck;
             SharedExecutors.setMetricsService(sharedThreadPerformanceCheck ? metricsService : null);
         }
 
-        log.info("Settings: sharedThreadPoolSize={}, maxEventTimeLimit={}, sharedThreadPerformanceCheck={}",
-                 sharedThreadPoolSize, maxEventTimeLimit, sharedThreadPerformanceCheck);
+        log.info("Settings: sharedThreadPoolSize={}, maxEventTimeLimit={}, eventDispatchLanes={}, " +
+                         "sharedThreadPerformanceCheck={}",
+                 sharedThreadPoolSize, maxEventTimeLimit, eventDispatchLanes, sharedThreadPerformanceCheck);
     }
 }
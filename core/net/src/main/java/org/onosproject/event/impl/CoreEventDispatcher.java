@@ -15,9 +15,15 @@
  */
 package org.onosproject.event.impl;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.SharedExecutors;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.DefaultEventSinkRegistry;
@@ -33,19 +39,30 @@ import org.onosproject.net.topology.TopologyEvent;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimerTask;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.EVENT_READ;
@@ -53,6 +70,10 @@ import static org.onosproject.security.AppPermission.Type.EVENT_WRITE;
 import static org.slf4j.LoggerFactory.getLogger;
 /**
  * Simple implementation of an event dispatching service.
+ * <p>
+ * Topology and programming events can be dispatched across several ordered
+ * lanes. Events are assigned to a lane based on their subject, so events
+ * for the same subject (e.g. the same device) are still delivered in order.
  */
 @Component(immediate = true, service = EventDeliveryService.class)
 public class CoreEventDispatcher extends DefaultEventSinkRegistry
@@ -60,13 +81,18 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     private final Logger log = getLogger(getClass());
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL,
+            bind = "bindMetricsService",
+            unbind = "unbindMetricsService",
+            policy = ReferencePolicy.DYNAMIC)
+    protected volatile MetricsService metricsService;
 
-    private DispatchLoop topologyDispatcher = new DispatchLoop("topology");
-    private DispatchLoop programmingDispatcher = new DispatchLoop("programming");
-    private DispatchLoop defaultDispatcher = new DispatchLoop("default");
+    private DispatchLanes topologyDispatcher = new DispatchLanes("topology");
+    private DispatchLanes programmingDispatcher = new DispatchLanes("programming");
+    private DispatchLanes defaultDispatcher = new DispatchLanes("default");
 
-    private Map<Class, DispatchLoop> dispatcherMap =
-            new ImmutableMap.Builder<Class, DispatchLoop>()
+    private Map<Class, DispatchLanes> dispatcherMap =
+            new ImmutableMap.Builder<Class, DispatchLanes>()
                 .put(TopologyEvent.class, topologyDispatcher)
                 .put(DeviceEvent.class, topologyDispatcher)
                 .put(LinkEvent.class, topologyDispatcher)
@@ -75,8 +101,8 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
                 .put(IntentEvent.class, programmingDispatcher)
                 .build();
 
-    private Set<DispatchLoop> dispatchers =
-            new ImmutableSet.Builder<DispatchLoop>()
+    private Set<DispatchLanes> dispatchers =
+            new ImmutableSet.Builder<DispatchLanes>()
                 .addAll(dispatcherMap.values())
                 .add(defaultDispatcher)
                 .build();
@@ -84,21 +110,56 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     // Default number of millis a sink can take to process an event.
     private static final long DEFAULT_EXECUTE_MS = 5_000; // ms
     private static final long WATCHDOG_MS = 250; // ms
+    private static final int MAX_DISPATCH_LANES = 64;
+
+    private static final String METRICS_COMPONENT = "EventDispatcher";
+    private static final String SINK_FEATURE = "sink";
+    private static final String QUEUE_SIZE = "queueSize";
+    private static final String MAX_LANE_QUEUE_SIZE = "maxLaneQueueSize";
 
     @SuppressWarnings("unchecked")
     private static final Event KILL_PILL = new AbstractEvent(null, 0) {
     };
 
+    // Marks the end of the events posted to a dispatch loop that is being replaced.
+    @SuppressWarnings("unchecked")
+    private static final Event RETIRE_PILL = new AbstractEvent(null, 0) {
+    };
+
     private long maxProcessMillis = DEFAULT_EXECUTE_MS;
+    private int dispatchLanes = 1;
+    private volatile boolean started;
+
+    private MetricsComponent metricsComponent;
+    private final Map<Class, Timer> sinkTimers = Maps.newConcurrentMap();
 
-    private DispatchLoop getDispatcher(Event event) {
-        DispatchLoop dispatcher = dispatcherMap.get(event.getClass());
+    private DispatchLanes getDispatcher(Event event) {
+        DispatchLanes dispatcher = dispatcherMap.get(event.getClass());
         if (dispatcher == null) {
             dispatcher = defaultDispatcher;
         }
         return dispatcher;
     }
 
+    // Returns the key used to shard the event; events with equal keys are
+    // always dispatched by the same lane.
+    private static Object laneKey(Event event) {
+        if (event instanceof DeviceEvent) {
+            return ((DeviceEvent) event).subject().id();
+        } else if (event instanceof LinkEvent) {
+            return ((LinkEvent) event).subject().src().deviceId();
+        } else if (event instanceof HostEvent) {
+            return ((HostEvent) event).subject().id();
+        } else if (event instanceof FlowRuleEvent) {
+            return ((FlowRuleEvent) event).subject().deviceId();
+        } else if (event instanceof IntentEvent) {
+            return ((IntentEvent) event).subject().key();
+        }
+        // Topology events, among others, have no stable subject and thus
+        // all share a single lane.
+        return event.getClass();
+    }
+
     @Override
     public void post(Event event) {
 
@@ -111,7 +172,8 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     public void activate() {
 
         if (maxProcessMillis != 0) {
-            dispatchers.forEach(DispatchLoop::start);
+            dispatchers.forEach(DispatchLanes::start);
+            started = true;
         }
 
         log.info("Started");
@@ -119,11 +181,51 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     @Deactivate
     public void deactivate() {
-        dispatchers.forEach(DispatchLoop::stop);
+        started = false;
+        dispatchers.forEach(DispatchLanes::stop);
 
         log.info("Stopped");
     }
 
+    /**
+     * Hook for wiring up optional reference to the metrics service.
+     *
+     * @param service service being announced
+     */
+    protected void bindMetricsService(MetricsService service) {
+        if (metricsService == null) {
+            metricsService = service;
+            metricsComponent = service.registerComponent(METRICS_COMPONENT);
+            dispatchers.forEach(DispatchLanes::registerMetrics);
+        }
+    }
+
+    /**
+     * Hook for unwiring optional reference to the metrics service.
+     *
+     * @param service service being withdrawn
+     */
+    protected void unbindMetricsService(MetricsService service) {
+        if (metricsService == service) {
+            dispatchers.forEach(DispatchLanes::removeMetrics);
+            sinkTimers.keySet().forEach(eventClass -> service.removeMetric(
+                    metricsComponent, metricsComponent.registerFeature(SINK_FEATURE), eventClass.getName()));
+            sinkTimers.clear();
+            metricsService = null;
+        }
+    }
+
+    // Returns the timer tracking the processing latency of the sink for the
+    // given event class, or null if metrics are not available.
+    private Timer sinkTimer(Class eventClass) {
+        MetricsService service = metricsService;
+        if (service == null) {
+            return null;
+        }
+        return sinkTimers.computeIfAbsent(eventClass, c -> service.createTimer(
+                metricsComponent, metricsComponent.registerFeature(SINK_FEATURE), c.getName()));
+    }
+
     @Override
     public void setDispatchTimeLimit(long millis) {
         checkPermission(EVENT_WRITE);
@@ -133,9 +235,9 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         maxProcessMillis = millis;
 
         if (millis == 0 && oldMillis != 0) {
-            dispatchers.forEach(DispatchLoop::stopWatchdog);
+            dispatchers.forEach(DispatchLanes::stopWatchdog);
         } else if (millis != 0 && oldMillis == 0) {
-            dispatchers.forEach(DispatchLoop::startWatchdog);
+            dispatchers.forEach(DispatchLanes::startWatchdog);
         }
     }
 
@@ -145,6 +247,110 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         return maxProcessMillis;
     }
 
+    @Override
+    public synchronized void setDispatchLanes(int lanes) {
+        checkPermission(EVENT_WRITE);
+        checkArgument(lanes >= 1 && lanes <= MAX_DISPATCH_LANES,
+                      "Number of lanes must be between 1 and %s", MAX_DISPATCH_LANES);
+        if (lanes != dispatchLanes) {
+            dispatchLanes = lanes;
+            topologyDispatcher.resize(lanes);
+            programmingDispatcher.resize(lanes);
+        }
+    }
+
+    @Override
+    public int getDispatchLanes() {
+        checkPermission(EVENT_READ);
+        return dispatchLanes;
+    }
+
+    // Group of dispatch loops across which events are sharded by subject.
+    private class DispatchLanes {
+        private final String name;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile DispatchLoop[] loops;
+
+        DispatchLanes(String name) {
+            this.name = name;
+            this.loops = new DispatchLoop[] {new DispatchLoop(name, new CountDownLatch(0))};
+        }
+
+        public boolean add(Event event) {
+            lock.readLock().lock();
+            try {
+                return lane(loops, event).add(event);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private DispatchLoop lane(DispatchLoop[] loops, Event event) {
+            return loops.length == 1 ? loops[0] : loops[Math.floorMod(laneKey(event).hashCode(), loops.length)];
+        }
+
+        // Replaces the dispatch loops with the given number of new loops. The
+        // new loops only start dispatching once the old ones have drained all
+        // previously posted events, which preserves per-subject ordering.
+        void resize(int count) {
+            lock.writeLock().lock();
+            try {
+                DispatchLoop[] oldLoops = loops;
+                CountDownLatch handover = new CountDownLatch(started ? oldLoops.length : 0);
+                DispatchLoop[] newLoops = new DispatchLoop[count];
+                for (int i = 0; i < count; i++) {
+                    newLoops[i] = new DispatchLoop(count == 1 ? name : name + "-" + i, handover);
+                }
+                loops = newLoops;
+                if (started) {
+                    Arrays.stream(newLoops).forEach(DispatchLoop::start);
+                    Arrays.stream(oldLoops).forEach(loop -> loop.retire(handover));
+                } else {
+                    // The old loops are not running, so move their pending events
+                    // over to the new lanes directly.
+                    for (DispatchLoop loop : oldLoops) {
+                        loop.drain().stream()
+                                .filter(event -> event != KILL_PILL)
+                                .forEach(event -> lane(newLoops, event).add(event));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Dispatcher {} is using {} lanes", name, count);
+        }
+
+        void start() {
+            Arrays.stream(loops).forEach(DispatchLoop::start);
+        }
+
+        void stop() {
+            Arrays.stream(loops).forEach(DispatchLoop::stop);
+        }
+
+        void startWatchdog() {
+            Arrays.stream(loops).forEach(DispatchLoop::startWatchdog);
+        }
+
+        void stopWatchdog() {
+            Arrays.stream(loops).forEach(DispatchLoop::stopWatchdog);
+        }
+
+        void registerMetrics() {
+            MetricsFeature feature = metricsComponent.registerFeature(name);
+            metricsService.registerMetric(metricsComponent, feature, QUEUE_SIZE,
+                    (Gauge<Integer>) () -> Arrays.stream(loops).mapToInt(DispatchLoop::queueSize).sum());
+            metricsService.registerMetric(metricsComponent, feature, MAX_LANE_QUEUE_SIZE,
+                    (Gauge<Integer>) () -> Arrays.stream(loops).mapToInt(DispatchLoop::queueSize).max().orElse(0));
+        }
+
+        void removeMetrics() {
+            MetricsFeature feature = metricsComponent.registerFeature(name);
+            metricsService.removeMetric(metricsComponent, feature, QUEUE_SIZE);
+            metricsService.removeMetric(metricsComponent, feature, MAX_LANE_QUEUE_SIZE);
+        }
+    }
+
     // Auxiliary event dispatching loop that feeds off the events queue.
     private class DispatchLoop implements Runnable {
         private final String name;
@@ -156,9 +362,13 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         private volatile Future<?> dispatchFuture;
         private final BlockingQueue<Event> eventsQueue;
         private final ExecutorService executor;
+        // Released once the loops being replaced by this one have drained
+        private final CountDownLatch handover;
+        private volatile CountDownLatch successorHandover;
 
-        DispatchLoop(String name) {
+        DispatchLoop(String name, CountDownLatch handover) {
             this.name = name;
+            this.handover = handover;
             executor = newSingleThreadExecutor(
                     groupedThreads("onos/event",
                     "dispatch-" + name + "%d", log));
@@ -169,14 +379,29 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
             return eventsQueue.add(event);
         }
 
+        int queueSize() {
+            return eventsQueue.size();
+        }
+
+        // Removes all pending events and shuts down a loop that is not running.
+        List<Event> drain() {
+            List<Event> events = new ArrayList<>();
+            eventsQueue.drainTo(events);
+            executor.shutdown();
+            return events;
+        }
+
         @Override
         public void run() {
             log.info("Dispatch loop({}) initiated", name);
             while (!stopped) {
                 try {
+                    handover.await();
                     // Fetch the next event and if it is the kill-pill, bail
                     Event event = eventsQueue.take();
-                    if (event != KILL_PILL) {
+                    if (event == RETIRE_PILL) {
+                        terminate();
+                    } else if (event != KILL_PILL) {
                         process(event);
                     }
                 } catch (InterruptedException e) {
@@ -194,9 +419,11 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
             EventSink sink = getSink(event.getClass());
             if (sink != null) {
                 lastSink = sink;
+                Timer.Context timer = startTimer(sinkTimer(event.getClass()));
                 stopwatch.start();
                 sink.process(event);
                 stopwatch.reset();
+                stopTimer(timer);
             } else {
                 log.warn("No sink registered for event class {}",
                          event.getClass().getName());
@@ -215,7 +442,23 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         void start() {
             stopped = false;
             dispatchFuture = executor.submit(this);
-            startWatchdog();
+            if (maxProcessMillis != 0) {
+                startWatchdog();
+            }
+        }
+
+        // Stops the loop once all events posted so far have been dispatched.
+        void retire(CountDownLatch successorHandover) {
+            this.successorHandover = successorHandover;
+            add(RETIRE_PILL);
+        }
+
+        // Terminates a retired loop and hands over to its successors.
+        private void terminate() {
+            stopped = true;
+            stopWatchdog();
+            successorHandover.countDown();
+            executor.shutdown();
         }
 
         // Monitors event sinks to make sure none take too long to execute.
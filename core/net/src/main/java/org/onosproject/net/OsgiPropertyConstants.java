@@ -32,6 +32,9 @@ public final class OsgiPropertyConstants {
     public static final String MAX_EVENT_TIME_LIMIT = "maxEventTimeLimit";
     public static final int MAX_EVENT_TIME_LIMIT_DEFAULT = 2000;
 
+    public static final String EVENT_DISPATCH_LANES = "eventDispatchLanes";
+    public static final int EVENT_DISPATCH_LANES_DEFAULT = 1;
+
     public static final String CALCULATE_PERFORMANCE_CHECK = "sharedThreadPerformanceCheck";
     public static final boolean CALCULATE_PERFORMANCE_CHECK_DEFAULT = false;
 
@@ -47,6 +50,12 @@ public final class OsgiPropertyConstants {
     public static final String POLL_FREQUENCY = "fallbackFlowPollFrequency";
     public static final int POLL_FREQUENCY_DEFAULT = 30;
 
+    public static final String FLOW_BATCH_MAX_SIZE = "flowBatchMaxSize";
+    public static final int FLOW_BATCH_MAX_SIZE_DEFAULT = 1000;
+
+    public static final String FLOW_BATCH_WINDOW_MILLIS = "flowBatchWindowMillis";
+    public static final int FLOW_BATCH_WINDOW_MILLIS_DEFAULT = 0;
+
     public static final String FOM_NUM_THREADS = "numThreads";
     public static final int FOM_NUM_THREADS_DEFAULT = 4;
 
@@ -134,6 +143,9 @@ public final class OsgiPropertyConstants {
     public static final String NRM_REQUEST_INTERCEPTS_ENABLED = "requestInterceptsEnabled";
     public static final boolean NRM_REQUEST_INTERCEPTS_ENABLED_DEFAULT = true;
 
+    public static final String PTS_FLOW_RULE_CACHE_SIZE = "flowRuleTranslationCacheSize";
+    public static final int PTS_FLOW_RULE_CACHE_SIZE_DEFAULT = 100000;
+
     public static final String PWM_PROBE_INTERVAL = "probeInterval";
     public static final int PWM_PROBE_INTERVAL_DEFAULT = 15;
 
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.flow.impl;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableSet;
+import org.onlab.util.SharedScheduledExecutors;
+import org.onosproject.core.IdGenerator;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.CompletedBatchOperation;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.oldbatch.FlowRuleBatchEntry;
+import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Coalesces the flow rule batch entries submitted for a device into a single
+ * flow rule batch operation.
+ * <p>
+ * Submissions are queued per device and flushed by a task on the given
+ * executor, so everything submitted for a device while a flush is pending
+ * ends up in the same batch. A batch window may additionally hold back the
+ * flush to gather more submissions, unless the batch size limit is reached
+ * first. Within a batch, the operations submitted for a flow rule supersede
+ * those of earlier submissions, so that e.g. a rule added and removed again
+ * never reaches the device.
+ */
+final class FlowRuleBatchCoalescer {
+
+    private final IdGenerator idGenerator;
+    private final Executor executor;
+    private final Consumer<FlowRuleBatchOperation> sink;
+
+    private final Map<DeviceId, DeviceQueue> queues = new ConcurrentHashMap<>();
+    private final Map<Long, Batch> pendingBatches = new ConcurrentHashMap<>();
+
+    private volatile int maxBatchSize;
+    private volatile int batchWindowMillis;
+    private volatile Histogram batchSizes;
+    private volatile Timer flushLatency;
+
+    /**
+     * Creates a coalescer emitting its batches to the given sink.
+     *
+     * @param idGenerator       generator of the batch identifiers
+     * @param executor          executor running the flushes
+     * @param sink              consumer of the coalesced batches
+     * @param maxBatchSize      number of entries at which a batch is flushed
+     *                          without waiting for the batch window
+     * @param batchWindowMillis time to wait for more submissions before
+     *                          flushing; 0 to flush as soon as possible
+     */
+    FlowRuleBatchCoalescer(IdGenerator idGenerator, Executor executor,
+                           Consumer<FlowRuleBatchOperation> sink,
+                           int maxBatchSize, int batchWindowMillis) {
+        this.idGenerator = idGenerator;
+        this.executor = executor;
+        this.sink = sink;
+        configure(maxBatchSize, batchWindowMillis);
+    }
+
+    /**
+     * Changes the batching thresholds; queued submissions are not affected
+     * until their next flush.
+     *
+     * @param maxBatchSize      number of entries at which a batch is flushed
+     *                          without waiting for the batch window
+     * @param batchWindowMillis time to wait for more submissions before
+     *                          flushing; 0 to flush as soon as possible
+     */
+    void configure(int maxBatchSize, int batchWindowMillis) {
+        checkArgument(maxBatchSize > 0, "Maximum batch size must be positive");
+        checkArgument(batchWindowMillis >= 0, "Batch window must not be negative");
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindowMillis = batchWindowMillis;
+    }
+
+    /**
+     * Sets the metrics updated with the size of each batch and the time its
+     * oldest submission waited until the flush; either may be null.
+     *
+     * @param batchSizes   histogram of the number of entries per batch
+     * @param flushLatency timer of the flush latency
+     */
+    void setMetrics(Histogram batchSizes, Timer flushLatency) {
+        this.batchSizes = batchSizes;
+        this.flushLatency = flushLatency;
+    }
+
+    /**
+     * Submits flow rule batch entries for a device.
+     *
+     * @param deviceId device identifier
+     * @param entries  flow rule batch entries
+     * @param callback callback notified once the batch holding the entries
+     *                 has completed
+     */
+    void submit(DeviceId deviceId, Collection<FlowRuleBatchEntry> entries, Callback callback) {
+        DeviceQueue queue = queues.computeIfAbsent(deviceId, DeviceQueue::new);
+        Submission submission = new Submission(entries, callback);
+        boolean flushNow;
+        boolean flushLater;
+        synchronized (queue) {
+            queue.submissions.add(submission);
+            queue.size += entries.size();
+            boolean full = queue.size >= maxBatchSize;
+            flushNow = !queue.flushing && (full || batchWindowMillis == 0);
+            flushLater = !queue.flushing && !queue.waiting && !flushNow;
+            queue.flushing |= flushNow;
+            queue.waiting |= flushLater;
+        }
+        if (flushNow) {
+            executor.execute(() -> flush(queue));
+        } else if (flushLater) {
+            SharedScheduledExecutors.newTimeout(() -> windowElapsed(queue),
+                                                batchWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Completes the batch with the given identifier, notifying the callbacks
+     * of all its submissions.
+     *
+     * @param batchId batch identifier
+     * @param result  result of the batch
+     * @return false if the batch is unknown
+     */
+    boolean complete(long batchId, CompletedBatchOperation result) {
+        Batch batch = pendingBatches.remove(batchId);
+        if (batch == null) {
+            return false;
+        }
+        Set<FlowRule> failures = ImmutableSet.copyOf(result.failedItems());
+        for (Submission submission : batch.submissions) {
+            if (result.isSuccess()) {
+                submission.callback.completed(batch.deviceId, true, ImmutableSet.of());
+                continue;
+            }
+            Set<FlowRule> failed = submission.failedOf(failures);
+            // A failed batch which does not name its failed rules fails everyone.
+            boolean success = !failures.isEmpty() && failed.isEmpty();
+            submission.callback.completed(batch.deviceId, success, failed);
+        }
+        return true;
+    }
+
+    private void windowElapsed(DeviceQueue queue) {
+        synchronized (queue) {
+            if (!queue.waiting) {
+                return;
+            }
+            queue.waiting = false;
+            if (queue.flushing) {
+                return;
+            }
+            queue.flushing = true;
+        }
+        executor.execute(() -> flush(queue));
+    }
+
+    private void flush(DeviceQueue queue) {
+        List<Submission> submissions = new ArrayList<>();
+        boolean more;
+        synchronized (queue) {
+            int size = 0;
+            // Never split a submission, even when larger than a batch.
+            while (!queue.submissions.isEmpty()) {
+                int entries = queue.submissions.get(0).entries.size();
+                if (size > 0 && size + entries > maxBatchSize) {
+                    break;
+                }
+                submissions.add(queue.submissions.remove(0));
+                size += entries;
+            }
+            queue.size -= size;
+            more = !queue.submissions.isEmpty();
+            queue.flushing = more;
+        }
+        if (submissions.isEmpty()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        // Operations on a rule supersede those of earlier submissions, while
+        // the operations of a single submission are all kept.
+        Map<FlowRule, List<FlowRuleBatchEntry>> merged = new LinkedHashMap<>();
+        List<FlowRuleBatchEntry> entries = new ArrayList<>();
+        for (Submission submission : submissions) {
+            Set<FlowRule> seen = new HashSet<>();
+            for (FlowRuleBatchEntry entry : submission.entries) {
+                if (seen.add(entry.target())) {
+                    merged.remove(entry.target());
+                }
+                merged.computeIfAbsent(entry.target(), rule -> new ArrayList<>()).add(entry);
+            }
+        }
+        merged.values().forEach(entries::addAll);
+
+        long id = idGenerator.getNewId();
+        pendingBatches.put(id, new Batch(queue.deviceId, submissions));
+        Histogram sizes = batchSizes;
+        if (sizes != null) {
+            sizes.update(entries.size());
+        }
+        Timer latency = flushLatency;
+        if (latency != null) {
+            latency.update(now - submissions.get(0).submitted, TimeUnit.NANOSECONDS);
+        }
+        sink.accept(new FlowRuleBatchOperation(entries, queue.deviceId, id));
+
+        if (more) {
+            executor.execute(() -> flush(queue));
+        }
+    }
+
+    /**
+     * Callback notified of the completion of a submission.
+     */
+    interface Callback {
+        /**
+         * Notifies that the batch holding the submitted entries has completed.
+         *
+         * @param deviceId device identifier
+         * @param success  whether the submitted entries were applied
+         * @param failures submitted flow rules which failed to apply
+         */
+        void completed(DeviceId deviceId, boolean success, Set<FlowRule> failures);
+    }
+
+    // Submissions queued for a device, guarded by the queue itself.
+    private static final class DeviceQueue {
+        private final DeviceId deviceId;
+        private final List<Submission> submissions = new ArrayList<>();
+        private int size;
+        // Whether a flush is about to run, or waiting for the batch window.
+        private boolean flushing;
+        private boolean waiting;
+
+        private DeviceQueue(DeviceId deviceId) {
+            this.deviceId = deviceId;
+        }
+    }
+
+    private static final class Submission {
+        private final Collection<FlowRuleBatchEntry> entries;
+        private final Callback callback;
+        private final long submitted = System.nanoTime();
+
+        private Submission(Collection<FlowRuleBatchEntry> entries, Callback callback) {
+            this.entries = entries;
+            this.callback = callback;
+        }
+
+        private Set<FlowRule> failedOf(Set<FlowRule> failures) {
+            if (failures.isEmpty()) {
+                return ImmutableSet.of();
+            }
+            ImmutableSet.Builder<FlowRule> failed = ImmutableSet.builder();
+            for (FlowRuleBatchEntry entry : entries) {
+                if (failures.contains(entry.target())) {
+                    failed.add(entry.target());
+                }
+            }
+            return failed.build();
+        }
+    }
+
+    private static final class Batch {
+        private final DeviceId deviceId;
+        private final List<Submission> submissions;
+
+        private Batch(DeviceId deviceId, List<Submission> submissions) {
+            this.deviceId = deviceId;
+            this.submissions = submissions;
+        }
+    }
+}
@@ -21,6 +21,9 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
@@ -77,7 +80,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -87,6 +89,10 @@ import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.OsgiPropertyConstants.ALLOW_EXTRANEOUS_RULES;
 import static org.onosproject.net.OsgiPropertyConstants.ALLOW_EXTRANEOUS_RULES_DEFAULT;
+import static org.onosproject.net.OsgiPropertyConstants.FLOW_BATCH_MAX_SIZE;
+import static org.onosproject.net.OsgiPropertyConstants.FLOW_BATCH_MAX_SIZE_DEFAULT;
+import static org.onosproject.net.OsgiPropertyConstants.FLOW_BATCH_WINDOW_MILLIS;
+import static org.onosproject.net.OsgiPropertyConstants.FLOW_BATCH_WINDOW_MILLIS_DEFAULT;
 import static org.onosproject.net.OsgiPropertyConstants.IMPORT_EXTRANEOUS_RULES;
 import static org.onosproject.net.OsgiPropertyConstants.IMPORT_EXTRANEOUS_RULES_DEFAULT;
 import static org.onosproject.net.OsgiPropertyConstants.POLL_FREQUENCY;
@@ -113,7 +119,9 @@ import static org.slf4j.LoggerFactory.getLogger;
                 ALLOW_EXTRANEOUS_RULES + ":Boolean=" + ALLOW_EXTRANEOUS_RULES_DEFAULT,
                 IMPORT_EXTRANEOUS_RULES + ":Boolean=" + IMPORT_EXTRANEOUS_RULES_DEFAULT,
                 PURGE_ON_DISCONNECTION + ":Boolean=" + PURGE_ON_DISCONNECTION_DEFAULT,
-                POLL_FREQUENCY + ":Integer=" + POLL_FREQUENCY_DEFAULT
+                POLL_FREQUENCY + ":Integer=" + POLL_FREQUENCY_DEFAULT,
+                FLOW_BATCH_MAX_SIZE + ":Integer=" + FLOW_BATCH_MAX_SIZE_DEFAULT,
+                FLOW_BATCH_WINDOW_MILLIS + ":Integer=" + FLOW_BATCH_WINDOW_MILLIS_DEFAULT
         }
 )
 public class FlowRuleManager
@@ -138,6 +146,12 @@ public class FlowRuleManager
     /** Frequency (in seconds) for polling flow statistics via fallback provider. */
     private int fallbackFlowPollFrequency = POLL_FREQUENCY_DEFAULT;
 
+    /** Number of flow rule operations at which a device batch is flushed. */
+    private int flowBatchMaxSize = FLOW_BATCH_MAX_SIZE_DEFAULT;
+
+    /** Time (in milliseconds) to wait for more flow rule operations before flushing a device batch. */
+    private int flowBatchWindowMillis = FLOW_BATCH_WINDOW_MILLIS_DEFAULT;
+
     private final FlowRuleStoreDelegate delegate = new InternalStoreDelegate();
     private final DeviceListener deviceListener = new InternalDeviceListener();
 
@@ -149,9 +163,7 @@ public class FlowRuleManager
     protected ExecutorService operationsService =
             Executors.newFixedThreadPool(32, groupedThreads("onos/flowservice", "operations-%d", log));
 
-    private IdGenerator idGenerator;
-
-    private final Map<Long, FlowOperationsProcessor> pendingFlowOperations = new ConcurrentHashMap<>();
+    private FlowRuleBatchCoalescer batchCoalescer;
 
     private NodeId local;
 
@@ -179,14 +191,23 @@ public class FlowRuleManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected NetworkConfigRegistry netCfgService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected MetricsService metricsService;
+
     @Activate
     public void activate(ComponentContext context) {
         store.setDelegate(delegate);
         eventDispatcher.addSink(FlowRuleEvent.class, listenerRegistry);
         deviceService.addListener(deviceListener);
         cfgService.registerProperties(getClass());
+        IdGenerator idGenerator = coreService.getIdGenerator(FLOW_OP_TOPIC);
+        batchCoalescer = new FlowRuleBatchCoalescer(idGenerator, deviceInstallers, store::storeBatch,
+                                                    flowBatchMaxSize, flowBatchWindowMillis);
+        MetricsComponent component = metricsService.registerComponent("FlowRule");
+        MetricsFeature feature = component.registerFeature("batches");
+        batchCoalescer.setMetrics(metricsService.createHistogram(component, feature, "size"),
+                                  metricsService.createTimer(component, feature, "flushLatency"));
         modified(context);
-        idGenerator = coreService.getIdGenerator(FLOW_OP_TOPIC);
         local = clusterService.getLocalNode().id();
         log.info("Started");
     }
@@ -208,6 +229,7 @@ public class FlowRuleManager
         if (context != null) {
             readComponentConfiguration(context);
         }
+        batchCoalescer.configure(flowBatchMaxSize, flowBatchWindowMillis);
         driverProvider.init(new InternalFlowRuleProviderService(driverProvider),
                             deviceService, mastershipService, fallbackFlowPollFrequency);
     }
@@ -272,6 +294,23 @@ public class FlowRuleManager
                          fallbackFlowPollFrequency);
             }
         }
+
+        int size = Tools.getIntegerProperty(properties, FLOW_BATCH_MAX_SIZE, flowBatchMaxSize);
+        if (size > 0) {
+            flowBatchMaxSize = size;
+        } else {
+            log.warn("flowBatchMaxSize must be positive, using current value of {}", flowBatchMaxSize);
+        }
+
+        int window = Tools.getIntegerProperty(properties, FLOW_BATCH_WINDOW_MILLIS, flowBatchWindowMillis);
+        if (window >= 0) {
+            flowBatchWindowMillis = window;
+        } else {
+            log.warn("flowBatchWindowMillis must not be negative, using current value of {} ms",
+                     flowBatchWindowMillis);
+        }
+        log.info("Configured. Flow rule batches hold up to {} operations within {} ms",
+                 flowBatchMaxSize, flowBatchWindowMillis);
     }
 
     @Override
@@ -717,16 +756,8 @@ public class FlowRuleManager
                     break;
 
                 case BATCH_OPERATION_COMPLETED:
-                    // Operation completed, let's retrieve the processor and trigger the callback
-                    FlowOperationsProcessor fops = pendingFlowOperations.remove(
-                            event.subject().batchId());
-                    if (fops != null) {
-                        if (event.result().isSuccess()) {
-                            fops.satisfy(event.deviceId());
-                        } else {
-                            fops.fail(event.deviceId(), event.result().failedItems());
-                        }
-                    } else {
+                    // Operation completed, let's trigger the callbacks of the processors
+                    if (!batchCoalescer.complete(event.subject().batchId(), event.result())) {
                         log.warn("Unable to find flow operations processor for batch: {}", event.subject().batchId());
                     }
                     break;
@@ -783,11 +814,15 @@ public class FlowRuleManager
             pendingDevices.addAll(perDeviceBatches.keySet());
 
             for (DeviceId deviceId : perDeviceBatches.keySet()) {
-                long id = idGenerator.getNewId();
-                final FlowRuleBatchOperation b = new FlowRuleBatchOperation(perDeviceBatches.get(deviceId),
-                                                                            deviceId, id);
-                pendingFlowOperations.put(id, this);
-                deviceInstallers.execute(() -> store.storeBatch(b));
+                batchCoalescer.submit(deviceId, perDeviceBatches.get(deviceId), this::completed);
+            }
+        }
+
+        private void completed(DeviceId devId, boolean success, Set<FlowRule> failures) {
+            if (success) {
+                satisfy(devId);
+            } else {
+                fail(devId, failures);
             }
         }
 
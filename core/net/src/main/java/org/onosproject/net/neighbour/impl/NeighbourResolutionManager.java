@@ -18,6 +18,7 @@ package org.onosproject.net.neighbour.impl;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
 import org.onlab.packet.Ethernet;
@@ -134,7 +135,8 @@ public class NeighbourResolutionManager implements NeighbourResolutionService {
 
         actions = new DefaultNeighbourMessageActions(packetService, edgeService);
 
-        packetService.addProcessor(processor, PacketProcessor.director(1));
+        packetService.addProcessor(processor, PacketProcessor.director(1),
+                                   ImmutableSet.of(buildArpSelector(), buildIcmp6Selector()));
     }
 
     @Deactivate
@@ -216,6 +218,13 @@ public class NeighbourResolutionManager implements NeighbourResolutionService {
                 .build();
     }
 
+    private TrafficSelector buildIcmp6Selector() {
+        return DefaultTrafficSelector.builder()
+                .matchEthType(TYPE_IPV6)
+                .matchIPProtocol(PROTOCOL_ICMP6)
+                .build();
+    }
+
     private TrafficSelector buildNeighborSolicitationSelector() {
         return DefaultTrafficSelector.builder()
                 .matchEthType(TYPE_IPV6)
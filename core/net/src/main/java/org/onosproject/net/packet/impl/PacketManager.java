@@ -16,7 +16,21 @@
 package org.onosproject.net.packet.impl;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onlab.packet.DeserializationException;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IPv4View;
+import org.onlab.packet.IPv6;
+import org.onlab.packet.IPv6View;
+import org.onlab.packet.TCP;
+import org.onlab.packet.UDP;
 import org.onlab.util.ItemNotFoundException;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
@@ -32,6 +46,11 @@ import org.onosproject.net.driver.DriverService;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
+import org.onosproject.net.flow.criteria.Criterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.TcpPortCriterion;
+import org.onosproject.net.flow.criteria.UdpPortCriterion;
 import org.onosproject.net.flowobjective.DefaultForwardingObjective;
 import org.onosproject.net.flowobjective.FlowObjectiveService;
 import org.onosproject.net.flowobjective.ForwardingObjective;
@@ -39,6 +58,7 @@ import org.onosproject.net.flowobjective.Objective;
 import org.onosproject.net.flowobjective.ObjectiveContext;
 import org.onosproject.net.flowobjective.ObjectiveError;
 import org.onosproject.net.packet.DefaultPacketRequest;
+import org.onosproject.net.packet.InboundPacket;
 import org.onosproject.net.packet.OutboundPacket;
 import org.onosproject.net.packet.PacketContext;
 import org.onosproject.net.packet.PacketEvent;
@@ -64,13 +84,16 @@ import org.onosproject.net.packet.PacketInFilter.FilterAction;
 import org.slf4j.Logger;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
@@ -90,11 +113,18 @@ public class PacketManager
     private final Logger log = getLogger(getClass());
 
     private static final String ERROR_NULL_PROCESSOR = "Processor cannot be null";
+    private static final String ERROR_NULL_INTERESTS = "Interests cannot be null";
+    private static final String ERROR_UNSUPPORTED_INTEREST = "Unsupported interest criterion %s";
     private static final String ERROR_NULL_SELECTOR = "Selector cannot be null";
     private static final String ERROR_NULL_APP_ID = "Application ID cannot be null";
     private static final String ERROR_NULL_DEVICE_ID = "Device ID cannot be null";
     private static final String SUPPORT_PACKET_REQUEST_PROPERTY = "supportPacketRequest";
 
+    private static final Set<Criterion.Type> INTEREST_CRITERIA = ImmutableSet.of(
+            Criterion.Type.ETH_TYPE, Criterion.Type.IP_PROTO,
+            Criterion.Type.TCP_SRC, Criterion.Type.TCP_DST,
+            Criterion.Type.UDP_SRC, Criterion.Type.UDP_DST);
+
     private final PacketStoreDelegate delegate = new InternalStoreDelegate();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
@@ -121,6 +151,12 @@ public class PacketManager
 
     private final List<ProcessorEntry> processors = Lists.newCopyOnWriteArrayList();
 
+    // Processors that may be interested in packets of a given EtherType, in
+    // priority order; packets of other EtherTypes only go to the processors
+    // that did not restrict their EtherType. Rebuilt on (un)registration.
+    private volatile Map<Short, List<ProcessorEntry>> processorsByEthType = ImmutableMap.of();
+    private volatile List<ProcessorEntry> processorsForAnyEthType = ImmutableList.of();
+
     private final PacketDriverProvider defaultProvider = new PacketDriverProvider();
 
     private ApplicationId appId;
@@ -167,9 +203,19 @@ public class PacketManager
 
     @Override
     public void addProcessor(PacketProcessor processor, int priority) {
+        addProcessor(processor, priority, ImmutableSet.of());
+    }
+
+    @Override
+    public synchronized void addProcessor(PacketProcessor processor, int priority,
+                                          Set<TrafficSelector> interests) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
-        ProcessorEntry entry = new ProcessorEntry(processor, priority);
+        checkNotNull(interests, ERROR_NULL_INTERESTS);
+        interests.forEach(interest -> interest.criteria().forEach(
+                criterion -> checkArgument(INTEREST_CRITERIA.contains(criterion.type()),
+                                           ERROR_UNSUPPORTED_INTEREST, criterion.type())));
+        ProcessorEntry entry = new ProcessorEntry(processor, priority, interests);
 
         // Insert the new processor according to its priority.
         int i = 0;
@@ -179,10 +225,11 @@ public class PacketManager
             }
         }
         processors.add(i, entry);
+        indexProcessors();
     }
 
     @Override
-    public void removeProcessor(PacketProcessor processor) {
+    public synchronized void removeProcessor(PacketProcessor processor) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
 
@@ -193,6 +240,49 @@ public class PacketManager
                 break;
             }
         }
+        indexProcessors();
+    }
+
+    // Rebuilds the EtherType index of the processors, preserving their order.
+    private void indexProcessors() {
+        Set<Short> ethTypes = Sets.newHashSet();
+        processors.stream()
+                .filter(entry -> entry.ethTypes() != null)
+                .forEach(entry -> ethTypes.addAll(entry.ethTypes()));
+
+        Map<Short, List<ProcessorEntry>> byEthType = Maps.newHashMap();
+        for (Short ethType : ethTypes) {
+            byEthType.put(ethType, processors.stream()
+                    .filter(entry -> entry.ethTypes() == null || entry.ethTypes().contains(ethType))
+                    .collect(ImmutableList.toImmutableList()));
+        }
+        processorsForAnyEthType = processors.stream()
+                .filter(entry -> entry.ethTypes() == null)
+                .collect(ImmutableList.toImmutableList());
+        processorsByEthType = ImmutableMap.copyOf(byEthType);
+    }
+
+    // Returns the processors that may be interested in the given packet.
+    private List<ProcessorEntry> processorsFor(InboundPacket packet) {
+        if (processorsByEthType.isEmpty()) {
+            return processors;
+        }
+        Short ethType = ethType(packet);
+        if (ethType == null) {
+            return processors;
+        }
+        return processorsByEthType.getOrDefault(ethType, processorsForAnyEthType);
+    }
+
+    // Reads the EtherType of the frame, skipping any VLAN tags, without
+    // parsing the whole packet; returns null if it cannot be read.
+    private static Short ethType(InboundPacket packet) {
+        EthernetView view = packet.view();
+        if (view != null) {
+            return view.etherType();
+        }
+        Ethernet parsed = packet.parsed();
+        return parsed != null ? parsed.getEtherType() : null;
     }
 
     @Override
@@ -476,8 +566,11 @@ public class PacketManager
                 }
                 return;
             }
-            // TODO filter packets sent to processors based on registrations
-            for (ProcessorEntry entry : processors) {
+            InboundPacket packet = context.inPacket();
+            for (ProcessorEntry entry : processorsFor(packet)) {
+                if (!entry.isInterested(packet)) {
+                    continue;
+                }
                 try {
                     if (log.isTraceEnabled()) {
                         log.trace("Starting packet processing by {}",
@@ -585,12 +678,76 @@ public class PacketManager
     private class ProcessorEntry implements PacketProcessorEntry {
         private final PacketProcessor processor;
         private final int priority;
+        private final Set<TrafficSelector> interests;
+        private final Set<Short> ethTypes;
+        private final boolean ethTypeOnly;
         private long invocations = 0;
         private long nanos = 0;
 
-        public ProcessorEntry(PacketProcessor processor, int priority) {
+        public ProcessorEntry(PacketProcessor processor, int priority,
+                              Set<TrafficSelector> interests) {
             this.processor = processor;
             this.priority = priority;
+            this.interests = ImmutableSet.copyOf(interests);
+
+            // The EtherTypes are only known if every interest matches on one
+            Set<Short> types = this.interests.isEmpty() ? null : Sets.newHashSet();
+            boolean onlyEthTypes = true;
+            for (TrafficSelector interest : this.interests) {
+                Criterion criterion = interest.getCriterion(Criterion.Type.ETH_TYPE);
+                if (criterion == null) {
+                    types = null;
+                    break;
+                }
+                types.add(((EthTypeCriterion) criterion).ethType().toShort());
+                onlyEthTypes &= interest.criteria().size() == 1;
+            }
+            this.ethTypes = types != null ? ImmutableSet.copyOf(types) : null;
+            this.ethTypeOnly = types != null && onlyEthTypes;
+        }
+
+        /**
+         * Returns the EtherTypes the processor is interested in.
+         *
+         * @return set of EtherTypes; null if interested in any EtherType
+         */
+        Set<Short> ethTypes() {
+            return ethTypes;
+        }
+
+        /**
+         * Indicates whether the processor is interested in the given packet,
+         * assuming its EtherType has already been matched using the index.
+         * Packets whose headers cannot be decoded are handed to the processor
+         * whether they are matched using the frame view or the parsed frame.
+         *
+         * @param packet inbound packet
+         * @return true if the packet is to be given to the processor
+         */
+        boolean isInterested(InboundPacket packet) {
+            if (interests.isEmpty() || ethTypeOnly) {
+                return true;
+            }
+            EthernetView view = packet.view();
+            if (view != null) {
+                try {
+                    for (TrafficSelector interest : interests) {
+                        if (matches(interest, view, packet)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (DeserializationException e) {
+                    return true;
+                }
+            }
+            Ethernet eth = packet.parsed();
+            return eth == null || interests.stream().anyMatch(interest -> matches(interest, eth));
+        }
+
+        @Override
+        public Set<TrafficSelector> interests() {
+            return interests;
         }
 
         @Override
@@ -623,4 +780,91 @@ public class PacketManager
             this.invocations++;
         }
     }
+
+    // Matches the frame view against the criteria of a processor interest;
+    // the frame is only parsed if transport ports need to be matched.
+    // Throws if a header needed for matching cannot be decoded.
+    private static boolean matches(TrafficSelector interest, EthernetView view, InboundPacket packet)
+            throws DeserializationException {
+        for (Criterion criterion : interest.criteria()) {
+            switch (criterion.type()) {
+                case ETH_TYPE:
+                    if (((EthTypeCriterion) criterion).ethType().toShort() != view.etherType()) {
+                        return false;
+                    }
+                    break;
+                case IP_PROTO:
+                    if (!matchesProtocol((IPProtocolCriterion) criterion, view)) {
+                        return false;
+                    }
+                    break;
+                default:
+                    Ethernet eth = packet.parsed();
+                    if (eth == null) {
+                        throw new DeserializationException("Malformed frame");
+                    }
+                    IPacket ip = eth.getPayload();
+                    if (!matchesPort(criterion, ip != null ? ip.getPayload() : null)) {
+                        return false;
+                    }
+            }
+        }
+        return true;
+    }
+
+    // Matches the parsed frame against the criteria of a processor interest.
+    private static boolean matches(TrafficSelector interest, Ethernet eth) {
+        IPacket ip = eth.getPayload();
+        for (Criterion criterion : interest.criteria()) {
+            switch (criterion.type()) {
+                case ETH_TYPE:
+                    if (((EthTypeCriterion) criterion).ethType().toShort() != eth.getEtherType()) {
+                        return false;
+                    }
+                    break;
+                case IP_PROTO:
+                    byte protocol = (byte) ((IPProtocolCriterion) criterion).protocol();
+                    if (!(ip instanceof IPv4 && ((IPv4) ip).getProtocol() == protocol) &&
+                            !(ip instanceof IPv6 && ((IPv6) ip).getNextHeader() == protocol)) {
+                        return false;
+                    }
+                    break;
+                default:
+                    if (!matchesPort(criterion, ip != null ? ip.getPayload() : null)) {
+                        return false;
+                    }
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesProtocol(IPProtocolCriterion criterion, EthernetView view)
+            throws DeserializationException {
+        byte protocol = (byte) criterion.protocol();
+        IPv4View ipv4 = view.ipv4();
+        if (ipv4 != null) {
+            return ipv4.protocol() == protocol;
+        }
+        IPv6View ipv6 = view.ipv6();
+        return ipv6 != null && ipv6.nextHeader() == protocol;
+    }
+
+    private static boolean matchesPort(Criterion criterion, IPacket transport) {
+        switch (criterion.type()) {
+            case TCP_SRC:
+                return transport instanceof TCP &&
+                        ((TCP) transport).getSourcePort() == ((TcpPortCriterion) criterion).tcpPort().toInt();
+            case TCP_DST:
+                return transport instanceof TCP &&
+                        ((TCP) transport).getDestinationPort() == ((TcpPortCriterion) criterion).tcpPort().toInt();
+            case UDP_SRC:
+                return transport instanceof UDP &&
+                        ((UDP) transport).getSourcePort() == ((UdpPortCriterion) criterion).udpPort().toInt();
+            case UDP_DST:
+                return transport instanceof UDP &&
+                        ((UDP) transport).getDestinationPort() == ((UdpPortCriterion) criterion).udpPort().toInt();
+            default:
+                return false;
+        }
+    }
 }
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.net.pi.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.TableId;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.TrafficTreatment;
+import org.onosproject.net.pi.model.PiPipeconf;
+import org.onosproject.net.pi.model.PiPipeconfId;
+import org.onosproject.net.pi.runtime.PiTableEntry;
+import org.onosproject.net.pi.service.PiTranslationException;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Cache of the PI table entries translated from flow rules.
+ * <p>
+ * Entries are keyed by the content of the flow rule which is relevant to its
+ * translation, i.e. the device, table, priority, selector, treatment and
+ * timeout, together with the identifier and fingerprint of the pipeconf, so
+ * that rules re-installed or reconciled with the same content are not
+ * translated again. Unlike {@link FlowRule#equals(Object)}, the treatment and
+ * timeout are part of the key, while the flow and application identifiers are
+ * not, as they do not affect the translation.
+ */
+final class PiFlowRuleTranslationCache {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Null when caching is disabled.
+    private volatile Cache<Key, PiTableEntry> cache;
+
+    /**
+     * Creates a new cache holding up to the given number of entries.
+     *
+     * @param maxSize maximum number of entries; 0 disables caching
+     */
+    PiFlowRuleTranslationCache(int maxSize) {
+        resize(maxSize);
+    }
+
+    /**
+     * Changes the maximum number of entries of the cache, dropping all
+     * entries.
+     *
+     * @param maxSize maximum number of entries; 0 disables caching
+     */
+    void resize(int maxSize) {
+        checkArgument(maxSize >= 0, "Cache size must not be negative");
+        cache = maxSize == 0 ? null : CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Returns the PI table entry cached for the given flow rule and pipeconf,
+     * or the one produced by the given translation, caching it.
+     *
+     * @param rule        flow rule
+     * @param pipeconf    pipeconf
+     * @param translation translation of the flow rule
+     * @return PI table entry
+     * @throws PiTranslationException if the flow rule cannot be translated
+     */
+    PiTableEntry get(FlowRule rule, PiPipeconf pipeconf, Translation translation)
+            throws PiTranslationException {
+        Cache<Key, PiTableEntry> current = cache;
+        if (current == null) {
+            return translation.translate();
+        }
+        Key key = new Key(rule, pipeconf);
+        PiTableEntry entry = current.getIfPresent(key);
+        if (entry != null) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        entry = translation.translate();
+        current.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * Removes the entries translated for the given pipeconf.
+     *
+     * @param pipeconfId pipeconf identifier
+     */
+    void invalidate(PiPipeconfId pipeconfId) {
+        Cache<Key, PiTableEntry> current = cache;
+        if (current != null) {
+            current.asMap().keySet().removeIf(key -> key.pipeconfId.equals(pipeconfId));
+        }
+    }
+
+    /**
+     * Removes the entries translated for the given device.
+     *
+     * @param deviceId device identifier
+     */
+    void invalidate(DeviceId deviceId) {
+        Cache<Key, PiTableEntry> current = cache;
+        if (current != null) {
+            current.asMap().keySet().removeIf(key -> key.deviceId.equals(deviceId));
+        }
+    }
+
+    /**
+     * Returns the number of translations answered from the cache.
+     *
+     * @return hit count
+     */
+    long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of translations not found in the cache, while
+     * caching was enabled.
+     *
+     * @return miss count
+     */
+    long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the ratio of translations answered from the cache.
+     *
+     * @return hit rate between 0 and 1; 0 if nothing was looked up yet
+     */
+    double hitRate() {
+        long hitCount = hits();
+        long total = hitCount + misses();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return cache size
+     */
+    long size() {
+        Cache<Key, PiTableEntry> current = cache;
+        return current == null ? 0 : current.size();
+    }
+
+    /**
+     * Translation of a flow rule to a PI table entry.
+     */
+    @FunctionalInterface
+    interface Translation {
+        /**
+         * Translates the flow rule.
+         *
+         * @return PI table entry
+         * @throws PiTranslationException if the flow rule cannot be translated
+         */
+        PiTableEntry translate() throws PiTranslationException;
+    }
+
+    // Content of a flow rule and pipeconf determining the translation.
+    private static final class Key {
+        private final DeviceId deviceId;
+        private final TableId tableId;
+        private final int priority;
+        private final TrafficSelector selector;
+        private final TrafficTreatment treatment;
+        private final boolean permanent;
+        private final int timeout;
+        private final PiPipeconfId pipeconfId;
+        private final long fingerprint;
+        private final int hash;
+
+        private Key(FlowRule rule, PiPipeconf pipeconf) {
+            this.deviceId = rule.deviceId();
+            this.tableId = rule.table();
+            this.priority = rule.priority();
+            this.selector = rule.selector();
+            this.treatment = rule.treatment();
+            this.permanent = rule.isPermanent();
+            this.timeout = permanent ? 0 : rule.timeout();
+            this.pipeconfId = pipeconf.id();
+            this.fingerprint = pipeconf.fingerprint();
+            this.hash = Objects.hash(deviceId, tableId, priority, selector, treatment,
+                                     permanent, timeout, pipeconfId, fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            return hash == that.hash
+                    && priority == that.priority
+                    && permanent == that.permanent
+                    && timeout == that.timeout
+                    && fingerprint == that.fingerprint
+                    && deviceId.equals(that.deviceId)
+                    && Objects.equals(tableId, that.tableId)
+                    && Objects.equals(selector, that.selector)
+                    && Objects.equals(treatment, that.treatment)
+                    && pipeconfId.equals(that.pipeconfId);
+        }
+    }
+}
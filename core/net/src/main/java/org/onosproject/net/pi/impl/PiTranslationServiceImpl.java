@@ -16,8 +16,16 @@
 
 package org.onosproject.net.pi.impl;
 
+import com.codahale.metrics.Gauge;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.group.Group;
@@ -33,33 +41,65 @@ import org.onosproject.net.pi.service.PiGroupTranslationStore;
 import org.onosproject.net.pi.service.PiGroupTranslator;
 import org.onosproject.net.pi.service.PiMeterTranslationStore;
 import org.onosproject.net.pi.service.PiMeterTranslator;
+import org.onosproject.net.pi.service.PiPipeconfEvent;
+import org.onosproject.net.pi.service.PiPipeconfListener;
+import org.onosproject.net.pi.service.PiPipeconfService;
 import org.onosproject.net.pi.service.PiReplicationGroupTranslationStore;
 import org.onosproject.net.pi.service.PiReplicationGroupTranslator;
 import org.onosproject.net.pi.service.PiTranslationException;
 import org.onosproject.net.pi.service.PiTranslationService;
+import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Dictionary;
+
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.onosproject.net.OsgiPropertyConstants.PTS_FLOW_RULE_CACHE_SIZE;
+import static org.onosproject.net.OsgiPropertyConstants.PTS_FLOW_RULE_CACHE_SIZE_DEFAULT;
 
 /**
  * Implementation of the PI translation service.
  */
-@Component(immediate = true, service = PiTranslationService.class)
+@Component(
+        immediate = true,
+        service = PiTranslationService.class,
+        property = {
+                PTS_FLOW_RULE_CACHE_SIZE + ":Integer=" + PTS_FLOW_RULE_CACHE_SIZE_DEFAULT
+        }
+)
 public class PiTranslationServiceImpl implements PiTranslationService {
 
+    private static final String METRICS_COMPONENT = "PiTranslation";
+    private static final String METRICS_FEATURE = "flowRuleCache";
+    private static final String HITS = "hits";
+    private static final String MISSES = "misses";
+    private static final String HIT_RATE = "hitRate";
+    private static final String SIZE = "size";
+
     private final Logger log = LoggerFactory.getLogger(this.getClass());
 
-    // TODO: implement cache to speed up translation.
+    /** Number of flow rule translations to cache; 0 disables the cache. */
+    private int flowRuleTranslationCacheSize = PTS_FLOW_RULE_CACHE_SIZE_DEFAULT;
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected PiPipeconfService pipeconfService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected ComponentConfigService cfgService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected MetricsService metricsService;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     private PiFlowRuleTranslationStore flowRuleTranslationStore;
 
@@ -77,8 +117,19 @@ public class PiTranslationServiceImpl implements PiTranslationService {
     private PiReplicationGroupTranslator repGroupTranslator;
     private PiMeterTranslator meterTranslator;
 
+    private final PiFlowRuleTranslationCache flowRuleCache =
+            new PiFlowRuleTranslationCache(PTS_FLOW_RULE_CACHE_SIZE_DEFAULT);
+    private final PiPipeconfListener pipeconfListener = new InternalPipeconfListener();
+    private final DeviceListener deviceListener = new InternalDeviceListener();
+    private MetricsComponent metricsComponent;
+
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        cfgService.registerProperties(getClass());
+        modified(context);
+        pipeconfService.addListener(pipeconfListener);
+        deviceService.addListener(deviceListener);
+        registerMetrics();
         flowRuleTranslator = new InternalFlowRuleTranslator(flowRuleTranslationStore);
         groupTranslator = new InternalGroupTranslator(groupTranslationStore);
         repGroupTranslator = new InternalReplicationGroupTranslator(repGroupTranslationStore);
@@ -88,12 +139,64 @@ public class PiTranslationServiceImpl implements PiTranslationService {
 
     @Deactivate
     public void deactivate() {
+        cfgService.unregisterProperties(getClass(), false);
+        pipeconfService.removeListener(pipeconfListener);
+        deviceService.removeListener(deviceListener);
+        removeMetrics();
+        flowRuleCache.resize(0);
         flowRuleTranslator = null;
         groupTranslator = null;
         meterTranslator = null;
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+        int size = Tools.getIntegerProperty(properties, PTS_FLOW_RULE_CACHE_SIZE,
+                                            flowRuleTranslationCacheSize);
+        if (size < 0) {
+            log.warn("{} must not be negative, using current value of {}",
+                     PTS_FLOW_RULE_CACHE_SIZE, flowRuleTranslationCacheSize);
+            return;
+        }
+        flowRuleTranslationCacheSize = size;
+        flowRuleCache.resize(size);
+        log.info("Configured. Flow rule translation cache holds up to {} entries",
+                 flowRuleTranslationCacheSize);
+    }
+
+    private void registerMetrics() {
+        if (metricsService == null) {
+            return;
+        }
+        metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+        MetricsFeature feature = metricsComponent.registerFeature(METRICS_FEATURE);
+        metricsService.registerMetric(metricsComponent, feature, HITS,
+                                      (Gauge<Long>) flowRuleCache::hits);
+        metricsService.registerMetric(metricsComponent, feature, MISSES,
+                                      (Gauge<Long>) flowRuleCache::misses);
+        metricsService.registerMetric(metricsComponent, feature, HIT_RATE,
+                                      (Gauge<Double>) flowRuleCache::hitRate);
+        metricsService.registerMetric(metricsComponent, feature, SIZE,
+                                      (Gauge<Long>) flowRuleCache::size);
+    }
+
+    private void removeMetrics() {
+        if (metricsService == null || metricsComponent == null) {
+            return;
+        }
+        MetricsFeature feature = metricsComponent.registerFeature(METRICS_FEATURE);
+        metricsService.removeMetric(metricsComponent, feature, HITS);
+        metricsService.removeMetric(metricsComponent, feature, MISSES);
+        metricsService.removeMetric(metricsComponent, feature, HIT_RATE);
+        metricsService.removeMetric(metricsComponent, feature, SIZE);
+        metricsComponent = null;
+    }
+
     @Override
     public PiFlowRuleTranslator flowRuleTranslator() {
         return flowRuleTranslator;
@@ -135,8 +238,8 @@ public class PiTranslationServiceImpl implements PiTranslationService {
                 throws PiTranslationException {
             checkNotNull(original);
             checkNotNull(pipeconf);
-            return PiFlowRuleTranslatorImpl
-                    .translate(original, pipeconf, getDevice(original.deviceId()));
+            return flowRuleCache.get(original, pipeconf, () -> PiFlowRuleTranslatorImpl
+                    .translate(original, pipeconf, getDevice(original.deviceId())));
         }
     }
 
@@ -193,5 +296,25 @@ public class PiTranslationServiceImpl implements PiTranslationService {
                     .translate(original, pipeconf, getDevice(original.deviceId()));
         }
     }
-}
 
+    private final class InternalPipeconfListener implements PiPipeconfListener {
+        @Override
+        public void event(PiPipeconfEvent event) {
+            // A pipeconf registered again may come with a different
+            // interpreter, even when its fingerprint is unchanged.
+            flowRuleCache.invalidate(event.subject());
+        }
+    }
+
+    private final class InternalDeviceListener implements DeviceListener {
+        @Override
+        public boolean isRelevant(DeviceEvent event) {
+            return event.type() == DeviceEvent.Type.DEVICE_REMOVED;
+        }
+
+        @Override
+        public void event(DeviceEvent event) {
+            flowRuleCache.invalidate(event.subject().id());
+        }
+    }
+}
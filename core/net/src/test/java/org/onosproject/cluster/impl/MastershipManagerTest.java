@@ -20,6 +20,7 @@ import java.util.Set;
 import java.util.function.Consumer;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.easymock.EasyMock;
 import org.junit.After;
@@ -208,6 +209,17 @@ public class MastershipManagerTest {
         assertEquals("should be two devices:", 2, mgr.getDevicesOf(NID_LOCAL).size());
     }
 
+    @Test
+    public void setMasters() {
+        mgr.setRole(NID_OTHER, DEV_MASTER, MASTER);
+        mgr.setRole(NID_OTHER, DEV_OTHER, MASTER);
+        assertEquals("should be no device:", 0, mgr.getDevicesOf(NID_LOCAL).size());
+        //hand both devices to NID_LOCAL at once
+        Futures.getUnchecked(mgr.setMasters(ImmutableMap.of(DEV_MASTER, NID_LOCAL, DEV_OTHER, NID_LOCAL)));
+        assertEquals("should be two devices:", 2, mgr.getDevicesOf(NID_LOCAL).size());
+        assertEquals("wrong local role:", MASTER, mgr.getLocalRole(DEV_OTHER));
+    }
+
     @Test
     public void termService() {
         MastershipTermService ts = mgr;
@@ -20,14 +20,20 @@ import org.junit.Before;
 import org.junit.Test;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.EventSink;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceEvent;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.NetTestTools.device;
 
 /**
  * Test of the event dispatcher mechanism.
@@ -88,6 +94,33 @@ public class CoreEventDispatcherTest {
         assertTrue(takesTooLong.interrupted);
     }
 
+    @Test
+    public void postWithDispatchLanes() throws Exception {
+        DeviceSink deviceSink = new DeviceSink();
+        deviceSink.latch = new CountDownLatch(100);
+        dispatcher.addSink(DeviceEvent.class, deviceSink);
+        dispatcher.setDispatchLanes(4);
+        assertEquals("incorrect lane count", 4, dispatcher.getDispatchLanes());
+
+        // Use the event time as a sequence number to validate the dispatch order
+        for (int i = 0; i < 100; i++) {
+            if (i == 50) {
+                dispatcher.setDispatchLanes(2);
+            }
+            dispatcher.post(new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, device("d" + i % 5), null, i));
+        }
+        assertTrue("events not dispatched", deviceSink.latch.await(1000, TimeUnit.MILLISECONDS));
+
+        for (int i = 0; i < 5; i++) {
+            List<Long> times = deviceSink.times.get(DeviceId.deviceId("of:d" + i));
+            assertEquals("incorrect event count", 20, times.size());
+            List<Long> sorted = new ArrayList<>(times);
+            Collections.sort(sorted);
+            assertEquals("events dispatched out of order", sorted, times);
+        }
+        dispatcher.removeSink(DeviceEvent.class);
+    }
+
     private void validate(Sink sink, String... strings) {
         int i = 0;
         assertEquals("incorrect event count", strings.length, sink.subjects.size());
@@ -141,6 +174,18 @@ public class CoreEventDispatcherTest {
         }
     }
 
+    private static class DeviceSink implements EventSink<DeviceEvent> {
+        final Map<DeviceId, List<Long>> times = new ConcurrentHashMap<>();
+        CountDownLatch latch;
+
+        @Override
+        public void process(DeviceEvent event) {
+            times.computeIfAbsent(event.subject().id(), id -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(event.time());
+            latch.countDown();
+        }
+    }
+
     private static class TooLongEvent extends AbstractEvent<Type, String> {
         protected TooLongEvent(String subject) {
             super(Type.FOO, subject);
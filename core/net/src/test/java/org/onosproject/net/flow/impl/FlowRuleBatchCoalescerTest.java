@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.flow.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.CompletedBatchOperation;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.oldbatch.FlowRuleBatchEntry;
+import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.onlab.junit.TestTools.assertAfter;
+import static org.onosproject.net.NetTestTools.APP_ID;
+import static org.onosproject.net.NetTestTools.did;
+import static org.onosproject.net.flow.oldbatch.FlowRuleBatchEntry.FlowRuleOperation.ADD;
+import static org.onosproject.net.flow.oldbatch.FlowRuleBatchEntry.FlowRuleOperation.REMOVE;
+
+/**
+ * Tests of the flow rule batch coalescer.
+ */
+public class FlowRuleBatchCoalescerTest {
+
+    private static final DeviceId DID = did("d1");
+
+    private final AtomicLong ids = new AtomicLong();
+    private final List<FlowRuleBatchOperation> batches = new CopyOnWriteArrayList<>();
+    private final Map<String, Boolean> results = new ConcurrentHashMap<>();
+    private final Map<String, Set<FlowRule>> failures = new ConcurrentHashMap<>();
+    private final ManualExecutor executor = new ManualExecutor();
+
+    private FlowRuleBatchCoalescer coalescer;
+
+    @Before
+    public void setUp() {
+        coalescer = new FlowRuleBatchCoalescer(ids::incrementAndGet, executor, batches::add, 1000, 0);
+    }
+
+    private static FlowRule rule(int port) {
+        return DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withSelector(DefaultTrafficSelector.builder().matchInPort(PortNumber.portNumber(port)).build())
+                .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                .withPriority(10)
+                .fromApp(APP_ID)
+                .makePermanent()
+                .build();
+    }
+
+    private void submit(String name, FlowRuleBatchEntry... entries) {
+        coalescer.submit(DID, ImmutableList.copyOf(entries), (deviceId, success, failed) -> {
+            results.put(name, success);
+            failures.put(name, failed);
+        });
+    }
+
+    /**
+     * Tests that submissions queued while a flush is pending are merged, the
+     * last operation on each rule winning.
+     */
+    @Test
+    public void coalesce() {
+        submit("add", new FlowRuleBatchEntry(ADD, rule(1)), new FlowRuleBatchEntry(ADD, rule(2)));
+        submit("remove", new FlowRuleBatchEntry(REMOVE, rule(1)));
+        submit("other", new FlowRuleBatchEntry(ADD, rule(3)));
+        assertThat(batches, hasSize(0));
+
+        executor.runAll();
+        assertThat(batches, hasSize(1));
+        FlowRuleBatchOperation batch = batches.get(0);
+        assertThat(batch.deviceId(), is(DID));
+        assertThat(batch.getOperations(), contains(new FlowRuleBatchEntry(ADD, rule(2)),
+                                                   new FlowRuleBatchEntry(REMOVE, rule(1)),
+                                                   new FlowRuleBatchEntry(ADD, rule(3))));
+        assertThat(results.isEmpty(), is(true));
+
+        assertThat(coalescer.complete(batch.id(), new CompletedBatchOperation(true, Collections.emptySet(), DID)),
+                   is(true));
+        assertThat(results.keySet(), containsInAnyOrder("add", "remove", "other"));
+        assertThat(results.values().stream().allMatch(Boolean::booleanValue), is(true));
+        assertThat(coalescer.complete(batch.id(), new CompletedBatchOperation(true, Collections.emptySet(), DID)),
+                   is(false));
+    }
+
+    /**
+     * Tests that batches do not grow beyond the maximum size, without
+     * splitting submissions.
+     */
+    @Test
+    public void maxBatchSize() {
+        coalescer.configure(2, 0);
+        submit("a", new FlowRuleBatchEntry(ADD, rule(1)));
+        submit("b", new FlowRuleBatchEntry(ADD, rule(2)), new FlowRuleBatchEntry(ADD, rule(3)));
+        submit("c", new FlowRuleBatchEntry(ADD, rule(4)));
+
+        executor.runAll();
+        assertThat(batches, hasSize(3));
+        assertThat(batches.get(0).size(), is(1));
+        assertThat(batches.get(1).size(), is(2));
+        assertThat(batches.get(2).size(), is(1));
+    }
+
+    /**
+     * Tests that the failures of a batch are attributed to the submissions of
+     * the failed rules.
+     */
+    @Test
+    public void failures() {
+        submit("ok", new FlowRuleBatchEntry(ADD, rule(1)));
+        submit("ko", new FlowRuleBatchEntry(ADD, rule(2)));
+        executor.runAll();
+        coalescer.complete(batches.get(0).id(), new CompletedBatchOperation(false, ImmutableSet.of(rule(2)), DID));
+        assertThat(results.get("ok"), is(true));
+        assertThat(results.get("ko"), is(false));
+        assertThat(failures.get("ko"), contains(rule(2)));
+
+        submit("unknown", new FlowRuleBatchEntry(ADD, rule(3)));
+        executor.runAll();
+        coalescer.complete(batches.get(1).id(), new CompletedBatchOperation(false, Collections.emptySet(), DID));
+        assertThat(results.get("unknown"), is(false));
+    }
+
+    /**
+     * Tests that the batch window holds back the flush until it elapses or
+     * the batch is full.
+     */
+    @Test
+    public void batchWindow() {
+        coalescer = new FlowRuleBatchCoalescer(ids::incrementAndGet, MoreExecutors.directExecutor(),
+                                               batches::add, 3, 200);
+        submit("a", new FlowRuleBatchEntry(ADD, rule(1)));
+        submit("b", new FlowRuleBatchEntry(ADD, rule(2)));
+        assertThat(batches, hasSize(0));
+        submit("c", new FlowRuleBatchEntry(ADD, rule(3)));
+        assertThat(batches, hasSize(1));
+        assertThat(batches.get(0).size(), is(3));
+
+        submit("d", new FlowRuleBatchEntry(ADD, rule(4)));
+        assertThat(batches, hasSize(1));
+        assertAfter(100, 2000, () -> assertThat(batches, hasSize(2)));
+        assertThat(batches.get(1).getOperations(), contains(new FlowRuleBatchEntry(ADD, rule(4))));
+        assertThat(results.get("d"), nullValue());
+    }
+
+    // Executor running its tasks only when told to.
+    private static final class ManualExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
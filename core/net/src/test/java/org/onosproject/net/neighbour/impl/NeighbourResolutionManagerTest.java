@@ -93,7 +93,7 @@ public class NeighbourResolutionManagerTest {
         packetService.requestPackets(anyObject(TrafficSelector.class),
                 anyObject(PacketPriority.class), anyObject(ApplicationId.class));
         expectLastCall().anyTimes();
-        packetService.addProcessor(anyObject(PacketProcessor.class), anyInt());
+        packetService.addProcessor(anyObject(PacketProcessor.class), anyInt(), anyObject());
         expectLastCall().andDelegateTo(new TestPacketService()).once();
         packetService.cancelPackets(anyObject(TrafficSelector.class),
                 anyObject(PacketPriority.class), anyObject(ApplicationId.class));
@@ -18,14 +18,25 @@ package org.onosproject.net.packet.impl;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.packet.ARP;
+import org.onlab.packet.Data;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.Ip4Address;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.UDP;
 import org.onosproject.cluster.ClusterServiceAdapter;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.TestListener;
 import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.Device;
@@ -37,19 +48,30 @@ import org.onosproject.net.driver.DefaultDriver;
 import org.onosproject.net.driver.DriverRegistry;
 import org.onosproject.net.driver.impl.DriverManager;
 import org.onosproject.net.driver.impl.DriverRegistryManager;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.packet.DefaultInboundPacket;
 import org.onosproject.net.packet.DefaultOutboundPacket;
+import org.onosproject.net.packet.DefaultPacketContext;
 import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketProcessor;
 import org.onosproject.net.packet.PacketProgrammable;
+import org.onosproject.net.packet.PacketProvider;
 import org.onosproject.net.packet.PacketProviderRegistry;
+import org.onosproject.net.packet.PacketProviderService;
 import org.onosproject.net.pi.PiPipeconfServiceAdapter;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.provider.TestProvider;
 import org.onosproject.store.trivial.SimplePacketStore;
 
 import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.junit.Assert.assertEquals;
 import static org.onosproject.net.NetTestTools.injectEventDispatcher;
 
@@ -77,6 +99,14 @@ public class PacketManagerTest {
 
     private TestDriverManager driverService;
 
+    private static final ConnectPoint CP = ConnectPoint.deviceConnectPoint("foo:002/1");
+    private static final MacAddress SRC_MAC = MacAddress.valueOf("00:00:00:00:00:01");
+    private static final MacAddress DST_MAC = MacAddress.valueOf("00:00:00:00:00:02");
+    private static final Ip4Address SRC_IP = Ip4Address.valueOf("10.0.0.1");
+    private static final Ip4Address DST_IP = Ip4Address.valueOf("10.0.0.2");
+    private static final int SRC_PORT = 5000;
+    private static final int DST_PORT = 5001;
+
     @Before
     public void setUp() {
         mgr = new PacketManager();
@@ -108,6 +138,125 @@ public class PacketManagerTest {
         assertEquals("Packet not emitted correctly", packet, emittedPacket);
     }
 
+    /**
+     * Tests that packets are only given to the processors interested in them.
+     */
+    @Test
+    public void processorInterests() {
+        List<String> processed = Lists.newArrayList();
+        mgr.addProcessor(context -> processed.add("any"), PacketProcessor.director(1));
+        mgr.addProcessor(context -> processed.add("arp"), PacketProcessor.advisor(1),
+                         ImmutableSet.of(DefaultTrafficSelector.builder()
+                                                 .matchEthType(Ethernet.TYPE_ARP).build()));
+        mgr.addProcessor(context -> processed.add("udp"), PacketProcessor.advisor(2),
+                         ImmutableSet.of(DefaultTrafficSelector.builder()
+                                                 .matchEthType(Ethernet.TYPE_IPV4)
+                                                 .matchIPProtocol(IPv4.PROTOCOL_UDP)
+                                                 .matchUdpDst(TpPort.tpPort(DST_PORT)).build()));
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+
+        Ethernet arp = ARP.buildArpRequest(SRC_MAC.toBytes(), SRC_IP.toOctets(), DST_IP.toOctets(),
+                                           Ethernet.VLAN_UNTAGGED);
+        providerService.processPacket(new TestPacketContext(arp.serialize()));
+        assertThat(processed, contains("arp", "any"));
+
+        processed.clear();
+        providerService.processPacket(new TestPacketContext(udp(DST_PORT).serialize()));
+        assertThat(processed, contains("udp", "any"));
+
+        processed.clear();
+        providerService.processPacket(new TestPacketContext(udp(SRC_PORT).serialize()));
+        assertThat(processed, contains("any"));
+
+        processed.clear();
+        Ethernet tagged = udp(DST_PORT).setVlanID((short) 10);
+        providerService.processPacket(new TestPacketContext(tagged.serialize()));
+        assertThat(processed, contains("udp", "any"));
+    }
+
+    /**
+     * Tests that packets which cannot be decoded are given to processors
+     * regardless of their interests, whether or not a frame view is available.
+     */
+    @Test
+    public void malformedPacketInterests() {
+        List<String> processed = Lists.newArrayList();
+        mgr.addProcessor(context -> processed.add("any"), PacketProcessor.director(1));
+        mgr.addProcessor(context -> processed.add("ipv4"), PacketProcessor.advisor(1),
+                         ImmutableSet.of(DefaultTrafficSelector.builder()
+                                                 .matchEthType(Ethernet.TYPE_IPV4)
+                                                 .matchIPProtocol(IPv4.PROTOCOL_TCP).build()));
+        mgr.addProcessor(context -> processed.add("udp"), PacketProcessor.advisor(2),
+                         ImmutableSet.of(DefaultTrafficSelector.builder()
+                                                 .matchEthType(Ethernet.TYPE_IPV4)
+                                                 .matchIPProtocol(IPv4.PROTOCOL_UDP)
+                                                 .matchUdpDst(TpPort.tpPort(DST_PORT)).build()));
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+
+        // IPv4 frame truncated in the middle of its IP header
+        byte[] frame = udp(DST_PORT).serialize();
+        byte[] truncated = new byte[Ethernet.ETHERNET_HEADER_LENGTH + 10];
+        System.arraycopy(frame, 0, truncated, 0, truncated.length);
+        providerService.processPacket(new TestPacketContext(truncated));
+        assertThat(processed, contains("ipv4", "udp", "any"));
+
+        processed.clear();
+        providerService.processPacket(new DefaultPacketContext(
+                0, new DefaultInboundPacket(CP, (Ethernet) null, null), null, false) {
+            @Override
+            public void send() {
+            }
+        });
+        assertThat(processed, contains("ipv4", "udp", "any"));
+    }
+
+    /**
+     * Tests that processor interests can only match on supported criteria.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedProcessorInterest() {
+        mgr.addProcessor(context -> { }, PacketProcessor.director(1),
+                         ImmutableSet.of(DefaultTrafficSelector.builder().matchEthDst(DST_MAC).build()));
+    }
+
+    private static Ethernet udp(int dstPort) {
+        UDP udp = new UDP();
+        udp.setSourcePort(SRC_PORT);
+        udp.setDestinationPort(dstPort);
+        udp.setPayload(new Data(new byte[8]));
+        IPv4 ipv4 = new IPv4();
+        ipv4.setSourceAddress(SRC_IP.toInt());
+        ipv4.setDestinationAddress(DST_IP.toInt());
+        ipv4.setProtocol(IPv4.PROTOCOL_UDP);
+        ipv4.setPayload(udp);
+        Ethernet eth = new Ethernet();
+        eth.setSourceMACAddress(SRC_MAC);
+        eth.setDestinationMACAddress(DST_MAC);
+        eth.setEtherType(Ethernet.TYPE_IPV4);
+        eth.setPayload(ipv4);
+        return eth;
+    }
+
+    private static class TestPacketContext extends DefaultPacketContext {
+        TestPacketContext(byte[] frame) {
+            super(0, new DefaultInboundPacket(CP, ByteBuffer.wrap(frame), Optional.empty()), null, false);
+        }
+
+        @Override
+        public void send() {
+        }
+    }
+
+    private static class TestPacketProvider extends TestProvider implements PacketProvider {
+        TestPacketProvider() {
+            super(FOO_PID);
+        }
+
+        @Override
+        public void emit(OutboundPacket packet) {
+        }
+    }
+
     private static class TestDeviceService extends DeviceServiceAdapter {
         @Override
         public int getDeviceCount() {
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.net.pi.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.pi.model.DefaultPiPipeconf;
+import org.onosproject.net.pi.model.PiPipeconf;
+import org.onosproject.net.pi.model.PiPipeconfId;
+import org.onosproject.net.pi.model.PiPipelineModel;
+import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.runtime.PiTableEntry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Test for {@link PiFlowRuleTranslationCache}.
+ */
+public class PiFlowRuleTranslationCacheTest {
+
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("device:dummy:1");
+    private static final PiPipeconf PIPECONF = DefaultPiPipeconf.builder()
+            .withId(new PiPipeconfId("dummy"))
+            .withPipelineModel(createNiceMock(PiPipelineModel.class))
+            .build();
+
+    private final AtomicInteger translations = new AtomicInteger();
+    private PiFlowRuleTranslationCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new PiFlowRuleTranslationCache(10);
+    }
+
+    private static FlowRule rule(int appId, int outPort) {
+        return DefaultFlowRule.builder()
+                .forDevice(DEVICE_ID)
+                .forTable(0)
+                .withSelector(DefaultTrafficSelector.builder().matchInPort(PortNumber.portNumber(1)).build())
+                .withTreatment(DefaultTrafficTreatment.builder().setOutput(PortNumber.portNumber(outPort)).build())
+                .withPriority(10)
+                .fromApp(new DefaultApplicationId(appId, "test"))
+                .makePermanent()
+                .build();
+    }
+
+    private PiTableEntry translate(FlowRule rule) throws Exception {
+        return cache.get(rule, PIPECONF, () -> {
+            translations.incrementAndGet();
+            return PiTableEntry.builder().forTable(PiTableId.of("table0")).build();
+        });
+    }
+
+    /**
+     * Tests that rules with the same content are translated once, whatever
+     * their application, while a different treatment is translated again.
+     */
+    @Test
+    public void testHitsAndMisses() throws Exception {
+        PiTableEntry entry = translate(rule(1, 2));
+        assertThat(translate(rule(2, 2)), sameInstance(entry));
+        assertThat(translations.get(), is(1));
+
+        translate(rule(1, 3));
+        assertThat(translations.get(), is(2));
+        assertThat(cache.hits(), is(1L));
+        assertThat(cache.misses(), is(2L));
+        assertThat(cache.size(), is(2L));
+        assertThat(cache.hitRate(), is(1.0 / 3));
+    }
+
+    /**
+     * Tests that the entries of a pipeconf or device are evicted on demand.
+     */
+    @Test
+    public void testInvalidate() throws Exception {
+        translate(rule(1, 2));
+        cache.invalidate(new PiPipeconfId("other"));
+        cache.invalidate(DeviceId.deviceId("device:dummy:2"));
+        assertThat(cache.size(), is(1L));
+
+        cache.invalidate(PIPECONF.id());
+        assertThat(cache.size(), is(0L));
+        translate(rule(1, 2));
+        cache.invalidate(DEVICE_ID);
+        assertThat(cache.size(), is(0L));
+        translate(rule(1, 2));
+        assertThat(translations.get(), is(3));
+    }
+
+    /**
+     * Tests that a cache of size 0 always translates.
+     */
+    @Test
+    public void testDisabled() throws Exception {
+        cache.resize(0);
+        translate(rule(1, 2));
+        translate(rule(1, 2));
+        assertThat(translations.get(), is(2));
+        assertThat(cache.size(), is(0L));
+        assertThat(cache.hitRate(), is(0.0));
+    }
+}
@@ -32,6 +32,9 @@ public final class OsgiPropertyConstants {
     public static final String ANTI_ENTROPY_PERIOD_MILLIS = "antiEntropyPeriod";
     public static final int ANTI_ENTROPY_PERIOD_MILLIS_DEFAULT = 5000;
 
+    public static final String DELTA_BACKUP_ENABLED = "deltaBackupEnabled";
+    public static final boolean DELTA_BACKUP_ENABLED_DEFAULT = false;
+
     public static final String EC_FLOW_RULE_STORE_PERSISTENCE_ENABLED = "persistenceEnabled";
     public static final boolean EC_FLOW_RULE_STORE_PERSISTENCE_ENABLED_DEFAULT = false;
 
@@ -67,4 +70,7 @@ public final class OsgiPropertyConstants {
 
     public static final String MAX_PATHS = "maxPaths";
     public static final int MAX_PATHS_DEFAULT = -1;
+
+    public static final String PATH_CACHE_SIZE = "pathCacheSize";
+    public static final int PATH_CACHE_SIZE_DEFAULT = 0;
 }
@@ -27,6 +27,7 @@ import org.onosproject.core.Version;
 import org.onosproject.core.VersionService;
 import org.onosproject.event.Change;
 import org.onosproject.store.AbstractStore;
+import org.onosproject.store.service.AsyncLeaderElector;
 import org.onosproject.store.service.CoordinationService;
 import org.onosproject.store.service.DistributedPrimitive.Status;
 import org.onosproject.store.service.LeaderElector;
@@ -44,14 +45,20 @@ import org.slf4j.Logger;
 import java.util.Dictionary;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
+import static org.onosproject.store.service.DistributedPrimitive.DEFAULT_OPERATION_TIMEOUT_MILLIS;
 import static org.osgi.service.component.annotations.ReferenceCardinality.MANDATORY;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.onosproject.store.OsgiPropertyConstants.*;
@@ -95,6 +102,7 @@ public class DistributedLeadershipStore
 
     private ExecutorService statusChangeHandler;
     private NodeId localNodeId;
+    private AsyncLeaderElector asyncLeaderElector;
     private LeaderElector leaderElector;
     private final Map<String, Leadership> localLeaderCache = Maps.newConcurrentMap();
     private final UpgradeEventListener upgradeListener = new InternalUpgradeEventListener();
@@ -170,12 +178,12 @@ public class DistributedLeadershipStore
         statusChangeHandler = Executors.newSingleThreadExecutor(
                 groupedThreads("onos/store/dist/cluster/leadership", "status-change-handler", log));
         localNodeId = clusterService.getLocalNode().id();
-        leaderElector = storageService.leaderElectorBuilder()
+        asyncLeaderElector = storageService.leaderElectorBuilder()
                       .withName("onos-leadership-elections")
                       .withElectionTimeout(electionTimeoutMillis)
                       .withRelaxedReadConsistency()
-                      .build()
-                      .asLeaderElector();
+                      .build();
+        leaderElector = asyncLeaderElector.asLeaderElector();
         leaderElector.addChangeListener(leadershipChangeListener);
         leaderElector.addStatusChangeListener(clientStatusListener);
         upgradeService.addListener(upgradeListener);
@@ -200,12 +208,12 @@ public class DistributedLeadershipStore
 
         if (newElectionTimeoutMillis != electionTimeoutMillis) {
             electionTimeoutMillis = newElectionTimeoutMillis;
-            leaderElector = storageService.leaderElectorBuilder()
+            asyncLeaderElector = storageService.leaderElectorBuilder()
                     .withName("onos-leadership-elections")
                     .withElectionTimeout(electionTimeoutMillis)
                     .withRelaxedReadConsistency()
-                    .build()
-                    .asLeaderElector();
+                    .build();
+            leaderElector = asyncLeaderElector.asLeaderElector();
         }
     }
 
@@ -245,6 +253,44 @@ public class DistributedLeadershipStore
         return leaderElector.promote(getTopicFor(topic, nodeId), nodeId);
     }
 
+    @Override
+    public Map<String, Boolean> moveLeaderships(Map<String, NodeId> transfers) {
+        return applyAll(transfers, (topic, toNodeId) ->
+                asyncLeaderElector.anoint(getTopicFor(topic, toNodeId), toNodeId));
+    }
+
+    @Override
+    public Map<String, Boolean> makeTopCandidates(Map<String, NodeId> promotions) {
+        return applyAll(promotions, (topic, nodeId) ->
+                asyncLeaderElector.promote(getTopicFor(topic, nodeId), nodeId));
+    }
+
+    /**
+     * Issues an asynchronous elector operation for each topic at once and waits
+     * for all of them, rather than waiting for each operation in turn.
+     *
+     * @param requests mapping from topic to node identifier
+     * @param operation elector operation to apply to each topic
+     * @return mapping from topic to the result of its operation; {@code false}
+     * if the operation failed or did not complete in time
+     */
+    private Map<String, Boolean> applyAll(Map<String, NodeId> requests,
+                                          BiFunction<String, NodeId, CompletableFuture<Boolean>> operation) {
+        Map<String, CompletableFuture<Boolean>> futures = Maps.newHashMapWithExpectedSize(requests.size());
+        requests.forEach((topic, nodeId) ->
+                futures.put(topic, operation.apply(topic, nodeId).exceptionally(error -> false)));
+        try {
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+                    .get(DEFAULT_OPERATION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Failed to complete {} leadership operations", requests.size(), e);
+        }
+        return futures.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getNow(false)));
+    }
+
     @Override
     public Leadership getLeadership(String topic) {
         Leadership leadership = leaderElector.getLeadership(getActiveTopic(topic));
@@ -73,6 +73,7 @@ public class DeviceFlowTable {
         .register(BucketId.class)
         .register(FlowBucket.class)
         .register(FlowBucketDigest.class)
+        .register(FlowBucketDelta.class)
         .register(LogicalTimestamp.class)
         .register(Timestamped.class)
         .build());
@@ -83,6 +84,7 @@ public class DeviceFlowTable {
     private final MessageSubject getDigestsSubject;
     private final MessageSubject getBucketSubject;
     private final MessageSubject backupSubject;
+    private final MessageSubject backupDeltaSubject;
     private final MessageSubject getFlowsSubject;
 
     private final DeviceId deviceId;
@@ -100,6 +102,7 @@ public class DeviceFlowTable {
     private volatile long activeTerm;
 
     private long backupPeriod;
+    private volatile boolean deltaBackupEnabled;
 
     private final LifecycleEventListener lifecycleEventListener = new LifecycleEventListener() {
         @Override
@@ -125,7 +128,8 @@ public class DeviceFlowTable {
         ScheduledExecutorService scheduler,
         Executor executor,
         long backupPeriod,
-        long antiEntropyPeriod) {
+        long antiEntropyPeriod,
+        boolean deltaBackupEnabled) {
         this.deviceId = deviceId;
         this.clusterCommunicator = clusterCommunicator;
         this.clusterService = clusterService;
@@ -143,12 +147,14 @@ public class DeviceFlowTable {
         getDigestsSubject = new MessageSubject(String.format("flow-store-%s-digests", deviceId));
         getBucketSubject = new MessageSubject(String.format("flow-store-%s-bucket", deviceId));
         backupSubject = new MessageSubject(String.format("flow-store-%s-backup", deviceId));
+        backupDeltaSubject = new MessageSubject(String.format("flow-store-%s-backup-delta", deviceId));
         getFlowsSubject = new MessageSubject(String.format("flow-store-%s-flows", deviceId));
 
         addListeners();
 
         setBackupPeriod(backupPeriod);
         setAntiEntropyPeriod(antiEntropyPeriod);
+        setDeltaBackupEnabled(deltaBackupEnabled);
         registerSubscribers();
 
         scheduleBackups();
@@ -182,6 +188,15 @@ public class DeviceFlowTable {
                 TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Sets whether backups should only replicate the changes since the last successful backup.
+     *
+     * @param deltaBackupEnabled whether to replicate bucket deltas instead of whole buckets
+     */
+    void setDeltaBackupEnabled(boolean deltaBackupEnabled) {
+        this.deltaBackupEnabled = deltaBackupEnabled;
+    }
+
     /**
      * Counts the flows in the table.
      *
@@ -486,15 +501,17 @@ public class DeviceFlowTable {
         BackupOperation operation = new BackupOperation(nodeId, bucket.bucketId().bucket());
         if (startBackup(operation, timestamp)) {
             CompletableFuture<Void> future = new CompletableFuture<>();
-            backup(bucket, nodeId).whenCompleteAsync((succeeded, error) -> {
+            backup(bucket, nodeId, lastBackupTimes.get(operation)).whenCompleteAsync((succeeded, error) -> {
                 if (error != null) {
                     log.debug("Backup operation {} failed", operation, error);
                     failBackup(operation);
                 } else if (succeeded) {
                     succeedBackup(operation, timestamp);
                 } else {
-                    log.debug("Backup operation {} failed: term mismatch", operation);
+                    // Reset the operation so that the next backup replicates the whole bucket.
+                    log.debug("Backup operation {} failed: term or timestamp mismatch", operation);
                     failBackup(operation);
+                    resetBackup(operation);
                 }
                 future.complete(null);
             }, executor);
@@ -554,16 +571,27 @@ public class DeviceFlowTable {
 
     /**
      * Performs the given backup operation.
+     * <p>
+     * If delta backups are enabled and the node has acknowledged a prior backup of the bucket, only the changes
+     * since that backup are replicated. The whole bucket is replicated if the changes are no longer known.
      *
      * @param bucket the bucket to backup
      * @param nodeId the node to which to backup the bucket
+     * @param lastBackupTime the timestamp of the last successful backup to the node or {@code null}
      * @return a future to be completed with a boolean indicating whether the backup operation was successful
      */
-    private CompletableFuture<Boolean> backup(FlowBucket bucket, NodeId nodeId) {
-        if (log.isDebugEnabled()) {
-            log.debug("Backing up {} flow entries in bucket {} to {}", bucket.count(), bucket.bucketId(), nodeId);
-        }
+    private CompletableFuture<Boolean> backup(FlowBucket bucket, NodeId nodeId, LogicalTimestamp lastBackupTime) {
         synchronized (bucket) {
+            if (deltaBackupEnabled && lastBackupTime != null) {
+                FlowBucketDelta delta = bucket.getDelta(lastBackupTime);
+                if (delta != null) {
+                    log.debug("Backing up {} to {}", delta, nodeId);
+                    return sendWithTimestamp(delta, backupDeltaSubject, nodeId);
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Backing up {} flow entries in bucket {} to {}", bucket.count(), bucket.bucketId(), nodeId);
+            }
             return sendWithTimestamp(bucket, backupSubject, nodeId);
         }
     }
@@ -598,6 +626,41 @@ public class DeviceFlowTable {
         }
     }
 
+    /**
+     * Handles a flow bucket delta backup from a remote peer.
+     *
+     * @param delta the flow bucket delta to back up
+     * @return indicates whether the delta was applied to the local bucket
+     */
+    private boolean onBackupDelta(FlowBucketDelta delta) {
+        log.debug("{} - Received {} to backup", deviceId, delta);
+
+        try {
+            DeviceReplicaInfo replicaInfo = lifecycleManager.getReplicaInfo();
+
+            // If the backup is for a different term, reject the request until we learn about the new term.
+            if (delta.term() != replicaInfo.term()) {
+                log.debug("Term mismatch for device {}: {} != {}", deviceId, delta.term(), replicaInfo);
+                return false;
+            }
+
+            // If the local bucket is missing changes that precede the delta, reject the request to force
+            // the master to replicate the whole bucket.
+            FlowBucket bucket = getBucket(delta.bucketId().bucket());
+            synchronized (bucket) {
+                if (!bucket.applyDelta(delta)) {
+                    log.debug("Bucket {} at {} is missing changes preceding {}",
+                        bucket.bucketId(), bucket.timestamp(), delta);
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Failure processing backup request", e);
+            return false;
+        }
+    }
+
     /**
      * Runs the anti-entropy protocol.
      */
@@ -911,6 +974,7 @@ public class DeviceFlowTable {
         receiveWithTimestamp(getDigestsSubject, v -> getDigests());
         receiveWithTimestamp(getBucketSubject, this::onGetBucket);
         receiveWithTimestamp(backupSubject, this::onBackup);
+        receiveWithTimestamp(backupDeltaSubject, this::onBackupDelta);
         clusterCommunicator.<BucketId, Set<FlowEntry>>addSubscriber(
             getFlowsSubject, SERIALIZER::decode, this::getFlowEntries, SERIALIZER::encode);
     }
@@ -922,6 +986,7 @@ public class DeviceFlowTable {
         clusterCommunicator.removeSubscriber(getDigestsSubject);
         clusterCommunicator.removeSubscriber(getBucketSubject);
         clusterCommunicator.removeSubscriber(backupSubject);
+        clusterCommunicator.removeSubscriber(backupDeltaSubject);
         clusterCommunicator.removeSubscriber(getFlowsSubject);
     }
 
@@ -125,6 +125,7 @@ import static org.onosproject.store.OsgiPropertyConstants.*;
                 MESSAGE_HANDLER_THREAD_POOL_SIZE + ":Integer=" + MESSAGE_HANDLER_THREAD_POOL_SIZE_DEFAULT,
                 BACKUP_PERIOD_MILLIS + ":Integer=" + BACKUP_PERIOD_MILLIS_DEFAULT,
                 ANTI_ENTROPY_PERIOD_MILLIS + ":Integer=" + ANTI_ENTROPY_PERIOD_MILLIS_DEFAULT,
+                DELTA_BACKUP_ENABLED + ":Boolean=" + DELTA_BACKUP_ENABLED_DEFAULT,
                 EC_FLOW_RULE_STORE_PERSISTENCE_ENABLED + ":Boolean=" + EC_FLOW_RULE_STORE_PERSISTENCE_ENABLED_DEFAULT,
                 MAX_BACKUP_COUNT + ":Integer=" + MAX_BACKUP_COUNT_DEFAULT
         }
@@ -147,6 +148,9 @@ public class ECFlowRuleStore
     /** Delay in ms between anti-entropy runs. */
     private int antiEntropyPeriod = ANTI_ENTROPY_PERIOD_MILLIS_DEFAULT;
 
+    /** Indicates whether backups should only replicate the flow changes since the last backup. */
+    private boolean deltaBackupEnabled = DELTA_BACKUP_ENABLED_DEFAULT;
+
     /** Indicates whether or not changes in the flow table should be persisted to disk. */
     private boolean persistenceEnabled = EC_FLOW_RULE_STORE_PERSISTENCE_ENABLED_DEFAULT;
 
@@ -280,6 +284,7 @@ public class ECFlowRuleStore
         int newBackupPeriod;
         int newBackupCount;
         int newAntiEntropyPeriod;
+        boolean newDeltaBackupEnabled;
         try {
             String s = get(properties, "msgHandlerPoolSize");
             newPoolSize = isNullOrEmpty(s) ? msgHandlerPoolSize : Integer.parseInt(s.trim());
@@ -292,11 +297,15 @@ public class ECFlowRuleStore
 
             s = get(properties, ANTI_ENTROPY_PERIOD_MILLIS);
             newAntiEntropyPeriod = isNullOrEmpty(s) ? antiEntropyPeriod : Integer.parseInt(s.trim());
+
+            s = get(properties, DELTA_BACKUP_ENABLED);
+            newDeltaBackupEnabled = isNullOrEmpty(s) ? deltaBackupEnabled : Boolean.parseBoolean(s.trim());
         } catch (NumberFormatException | ClassCastException e) {
             newPoolSize = MESSAGE_HANDLER_THREAD_POOL_SIZE_DEFAULT;
             newBackupPeriod = BACKUP_PERIOD_MILLIS_DEFAULT;
             newBackupCount = MAX_BACKUP_COUNT_DEFAULT;
             newAntiEntropyPeriod = ANTI_ENTROPY_PERIOD_MILLIS_DEFAULT;
+            newDeltaBackupEnabled = DELTA_BACKUP_ENABLED_DEFAULT;
         }
 
         if (newBackupPeriod != backupPeriod) {
@@ -309,6 +318,11 @@ public class ECFlowRuleStore
             flowTable.setAntiEntropyPeriod(newAntiEntropyPeriod);
         }
 
+        if (newDeltaBackupEnabled != deltaBackupEnabled) {
+            deltaBackupEnabled = newDeltaBackupEnabled;
+            flowTable.setDeltaBackupEnabled(newDeltaBackupEnabled);
+        }
+
         if (newPoolSize != msgHandlerPoolSize) {
             msgHandlerPoolSize = newPoolSize;
             ExecutorService oldMsgHandler = messageHandlingExecutor;
@@ -351,8 +365,8 @@ public class ECFlowRuleStore
     }
 
     private void logConfig(String prefix) {
-        log.info("{} with msgHandlerPoolSize = {}; backupPeriod = {}, backupCount = {}",
-            prefix, msgHandlerPoolSize, backupPeriod, backupCount);
+        log.info("{} with msgHandlerPoolSize = {}; backupPeriod = {}, backupCount = {}, deltaBackupEnabled = {}",
+            prefix, msgHandlerPoolSize, backupPeriod, backupCount, deltaBackupEnabled);
     }
 
     @Override
@@ -701,7 +715,8 @@ public class ECFlowRuleStore
                 backupScheduler,
                 new OrderedExecutor(backupExecutor),
                 backupPeriod,
-                antiEntropyPeriod));
+                antiEntropyPeriod,
+                deltaBackupEnabled));
         }
 
         /**
@@ -722,6 +737,15 @@ public class ECFlowRuleStore
             flowTables.values().forEach(flowTable -> flowTable.setAntiEntropyPeriod(antiEntropyPeriod));
         }
 
+        /**
+         * Sets whether flow table backups should only replicate changes.
+         *
+         * @param deltaBackupEnabled whether to replicate bucket deltas instead of whole buckets
+         */
+        void setDeltaBackupEnabled(boolean deltaBackupEnabled) {
+            flowTables.values().forEach(flowTable -> flowTable.setDeltaBackupEnabled(deltaBackupEnabled));
+        }
+
         /**
          * Returns the flow table for a specific device.
          *
@@ -739,7 +763,8 @@ public class ECFlowRuleStore
                 backupScheduler,
                 new OrderedExecutor(backupExecutor),
                 backupPeriod,
-                antiEntropyPeriod));
+                antiEntropyPeriod,
+                deltaBackupEnabled));
         }
 
         /**
@@ -15,11 +15,15 @@
  */
 package org.onosproject.store.flow.impl;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.onosproject.net.flow.DefaultFlowEntry;
 import org.onosproject.net.flow.FlowEntry;
@@ -38,11 +42,17 @@ import org.slf4j.LoggerFactory;
  */
 public class FlowBucket {
     private static final Logger LOGGER = LoggerFactory.getLogger(FlowBucket.class);
+    private static final int MAX_CHANGES = 1024;
     private final BucketId bucketId;
     private volatile long term;
     private volatile LogicalTimestamp timestamp;
     private final Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> flowBucket;
 
+    // Bounded log of the most recent changes to the bucket, ordered by the time of the change. The log covers
+    // all changes that occurred after changesSince and is local to the node, so it's never replicated.
+    private transient Map<StoredFlowEntry, LogicalTimestamp> changes;
+    private transient LogicalTimestamp changesSince;
+
     FlowBucket(BucketId bucketId) {
         this(bucketId, 0, new LogicalTimestamp(0), Maps.newConcurrentMap());
     }
@@ -142,10 +152,86 @@ public class FlowBucket {
                 .collect(Collectors.toMap(e -> e.getKey(), e -> e.getValue())));
     }
 
+    /**
+     * Returns the changes that occurred in the bucket after the given timestamp.
+     * <p>
+     * The delta can only be computed if the change log still covers the given timestamp, i.e. if no change
+     * since then has been dropped from the log and the term has not changed in the meantime.
+     *
+     * @param since the timestamp after which to return changes
+     * @return the bucket delta or {@code null} if the changes since the given timestamp are no longer known
+     */
+    FlowBucketDelta getDelta(LogicalTimestamp since) {
+        Map<StoredFlowEntry, LogicalTimestamp> changes = this.changes;
+        if (changes == null || since.isOlderThan(changesSince)) {
+            return null;
+        }
+
+        List<StoredFlowEntry> updates = Lists.newArrayList();
+        List<StoredFlowEntry> removals = Lists.newArrayList();
+        changes.forEach((entry, changeTime) -> {
+            if (changeTime.isNewerThan(since)) {
+                Map<StoredFlowEntry, StoredFlowEntry> flowEntries = flowBucket.get(entry.id());
+                StoredFlowEntry current = flowEntries != null ? flowEntries.get(entry) : null;
+                if (current != null) {
+                    updates.add(current);
+                } else {
+                    removals.add(entry);
+                }
+            }
+        });
+        return new FlowBucketDelta(bucketId, term, since, timestamp, updates, removals);
+    }
+
+    /**
+     * Applies the given delta to the bucket.
+     * <p>
+     * The delta is rejected if it was computed in a different term or if changes that precede the delta are
+     * missing from the bucket.
+     *
+     * @param delta the delta to apply
+     * @return indicates whether the delta was applied
+     */
+    boolean applyDelta(FlowBucketDelta delta) {
+        if (delta.term() != term || timestamp.isOlderThan(delta.baseTimestamp())) {
+            return false;
+        }
+
+        delta.updates().forEach(entry -> getFlowEntries(entry.id()).put(entry, entry));
+        delta.removals().forEach(entry -> flowBucket.computeIfPresent(entry.id(), (flowId, flowEntries) -> {
+            flowEntries.remove(entry);
+            return flowEntries.isEmpty() ? null : flowEntries;
+        }));
+
+        // Changes received from the master are not tracked in the local change log.
+        changes = null;
+        if (delta.timestamp().isNewerThan(timestamp)) {
+            timestamp = delta.timestamp();
+        }
+        return true;
+    }
+
     /**
      * Records an update to the bucket.
      */
-    private void recordUpdate(long term, LogicalTimestamp timestamp) {
+    private void recordUpdate(StoredFlowEntry entry, long term, LogicalTimestamp timestamp) {
+        // Changes made in a prior term may not have been replicated by this node, so start a new log.
+        Map<StoredFlowEntry, LogicalTimestamp> changes = this.changes;
+        if (changes == null || term != this.term) {
+            changes = new LinkedHashMap<>();
+            this.changes = changes;
+            this.changesSince = this.timestamp;
+        }
+
+        // Re-insert the entry to keep the log ordered by change time.
+        changes.remove(entry);
+        changes.put(entry, timestamp);
+        if (changes.size() > MAX_CHANGES) {
+            Iterator<LogicalTimestamp> iterator = changes.values().iterator();
+            this.changesSince = iterator.next();
+            iterator.remove();
+        }
+
         this.term = term;
         this.timestamp = timestamp;
     }
@@ -163,7 +249,7 @@ public class FlowBucket {
             flowEntries = flowBucket.computeIfAbsent(rule.id(), id -> Maps.newConcurrentMap());
         }
         flowEntries.put((StoredFlowEntry) rule, (StoredFlowEntry) rule);
-        recordUpdate(term, clock.getTimestamp());
+        recordUpdate((StoredFlowEntry) rule, term, clock.getTimestamp());
     }
 
     /**
@@ -184,7 +270,7 @@ public class FlowBucket {
                 if (stored instanceof DefaultFlowEntry) {
                     DefaultFlowEntry storedEntry = (DefaultFlowEntry) stored;
                     if (updated.created() >= storedEntry.created()) {
-                        recordUpdate(term, clock.getTimestamp());
+                        recordUpdate(updated, term, clock.getTimestamp());
                         return updated;
                     } else {
                         LOGGER.debug("Trying to update more recent flow entry {} (stored: {})", updated, stored);
@@ -217,7 +303,7 @@ public class FlowBucket {
             if (stored != null) {
                 T result = function.apply(stored);
                 if (result != null) {
-                    recordUpdate(term, clock.getTimestamp());
+                    recordUpdate(stored, term, clock.getTimestamp());
                     resultRef.set(result);
                 }
             }
@@ -256,7 +342,7 @@ public class FlowBucket {
         });
 
         if (removedRule.get() != null) {
-            recordUpdate(term, clock.getTimestamp());
+            recordUpdate((StoredFlowEntry) removedRule.get(), term, clock.getTimestamp());
             return removedRule.get();
         } else {
             return null;
@@ -268,6 +354,7 @@ public class FlowBucket {
      */
     public void purge() {
         flowBucket.clear();
+        changes = null;
     }
 
     /**
@@ -277,5 +364,6 @@ public class FlowBucket {
         term = 0;
         timestamp = new LogicalTimestamp(0);
         flowBucket.clear();
+        changes = null;
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Collection;
+
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.store.LogicalTimestamp;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Incremental update to a flow bucket.
+ * <p>
+ * A delta carries the flow entries that were added, updated or removed in a bucket after the given base timestamp.
+ * It can only be applied to a replica of the bucket that has already seen all changes up to the base timestamp.
+ */
+public class FlowBucketDelta {
+    private final BucketId bucketId;
+    private final long term;
+    private final LogicalTimestamp baseTimestamp;
+    private final LogicalTimestamp timestamp;
+    private final Collection<StoredFlowEntry> updates;
+    private final Collection<StoredFlowEntry> removals;
+
+    FlowBucketDelta(
+        BucketId bucketId,
+        long term,
+        LogicalTimestamp baseTimestamp,
+        LogicalTimestamp timestamp,
+        Collection<StoredFlowEntry> updates,
+        Collection<StoredFlowEntry> removals) {
+        this.bucketId = bucketId;
+        this.term = term;
+        this.baseTimestamp = baseTimestamp;
+        this.timestamp = timestamp;
+        this.updates = updates;
+        this.removals = removals;
+    }
+
+    /**
+     * Returns the flow bucket identifier.
+     *
+     * @return the flow bucket identifier
+     */
+    public BucketId bucketId() {
+        return bucketId;
+    }
+
+    /**
+     * Returns the term in which the changes occurred.
+     *
+     * @return the flow bucket term
+     */
+    public long term() {
+        return term;
+    }
+
+    /**
+     * Returns the timestamp after which the changes in the delta occurred.
+     *
+     * @return the base timestamp of the delta
+     */
+    public LogicalTimestamp baseTimestamp() {
+        return baseTimestamp;
+    }
+
+    /**
+     * Returns the bucket timestamp once the delta has been applied.
+     *
+     * @return the flow bucket timestamp
+     */
+    public LogicalTimestamp timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the flow entries added or updated since the base timestamp.
+     *
+     * @return the added or updated flow entries
+     */
+    public Collection<StoredFlowEntry> updates() {
+        return updates;
+    }
+
+    /**
+     * Returns the flow entries removed since the base timestamp.
+     *
+     * @return the removed flow entries
+     */
+    public Collection<StoredFlowEntry> removals() {
+        return removals;
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+            .add("bucketId", bucketId())
+            .add("term", term())
+            .add("baseTimestamp", baseTimestamp())
+            .add("timestamp", timestamp())
+            .add("updates", updates().size())
+            .add("removals", removals().size())
+            .toString();
+    }
+}
@@ -0,0 +1,452 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.group.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onosproject.cluster.ClusterService;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.core.GroupId;
+import org.onosproject.mastership.MastershipInfo;
+import org.onosproject.mastership.MastershipService;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.group.GroupKey;
+import org.onosproject.net.group.StoredGroupEntry;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
+import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.group.impl.DistributedGroupStore.GroupStoreIdMapKey;
+import org.onosproject.store.group.impl.DistributedGroupStore.GroupStoreKeyMapKey;
+import org.onosproject.store.group.impl.DistributedGroupStore.GroupStoreMapKey;
+import org.onosproject.store.service.Serializer;
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.onlab.util.Tools.futureGetOrElse;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Group table for all groups associated with a specific device.
+ * <p>
+ * The table is owned by the device master, which applies every change locally
+ * and replicates it to the backups of its mastership term, without going
+ * through consensus. Each backup is first given a snapshot of the whole table,
+ * which is then kept up to date with the individual changes; a backup missing
+ * a change is given a new snapshot by the next {@link #sync()}. When
+ * mastership moves to another node, the new master fetches the table from the
+ * prior master, if still reachable, before replicating it to its own backups.
+ * The groups written by the new master while the fetch is in progress take
+ * precedence over the fetched ones.
+ * <p>
+ * Nodes which are neither the master nor a backup of the device forward their
+ * reads to the master.
+ */
+final class DeviceGroupTable {
+
+    private static final long GET_GROUPS_TIMEOUT = 15; // seconds
+
+    private final Logger log = getLogger(getClass());
+
+    private final DeviceId deviceId;
+    private final NodeId localNodeId;
+    private final ClusterService clusterService;
+    private final ClusterCommunicationService clusterCommunicator;
+    private final MastershipService mastershipService;
+    private final Serializer serializer;
+    private final Executor executor;
+    private final Listener listener;
+
+    private final MessageSubject backupSubject;
+    private final MessageSubject getSubject;
+
+    // Groups by application cookie, and the same groups by group identifier
+    private final ConcurrentMap<GroupKey, StoredGroupEntry> groupsByKey = Maps.newConcurrentMap();
+    private final ConcurrentMap<GroupId, StoredGroupEntry> groupsById = Maps.newConcurrentMap();
+
+    // Backups holding the table as of the last change, for the master term
+    private final Set<NodeId> syncedBackups = Sets.newConcurrentHashSet();
+    private long syncedTerm;
+    private volatile NodeId master;
+    // Fetch of the table from the prior master in progress, if any
+    private Handover handover;
+
+    /**
+     * Creates the group table of a device.
+     *
+     * @param deviceId            device identifier
+     * @param clusterService      cluster service
+     * @param clusterCommunicator cluster communication service
+     * @param mastershipService   mastership service
+     * @param serializer          serializer of the groups and table messages
+     * @param executor            executor handling the replication, on a
+     *                            single thread to keep the changes in order
+     * @param listener            listener notified of the changes of the table
+     */
+    DeviceGroupTable(DeviceId deviceId,
+                     ClusterService clusterService,
+                     ClusterCommunicationService clusterCommunicator,
+                     MastershipService mastershipService,
+                     Serializer serializer,
+                     Executor executor,
+                     Listener listener) {
+        this.deviceId = deviceId;
+        this.localNodeId = clusterService.getLocalNode().id();
+        this.clusterService = clusterService;
+        this.clusterCommunicator = clusterCommunicator;
+        this.mastershipService = mastershipService;
+        this.serializer = serializer;
+        this.executor = executor;
+        this.listener = listener;
+        this.master = mastershipService.getMasterFor(deviceId);
+
+        backupSubject = new MessageSubject(String.format("group-store-%s-backup", deviceId));
+        getSubject = new MessageSubject(String.format("group-store-%s-get", deviceId));
+
+        clusterCommunicator.<Backup>addSubscriber(
+                backupSubject, serializer::decode, this::onBackup, executor);
+        clusterCommunicator.<GroupStoreMapKey, Object>addSubscriber(
+                getSubject, serializer::decode, this::onGet, serializer::encode, executor);
+    }
+
+    /**
+     * Returns the group with the given application cookie.
+     *
+     * @param appCookie application cookie
+     * @return group entry, or null if none
+     */
+    StoredGroupEntry get(GroupKey appCookie) {
+        return fetch(new GroupStoreKeyMapKey(deviceId, appCookie), groupsByKey.get(appCookie));
+    }
+
+    /**
+     * Returns the group with the given group identifier.
+     *
+     * @param groupId group identifier
+     * @return group entry, or null if none
+     */
+    StoredGroupEntry get(GroupId groupId) {
+        return fetch(new GroupStoreIdMapKey(deviceId, groupId), groupsById.get(groupId));
+    }
+
+    /**
+     * Returns all the groups of the table.
+     *
+     * @return immutable set of group entries
+     */
+    Set<StoredGroupEntry> groups() {
+        Map<GroupKey, StoredGroupEntry> groups = fetch(new GroupStoreMapKey(deviceId), groupsByKey);
+        return ImmutableSet.copyOf(groups.values());
+    }
+
+    /**
+     * Stores a group under the given application cookie, replacing any group
+     * with the same cookie.
+     *
+     * @param appCookie application cookie
+     * @param group     group entry
+     */
+    synchronized void put(GroupKey appCookie, StoredGroupEntry group) {
+        if (handover != null) {
+            handover.written.add(appCookie);
+        }
+        StoredGroupEntry existing = groupsByKey.put(appCookie, group);
+        if (existing != null) {
+            groupsById.remove(existing.id(), existing);
+        }
+        groupsById.put(group.id(), group);
+        listener.groupUpdated(group);
+        backup(false, Maps.newHashMap(ImmutableMap.of(appCookie, group)), Sets.newHashSet());
+    }
+
+    /**
+     * Removes the group with the given application cookie.
+     *
+     * @param appCookie application cookie
+     * @return removed group entry, or null if none
+     */
+    synchronized StoredGroupEntry remove(GroupKey appCookie) {
+        if (handover != null) {
+            handover.written.add(appCookie);
+        }
+        StoredGroupEntry group = removeLocally(appCookie);
+        if (group != null) {
+            backup(false, Maps.newHashMap(), Sets.newHashSet(appCookie));
+        }
+        return group;
+    }
+
+    /**
+     * Removes all the groups of the table. On the master, the backups are
+     * emptied as well.
+     */
+    synchronized void purge() {
+        if (handover != null) {
+            handover.purged = true;
+        }
+        ImmutableList.copyOf(groupsByKey.keySet()).forEach(this::removeLocally);
+        backup(true, Maps.newHashMap(), Sets.newHashSet());
+    }
+
+    /**
+     * Notifies the table of a change of the device master; to be called on
+     * the replication executor.
+     *
+     * @param mastership new mastership of the device
+     */
+    void masterChanged(MastershipInfo mastership) {
+        NodeId prevMaster = master;
+        NodeId newMaster = mastership.master().orElse(null);
+        master = newMaster;
+        if (!localNodeId.equals(newMaster) || prevMaster == null || prevMaster.equals(localNodeId)
+                || !clusterService.getState(prevMaster).isActive()) {
+            synchronized (this) {
+                handover = null;
+            }
+            sync();
+            return;
+        }
+        log.debug("Fetching groups of {} from prior master {}", deviceId, prevMaster);
+        Handover current = new Handover();
+        synchronized (this) {
+            handover = current;
+        }
+        CompletableFuture<Map<GroupKey, StoredGroupEntry>> snapshot = clusterCommunicator.sendAndReceive(
+                new GroupStoreMapKey(deviceId), getSubject, serializer::encode, serializer::decode, prevMaster);
+        snapshot.whenCompleteAsync((groups, error) -> {
+            synchronized (this) {
+                if (handover != current) {
+                    // Superseded by a later change of master
+                    return;
+                }
+                handover = null;
+                if (error != null) {
+                    log.warn("Failed to fetch groups of {} from prior master {}; keeping the local ones",
+                             deviceId, prevMaster, error);
+                } else if (current.purged) {
+                    log.debug("Discarding groups of {} fetched from {}; table purged meanwhile",
+                              deviceId, prevMaster);
+                } else {
+                    load(groups, current.written);
+                }
+            }
+            sync();
+        }, executor);
+    }
+
+    /**
+     * Replicates the whole table to the backups which have not been given
+     * every change of the current master term.
+     */
+    synchronized void sync() {
+        MastershipInfo mastership = localMastership();
+        if (mastership == null) {
+            return;
+        }
+        syncedBackups.retainAll(mastership.backups());
+        Backup snapshot = new Backup(mastership.term(), localNodeId, true,
+                                     Maps.newHashMap(groupsByKey), Sets.newHashSet());
+        mastership.backups().stream()
+                .filter(syncedBackups::add)
+                .forEach(nodeId -> send(snapshot, nodeId));
+    }
+
+    /**
+     * Unregisters the table from cluster communications.
+     */
+    void close() {
+        clusterCommunicator.removeSubscriber(backupSubject);
+        clusterCommunicator.removeSubscriber(getSubject);
+    }
+
+    private StoredGroupEntry removeLocally(GroupKey appCookie) {
+        StoredGroupEntry group = groupsByKey.remove(appCookie);
+        if (group != null) {
+            groupsById.remove(group.id(), group);
+            listener.groupRemoved(group);
+        }
+        return group;
+    }
+
+    // Replaces the content of the table but the retained groups, notifying the changes only
+    private void load(Map<GroupKey, StoredGroupEntry> groups, Set<GroupKey> retained) {
+        ImmutableList.copyOf(Sets.difference(groupsByKey.keySet(), groups.keySet())).stream()
+                .filter(appCookie -> !retained.contains(appCookie))
+                .forEach(this::removeLocally);
+        groups.forEach((appCookie, group) -> {
+            if (retained.contains(appCookie)) {
+                return;
+            }
+            StoredGroupEntry existing = groupsByKey.put(appCookie, group);
+            if (existing != null) {
+                groupsById.remove(existing.id(), existing);
+            }
+            groupsById.put(group.id(), group);
+            if (existing == null || !existing.equals(group) || existing.state() != group.state()) {
+                listener.groupUpdated(group);
+            }
+        });
+    }
+
+    // Returns the mastership of the device if the local node is its master
+    private MastershipInfo localMastership() {
+        MastershipInfo mastership = mastershipService.getMastershipFor(deviceId);
+        if (mastership == null || !mastership.master().map(localNodeId::equals).orElse(false)) {
+            return null;
+        }
+        if (mastership.term() != syncedTerm) {
+            // Backups of a new term all start with a snapshot
+            syncedBackups.clear();
+            syncedTerm = mastership.term();
+        }
+        return mastership;
+    }
+
+    private void backup(boolean snapshot, Map<GroupKey, StoredGroupEntry> updates, Set<GroupKey> removals) {
+        MastershipInfo mastership = localMastership();
+        if (mastership == null) {
+            return;
+        }
+        Backup backup = new Backup(mastership.term(), localNodeId, snapshot, updates, removals);
+        for (NodeId nodeId : mastership.backups()) {
+            // Backups not synced yet get a change with their next snapshot
+            if (snapshot) {
+                syncedBackups.add(nodeId);
+                send(backup, nodeId);
+            } else if (syncedBackups.contains(nodeId)) {
+                send(backup, nodeId);
+            }
+        }
+    }
+
+    private void send(Backup backup, NodeId nodeId) {
+        clusterCommunicator.unicast(backup, backupSubject, serializer::encode, nodeId)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.debug("Failed to back up groups of {} to {}", deviceId, nodeId, error);
+                        syncedBackups.remove(nodeId);
+                    }
+                });
+    }
+
+    private void onBackup(Backup backup) {
+        MastershipInfo mastership = mastershipService.getMastershipFor(deviceId);
+        if (mastership != null && backup.term < mastership.term()) {
+            log.debug("Ignoring backup of {} from {} for stale term {}", deviceId, backup.master, backup.term);
+            return;
+        }
+        synchronized (this) {
+            master = backup.master;
+            if (backup.snapshot) {
+                load(backup.updates, ImmutableSet.of());
+                return;
+            }
+            backup.removals.forEach(this::removeLocally);
+            backup.updates.forEach((appCookie, group) -> {
+                StoredGroupEntry existing = groupsByKey.put(appCookie, group);
+                if (existing != null) {
+                    groupsById.remove(existing.id(), existing);
+                }
+                groupsById.put(group.id(), group);
+                listener.groupUpdated(group);
+            });
+        }
+    }
+
+    private Object onGet(GroupStoreMapKey request) {
+        if (request instanceof GroupStoreKeyMapKey) {
+            return groupsByKey.get(((GroupStoreKeyMapKey) request).appCookie());
+        } else if (request instanceof GroupStoreIdMapKey) {
+            return groupsById.get(((GroupStoreIdMapKey) request).groupId());
+        }
+        return Maps.newHashMap(groupsByKey);
+    }
+
+    // Reads from the master, unless the local node holds a replica of the table
+    @SuppressWarnings("unchecked")
+    private <T> T fetch(GroupStoreMapKey request, T localValue) {
+        MastershipInfo mastership = mastershipService.getMastershipFor(deviceId);
+        NodeId currentMaster = mastership != null ? mastership.master().orElse(null) : null;
+        if (currentMaster == null || currentMaster.equals(localNodeId)
+                || mastership.backups().contains(localNodeId)) {
+            return localValue;
+        }
+        log.trace("Forwarding group read of {} to master {}", deviceId, currentMaster);
+        CompletableFuture<Object> response = clusterCommunicator.sendAndReceive(
+                request, getSubject, serializer::encode, serializer::decode, currentMaster);
+        return (T) futureGetOrElse(response, GET_GROUPS_TIMEOUT, TimeUnit.SECONDS, localValue);
+    }
+
+    /**
+     * Listener notified of the changes of the table, whether made locally or
+     * replicated from the master.
+     */
+    interface Listener {
+        /**
+         * Notifies that a group was added or updated.
+         *
+         * @param group new group entry
+         */
+        void groupUpdated(StoredGroupEntry group);
+
+        /**
+         * Notifies that a group was removed.
+         *
+         * @param group removed group entry
+         */
+        void groupRemoved(StoredGroupEntry group);
+    }
+
+    // Groups written locally while fetching the table from the prior master
+    private static final class Handover {
+        private final Set<GroupKey> written = Sets.newHashSet();
+        private boolean purged;
+    }
+
+    /**
+     * Changes of a group table replicated from the master to a backup.
+     */
+    static final class Backup {
+        private final long term;
+        private final NodeId master;
+        // Whether the updates are the whole table rather than changes
+        private final boolean snapshot;
+        private final Map<GroupKey, StoredGroupEntry> updates;
+        private final Set<GroupKey> removals;
+
+        private Backup(long term, NodeId master, boolean snapshot,
+                       Map<GroupKey, StoredGroupEntry> updates, Set<GroupKey> removals) {
+            this.term = term;
+            this.master = master;
+            this.snapshot = snapshot;
+            this.updates = updates;
+            this.removals = removals;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Backup{term=%d, master=%s, snapshot=%b, updates=%d, removals=%d}",
+                                 term, master, snapshot, updates.size(), removals.size());
+        }
+    }
+}
@@ -24,9 +24,14 @@ import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.core.GroupId;
+import org.onosproject.mastership.MastershipEvent;
+import org.onosproject.mastership.MastershipInfo;
+import org.onosproject.mastership.MastershipListener;
 import org.onosproject.mastership.MastershipService;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.MastershipRole;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.driver.DriverService;
 import org.onosproject.net.group.DefaultGroup;
@@ -50,9 +55,7 @@ import org.onosproject.store.AbstractStore;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.ConsistentMap;
-import org.onosproject.store.service.DistributedPrimitive.Status;
-import org.onosproject.store.service.MapEvent;
-import org.onosproject.store.service.MapEventListener;
+import org.onosproject.store.service.ConsistentMultimap;
 import org.onosproject.store.service.MultiValuedTimestamp;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageService;
@@ -72,11 +75,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
@@ -86,8 +87,9 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -122,6 +124,7 @@ public class DistributedGroupStore
     private final Logger log = getLogger(getClass());
 
     private static final int MAX_FAILED_ATTEMPTS = 3;
+    private static final long BACKUP_PERIOD_MILLIS = 5000;
 
     private final int dummyId = 0xffffffff;
     private final GroupId dummyGroupId = new GroupId(dummyId);
@@ -152,17 +155,17 @@ public class DistributedGroupStore
     private NodeId local;
 
     private ScheduledExecutorService executor;
-    private Consumer<Status> statusChangeListener;
-    // Per device group table with (device id + app cookie) as key
-    private ConsistentMap<GroupStoreKeyMapKey,
-            StoredGroupEntry> groupStoreEntriesByKey = null;
-    // Per device group table with (device id + group id) as key
-    private final ConcurrentMap<DeviceId, ConcurrentMap<GroupId, StoredGroupEntry>>
-            groupEntriesById = new ConcurrentHashMap<>();
+    private ScheduledFuture<?> backupFuture;
+    // Per device group tables, owned by the device master
+    private final ConcurrentMap<DeviceId, DeviceGroupTable> groupTables = new ConcurrentHashMap<>();
+    private final DeviceGroupTable.Listener groupTableListener = new InternalGroupTableListener();
+    private final MastershipListener mastershipListener = new InternalMastershipListener();
+    private final DeviceListener deviceListener = new InternalDeviceListener();
+    // Group requests waiting for the initial audit of their device, one
+    // entry per group, along with the app cookies of each device.
     private ConsistentMap<GroupStoreKeyMapKey,
             StoredGroupEntry> auditPendingReqQueue = null;
-    private MapEventListener<GroupStoreKeyMapKey, StoredGroupEntry>
-            mapListener = new GroupStoreKeyMapListener();
+    private ConsistentMultimap<DeviceId, GroupKey> auditPendingReqKeys = null;
     private final ConcurrentMap<DeviceId, ConcurrentMap<GroupId, Group>>
             extraneousGroupEntriesById = new ConcurrentHashMap<>();
     private ExecutorService messageHandlingExecutor;
@@ -173,6 +176,7 @@ public class DistributedGroupStore
     private final AtomicInteger groupIdGen = new AtomicInteger();
 
     private KryoNamespace clusterMsgSerializer;
+    private Serializer serializer;
 
     private static Topic<GroupStoreMessage> groupTopic;
 
@@ -206,11 +210,12 @@ public class DistributedGroupStore
                           MultiValuedTimestamp.class,
                           GroupStoreKeyMapKey.class,
                           GroupStoreIdMapKey.class,
-                          GroupStoreMapKey.class
+                          GroupStoreMapKey.class,
+                          DeviceGroupTable.Backup.class
                 );
 
         clusterMsgSerializer = kryoBuilder.build("GroupStore");
-        Serializer serializer = Serializer.using(clusterMsgSerializer);
+        serializer = Serializer.using(clusterMsgSerializer);
 
         messageHandlingExecutor = Executors.
                 newFixedThreadPool(MESSAGE_HANDLER_THREAD_POOL_SIZE,
@@ -223,26 +228,16 @@ public class DistributedGroupStore
                                           this::process,
                                           messageHandlingExecutor);
 
-        log.debug("Creating Consistent map onos-group-store-keymap");
-
-        groupStoreEntriesByKey = storageService.<GroupStoreKeyMapKey, StoredGroupEntry>consistentMapBuilder()
-                .withName("onos-group-store-keymap")
-                .withSerializer(serializer)
-                .build();
-        groupStoreEntriesByKey.addListener(mapListener);
-        log.debug("Current size of groupstorekeymap:{}",
-                  groupStoreEntriesByKey.size());
-        synchronizeGroupStoreEntries();
+        local = clusterService.getLocalNode().id();
 
-        log.debug("Creating GroupStoreId Map From GroupStoreKey Map");
-        matchGroupEntries();
+        // Group tables are replicated on a single thread to keep their changes in order
         executor = newSingleThreadScheduledExecutor(groupedThreads("onos/group", "store", log));
-        statusChangeListener = status -> {
-            if (status == Status.ACTIVE) {
-                executor.execute(this::matchGroupEntries);
-            }
-        };
-        groupStoreEntriesByKey.addStatusChangeListener(statusChangeListener);
+        deviceService.getDevices().forEach(device -> getGroupTable(device.id()));
+        mastershipService.addListener(mastershipListener);
+        deviceService.addListener(deviceListener);
+        backupFuture = executor.scheduleAtFixedRate(
+                () -> groupTables.values().forEach(DeviceGroupTable::sync),
+                BACKUP_PERIOD_MILLIS, BACKUP_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
 
         log.debug("Creating Consistent map pendinggroupkeymap");
 
@@ -250,20 +245,26 @@ public class DistributedGroupStore
                 .withName("onos-pending-group-keymap")
                 .withSerializer(serializer)
                 .build();
+        auditPendingReqKeys = storageService.<DeviceId, GroupKey>consistentMultimapBuilder()
+                .withName("onos-pending-group-devicekeys")
+                .withSerializer(serializer)
+                .build();
         log.debug("Current size of pendinggroupkeymap:{}",
                   auditPendingReqQueue.size());
 
         groupTopic = getOrCreateGroupTopic(serializer);
         groupTopic.subscribe(this::processGroupMessage);
 
-        local = clusterService.getLocalNode().id();
-
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
-        groupStoreEntriesByKey.removeListener(mapListener);
+        mastershipService.removeListener(mastershipListener);
+        deviceService.removeListener(deviceListener);
+        backupFuture.cancel(false);
+        groupTables.values().forEach(DeviceGroupTable::close);
+        executor.shutdown();
         cfgService.unregisterProperties(getClass(), false);
         clusterCommunicator.removeSubscriber(GroupStoreMessageSubjects.REMOTE_GROUP_OP_REQUEST);
         log.info("Stopped");
@@ -298,53 +299,22 @@ public class DistributedGroupStore
     }
 
     /**
-     * Updating values of groupEntriesById.
-     */
-    private void matchGroupEntries() {
-        for (Entry<GroupStoreKeyMapKey, StoredGroupEntry> entry : groupStoreEntriesByKey.asJavaMap().entrySet()) {
-            StoredGroupEntry group = entry.getValue();
-            getGroupIdTable(entry.getKey().deviceId()).put(group.id(), group);
-        }
-    }
-
-
-    private void synchronizeGroupStoreEntries() {
-        Map<GroupStoreKeyMapKey, StoredGroupEntry> groupEntryMap = groupStoreEntriesByKey.asJavaMap();
-        for (Entry<GroupStoreKeyMapKey, StoredGroupEntry> entry : groupEntryMap.entrySet()) {
-            StoredGroupEntry value = entry.getValue();
-            ConcurrentMap<GroupId, StoredGroupEntry> groupIdTable = getGroupIdTable(value.deviceId());
-            groupIdTable.put(value.id(), value);
-        }
-    }
-
-    /**
-     * Returns the group store eventual consistent key map.
-     *
-     * @return Map representing group key table.
-     */
-    private Map<GroupStoreKeyMapKey, StoredGroupEntry>
-    getGroupStoreKeyMap() {
-        return groupStoreEntriesByKey.asJavaMap();
-    }
-
-    /**
-     * Returns the group id table for specified device.
+     * Returns the group table of the specified device, creating it if needed;
+     * only to be used when writing to the table or replicating it.
      *
      * @param deviceId identifier of the device
-     * @return Map representing group key table of given device.
-     */
-    private ConcurrentMap<GroupId, StoredGroupEntry> getGroupIdTable(DeviceId deviceId) {
-        return groupEntriesById.computeIfAbsent(deviceId, k -> new ConcurrentHashMap<>());
-    }
-
-    /**
-     * Returns the pending group request table.
-     *
-     * @return Map representing group key table.
+     * @return group table of the given device
      */
-    private Map<GroupStoreKeyMapKey, StoredGroupEntry>
-    getPendingGroupKeyTable() {
-        return auditPendingReqQueue.asJavaMap();
+    private DeviceGroupTable getGroupTable(DeviceId deviceId) {
+        DeviceGroupTable groupTable = groupTables.get(deviceId);
+        return groupTable != null ? groupTable : groupTables.computeIfAbsent(deviceId, id -> new DeviceGroupTable(
+                id,
+                clusterService,
+                clusterCommunicator,
+                mastershipService,
+                serializer,
+                executor,
+                groupTableListener));
     }
 
     /**
@@ -388,11 +358,8 @@ public class DistributedGroupStore
             return Collections.emptySet();
         }
 
-        Set<StoredGroupEntry> storedGroups = getGroupStoreKeyMap().values()
-                .stream()
-                .filter(input -> input.deviceId().equals(deviceId))
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(storedGroups);
+        DeviceGroupTable groupTable = groupTables.get(deviceId);
+        return groupTable != null ? groupTable.groups() : Collections.emptySet();
     }
 
     /**
@@ -409,8 +376,8 @@ public class DistributedGroupStore
 
     private StoredGroupEntry getStoredGroupEntry(DeviceId deviceId,
                                                  GroupKey appCookie) {
-        return getGroupStoreKeyMap().get(new GroupStoreKeyMapKey(deviceId,
-                                                                 appCookie));
+        DeviceGroupTable groupTable = groupTables.get(deviceId);
+        return groupTable != null ? groupTable.get(appCookie) : null;
     }
 
     @Override
@@ -420,7 +387,8 @@ public class DistributedGroupStore
 
     private StoredGroupEntry getStoredGroupEntry(DeviceId deviceId,
                                                  GroupId groupId) {
-        return getGroupIdTable(deviceId).get(groupId);
+        DeviceGroupTable groupTable = groupTables.get(deviceId);
+        return groupTable != null ? groupTable.get(groupId) : null;
     }
 
     private int getFreeGroupIdValue(DeviceId deviceId) {
@@ -510,11 +478,9 @@ public class DistributedGroupStore
 
     private void addToPendingKeyTable(StoredGroupEntry group) {
         group.setState(GroupState.WAITING_AUDIT_COMPLETE);
-        Map<GroupStoreKeyMapKey, StoredGroupEntry> pendingKeyTable =
-                getPendingGroupKeyTable();
-        pendingKeyTable.put(new GroupStoreKeyMapKey(group.deviceId(),
-                        group.appCookie()),
-                group);
+        // Indexed once queued, so that the index never points to a missing request
+        auditPendingReqQueue.put(new GroupStoreKeyMapKey(group.deviceId(), group.appCookie()), group);
+        auditPendingReqKeys.put(group.deviceId(), group.appCookie());
     }
 
     private Group getMatchingExtraneousGroupbyId(DeviceId deviceId, Integer groupId) {
@@ -554,13 +520,7 @@ public class DistributedGroupStore
             // Create a group entry object with Dummy Group ID
             log.debug("storeGroupDescriptionInternal: Device {} AUDIT pending...Queuing Group ADD request",
                       groupDesc.deviceId());
-            StoredGroupEntry group = new DefaultGroup(dummyGroupId, groupDesc);
-            group.setState(GroupState.WAITING_AUDIT_COMPLETE);
-            Map<GroupStoreKeyMapKey, StoredGroupEntry> pendingKeyTable =
-                    getPendingGroupKeyTable();
-            pendingKeyTable.put(new GroupStoreKeyMapKey(groupDesc.deviceId(),
-                                                        groupDesc.appCookie()),
-                                group);
+            addToPendingKeyTable(new DefaultGroup(dummyGroupId, groupDesc));
             return;
         }
 
@@ -584,14 +544,8 @@ public class DistributedGroupStore
                               Integer.toHexString(groupDesc.givenGroupId()));
                     StoredGroupEntry group = new DefaultGroup(
                             matchingExtraneousGroup.id(), groupDesc);
-                    // Insert the newly created group entry into key and id maps
-                    getGroupStoreKeyMap().
-                            put(new GroupStoreKeyMapKey(groupDesc.deviceId(),
-                                                        groupDesc.appCookie()), group);
-                    // Ensure it also inserted into group id based table to
-                    // avoid any chances of duplication in group id generation
-                    getGroupIdTable(groupDesc.deviceId()).
-                            put(matchingExtraneousGroup.id(), group);
+                    // Insert the newly created group entry into the device group table
+                    getGroupTable(groupDesc.deviceId()).put(groupDesc.appCookie(), group);
                     addOrUpdateGroupEntry(matchingExtraneousGroup);
                     removeExtraneousGroupEntry(matchingExtraneousGroup);
                     return;
@@ -605,13 +559,7 @@ public class DistributedGroupStore
                     StoredGroupEntry modifiedGroup = new DefaultGroup(
                             matchingExtraneousGroup.id(), groupDesc);
                     modifiedGroup.setState(GroupState.PENDING_UPDATE);
-                    getGroupStoreKeyMap().
-                            put(new GroupStoreKeyMapKey(groupDesc.deviceId(),
-                                                        groupDesc.appCookie()), modifiedGroup);
-                    // Ensure it also inserted into group id based table to
-                    // avoid any chances of duplication in group id generation
-                    getGroupIdTable(groupDesc.deviceId()).
-                            put(matchingExtraneousGroup.id(), modifiedGroup);
+                    getGroupTable(groupDesc.deviceId()).put(groupDesc.appCookie(), modifiedGroup);
                     removeExtraneousGroupEntry(matchingExtraneousGroup);
                     log.debug("storeGroupDescriptionInternal: Triggering Group "
                                       + "UPDATE request for {} in device {}",
@@ -633,14 +581,8 @@ public class DistributedGroupStore
                 //Create a group entry object
                 StoredGroupEntry group = new DefaultGroup(
                         matchingExtraneousGroup.id(), groupDesc);
-                // Insert the newly created group entry into key and id maps
-                getGroupStoreKeyMap().
-                        put(new GroupStoreKeyMapKey(groupDesc.deviceId(),
-                                                    groupDesc.appCookie()), group);
-                // Ensure it also inserted into group id based table to
-                // avoid any chances of duplication in group id generation
-                getGroupIdTable(groupDesc.deviceId()).
-                        put(matchingExtraneousGroup.id(), group);
+                // Insert the newly created group entry into the device group table
+                getGroupTable(groupDesc.deviceId()).put(groupDesc.appCookie(), group);
                 addOrUpdateGroupEntry(matchingExtraneousGroup);
                 removeExtraneousGroupEntry(matchingExtraneousGroup);
                 return;
@@ -673,14 +615,8 @@ public class DistributedGroupStore
         }
         // Create a group entry object
         StoredGroupEntry group = new DefaultGroup(id, groupDesc);
-        // Insert the newly created group entry into key and id maps
-        getGroupStoreKeyMap().
-                put(new GroupStoreKeyMapKey(groupDesc.deviceId(),
-                                            groupDesc.appCookie()), group);
-        // Ensure it also inserted into group id based table to
-        // avoid any chances of duplication in group id generation
-        getGroupIdTable(groupDesc.deviceId()).
-                put(id, group);
+        // Insert the newly created group entry into the device group table
+        getGroupTable(groupDesc.deviceId()).put(groupDesc.appCookie(), group);
         log.debug("storeGroupDescriptionInternal: Processing Group ADD request for Id {} in device {}",
                   id,
                   groupDesc.deviceId());
@@ -782,14 +718,10 @@ public class DistributedGroupStore
             newGroup.setLife(oldGroup.life());
             newGroup.setPackets(oldGroup.packets());
             newGroup.setBytes(oldGroup.bytes());
-            //Update the group entry in groupkey based map.
-            //Update to groupid based map will happen in the
-            //groupkey based map update listener
+            //Update the group entry in the device group table
             log.debug("updateGroupDescriptionInternal with type {}: Group updated with buckets",
                       type);
-            getGroupStoreKeyMap().
-                    put(new GroupStoreKeyMapKey(newGroup.deviceId(),
-                                                newGroup.appCookie()), newGroup);
+            getGroupTable(newGroup.deviceId()).put(newGroup.appCookie(), newGroup);
             notifyDelegate(new GroupEvent(Type.GROUP_UPDATE_REQUESTED, newGroup));
         } else {
             log.warn("updateGroupDescriptionInternal with type {}: No "
@@ -911,9 +843,7 @@ public class DistributedGroupStore
         // TODO is this really safe ?
         synchronized (existing) {
             existing.setState(GroupState.PENDING_DELETE);
-            getGroupStoreKeyMap().
-                    put(new GroupStoreKeyMapKey(existing.deviceId(), existing.appCookie()),
-                        existing);
+            getGroupTable(existing.deviceId()).put(existing.appCookie(), existing);
         }
         log.debug("deleteGroupDescriptionInternal: in device {} issuing GROUP_REMOVE_REQUESTED",
                   deviceId);
@@ -989,9 +919,7 @@ public class DistributedGroupStore
                     event = new GroupEvent(Type.GROUP_UPDATED, existing);
                 }
                 //Re-PUT map entries to trigger map update events
-                getGroupStoreKeyMap().
-                        put(new GroupStoreKeyMapKey(existing.deviceId(),
-                                                    existing.appCookie()), existing);
+                getGroupTable(existing.deviceId()).put(existing.appCookie(), existing);
             }
         } else {
             log.warn("addOrUpdateGroupEntry: Group update {} " +
@@ -1046,9 +974,7 @@ public class DistributedGroupStore
                     existing.setIsGroupStateAddedFirstTime(false);
                 }
                 //Re-PUT map entries to trigger map update events
-                getGroupStoreKeyMap().
-                        put(new GroupStoreKeyMapKey(existing.deviceId(),
-                                                    existing.appCookie()), existing);
+                getGroupTable(existing.deviceId()).put(existing.appCookie(), existing);
             }
         } else {
             log.warn("updateStatsGroupEntry: Group update {} "
@@ -1070,10 +996,7 @@ public class DistributedGroupStore
             log.debug("removeGroupEntry: removing group entry {} in device {}",
                       group.id(),
                       group.deviceId());
-            //Removal from groupid based map will happen in the
-            //map update listener
-            getGroupStoreKeyMap().remove(new GroupStoreKeyMapKey(existing.deviceId(),
-                                                                 existing.appCookie()));
+            getGroupTable(existing.deviceId()).remove(existing.appCookie());
             notifyDelegate(new GroupEvent(Type.GROUP_REMOVED, existing));
         } else {
             log.warn("removeGroupEntry for {} in device{} is "
@@ -1083,27 +1006,39 @@ public class DistributedGroupStore
         }
     }
 
-    private void purgeGroupEntries(Set<Entry<GroupStoreKeyMapKey, StoredGroupEntry>> entries) {
-        entries.forEach(entry -> {
-            groupStoreEntriesByKey.remove(entry.getKey());
-        });
-    }
-
     @Override
     public void purgeGroupEntry(DeviceId deviceId) {
-        Set<Entry<GroupStoreKeyMapKey, StoredGroupEntry>> entriesPendingRemove =
-                new HashSet<>();
-
-        getGroupStoreKeyMap().entrySet().stream()
-                .filter(entry -> entry.getKey().deviceId().equals(deviceId))
-                .forEach(entriesPendingRemove::add);
+        // Check if the groups are to be purged by a remote instance
+        NodeId master = mastershipService.getMasterFor(deviceId);
+        if (master != null && !master.equals(local)) {
+            GroupStoreMessage groupOp = GroupStoreMessage.createGroupPurgeRequestMsg(deviceId);
+            clusterCommunicator.unicast(groupOp,
+                                        GroupStoreMessageSubjects.REMOTE_GROUP_OP_REQUEST,
+                                        clusterMsgSerializer::serialize,
+                                        master)
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            log.warn("Failed to send request to master: {} to {}", groupOp, master);
+                        } else {
+                            log.debug("Sent group purge request for device {} to remote MASTER {}",
+                                      deviceId, master);
+                        }
+                    });
+            return;
+        }
+        purgeGroupEntryInternal(deviceId);
+    }
 
-        purgeGroupEntries(entriesPendingRemove);
+    private void purgeGroupEntryInternal(DeviceId deviceId) {
+        DeviceGroupTable groupTable = groupTables.get(deviceId);
+        if (groupTable != null) {
+            groupTable.purge();
+        }
     }
 
     @Override
     public void purgeGroupEntries() {
-        purgeGroupEntries(getGroupStoreKeyMap().entrySet());
+        ImmutableSet.copyOf(groupTables.keySet()).forEach(this::purgeGroupEntry);
     }
 
     @Override
@@ -1115,11 +1050,13 @@ public class DistributedGroupStore
                           deviceId);
                 deviceAuditStatus.put(deviceId, true);
                 // Execute all pending group requests
-                List<StoredGroupEntry> pendingGroupRequests =
-                        getPendingGroupKeyTable().values()
-                                .stream()
-                                .filter(g -> g.deviceId().equals(deviceId))
-                                .collect(Collectors.toList());
+                Collection<? extends GroupKey> pendingKeys = Versioned.valueOrElse(
+                        auditPendingReqKeys.removeAll(deviceId), Collections.emptyList());
+                List<StoredGroupEntry> pendingGroupRequests = pendingKeys.stream()
+                        .map(key -> Versioned.valueOrNull(
+                                auditPendingReqQueue.remove(new GroupStoreKeyMapKey(deviceId, key))))
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList());
                 log.debug("processing pending group add requests for device {} and number of pending requests {}",
                           deviceId,
                           pendingGroupRequests.size());
@@ -1132,8 +1069,6 @@ public class DistributedGroupStore
                             group.givenGroupId(),
                             group.appId());
                     storeGroupDescriptionInternal(tmp);
-                    getPendingGroupKeyTable().
-                            remove(new GroupStoreKeyMapKey(deviceId, group.appCookie()));
                 }
             } else {
                 Boolean audited = deviceAuditStatus.get(deviceId);
@@ -1215,10 +1150,7 @@ public class DistributedGroupStore
                                      + "group {} from store in device {}....",
                              existing.id(),
                              existing.deviceId());
-                    //Removal from groupid based map will happen in the
-                    //map update listener
-                    getGroupStoreKeyMap().remove(new GroupStoreKeyMapKey(existing.deviceId(),
-                                                                         existing.appCookie()));
+                    getGroupTable(existing.deviceId()).remove(existing.appCookie());
                 }
                 break;
             case MODIFY:
@@ -1262,71 +1194,93 @@ public class DistributedGroupStore
     }
 
     /**
-     * Map handler to receive any events when the group key map is updated.
+     * Group table handler to receive any events when a device group table is
+     * updated, either locally or by replication from the device master.
      */
-    private class GroupStoreKeyMapListener implements
-            MapEventListener<GroupStoreKeyMapKey, StoredGroupEntry> {
+    private class InternalGroupTableListener implements DeviceGroupTable.Listener {
 
         @Override
-        public void event(MapEvent<GroupStoreKeyMapKey, StoredGroupEntry> mapEvent) {
-            GroupEvent groupEvent = null;
-            GroupStoreKeyMapKey key = mapEvent.key();
-            StoredGroupEntry group = Versioned.valueOrNull(mapEvent.newValue());
-            if ((key == null) && (group == null)) {
-                log.error("GroupStoreKeyMapListener: Received "
-                                  + "event {} with null entry", mapEvent.type());
-                return;
-            } else if (group == null) {
-                group = getGroupIdTable(key.deviceId()).values()
-                        .stream()
-                        .filter((storedGroup) -> (storedGroup.appCookie().equals(key.appCookie)))
-                        .findFirst().orElse(null);
-                if (group == null) {
-                    log.error("GroupStoreKeyMapListener: Received "
-                                      + "event {} with null entry... can not process", mapEvent.type());
-                    return;
+        public void groupUpdated(StoredGroupEntry group) {
+            log.trace("received group table update for id {} in device {}",
+                      group.id(),
+                      group.deviceId());
+            if (group.state() == Group.GroupState.ADDED) {
+                if (group.isGroupStateAddedFirstTime()) {
+                    log.trace("Received first time GROUP_ADDED state update for id {} in device {}",
+                              group.id(),
+                              group.deviceId());
+                    notifyDelegate(new GroupEvent(Type.GROUP_ADDED, group));
+                } else {
+                    log.trace("Received following GROUP_ADDED state update for id {} in device {}",
+                              group.id(),
+                              group.deviceId());
+                    notifyDelegate(new GroupEvent(Type.GROUP_UPDATED, group));
                 }
             }
-            log.trace("received groupid map event {} for id {} in device {}",
-                      mapEvent.type(),
+        }
+
+        @Override
+        public void groupRemoved(StoredGroupEntry group) {
+            log.trace("received group table removal for id {} in device {}",
                       group.id(),
-                      (key != null ? key.deviceId() : null));
-            if (mapEvent.type() == MapEvent.Type.INSERT || mapEvent.type() == MapEvent.Type.UPDATE) {
-                // Update the group ID table
-                getGroupIdTable(group.deviceId()).put(group.id(), group);
-                StoredGroupEntry value = Versioned.valueOrNull(mapEvent.newValue());
-                if (value.state() == Group.GroupState.ADDED) {
-                    if (value.isGroupStateAddedFirstTime()) {
-                        groupEvent = new GroupEvent(Type.GROUP_ADDED, value);
-                        log.trace("Received first time GROUP_ADDED state update for id {} in device {}",
-                                  group.id(),
-                                  group.deviceId());
-                    } else {
-                        groupEvent = new GroupEvent(Type.GROUP_UPDATED, value);
-                        log.trace("Received following GROUP_ADDED state update for id {} in device {}",
-                                  group.id(),
-                                  group.deviceId());
-                    }
+                      group.deviceId());
+            notifyDelegate(new GroupEvent(Type.GROUP_REMOVED, group));
+        }
+    }
+
+    /**
+     * Mastership handler moving the ownership of the device group tables.
+     */
+    private class InternalMastershipListener implements MastershipListener {
+
+        @Override
+        public void event(MastershipEvent event) {
+            DeviceId deviceId = event.subject();
+            MastershipInfo mastership = event.mastershipInfo();
+            if (event.type() == MastershipEvent.Type.MASTER_CHANGED) {
+                // Devices left without master, e.g. once removed, get no new table
+                DeviceGroupTable groupTable = mastership.master().isPresent() ?
+                        getGroupTable(deviceId) : groupTables.get(deviceId);
+                if (groupTable != null) {
+                    executor.execute(() -> groupTable.masterChanged(mastership));
                 }
-            } else if (mapEvent.type() == MapEvent.Type.REMOVE) {
-                groupEvent = new GroupEvent(Type.GROUP_REMOVED, group);
-                // Remove the entry from the group ID table
-                getGroupIdTable(group.deviceId()).remove(group.id(), group);
+            } else if (event.type() == MastershipEvent.Type.BACKUPS_CHANGED
+                    && mastership.backups().contains(local)) {
+                // Let backups register for the replication of the table
+                getGroupTable(deviceId);
             }
+        }
+    }
 
-            if (groupEvent != null) {
-                notifyDelegate(groupEvent);
-            }
+    /**
+     * Device handler dropping the group tables of the removed devices.
+     */
+    private class InternalDeviceListener implements DeviceListener {
+
+        @Override
+        public boolean isRelevant(DeviceEvent event) {
+            return event.type() == DeviceEvent.Type.DEVICE_REMOVED;
+        }
+
+        @Override
+        public void event(DeviceEvent event) {
+            DeviceId deviceId = event.subject().id();
+            executor.execute(() -> {
+                DeviceGroupTable groupTable = groupTables.remove(deviceId);
+                if (groupTable != null) {
+                    log.debug("Dropping group table of removed device {}", deviceId);
+                    groupTable.close();
+                }
+            });
         }
     }
 
     private void processGroupMessage(GroupStoreMessage message) {
         if (message.type() == GroupStoreMessage.Type.FAILOVER) {
-            // FIXME: groupStoreEntriesByKey inaccessible here
-            getGroupIdTable(message.deviceId()).values()
-                    .stream()
-                    .filter((storedGroup) -> (storedGroup.appCookie().equals(message.appCookie())))
-                    .findFirst().ifPresent(group -> notifyDelegate(new GroupEvent(Type.GROUP_BUCKET_FAILOVER, group)));
+            StoredGroupEntry group = getStoredGroupEntry(message.deviceId(), message.appCookie());
+            if (group != null) {
+                notifyDelegate(new GroupEvent(Type.GROUP_BUCKET_FAILOVER, group));
+            }
         }
     }
 
@@ -1349,6 +1303,8 @@ public class DistributedGroupStore
         } else if (groupOp.type() == GroupStoreMessage.Type.DELETE) {
             deleteGroupDescriptionInternal(groupOp.deviceId(),
                                            groupOp.appCookie());
+        } else if (groupOp.type() == GroupStoreMessage.Type.PURGE) {
+            purgeGroupEntryInternal(groupOp.deviceId());
         }
     }
 
@@ -1397,6 +1353,10 @@ public class DistributedGroupStore
             this.appCookie = appCookie;
         }
 
+        public GroupKey appCookie() {
+            return appCookie;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) {
@@ -1429,6 +1389,10 @@ public class DistributedGroupStore
             this.groupId = groupId;
         }
 
+        public GroupId groupId() {
+            return groupId;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) {
@@ -1626,7 +1590,7 @@ public class DistributedGroupStore
                         group.state());
                 group.setState(Group.GroupState.PENDING_ADD_RETRY);
                 //Re-PUT map entries to trigger map update events
-                getGroupStoreKeyMap().put(new GroupStoreKeyMapKey(group.deviceId(), group.appCookie()), group);
+                getGroupTable(group.deviceId()).put(group.appCookie(), group);
                 notifyDelegate(new GroupEvent(GroupEvent.Type.GROUP_ADD_REQUESTED,
                                               group));
                 break;
@@ -41,7 +41,8 @@ public final class GroupStoreMessage {
         ADD,
         UPDATE,
         DELETE,
-        FAILOVER
+        FAILOVER,
+        PURGE
     }
 
     private GroupStoreMessage(Type type,
@@ -120,6 +121,22 @@ public final class GroupStoreMessage {
                                      null);
     }
 
+    /**
+     * Creates a group store message for group PURGE request.
+     *
+     * @param deviceId device identifier in which the groups are to be purged
+     * @return constructed group store message
+     */
+    public static GroupStoreMessage createGroupPurgeRequestMsg(DeviceId deviceId) {
+        return new GroupStoreMessage(Type.PURGE,
+                                     deviceId,
+                                     null,
+                                     null,
+                                     null,
+                                     null,
+                                     null);
+    }
+
     public static GroupStoreMessage createGroupFailoverMsg(DeviceId deviceId,
                                                            GroupDescription desc) {
         return new GroupStoreMessage(Type.FAILOVER,
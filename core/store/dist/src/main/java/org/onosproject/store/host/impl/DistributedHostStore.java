@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.host.impl;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import org.onlab.packet.IpAddress;
@@ -51,15 +52,13 @@ import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkState;
@@ -84,7 +83,23 @@ public class DistributedHostStore
 
     private ConsistentMap<HostId, DefaultHost> hostsConsistentMap;
     private Map<HostId, DefaultHost> hosts;
-    private Map<IpAddress, Set<Host>> hostsByIp;
+    private final HostIndex<IpAddress> hostsByIp =
+            new HostIndex<>("ip", Host::ipAddresses);
+    private final HostIndex<MacAddress> hostsByMac =
+            new HostIndex<>("mac", host -> ImmutableSet.of(host.mac()));
+    private final HostIndex<VlanId> hostsByVlan =
+            new HostIndex<>("vlan", host -> ImmutableSet.of(host.vlan()));
+    private final HostIndex<ConnectPoint> hostsByLocation =
+            new HostIndex<>("location", host -> ImmutableSet.copyOf(host.locations()));
+    private final HostIndex<ConnectPoint> hostsByAuxLocation =
+            new HostIndex<>("auxLocation", host -> host.auxLocations() == null ?
+                    ImmutableSet.of() : ImmutableSet.copyOf(host.auxLocations()));
+    private final HostIndex<DeviceId> hostsByDevice =
+            new HostIndex<>("device", host -> host.locations().stream()
+                    .map(HostLocation::deviceId)
+                    .collect(Collectors.toSet()));
+    private final List<HostIndex<?>> indexes = ImmutableList.of(
+            hostsByIp, hostsByMac, hostsByVlan, hostsByLocation, hostsByAuxLocation, hostsByDevice);
     MapEventListener<HostId, DefaultHost> hostLocationTracker =
             new HostLocationTracker();
 
@@ -107,11 +122,11 @@ public class DistributedHostStore
         executor = newSingleThreadScheduledExecutor(groupedThreads("onos/hosts", "status-listener", log));
         statusChangeListener = status -> {
             if (status == Status.ACTIVE) {
-                executor.execute(this::loadHostsByIp);
+                executor.execute(this::loadIndexes);
             }
         };
         hostsConsistentMap.addStatusChangeListener(statusChangeListener);
-        loadHostsByIp();
+        loadIndexes();
         log.info("Started");
     }
 
@@ -123,18 +138,10 @@ public class DistributedHostStore
         log.info("Stopped");
     }
 
-    private void loadHostsByIp() {
-        hostsByIp = new ConcurrentHashMap<IpAddress, Set<Host>>();
-        hostsConsistentMap.asJavaMap().values().forEach(host -> {
-            host.ipAddresses().forEach(ip -> {
-                Set<Host> existingHosts = hostsByIp.get(ip);
-                if (existingHosts == null) {
-                    hostsByIp.put(ip, addHosts(host));
-                } else {
-                    existingHosts.add(host);
-                }
-            });
-        });
+    private void loadIndexes() {
+        Collection<DefaultHost> values = hostsConsistentMap.asJavaMap().values();
+        indexes.forEach(index -> index.load(values));
+        log.debug("Loaded host indexes {}", indexes);
     }
 
     private boolean shouldUpdate(DefaultHost existingHost,
@@ -244,7 +251,7 @@ public class DistributedHostStore
                 if (addresses != null && addresses.contains(ipAddress)) {
                     addresses = new HashSet<>(existingHost.ipAddresses());
                     addresses.remove(ipAddress);
-                    removeIpFromHostsByIp(existingHost, ipAddress);
+                    hostsByIp.remove(ipAddress, existingHost);
                     return new DefaultHost(existingHost.providerId(),
                             hostId,
                             existingHost.mac(),
@@ -334,18 +341,17 @@ public class DistributedHostStore
 
     @Override
     public Set<Host> getHosts(VlanId vlanId) {
-        return filter(hosts.values(), host -> Objects.equals(host.vlan(), vlanId));
+        return hostsByVlan.get(vlanId);
     }
 
     @Override
     public Set<Host> getHosts(MacAddress mac) {
-        return filter(hosts.values(), host -> Objects.equals(host.mac(), mac));
+        return hostsByMac.get(mac);
     }
 
     @Override
     public Set<Host> getHosts(IpAddress ip) {
-        Set<Host> hosts = hostsByIp.get(ip);
-        return hosts != null ? ImmutableSet.copyOf(hosts) : ImmutableSet.of();
+        return hostsByIp.get(ip);
     }
 
     @Override
@@ -355,31 +361,12 @@ public class DistributedHostStore
 
     @Override
     public Set<Host> getConnectedHosts(ConnectPoint connectPoint, boolean matchAuxLocations) {
-        Predicate<Map.Entry<HostId, DefaultHost>> predicate;
-        if (matchAuxLocations) {
-            predicate = entry -> {
-                Set<HostLocation> auxLocations = entry.getValue().auxLocations();
-                return auxLocations != null && entry.getValue().auxLocations().contains(connectPoint);
-            };
-        } else {
-            predicate = entry -> entry.getValue().locations().contains(connectPoint);
-        }
-
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(predicate)
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return matchAuxLocations ? hostsByAuxLocation.get(connectPoint) : hostsByLocation.get(connectPoint);
     }
 
     @Override
     public Set<Host> getConnectedHosts(DeviceId deviceId) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().locations().stream()
-                        .map(HostLocation::deviceId).anyMatch(dpid -> dpid.equals(deviceId)))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return hostsByDevice.get(deviceId);
     }
 
     @Override
@@ -430,51 +417,21 @@ public class DistributedHostStore
         });
     }
 
-    private Set<Host> filter(Collection<DefaultHost> collection, Predicate<DefaultHost> predicate) {
-        return collection.stream().filter(predicate).collect(Collectors.toSet());
-    }
-
-    private Set<Host> addHosts(Host host) {
-        Set<Host> hosts = Sets.newConcurrentHashSet();
-        hosts.add(host);
-        return hosts;
-    }
-
-    private Set<Host> updateHosts(Set<Host> existingHosts, Host host) {
-        existingHosts.removeIf(existingHost -> existingHost.id().equals(host.id()));
-        existingHosts.add(host);
-        return existingHosts;
-    }
-
-    private Set<Host> removeHosts(Set<Host> existingHosts, Host host) {
-
-        if (existingHosts != null) {
-            existingHosts.removeIf(existingHost -> existingHost.id().equals(host.id()));
-        }
-
-        if (existingHosts == null || existingHosts.isEmpty()) {
-            return null;
-        }
-        return existingHosts;
-    }
-
-    private void updateHostsByIp(DefaultHost host, DefaultHost prevHost) {
-        // Let's update first the current ips
-        host.ipAddresses().forEach(
-                ip -> hostsByIp.compute(ip, (k, v) -> v == null ? addHosts(host) : updateHosts(v, host)));
-
-        // Let's remove then each old ip
-        Set<IpAddress> oldIps = prevHost != null ? prevHost.ipAddresses() : Collections.emptySet();
-        Sets.difference(oldIps, host.ipAddresses()).forEach(
-                ip -> hostsByIp.computeIfPresent(ip, (k, v) -> removeHosts(v, host)));
+    /**
+     * Returns the secondary indexes of the hosts.
+     *
+     * @return host indexes
+     */
+    List<HostIndex<?>> indexes() {
+        return indexes;
     }
 
-    private void removeHostsByIp(DefaultHost host) {
-        host.ipAddresses().forEach(ip -> hostsByIp.computeIfPresent(ip, (k, v) -> removeHosts(v, host)));
+    private void updateIndexes(DefaultHost host, DefaultHost prevHost) {
+        indexes.forEach(index -> index.update(host, prevHost));
     }
 
-    private void removeIpFromHostsByIp(DefaultHost host, IpAddress ip) {
-        hostsByIp.computeIfPresent(ip, (k, v) -> removeHosts(v, host));
+    private void removeFromIndexes(DefaultHost host) {
+        indexes.forEach(index -> index.remove(host));
     }
 
     private class HostLocationTracker implements MapEventListener<HostId, DefaultHost> {
@@ -484,11 +441,11 @@ public class DistributedHostStore
             DefaultHost prevHost = Versioned.valueOrNull(event.oldValue());
             switch (event.type()) {
                 case INSERT:
-                    updateHostsByIp(host, prevHost);
+                    updateIndexes(host, prevHost);
                     notifyDelegate(new HostEvent(HOST_ADDED, host));
                     break;
                 case UPDATE:
-                    updateHostsByIp(host, prevHost);
+                    updateIndexes(host, prevHost);
                     if (host.suspended() && !prevHost.suspended()) {
                         notifyDelegate(new HostEvent(HOST_SUSPENDED, host, prevHost));
                     } else if (!host.suspended() && prevHost.suspended()) {
@@ -502,7 +459,7 @@ public class DistributedHostStore
                     }
                     break;
                 case REMOVE:
-                    removeHostsByIp(prevHost);
+                    removeFromIndexes(prevHost);
                     notifyDelegate(new HostEvent(HOST_REMOVED, prevHost));
                     break;
                 default:
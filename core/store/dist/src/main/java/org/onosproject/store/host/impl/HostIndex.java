@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.host.impl;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.onosproject.net.Host;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Secondary index of hosts by some of their attributes, e.g. their IP
+ * addresses or locations.
+ * <p>
+ * The index is maintained incrementally from the updates of the hosts, and
+ * holds the latest version of each host under all of its keys.
+ *
+ * @param <K> type of the index keys
+ */
+final class HostIndex<K> {
+
+    private final String name;
+    private final Function<Host, Set<K>> keys;
+    private volatile Map<K, Set<Host>> index = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty host index.
+     *
+     * @param name name of the index
+     * @param keys function giving the keys of a host
+     */
+    HostIndex(String name, Function<Host, Set<K>> keys) {
+        this.name = name;
+        this.keys = keys;
+    }
+
+    /**
+     * Replaces the content of the index with the given hosts.
+     *
+     * @param hosts all hosts
+     */
+    void load(Collection<? extends Host> hosts) {
+        Map<K, Set<Host>> loaded = new ConcurrentHashMap<>();
+        hosts.forEach(host -> keys.apply(host).forEach(
+                key -> loaded.computeIfAbsent(key, k -> Sets.newConcurrentHashSet()).add(host)));
+        index = loaded;
+    }
+
+    /**
+     * Updates the index with a new version of a host.
+     *
+     * @param host     new version of the host
+     * @param prevHost previous version of the host; null if the host is new
+     */
+    void update(Host host, Host prevHost) {
+        // Let's update first the current keys
+        Set<K> newKeys = keys.apply(host);
+        newKeys.forEach(key -> index.compute(key, (k, v) -> v == null ? addHost(host) : updateHost(v, host)));
+
+        // Let's remove then each old key
+        if (prevHost != null) {
+            Sets.difference(keys.apply(prevHost), newKeys).forEach(key -> remove(key, host));
+        }
+    }
+
+    /**
+     * Removes a host from the index.
+     *
+     * @param host host to remove
+     */
+    void remove(Host host) {
+        keys.apply(host).forEach(key -> remove(key, host));
+    }
+
+    /**
+     * Removes a host from the index under the given key only.
+     *
+     * @param key  index key
+     * @param host host to remove
+     */
+    void remove(K key, Host host) {
+        index.computeIfPresent(key, (k, v) -> removeHost(v, host));
+    }
+
+    /**
+     * Returns the hosts indexed under the given key.
+     *
+     * @param key index key
+     * @return immutable set of hosts
+     */
+    Set<Host> get(K key) {
+        Set<Host> hosts = index.get(key);
+        return hosts != null ? ImmutableSet.copyOf(hosts) : ImmutableSet.of();
+    }
+
+    /**
+     * Returns the number of keys of the index.
+     *
+     * @return number of keys
+     */
+    int keyCount() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of host references held by the index, i.e. the sum
+     * over all keys of the number of hosts indexed under the key.
+     *
+     * @return number of host references
+     */
+    long referenceCount() {
+        return index.values().stream().mapToLong(Set::size).sum();
+    }
+
+    private static Set<Host> addHost(Host host) {
+        Set<Host> hosts = Sets.newConcurrentHashSet();
+        hosts.add(host);
+        return hosts;
+    }
+
+    private static Set<Host> updateHost(Set<Host> existingHosts, Host host) {
+        existingHosts.removeIf(existingHost -> existingHost.id().equals(host.id()));
+        existingHosts.add(host);
+        return existingHosts;
+    }
+
+    private static Set<Host> removeHost(Set<Host> existingHosts, Host host) {
+        existingHosts.removeIf(existingHost -> existingHost.id().equals(host.id()));
+        return existingHosts.isEmpty() ? null : existingHosts;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("name", name)
+                .add("keys", keyCount())
+                .add("references", referenceCount())
+                .toString();
+    }
+}
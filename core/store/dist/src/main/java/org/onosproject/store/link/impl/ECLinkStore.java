@@ -64,13 +64,12 @@ import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
 
-import java.util.Collection;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.onosproject.net.DefaultAnnotations.union;
 import static org.onosproject.net.Link.State.ACTIVE;
@@ -114,6 +113,12 @@ public class ECLinkStore
 
     private final Map<LinkKey, Link> links = Maps.newConcurrentMap();
     private final Map<LinkKey, Set<ProviderId>> linkProviders = Maps.newConcurrentMap();
+    // Indexes of the cached links by their end points, updated along with the
+    // cache entries so that lookups cost the degree of the point
+    private final Map<DeviceId, Set<LinkKey>> egressLinksByDevice = Maps.newConcurrentMap();
+    private final Map<DeviceId, Set<LinkKey>> ingressLinksByDevice = Maps.newConcurrentMap();
+    private final Map<ConnectPoint, Set<LinkKey>> egressLinksByPoint = Maps.newConcurrentMap();
+    private final Map<ConnectPoint, Set<LinkKey>> ingressLinksByPoint = Maps.newConcurrentMap();
     private EventuallyConsistentMap<Provided<LinkKey>, LinkDescription> linkDescriptions;
 
 
@@ -197,7 +202,7 @@ public class ECLinkStore
         linkDescriptions.removeListener(linkTracker);
         linkDescriptions.destroy();
         linkProviders.clear();
-        links.clear();
+        clearLinkCache();
         clusterCommunicator.removeSubscriber(LINK_INJECT_MESSAGE);
         netCfgService.removeListener(cfgListener);
         netCfgService.unregisterConfigFactory(factory);
@@ -217,12 +222,12 @@ public class ECLinkStore
 
     @Override
     public Set<Link> getDeviceEgressLinks(DeviceId deviceId) {
-        return filter(links.values(), link -> deviceId.equals(link.src().deviceId()));
+        return lookup(egressLinksByDevice, deviceId);
     }
 
     @Override
     public Set<Link> getDeviceIngressLinks(DeviceId deviceId) {
-        return filter(links.values(), link -> deviceId.equals(link.dst().deviceId()));
+        return lookup(ingressLinksByDevice, deviceId);
     }
 
     @Override
@@ -232,12 +237,12 @@ public class ECLinkStore
 
     @Override
     public Set<Link> getEgressLinks(ConnectPoint src) {
-        return filter(links.values(), link -> src.equals(link.src()));
+        return lookup(egressLinksByPoint, src);
     }
 
     @Override
     public Set<Link> getIngressLinks(ConnectPoint dst) {
-        return filter(links.values(), link -> dst.equals(link.dst()));
+        return lookup(ingressLinksByPoint, dst);
     }
 
     @Override
@@ -319,10 +324,14 @@ public class ECLinkStore
         Link link = links.compute(linkKey, (key, existingLink) -> {
             Link newLink = composeLink(linkKey);
             if (newLink == null) {
+                if (existingLink != null) {
+                    unindexLink(key);
+                }
                 return null;
             }
             if (existingLink == null) {
                 eventType.set(LINK_ADDED);
+                indexLink(key);
                 return newLink;
             } else if (existingLink.state() != newLink.state() ||
                     existingLink.isExpected() != newLink.isExpected() ||
@@ -414,7 +423,12 @@ public class ECLinkStore
                 (oldLink.type() == INDIRECT && newLink.type() == DIRECT) ||
                 !AnnotationsUtil.isEqual(oldLink.annotations(), newLink.annotations())) {
 
-            links.put(key, newLink);
+            links.compute(key, (k, existingLink) -> {
+                if (existingLink == null) {
+                    indexLink(k);
+                }
+                return newLink;
+            });
             return new LinkEvent(LINK_UPDATED, newLink);
         }
         return null;
@@ -461,7 +475,13 @@ public class ECLinkStore
     }
 
     private LinkEvent purgeLinkCache(LinkKey linkKey) {
-        Link removedLink = links.remove(linkKey);
+        AtomicReference<Link> removed = new AtomicReference<>();
+        links.computeIfPresent(linkKey, (key, existingLink) -> {
+            removed.set(existingLink);
+            unindexLink(key);
+            return null;
+        });
+        Link removedLink = removed.get();
         if (removedLink != null) {
             getAllProviders(linkKey).forEach(p -> linkDescriptions.remove(new Provided<>(linkKey, p)));
             linkProviders.remove(linkKey);
@@ -470,8 +490,67 @@ public class ECLinkStore
         return null;
     }
 
-    private Set<Link> filter(Collection<Link> links, Predicate<Link> predicate) {
-        return links.stream().filter(predicate).collect(Collectors.toSet());
+    private void clearLinkCache() {
+        links.clear();
+        egressLinksByDevice.clear();
+        ingressLinksByDevice.clear();
+        egressLinksByPoint.clear();
+        ingressLinksByPoint.clear();
+    }
+
+    // Guarded by the links entry of the key
+    private void indexLink(LinkKey key) {
+        addToIndex(egressLinksByDevice, key.src().deviceId(), key);
+        addToIndex(ingressLinksByDevice, key.dst().deviceId(), key);
+        addToIndex(egressLinksByPoint, key.src(), key);
+        addToIndex(ingressLinksByPoint, key.dst(), key);
+    }
+
+    // Guarded by the links entry of the key
+    private void unindexLink(LinkKey key) {
+        removeFromIndex(egressLinksByDevice, key.src().deviceId(), key);
+        removeFromIndex(ingressLinksByDevice, key.dst().deviceId(), key);
+        removeFromIndex(egressLinksByPoint, key.src(), key);
+        removeFromIndex(ingressLinksByPoint, key.dst(), key);
+    }
+
+    private static <K> void addToIndex(Map<K, Set<LinkKey>> index, K indexKey, LinkKey key) {
+        index.compute(indexKey, (k, keys) -> {
+            Set<LinkKey> updated = keys != null ? keys : Sets.newConcurrentHashSet();
+            updated.add(key);
+            return updated;
+        });
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<LinkKey>> index, K indexKey, LinkKey key) {
+        index.computeIfPresent(indexKey, (k, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * Returns the number of link keys held by the end point indexes, which
+     * is four times the number of cached links when the indexes are accurate.
+     *
+     * @return number of indexed link keys
+     */
+    int indexedKeyCount() {
+        return Stream.of(egressLinksByDevice, ingressLinksByDevice, egressLinksByPoint, ingressLinksByPoint)
+                .flatMap(index -> index.values().stream())
+                .mapToInt(Set::size)
+                .sum();
+    }
+
+    private <K> Set<Link> lookup(Map<K, Set<LinkKey>> index, K indexKey) {
+        Set<LinkKey> keys = index.get(indexKey);
+        if (keys == null) {
+            return Sets.newHashSet();
+        }
+        return keys.stream()
+                .map(links::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
     }
 
     private LinkEvent injectLink(Provided<LinkDescription> linkInjectRequest) {
@@ -518,7 +597,7 @@ public class ECLinkStore
                     linkDescriptions.clear();
                 }
                 if (links != null) {
-                    links.clear();
+                    clearLinkCache();
                 }
             }
             log.debug("config set link discovery mode to {}",
@@ -17,6 +17,10 @@ package org.onosproject.store.mastership.impl;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.Leadership;
@@ -46,6 +50,7 @@ import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.slf4j.Logger;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -104,6 +109,19 @@ public class ConsistentDeviceMastershipStore
     private final LeadershipEventListener leadershipEventListener =
             new InternalDeviceMastershipEventListener();
 
+    // Index of the devices by master, maintained from the leadership events
+    // so that the devices of a node are not looked up among all topics.
+    private final Map<DeviceId, NodeId> deviceMasters = Maps.newConcurrentMap();
+    private final Map<NodeId, Set<DeviceId>> masterDevices = Maps.newConcurrentMap();
+
+    // Devices updated from leadership events while the index is seeded from
+    // the leader board, whose snapshot might be older than these events.
+    private volatile Set<DeviceId> updatedWhileSeeding;
+
+    // Leadership events not yet notified, in order per device. Consecutive
+    // changes are coalesced, disruptions and restorations are kept apart.
+    private final Map<DeviceId, List<PendingEvent>> pendingEvents = Maps.newConcurrentMap();
+
     private static final String NODE_ID_NULL = "Node ID cannot be null";
     private static final String DEVICE_ID_NULL = "Device ID cannot be null";
     private static final int WAIT_BEFORE_MASTERSHIP_HANDOFF_MILLIS = 3000;
@@ -134,7 +152,15 @@ public class ConsistentDeviceMastershipStore
                 SERIALIZER::encode,
                 messageHandlingExecutor);
         localNodeId = clusterService.getLocalNode().id();
+        // Listen before seeding the index, so that no change gets lost, but
+        // let the changes received meanwhile prevail over the leader board.
+        updatedWhileSeeding = Sets.newConcurrentHashSet();
         leadershipService.addListener(leadershipEventListener);
+        leadershipAdminService.getLeaderBoard().values().stream()
+                .filter(leadership -> isDeviceMastershipTopic(leadership.topic()))
+                .forEach(leadership -> updateMaster(extractDeviceIdFromTopic(leadership.topic()),
+                                                    leadership.leaderNodeId(), true));
+        updatedWhileSeeding = null;
 
         log.info("Started");
     }
@@ -143,6 +169,9 @@ public class ConsistentDeviceMastershipStore
     public void deactivate() {
         clusterCommunicator.removeSubscriber(ROLE_RELINQUISH_SUBJECT);
         leadershipService.removeListener(leadershipEventListener);
+        deviceMasters.clear();
+        masterDevices.clear();
+        pendingEvents.clear();
         messageHandlingExecutor.shutdown();
         transferExecutor.shutdown();
         eventHandler.shutdown();
@@ -206,12 +235,8 @@ public class ConsistentDeviceMastershipStore
         // MastershipService cannot listen to DeviceEvent to GC removed topic,
         // since DeviceManager depend on it.
         // Reference count, etc. at LeadershipService layer?
-        return leadershipService
-                .ownedTopics(nodeId)
-                .stream()
-                .filter(this::isDeviceMastershipTopic)
-                .map(this::extractDeviceIdFromTopic)
-                .collect(Collectors.toSet());
+        Set<DeviceId> devices = masterDevices.get(nodeId);
+        return devices != null ? ImmutableSet.copyOf(devices) : ImmutableSet.of();
     }
 
     @Override
@@ -227,6 +252,29 @@ public class ConsistentDeviceMastershipStore
         return CompletableFuture.completedFuture(null);
     }
 
+    @Override
+    public CompletableFuture<List<MastershipEvent>> setMasters(Map<DeviceId, NodeId> masters) {
+        Map<String, NodeId> topics = Maps.newHashMapWithExpectedSize(masters.size());
+        masters.forEach((deviceId, nodeId) -> {
+            checkArgument(nodeId != null, NODE_ID_NULL);
+            checkArgument(deviceId != null, DEVICE_ID_NULL);
+            topics.put(createDeviceMastershipTopic(deviceId), nodeId);
+        });
+
+        // Promote all the new masters first, then hand off all the promoted
+        // topics at once rather than scheduling a hand-off per device.
+        Map<String, Boolean> promoted = leadershipAdminService.promoteToTopOfCandidateLists(topics);
+        Map<String, NodeId> transfers = topics.entrySet().stream()
+                .filter(entry -> Boolean.TRUE.equals(promoted.get(entry.getKey())))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (!transfers.isEmpty()) {
+            log.debug("Transferring mastership of {} devices", transfers.size());
+            transferExecutor.schedule(() -> leadershipAdminService.transferLeaderships(transfers),
+                    WAIT_BEFORE_MASTERSHIP_HANDOFF_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return CompletableFuture.completedFuture(ImmutableList.of());
+    }
+
     @Override
     public MastershipTerm getTermFor(DeviceId deviceId) {
         checkArgument(deviceId != null, DEVICE_ID_NULL);
@@ -300,6 +348,30 @@ public class ConsistentDeviceMastershipStore
         // Noop. LeadershipService already takes care of detecting and purging stale locks.
     }
 
+    private void updateMaster(DeviceId deviceId, NodeId master, boolean fromLeaderBoard) {
+        deviceMasters.compute(deviceId, (id, previous) -> {
+            Set<DeviceId> updatedDevices = updatedWhileSeeding;
+            if (fromLeaderBoard && updatedDevices != null && updatedDevices.contains(id)) {
+                // Stale, the device was updated from a more recent event.
+                return previous;
+            }
+            if (previous != null && !previous.equals(master)) {
+                masterDevices.computeIfPresent(previous, (nodeId, devices) -> {
+                    devices.remove(id);
+                    return devices.isEmpty() ? null : devices;
+                });
+            }
+            if (master != null) {
+                masterDevices.compute(master, (nodeId, devices) -> {
+                    Set<DeviceId> updated = devices != null ? devices : Sets.newConcurrentHashSet();
+                    updated.add(id);
+                    return updated;
+                });
+            }
+            return master;
+        });
+    }
+
     private MastershipInfo buildMastershipFromLeadership(Leadership leadership) {
         ImmutableMap.Builder<NodeId, MastershipRole> builder = ImmutableMap.builder();
         if (leadership.leaderNodeId() != null) {
@@ -331,27 +403,39 @@ public class ConsistentDeviceMastershipStore
 
         @Override
         public void event(LeadershipEvent event) {
-            eventHandler.execute(() -> handleEvent(event));
-        }
-
-        private void handleEvent(LeadershipEvent event) {
             Leadership leadership = event.subject();
             DeviceId deviceId = extractDeviceIdFromTopic(leadership.topic());
-            MastershipInfo mastershipInfo = event.type() != LeadershipEvent.Type.SERVICE_DISRUPTED
-                ? buildMastershipFromLeadership(event.subject())
+            if (event.type() != LeadershipEvent.Type.SERVICE_DISRUPTED) {
+                Set<DeviceId> updated = updatedWhileSeeding;
+                if (updated != null) {
+                    updated.add(deviceId);
+                }
+                updateMaster(deviceId, leadership.leaderNodeId(), false);
+            }
+
+            // Changes of a device piling up while the handler is busy, e.g.
+            // during a bulk reassignment, are notified only once. Events are
+            // queued per device so that they are notified in order.
+            List<PendingEvent> events = Lists.newArrayList(new PendingEvent(event));
+            if (pendingEvents.merge(deviceId, events, PendingEvent::append) == events) {
+                eventHandler.execute(() -> handleEvents(deviceId));
+            }
+        }
+
+        private void handleEvents(DeviceId deviceId) {
+            List<PendingEvent> events = pendingEvents.remove(deviceId);
+            if (events == null) {
+                return;
+            }
+            events.forEach(event -> handleEvent(deviceId, event));
+        }
+
+        private void handleEvent(DeviceId deviceId, PendingEvent event) {
+            MastershipInfo mastershipInfo = event.type != LeadershipEvent.Type.SERVICE_DISRUPTED
+                ? buildMastershipFromLeadership(event.leadership)
                 : new MastershipInfo();
 
-            switch (event.type()) {
-                case LEADER_AND_CANDIDATES_CHANGED:
-                    notifyDelegate(new MastershipEvent(BACKUPS_CHANGED, deviceId, mastershipInfo));
-                    notifyDelegate(new MastershipEvent(MASTER_CHANGED, deviceId, mastershipInfo));
-                    break;
-                case LEADER_CHANGED:
-                    notifyDelegate(new MastershipEvent(MASTER_CHANGED, deviceId, mastershipInfo));
-                    break;
-                case CANDIDATES_CHANGED:
-                    notifyDelegate(new MastershipEvent(BACKUPS_CHANGED, deviceId, mastershipInfo));
-                    break;
+            switch (event.type) {
                 case SERVICE_DISRUPTED:
                     notifyDelegate(new MastershipEvent(SUSPENDED, deviceId, mastershipInfo));
                     break;
@@ -359,8 +443,60 @@ public class ConsistentDeviceMastershipStore
                     notifyDelegate(new MastershipEvent(RESTORED, deviceId, mastershipInfo));
                     break;
                 default:
-                    return;
+                    if (event.candidatesChanged) {
+                        notifyDelegate(new MastershipEvent(BACKUPS_CHANGED, deviceId, mastershipInfo));
+                    }
+                    if (event.leaderChanged) {
+                        notifyDelegate(new MastershipEvent(MASTER_CHANGED, deviceId, mastershipInfo));
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Leadership event of a device, possibly merged with the following
+     * changes, until it gets notified.
+     */
+    private static final class PendingEvent {
+        private final LeadershipEvent.Type type;
+        private final Leadership leadership;
+        private final boolean leaderChanged;
+        private final boolean candidatesChanged;
+
+        private PendingEvent(LeadershipEvent event) {
+            this(event.type(), event.subject(),
+                 event.type() != LeadershipEvent.Type.CANDIDATES_CHANGED,
+                 event.type() != LeadershipEvent.Type.LEADER_CHANGED);
+        }
+
+        private PendingEvent(LeadershipEvent.Type type, Leadership leadership,
+                             boolean leaderChanged, boolean candidatesChanged) {
+            this.type = type;
+            this.leadership = leadership;
+            this.leaderChanged = leaderChanged;
+            this.candidatesChanged = candidatesChanged;
+        }
+
+        private boolean isChange() {
+            return type != LeadershipEvent.Type.SERVICE_DISRUPTED &&
+                    type != LeadershipEvent.Type.SERVICE_RESTORED;
+        }
+
+        // Appends the next events to the previous ones, merging changes that follow each other.
+        private static List<PendingEvent> append(List<PendingEvent> previous, List<PendingEvent> next) {
+            for (PendingEvent event : next) {
+                int last = previous.size() - 1;
+                if (last >= 0 && previous.get(last).isChange() && event.isChange()) {
+                    PendingEvent merged = previous.get(last);
+                    previous.set(last, new PendingEvent(event.type, event.leadership,
+                                                        merged.leaderChanged || event.leaderChanged,
+                                                        merged.candidatesChanged || event.candidatesChanged));
+                } else {
+                    previous.add(event);
+                }
             }
+            return previous;
         }
     }
 
@@ -16,6 +16,9 @@
 package org.onosproject.store.topology.impl;
 
 import org.onlab.graph.GraphPathSearch;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.common.DefaultTopology;
@@ -71,6 +74,7 @@ import java.util.stream.Stream;
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
 import static org.onlab.util.Tools.get;
+import static org.onlab.util.Tools.getIntegerProperty;
 import static org.onlab.util.Tools.isNullOrEmpty;
 import static org.onosproject.net.topology.TopologyEvent.Type.TOPOLOGY_CHANGED;
 import static org.onosproject.store.OsgiPropertyConstants.*;
@@ -91,6 +95,7 @@ import static org.slf4j.LoggerFactory.getLogger;
         property = {
                 LINK_WEIGHT_FUNCTION + "=" + LINK_WEIGHT_FUNCTION_DEFAULT,
                 MAX_PATHS + "=" + MAX_PATHS_DEFAULT,
+                PATH_CACHE_SIZE + ":Integer=" + PATH_CACHE_SIZE_DEFAULT,
         }
 )
 public class DistributedTopologyStore
@@ -122,6 +127,9 @@ public class DistributedTopologyStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected MetricsService metricsService;
+
     private static final String HOP_COUNT = "hopCount";
     private static final String LINK_METRIC = "linkMetric";
     private static final String GEO_DISTANCE = "geoDistance";
@@ -132,6 +140,9 @@ public class DistributedTopologyStore
     /** Default max-paths count. */
     private int maxPaths = ALL_PATHS;
 
+    /** Maximum number of links held by each topology path cache; 0 disables, use only with stateless weighers. */
+    private int pathCacheSize = PATH_CACHE_SIZE_DEFAULT;
+
     // Cluster root to broadcast points bindings to allow convergence to
     // a shared broadcast tree; node that is the master of the cluster root
     // is the primary.
@@ -143,6 +154,10 @@ public class DistributedTopologyStore
     @Activate
     protected void activate(ComponentContext context) {
         configService.registerProperties(getClass());
+        MetricsComponent component = metricsService.registerComponent("Topology");
+        MetricsFeature feature = component.registerFeature("pathCache");
+        DefaultTopology.setPathCacheMetrics(metricsService.createCounter(component, feature, "hits"),
+                                            metricsService.createCounter(component, feature, "misses"));
         modified(context);
         KryoNamespace.Builder hostSerializer = KryoNamespace.newBuilder()
                 .register(KryoNamespaces.API);
@@ -159,6 +174,7 @@ public class DistributedTopologyStore
     @Deactivate
     protected void deactivate() {
         configService.unregisterProperties(getClass(), false);
+        DefaultTopology.setPathCacheMetrics(null, null);
         broadcastPoints.removeListener(listener);
         broadcastPoints.destroy();
         log.info("Stopped");
@@ -187,6 +203,12 @@ public class DistributedTopologyStore
                 log.warn("maxPaths must be a number; not {}", newMaxPaths);
             }
         }
+
+        int newPathCacheSize = getIntegerProperty(properties, PATH_CACHE_SIZE, PATH_CACHE_SIZE_DEFAULT);
+        if (newPathCacheSize != pathCacheSize) {
+            pathCacheSize = newPathCacheSize;
+            DefaultTopology.setPathCacheSize(pathCacheSize);
+        }
         log.info(FORMAT, linkWeightFunction);
     }
 
@@ -308,9 +330,10 @@ public class DistributedTopologyStore
     public TopologyEvent updateTopology(ProviderId providerId,
                                         GraphDescription graphDescription,
                                         List<Event> reasons) {
-        // Have the default topology construct self from the description data.
+        // Have the default topology construct self from the description data,
+        // carrying over whatever is unaffected from the current topology.
         DefaultTopology newTopology =
-                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint);
+                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint, current);
         updateBroadcastPoints(newTopology);
 
         // Promote the new topology to current and return a ready-to-send event.
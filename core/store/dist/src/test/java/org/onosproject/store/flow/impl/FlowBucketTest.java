@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.intent.IntentTestsMocks;
+import org.onosproject.store.LogicalTimestamp;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.onosproject.net.NetTestTools.APP_ID;
+import static org.onosproject.net.NetTestTools.did;
+
+/**
+ * Unit tests for flow bucket delta replication.
+ */
+public class FlowBucketTest {
+
+    private static final long TERM = 1;
+    private static final DeviceId DEVICE_ID = did("device1");
+    private static final IntentTestsMocks.MockSelector SELECTOR =
+            new IntentTestsMocks.MockSelector();
+    private static final IntentTestsMocks.MockTreatment TREATMENT =
+            new IntentTestsMocks.MockTreatment();
+
+    private final LogicalClock clock = new LogicalClock();
+    private FlowBucket master;
+    private FlowBucket backup;
+
+    private static FlowEntry flowEntry(int priority) {
+        FlowRule rule = DefaultFlowRule.builder()
+                .forDevice(DEVICE_ID)
+                .withSelector(SELECTOR)
+                .withTreatment(TREATMENT)
+                .withPriority(priority)
+                .makeTemporary(44)
+                .fromApp(APP_ID)
+                .build();
+        return new DefaultFlowEntry(rule);
+    }
+
+    @Before
+    public void setUp() {
+        master = new FlowBucket(new BucketId(DEVICE_ID, 0));
+        master.add(flowEntry(1), TERM, clock);
+        backup = master.copy();
+    }
+
+    /**
+     * Tests that a delta only carries the changes made after its base timestamp.
+     */
+    @Test
+    public void testDelta() {
+        LogicalTimestamp base = master.timestamp();
+        FlowEntry added = flowEntry(2);
+        master.add(added, TERM, clock);
+        master.remove(flowEntry(1), TERM, clock);
+
+        FlowBucketDelta delta = master.getDelta(base);
+        assertThat(delta, notNullValue());
+        assertThat(delta.baseTimestamp(), is(base));
+        assertThat(delta.timestamp(), is(master.timestamp()));
+        assertThat(delta.updates(), contains(added));
+        assertThat(delta.removals(), contains(flowEntry(1)));
+
+        assertThat(backup.applyDelta(delta), is(true));
+        assertThat(backup.count(), is(1));
+        assertThat(backup.getFlowEntries(added.id()).get(added), is(added));
+        assertThat(backup.timestamp(), is(master.timestamp()));
+
+        delta = master.getDelta(master.timestamp());
+        assertThat(delta.updates(), empty());
+        assertThat(delta.removals(), empty());
+    }
+
+    /**
+     * Tests that a delta is rejected by a replica that is empty or is in another term.
+     */
+    @Test
+    public void testDeltaRejected() {
+        master.add(flowEntry(2), TERM, clock);
+        FlowBucketDelta delta = master.getDelta(backup.timestamp());
+        FlowBucket stale = new FlowBucket(new BucketId(DEVICE_ID, 0));
+        assertThat(stale.applyDelta(delta), is(false));
+        assertThat(backup.applyDelta(delta), is(true));
+
+        master.add(flowEntry(3), TERM + 1, clock);
+        assertThat(backup.applyDelta(master.getDelta(delta.timestamp())), is(false));
+    }
+
+    /**
+     * Tests that a delta is rejected by a replica of the same term that missed an earlier delta.
+     */
+    @Test
+    public void testDeltaMissingChanges() {
+        master.add(flowEntry(2), TERM, clock);
+        FlowBucketDelta skipped = master.getDelta(backup.timestamp());
+        master.add(flowEntry(3), TERM, clock);
+        FlowBucketDelta delta = master.getDelta(skipped.timestamp());
+
+        assertThat(backup.applyDelta(delta), is(false));
+        assertThat(backup.count(), is(1));
+        assertThat(backup.applyDelta(skipped), is(true));
+        assertThat(backup.applyDelta(delta), is(true));
+        assertThat(backup.count(), is(3));
+    }
+
+    /**
+     * Tests that no delta is computed once the changes are no longer known.
+     */
+    @Test
+    public void testDeltaUnavailable() {
+        LogicalTimestamp base = master.timestamp();
+        master.add(flowEntry(2), TERM, clock);
+        master.add(flowEntry(3), TERM + 1, clock);
+        assertThat(master.getDelta(base), nullValue());
+
+        base = master.timestamp();
+        for (int i = 0; i < 2048; i++) {
+            master.add(flowEntry(i + 4), TERM + 1, clock);
+        }
+        assertThat(master.getDelta(base), nullValue());
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.group.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.cluster.ClusterServiceAdapter;
+import org.onosproject.cluster.ControllerNode;
+import org.onosproject.cluster.DefaultControllerNode;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.core.GroupId;
+import org.onosproject.mastership.MastershipInfo;
+import org.onosproject.mastership.MastershipServiceAdapter;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.MastershipRole;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.group.DefaultGroup;
+import org.onosproject.net.group.DefaultGroupBucket;
+import org.onosproject.net.group.DefaultGroupDescription;
+import org.onosproject.net.group.DefaultGroupKey;
+import org.onosproject.net.group.Group;
+import org.onosproject.net.group.GroupBuckets;
+import org.onosproject.net.group.GroupDescription;
+import org.onosproject.net.group.GroupKey;
+import org.onosproject.net.group.StoredGroupEntry;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
+import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.group.impl.DistributedGroupStore.GroupStoreIdMapKey;
+import org.onosproject.store.group.impl.DistributedGroupStore.GroupStoreKeyMapKey;
+import org.onosproject.store.group.impl.DistributedGroupStore.GroupStoreMapKey;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.Serializer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.onosproject.net.NetTestTools.did;
+
+/**
+ * Unit tests for the replication of the device group tables.
+ */
+public class DeviceGroupTableTest {
+
+    private static final DeviceId DID = did("dev1");
+    private static final NodeId NID1 = new NodeId("n1");
+    private static final NodeId NID2 = new NodeId("n2");
+    private static final NodeId NID3 = new NodeId("n3");
+
+    private static final ApplicationId APP_ID = new DefaultApplicationId(1, "group.test");
+
+    private static final GroupKey KEY1 = new DefaultGroupKey("abc".getBytes());
+    private static final GroupKey KEY2 = new DefaultGroupKey("def".getBytes());
+    private static final GroupKey KEY3 = new DefaultGroupKey("ghi".getBytes());
+
+    private final Serializer serializer = Serializer.using(KryoNamespace.newBuilder()
+            .register(KryoNamespaces.API)
+            .nextId(KryoNamespaces.BEGIN_USER_CUSTOM_ID)
+            .register(DefaultGroup.class,
+                      DefaultGroupBucket.class,
+                      DefaultGroupDescription.class,
+                      DefaultGroupKey.class,
+                      GroupDescription.Type.class,
+                      Group.GroupState.class,
+                      GroupBuckets.class,
+                      GroupStoreKeyMapKey.class,
+                      GroupStoreIdMapKey.class,
+                      GroupStoreMapKey.class,
+                      DeviceGroupTable.Backup.class)
+            .build());
+
+    private final Map<NodeId, TestCommunicator> network = Maps.newHashMap();
+    private final Set<NodeId> inactiveNodes = Sets.newHashSet();
+    private final Map<NodeId, TestNode> nodes = Maps.newHashMap();
+
+    private TestNode node1;
+    private TestNode node2;
+    private TestNode node3;
+
+    @Before
+    public void setUp() {
+        MastershipInfo mastership = mastership(1, NID1, NID2);
+        node1 = new TestNode(NID1, mastership);
+        node2 = new TestNode(NID2, mastership);
+        node3 = new TestNode(NID3, mastership);
+    }
+
+    private static MastershipInfo mastership(long term, NodeId master, NodeId backup) {
+        ImmutableMap.Builder<NodeId, MastershipRole> roles = ImmutableMap.builder();
+        roles.put(master, MastershipRole.MASTER);
+        roles.put(backup, MastershipRole.STANDBY);
+        ImmutableList.of(NID1, NID2, NID3).stream()
+                .filter(nodeId -> !nodeId.equals(master) && !nodeId.equals(backup))
+                .forEach(nodeId -> roles.put(nodeId, MastershipRole.NONE));
+        return new MastershipInfo(term, Optional.of(master), roles.build());
+    }
+
+    private void setMastership(MastershipInfo mastership) {
+        nodes.values().forEach(node -> node.mastershipService.mastership = mastership);
+    }
+
+    private static StoredGroupEntry group(int id, GroupKey appCookie) {
+        GroupBuckets buckets = new GroupBuckets(ImmutableList.of(
+                DefaultGroupBucket.createAllGroupBucket(DefaultTrafficTreatment.emptyTreatment())));
+        return new DefaultGroup(new GroupId(id), new DefaultGroupDescription(
+                DID, GroupDescription.Type.ALL, buckets, appCookie, id, APP_ID));
+    }
+
+    private static Set<GroupId> ids(Set<StoredGroupEntry> groups) {
+        return groups.stream().map(Group::id).collect(Collectors.toSet());
+    }
+
+    /**
+     * Tests that the backups are given a snapshot of the table, then its
+     * individual changes, and a new snapshot once they missed a change.
+     */
+    @Test
+    public void testBackups() {
+        node1.table.put(KEY1, group(1, KEY1));
+        assertThat(node2.table.get(KEY1), nullValue());
+
+        // The first sync gives the backup a snapshot
+        node1.table.sync();
+        assertThat(node2.table.get(KEY1).id(), is(new GroupId(1)));
+
+        // Then the backup gets the changes
+        node1.table.put(KEY2, group(2, KEY2));
+        assertThat(node2.table.get(new GroupId(2)).id(), is(new GroupId(2)));
+        node1.table.remove(KEY1);
+        assertThat(node2.table.get(KEY1), nullValue());
+        assertThat(node2.removed, is(ImmutableList.of(new GroupId(1))));
+
+        // A backup missing a change gets a new snapshot with the next sync
+        network.remove(NID2);
+        node1.table.put(KEY3, group(3, KEY3));
+        network.put(NID2, node2.communicator);
+        node1.table.put(KEY1, group(1, KEY1));
+        assertThat(node2.table.get(KEY3), nullValue());
+        node1.table.sync();
+        assertThat(ids(node2.table.groups()), is(Sets.newHashSet(new GroupId(1), new GroupId(2),
+                                                                  new GroupId(3))));
+    }
+
+    /**
+     * Tests that purging the table on the master empties its backups.
+     */
+    @Test
+    public void testPurge() {
+        node1.table.sync();
+        node1.table.put(KEY1, group(1, KEY1));
+        node1.table.put(KEY2, group(2, KEY2));
+        assertThat(node2.table.groups().size(), is(2));
+
+        node1.table.purge();
+        assertThat(node1.table.groups(), is(empty()));
+        assertThat(node2.table.groups(), is(empty()));
+        assertThat(node2.removed.size(), is(2));
+    }
+
+    /**
+     * Tests that backups of a stale mastership term are ignored.
+     */
+    @Test
+    public void testStaleTerm() {
+        node1.table.sync();
+        node1.table.put(KEY1, group(1, KEY1));
+
+        // Node 2 already knows of a later term, node 1 does not
+        node2.mastershipService.mastership = mastership(2, NID3, NID2);
+        node1.table.put(KEY2, group(2, KEY2));
+        node1.table.sync();
+        assertThat(node2.table.get(KEY1).id(), is(new GroupId(1)));
+        assertThat(node2.table.get(KEY2), nullValue());
+    }
+
+    /**
+     * Tests that the nodes holding no replica of the table read it from the
+     * master.
+     */
+    @Test
+    public void testForwardedReads() {
+        node1.table.put(KEY1, group(1, KEY1));
+        node1.table.put(KEY2, group(2, KEY2));
+
+        assertThat(node3.table.get(KEY1).id(), is(new GroupId(1)));
+        assertThat(node3.table.get(new GroupId(2)).id(), is(new GroupId(2)));
+        assertThat(node3.table.get(KEY3), nullValue());
+        assertThat(ids(node3.table.groups()), is(Sets.newHashSet(new GroupId(1), new GroupId(2))));
+        // Nothing got replicated to node 3
+        assertThat(node3.updated, is(empty()));
+    }
+
+    /**
+     * Tests that a new master fetches the table from the prior master, while
+     * keeping the groups it wrote meanwhile, then replicates it to its backups.
+     */
+    @Test
+    public void testHandover() {
+        node1.table.put(KEY1, group(1, KEY1));
+        node1.table.put(KEY2, group(2, KEY2));
+
+        MastershipInfo mastership = mastership(2, NID3, NID2);
+        setMastership(mastership);
+        node3.communicator.holdRequests = true;
+        node3.table.masterChanged(mastership);
+
+        // Groups written locally before the fetch completes win
+        node3.table.put(KEY2, group(4, KEY2));
+        node3.table.put(KEY3, group(3, KEY3));
+        node3.communicator.releaseRequests();
+
+        assertThat(node3.table.get(KEY1).id(), is(new GroupId(1)));
+        assertThat(node3.table.get(KEY2).id(), is(new GroupId(4)));
+        assertThat(node3.table.get(KEY3).id(), is(new GroupId(3)));
+        assertThat(node3.table.get(new GroupId(2)), nullValue());
+        assertThat(ids(node2.table.groups()), is(Sets.newHashSet(new GroupId(1), new GroupId(4),
+                                                                  new GroupId(3))));
+    }
+
+    /**
+     * Tests that the table fetched from the prior master is discarded if the
+     * new master purges its table meanwhile.
+     */
+    @Test
+    public void testPurgeDuringHandover() {
+        node1.table.put(KEY1, group(1, KEY1));
+
+        MastershipInfo mastership = mastership(2, NID3, NID2);
+        setMastership(mastership);
+        node3.communicator.holdRequests = true;
+        node3.table.masterChanged(mastership);
+        node3.table.purge();
+        node3.communicator.releaseRequests();
+
+        assertThat(node3.table.groups(), is(empty()));
+        assertThat(node2.table.groups(), is(empty()));
+    }
+
+    /**
+     * Tests that a new master keeps its own table when the prior master is
+     * gone.
+     */
+    @Test
+    public void testHandoverFromInactiveMaster() {
+        node1.table.sync();
+        node1.table.put(KEY1, group(1, KEY1));
+
+        inactiveNodes.add(NID1);
+        MastershipInfo mastership = mastership(2, NID2, NID3);
+        setMastership(mastership);
+        node2.table.masterChanged(mastership);
+
+        assertThat(node2.table.get(KEY1).id(), is(new GroupId(1)));
+        assertThat(node3.table.get(KEY1).id(), is(new GroupId(1)));
+        assertThat(node3.updated, is(ImmutableList.of(new GroupId(1))));
+    }
+
+    // Cluster node holding a group table of the device
+    private final class TestNode {
+        private final TestCommunicator communicator;
+        private final TestMastershipService mastershipService = new TestMastershipService();
+        private final DeviceGroupTable table;
+        private final List<GroupId> updated = Lists.newArrayList();
+        private final List<GroupId> removed = Lists.newArrayList();
+
+        private TestNode(NodeId nodeId, MastershipInfo mastership) {
+            communicator = new TestCommunicator();
+            network.put(nodeId, communicator);
+            nodes.put(nodeId, this);
+            mastershipService.mastership = mastership;
+            table = new DeviceGroupTable(DID, new TestClusterService(nodeId), communicator,
+                                         mastershipService, serializer, MoreExecutors.directExecutor(),
+                                         new DeviceGroupTable.Listener() {
+                @Override
+                public void groupUpdated(StoredGroupEntry group) {
+                    updated.add(group.id());
+                }
+
+                @Override
+                public void groupRemoved(StoredGroupEntry group) {
+                    removed.add(group.id());
+                }
+            });
+        }
+    }
+
+    private final class TestClusterService extends ClusterServiceAdapter {
+        private final ControllerNode localNode;
+
+        private TestClusterService(NodeId nodeId) {
+            localNode = new DefaultControllerNode(nodeId, IpAddress.valueOf("127.0.0.1"));
+        }
+
+        @Override
+        public ControllerNode getLocalNode() {
+            return localNode;
+        }
+
+        @Override
+        public ControllerNode.State getState(NodeId nodeId) {
+            return inactiveNodes.contains(nodeId) ? ControllerNode.State.INACTIVE : ControllerNode.State.ACTIVE;
+        }
+    }
+
+    private static final class TestMastershipService extends MastershipServiceAdapter {
+        private MastershipInfo mastership;
+
+        @Override
+        public MastershipInfo getMastershipFor(DeviceId deviceId) {
+            return mastership;
+        }
+
+        @Override
+        public NodeId getMasterFor(DeviceId deviceId) {
+            return mastership.master().orElse(null);
+        }
+    }
+
+    // Delivers the messages synchronously to the nodes of the network
+    private final class TestCommunicator extends ClusterCommunicationServiceAdapter {
+        private final Map<MessageSubject, Function<byte[], byte[]>> subscribers = Maps.newHashMap();
+        private final List<Runnable> heldRequests = Lists.newArrayList();
+        private boolean holdRequests;
+
+        private void releaseRequests() {
+            holdRequests = false;
+            heldRequests.forEach(Runnable::run);
+            heldRequests.clear();
+        }
+
+        private byte[] deliver(MessageSubject subject, byte[] payload, NodeId toNodeId) {
+            TestCommunicator node = network.get(toNodeId);
+            if (node == null || !node.subscribers.containsKey(subject)) {
+                throw new IllegalStateException("Unreachable node " + toNodeId);
+            }
+            return node.subscribers.get(subject).apply(payload);
+        }
+
+        @Override
+        public <M> CompletableFuture<Void> unicast(M message, MessageSubject subject,
+                                                   Function<M, byte[]> encoder, NodeId toNodeId) {
+            try {
+                deliver(subject, encoder.apply(message), toNodeId);
+                return CompletableFuture.completedFuture(null);
+            } catch (IllegalStateException e) {
+                CompletableFuture<Void> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                return failed;
+            }
+        }
+
+        @Override
+        public <M, R> CompletableFuture<R> sendAndReceive(M message, MessageSubject subject,
+                                                          Function<M, byte[]> encoder,
+                                                          Function<byte[], R> decoder,
+                                                          NodeId toNodeId, Duration timeout) {
+            CompletableFuture<R> response = new CompletableFuture<>();
+            Runnable request = () -> {
+                try {
+                    response.complete(decoder.apply(deliver(subject, encoder.apply(message), toNodeId)));
+                } catch (IllegalStateException e) {
+                    response.completeExceptionally(e);
+                }
+            };
+            if (holdRequests) {
+                heldRequests.add(request);
+            } else {
+                request.run();
+            }
+            return response;
+        }
+
+        @Override
+        public <M> void addSubscriber(MessageSubject subject, Function<byte[], M> decoder,
+                                      Consumer<M> handler, Executor executor) {
+            subscribers.put(subject, payload -> {
+                handler.accept(decoder.apply(payload));
+                return null;
+            });
+        }
+
+        @Override
+        public <M, R> void addSubscriber(MessageSubject subject, Function<byte[], M> decoder,
+                                         Function<M, R> handler, Function<R, byte[]> encoder,
+                                         Executor executor) {
+            subscribers.put(subject, payload -> encoder.apply(handler.apply(decoder.apply(payload))));
+        }
+
+        @Override
+        public void removeSubscriber(MessageSubject subject) {
+            subscribers.remove(subject);
+        }
+    }
+}
@@ -244,6 +244,26 @@ public class DistributedGroupStoreTest {
         assertThat(auditPendingReqQueue.size(), is(0));
     }
 
+    /**
+     * Tests that the audit of a device only takes its own pending groups.
+     */
+    @Test
+    public void testPendingGroupsPerDevice() throws Exception {
+        groupStore.storeGroupDescription(groupDescription1);
+        groupStore.storeGroupDescription(groupDescription2);
+        groupStore.storeGroupDescription(groupDescription3);
+        assertThat(auditPendingReqQueue.size(), is(3));
+
+        groupStore.deviceInitialAuditCompleted(deviceId2, true);
+        assertThat(auditPendingReqQueue.size(), is(1));
+        assertThat(groupStore.getGroupCount(deviceId1), is(0));
+        assertThat(groupStore.getGroupCount(deviceId2), is(2));
+
+        groupStore.deviceInitialAuditCompleted(deviceId1, true);
+        assertThat(auditPendingReqQueue.size(), is(0));
+        assertThat(groupStore.getGroupCount(deviceId1), is(1));
+    }
+
 
     /**
      * Tests adding and removing a group.
@@ -420,6 +420,39 @@ public class DistributedHostStoreTest {
                 ecXHostStore.getConnectedHosts(HOST_LOC12, true));
     }
 
+    @Test
+    public void testIndexedLookups() {
+        ecXHostStore.createOrUpdateHost(PID, HOSTID, HOST_LEARNT_WITH_LOCATIONS, false);
+        ecXHostStore.createOrUpdateHost(PID, HOSTID1, HOST_DESC_WITH_AUX, false);
+        Host host = ecXHostStore.getHost(HOSTID);
+        Host host1 = ecXHostStore.getHost(HOSTID1);
+
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getHosts(HOSTID.mac()));
+        assertEquals(ImmutableSet.of(host, host1), ecXHostStore.getHosts(VlanId.NONE));
+        assertEquals(ImmutableSet.of(host, host1), ecXHostStore.getConnectedHosts(DEV1));
+        assertEquals(ImmutableSet.of(host, host1), ecXHostStore.getConnectedHosts(CP11));
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getConnectedHosts(CP12));
+        assertEquals(ImmutableSet.of(host1), ecXHostStore.getConnectedHosts(CP12, true));
+
+        // Indexes hold the latest version of the hosts only
+        ecXHostStore.removeLocation(HOSTID, HOST_LOC12);
+        host = ecXHostStore.getHost(HOSTID);
+        assertEquals(ImmutableSet.of(host, host1), ecXHostStore.getConnectedHosts(CP11));
+        assertEquals(ImmutableSet.of(), ecXHostStore.getConnectedHosts(CP12));
+        assertEquals(ImmutableSet.of(host, host1), ecXHostStore.getConnectedHosts(DEV1));
+
+        ecXHostStore.removeHost(HOSTID1);
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getHosts(VlanId.NONE));
+        assertEquals(ImmutableSet.of(), ecXHostStore.getHosts(HOSTID1.mac()));
+        assertEquals(ImmutableSet.of(), ecXHostStore.getConnectedHosts(CP12, true));
+
+        ecXHostStore.removeHost(HOSTID);
+        ecXHostStore.indexes().forEach(index -> {
+            assertEquals(0, index.keyCount());
+            assertEquals(0, index.referenceCount());
+        });
+    }
+
     private class TestStoreDelegate implements HostStoreDelegate {
         public HostEvent lastEvent;
 
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.link.impl;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.LinkKey;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.link.DefaultLinkDescription;
+import org.onosproject.net.provider.ProviderId;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.DeviceId.deviceId;
+import static org.onosproject.net.Link.Type.DIRECT;
+import static org.onosproject.net.LinkKey.linkKey;
+
+/**
+ * Tests that the end point indexes of the link store follow its links.
+ */
+public class ECLinkStoreIndexTest {
+
+    private static final ProviderId PID = new ProviderId("of", "foo");
+    private static final ProviderId PIDA = new ProviderId("of", "bar", true);
+    private static final DeviceId DID1 = deviceId("of:1");
+    private static final DeviceId DID2 = deviceId("of:2");
+    private static final DeviceId DID3 = deviceId("of:3");
+
+    private static final ConnectPoint CP11 = cp(DID1, 1);
+    private static final ConnectPoint CP12 = cp(DID1, 2);
+    private static final ConnectPoint CP21 = cp(DID2, 1);
+    private static final ConnectPoint CP22 = cp(DID2, 2);
+    private static final ConnectPoint CP31 = cp(DID3, 1);
+
+    private ECLinkStore store;
+
+    @Before
+    public void setUp() {
+        store = LocalLinkStores.activate();
+    }
+
+    @After
+    public void tearDown() {
+        LocalLinkStores.deactivate(store);
+    }
+
+    private static ConnectPoint cp(DeviceId deviceId, long port) {
+        return new ConnectPoint(deviceId, PortNumber.portNumber(port));
+    }
+
+    private void putLink(ProviderId providerId, ConnectPoint src, ConnectPoint dst) {
+        store.createOrUpdateLink(providerId, new DefaultLinkDescription(src, dst, DIRECT));
+    }
+
+    private static Set<LinkKey> keys(Set<Link> links) {
+        return links.stream().map(link -> linkKey(link.src(), link.dst())).collect(Collectors.toSet());
+    }
+
+    // Checks that the indexes hold exactly the cached links.
+    private void assertIndexed(int linkCount) {
+        assertEquals("incorrect link count", linkCount, store.getLinkCount());
+        assertEquals("stale index entries", 4 * linkCount, store.indexedKeyCount());
+    }
+
+    /**
+     * Tests that removed links are removed from the indexes.
+     */
+    @Test
+    public void removeLink() {
+        putLink(PID, CP11, CP21);
+        putLink(PID, CP21, CP11);
+        putLink(PID, CP12, CP31);
+        assertIndexed(3);
+        assertEquals("incorrect egress links", ImmutableSet.of(linkKey(CP11, CP21), linkKey(CP12, CP31)),
+                     keys(store.getDeviceEgressLinks(DID1)));
+
+        store.removeLink(CP11, CP21);
+        assertIndexed(2);
+        assertEquals("incorrect egress links", ImmutableSet.of(linkKey(CP12, CP31)),
+                     keys(store.getDeviceEgressLinks(DID1)));
+        assertTrue("no ingress links expected", store.getIngressLinks(CP21).isEmpty());
+        assertTrue("no egress links expected", store.getEgressLinks(CP11).isEmpty());
+
+        store.removeLink(CP21, CP11);
+        store.removeLink(CP12, CP31);
+        assertIndexed(0);
+    }
+
+    /**
+     * Tests that the links purged along with a device are removed from the
+     * indexes, including those of its peers.
+     */
+    @Test
+    public void devicePurge() {
+        putLink(PID, CP11, CP21);
+        putLink(PID, CP21, CP11);
+        putLink(PID, CP22, CP31);
+        putLink(PID, CP31, CP22);
+        assertIndexed(4);
+
+        // Removes the links of the device, the way the link manager does
+        Set<Link> deviceLinks = ImmutableSet.<Link>builder()
+                .addAll(store.getDeviceEgressLinks(DID1))
+                .addAll(store.getDeviceIngressLinks(DID1))
+                .build();
+        deviceLinks.forEach(link -> store.removeLink(link.src(), link.dst()));
+        assertIndexed(2);
+        assertTrue("no device links expected", store.getDeviceEgressLinks(DID1).isEmpty());
+        assertTrue("no device links expected", store.getDeviceIngressLinks(DID1).isEmpty());
+        assertEquals("incorrect peer links", ImmutableSet.of(linkKey(CP22, CP31)),
+                     keys(store.getDeviceEgressLinks(DID2)));
+        assertEquals("incorrect peer links", ImmutableSet.of(linkKey(CP31, CP22)),
+                     keys(store.getDeviceIngressLinks(DID2)));
+    }
+
+    /**
+     * Tests that the links purged along with their provider, e.g. by another
+     * node, are removed from the indexes.
+     */
+    @Test
+    public void linkProviderPurge() {
+        putLink(PID, CP11, CP21);
+        putLink(PIDA, CP11, CP21);
+        putLink(PID, CP21, CP11);
+        assertIndexed(2);
+
+        LocalLinkStores.linkDescriptions(store).remove(new Provided<>(linkKey(CP11, CP21), PID));
+        assertIndexed(1);
+        assertTrue("no egress links expected", store.getEgressLinks(CP11).isEmpty());
+        assertTrue("no ingress links expected", store.getDeviceIngressLinks(DID2).isEmpty());
+
+        LocalLinkStores.linkDescriptions(store).remove(new Provided<>(linkKey(CP21, CP11), PID));
+        assertIndexed(0);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.link.impl;
+
+import org.onosproject.cluster.ClusterServiceAdapter;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.core.CoreServiceAdapter;
+import org.onosproject.mastership.MastershipServiceAdapter;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.LinkKey;
+import org.onosproject.net.config.NetworkConfigRegistryAdapter;
+import org.onosproject.net.device.DeviceClockServiceAdapter;
+import org.onosproject.net.link.LinkDescription;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
+import org.onosproject.store.service.EventuallyConsistentMap;
+import org.onosproject.store.service.EventuallyConsistentMapAdapter;
+import org.onosproject.store.service.EventuallyConsistentMapBuilder;
+import org.onosproject.store.service.EventuallyConsistentMapEvent;
+import org.onosproject.store.service.EventuallyConsistentMapListener;
+import org.onosproject.store.service.TestEventuallyConsistentMap;
+import org.onosproject.store.service.TestStorageService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+
+import static org.onosproject.store.service.EventuallyConsistentMapEvent.Type.PUT;
+import static org.onosproject.store.service.EventuallyConsistentMapEvent.Type.REMOVE;
+
+/**
+ * Factory of eventually consistent link stores running on a single, local
+ * node which masters every device.
+ */
+public final class LocalLinkStores {
+
+    private LocalLinkStores() {
+    }
+
+    /**
+     * Creates and activates a link store.
+     *
+     * @return activated link store, without a delegate
+     */
+    public static ECLinkStore activate() {
+        ECLinkStore store = new ECLinkStore();
+        store.storageService = new LocalStorageService();
+        store.clusterService = new ClusterServiceAdapter();
+        store.clusterCommunicator = new ClusterCommunicationServiceAdapter();
+        store.mastershipService = new MasterOfAll();
+        store.deviceClockService = new DeviceClockServiceAdapter();
+        store.netCfgService = new NetworkConfigRegistryAdapter();
+        store.coreService = new CoreServiceAdapter();
+        store.activate();
+        return store;
+    }
+
+    /**
+     * Returns the link descriptions map of a link store created by
+     * {@link #activate()}, e.g. to apply the changes made by other nodes.
+     *
+     * @param store link store
+     * @return link descriptions by link and provider
+     */
+    public static EventuallyConsistentMap<Provided<LinkKey>, LinkDescription> linkDescriptions(ECLinkStore store) {
+        return ((LocalStorageService) store.storageService).linkDescriptions;
+    }
+
+    /**
+     * Deactivates a link store created by {@link #activate()}.
+     *
+     * @param store link store
+     */
+    public static void deactivate(ECLinkStore store) {
+        store.deactivate();
+    }
+
+    // Storage service building local maps, retaining the link descriptions.
+    private static final class LocalStorageService extends TestStorageService {
+        private EventuallyConsistentMap<Provided<LinkKey>, LinkDescription> linkDescriptions;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> EventuallyConsistentMapBuilder<K, V> eventuallyConsistentMapBuilder() {
+            return new TestEventuallyConsistentMap.Builder<K, V>() {
+                @Override
+                public EventuallyConsistentMap<K, V> build() {
+                    EventuallyConsistentMap<K, V> map = new LocalMap<>();
+                    linkDescriptions = (EventuallyConsistentMap<Provided<LinkKey>, LinkDescription>) map;
+                    return map;
+                }
+            };
+        }
+    }
+
+    // Mastership service which makes the local node master of every device.
+    private static final class MasterOfAll extends MastershipServiceAdapter {
+        private final NodeId local = new ClusterServiceAdapter().getLocalNode().id();
+
+        @Override
+        public NodeId getMasterFor(DeviceId deviceId) {
+            return local;
+        }
+    }
+
+    // Local map notifying its listeners of computed values as well, the way
+    // the eventually consistent map does.
+    private static final class LocalMap<K, V> extends EventuallyConsistentMapAdapter<K, V> {
+        private final Map<K, V> map = new ConcurrentHashMap<>();
+        private final List<EventuallyConsistentMapListener<K, V>> listeners = new CopyOnWriteArrayList<>();
+
+        @Override
+        public V get(K key) {
+            return map.get(key);
+        }
+
+        @Override
+        public V compute(K key, BiFunction<K, V, V> recomputeFunction) {
+            V value = map.compute(key, recomputeFunction);
+            if (value != null) {
+                notifyListeners(new EventuallyConsistentMapEvent<>(name(), PUT, key, value));
+            }
+            return value;
+        }
+
+        @Override
+        public V remove(K key) {
+            V value = map.remove(key);
+            if (value != null) {
+                notifyListeners(new EventuallyConsistentMapEvent<>(name(), REMOVE, key, value));
+            }
+            return value;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public void addListener(EventuallyConsistentMapListener<K, V> listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void removeListener(EventuallyConsistentMapListener<K, V> listener) {
+            listeners.remove(listener);
+        }
+
+        @Override
+        public CompletableFuture<Void> destroy() {
+            map.clear();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        private void notifyListeners(EventuallyConsistentMapEvent<K, V> event) {
+            listeners.forEach(listener -> listener.event(event));
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.mastership.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.junit.TestUtils;
+import org.onlab.packet.IpAddress;
+import org.onosproject.cluster.ClusterServiceAdapter;
+import org.onosproject.cluster.ControllerNode;
+import org.onosproject.cluster.DefaultControllerNode;
+import org.onosproject.cluster.Leader;
+import org.onosproject.cluster.Leadership;
+import org.onosproject.cluster.LeadershipAdminService;
+import org.onosproject.cluster.LeadershipEvent;
+import org.onosproject.cluster.LeadershipEventListener;
+import org.onosproject.cluster.LeadershipServiceAdapter;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.mastership.MastershipEvent;
+import org.onosproject.net.DeviceId;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.mastership.MastershipEvent.Type.BACKUPS_CHANGED;
+import static org.onosproject.mastership.MastershipEvent.Type.MASTER_CHANGED;
+import static org.onosproject.mastership.MastershipEvent.Type.RESTORED;
+import static org.onosproject.mastership.MastershipEvent.Type.SUSPENDED;
+
+/**
+ * Unit tests for the index of the devices by master and the notification of
+ * the events of the consistent device mastership store.
+ */
+public class ConsistentDeviceMastershipStoreTest {
+
+    private static final NodeId N1 = new NodeId("n1");
+    private static final NodeId N2 = new NodeId("n2");
+    private static final NodeId N3 = new NodeId("n3");
+
+    private static final DeviceId D1 = DeviceId.deviceId("of:1");
+    private static final DeviceId D2 = DeviceId.deviceId("of:2");
+    private static final DeviceId D3 = DeviceId.deviceId("of:3");
+
+    private final TestLeadershipService leadershipService = new TestLeadershipService();
+    private final TestLeadershipAdminService leadershipAdminService = new TestLeadershipAdminService();
+    private final List<MastershipEvent> events = Collections.synchronizedList(Lists.newArrayList());
+    private final ManualExecutor eventHandler = new ManualExecutor();
+
+    private ConsistentDeviceMastershipStore store;
+
+    @Before
+    public void setUp() {
+        store = new ConsistentDeviceMastershipStore();
+        store.leadershipService = leadershipService;
+        store.leadershipAdminService = leadershipAdminService;
+        store.clusterService = new TestClusterService();
+        store.clusterCommunicator = new ClusterCommunicationServiceAdapter();
+        store.setDelegate(events::add);
+    }
+
+    @After
+    public void tearDown() {
+        store.deactivate();
+    }
+
+    private void activate() {
+        store.activate();
+        TestUtils.setField(store, "eventHandler", eventHandler);
+    }
+
+    private static Leadership leadership(DeviceId deviceId, NodeId leader, NodeId... candidates) {
+        return new Leadership("device-mastership:" + deviceId,
+                              leader == null ? null : new Leader(leader, 1, 0),
+                              ImmutableList.copyOf(candidates));
+    }
+
+    private void post(LeadershipEvent.Type type, DeviceId deviceId, NodeId leader, NodeId... candidates) {
+        leadershipService.listener.event(new LeadershipEvent(type, leadership(deviceId, leader, candidates)));
+    }
+
+    private List<MastershipEvent.Type> eventTypes(DeviceId deviceId) {
+        return events.stream()
+                .filter(event -> event.subject().equals(deviceId))
+                .map(MastershipEvent::type)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Tests that the devices of a node follow the leader changes, from the
+     * leader board found at activation on.
+     */
+    @Test
+    public void testDevicesByMaster() {
+        leadershipAdminService.leaderBoard.put("device-mastership:" + D1, leadership(D1, N1, N1, N2));
+        leadershipAdminService.leaderBoard.put("other-topic", new Leadership("other-topic",
+                new Leader(N3, 1, 0), ImmutableList.of(N3)));
+        activate();
+        assertEquals(ImmutableSet.of(D1), store.getDevices(N1));
+        assertTrue(store.getDevices(N3).isEmpty());
+
+        post(LeadershipEvent.Type.LEADER_CHANGED, D2, N1, N1);
+        post(LeadershipEvent.Type.LEADER_CHANGED, D3, N2, N2);
+        assertEquals(ImmutableSet.of(D1, D2), store.getDevices(N1));
+        assertEquals(ImmutableSet.of(D3), store.getDevices(N2));
+
+        post(LeadershipEvent.Type.LEADER_CHANGED, D1, N2, N2, N1);
+        assertEquals(ImmutableSet.of(D2), store.getDevices(N1));
+        assertEquals(ImmutableSet.of(D1, D3), store.getDevices(N2));
+
+        post(LeadershipEvent.Type.LEADER_AND_CANDIDATES_CHANGED, D2, null);
+        assertTrue(store.getDevices(N1).isEmpty());
+        assertEquals(ImmutableSet.of(D1, D3), store.getDevices(N2));
+
+        // Disruptions leave the index as it is
+        post(LeadershipEvent.Type.SERVICE_DISRUPTED, D3, null);
+        assertEquals(ImmutableSet.of(D1, D3), store.getDevices(N2));
+    }
+
+    /**
+     * Tests that a leadership event received while the index is seeded wins
+     * over the older leader board.
+     */
+    @Test
+    public void testEventWhileSeeding() {
+        leadershipAdminService.leaderBoard.put("device-mastership:" + D1, leadership(D1, N1, N1, N2));
+        leadershipAdminService.leaderBoard.put("device-mastership:" + D2, leadership(D2, N1, N1));
+        leadershipAdminService.onGetLeaderBoard =
+                () -> post(LeadershipEvent.Type.LEADER_CHANGED, D1, N2, N2, N1);
+        store.activate();
+
+        assertEquals(ImmutableSet.of(D2), store.getDevices(N1));
+        assertEquals(ImmutableSet.of(D1), store.getDevices(N2));
+
+        // Later leader boards are not used anymore
+        post(LeadershipEvent.Type.LEADER_CHANGED, D1, N1, N1, N2);
+        assertEquals(ImmutableSet.of(D1, D2), store.getDevices(N1));
+        assertTrue(store.getDevices(N2).isEmpty());
+    }
+
+    /**
+     * Tests that the changes of a device piling up before they are notified
+     * are merged in one event per kind of change, with the latest mastership.
+     */
+    @Test
+    public void testMergedChanges() {
+        activate();
+        post(LeadershipEvent.Type.LEADER_CHANGED, D1, N1, N1);
+        post(LeadershipEvent.Type.LEADER_CHANGED, D1, N2, N2);
+        post(LeadershipEvent.Type.LEADER_CHANGED, D1, N3, N3);
+        post(LeadershipEvent.Type.CANDIDATES_CHANGED, D2, N1, N1);
+        post(LeadershipEvent.Type.CANDIDATES_CHANGED, D2, N1, N1, N2);
+        post(LeadershipEvent.Type.CANDIDATES_CHANGED, D3, N1, N1);
+        post(LeadershipEvent.Type.LEADER_CHANGED, D3, N2, N2, N1);
+        assertTrue(events.isEmpty());
+
+        eventHandler.runTasks();
+        assertEquals(ImmutableList.of(MASTER_CHANGED), eventTypes(D1));
+        assertEquals(Optional.of(N3), events.get(0).mastershipInfo().master());
+        assertEquals(ImmutableList.of(BACKUPS_CHANGED), eventTypes(D2));
+        assertEquals(ImmutableList.of(N2), events.stream()
+                .filter(event -> event.subject().equals(D2))
+                .findFirst().get().mastershipInfo().backups());
+        assertEquals(ImmutableList.of(BACKUPS_CHANGED, MASTER_CHANGED), eventTypes(D3));
+
+        // Changes notified already are not merged with the next ones
+        events.clear();
+        post(LeadershipEvent.Type.LEADER_CHANGED, D1, N1, N1);
+        eventHandler.runTasks();
+        assertEquals(ImmutableList.of(MASTER_CHANGED), eventTypes(D1));
+    }
+
+    /**
+     * Tests that disruptions and restorations are notified apart from the
+     * changes, in the order they happened.
+     */
+    @Test
+    public void testSuspendedRestoredOrder() {
+        activate();
+        post(LeadershipEvent.Type.LEADER_CHANGED, D1, N1, N1);
+        post(LeadershipEvent.Type.SERVICE_DISRUPTED, D1, N1, N1);
+        post(LeadershipEvent.Type.SERVICE_RESTORED, D1, N1, N1);
+        post(LeadershipEvent.Type.LEADER_CHANGED, D1, N2, N2);
+        post(LeadershipEvent.Type.LEADER_CHANGED, D1, N3, N3);
+        post(LeadershipEvent.Type.SERVICE_DISRUPTED, D1, N3, N3);
+        post(LeadershipEvent.Type.SERVICE_DISRUPTED, D1, N3, N3);
+
+        eventHandler.runTasks();
+        assertEquals(ImmutableList.of(MASTER_CHANGED, SUSPENDED, RESTORED, MASTER_CHANGED, SUSPENDED, SUSPENDED),
+                     eventTypes(D1));
+        assertEquals(Optional.of(N3), events.get(3).mastershipInfo().master());
+    }
+
+    private static class TestLeadershipService extends LeadershipServiceAdapter {
+        private LeadershipEventListener listener;
+
+        @Override
+        public void addListener(LeadershipEventListener listener) {
+            this.listener = listener;
+        }
+    }
+
+    private static class TestLeadershipAdminService implements LeadershipAdminService {
+        private final Map<String, Leadership> leaderBoard = Maps.newHashMap();
+        private Runnable onGetLeaderBoard = () -> { };
+
+        @Override
+        public boolean transferLeadership(String topic, NodeId nodeId) {
+            return false;
+        }
+
+        @Override
+        public boolean promoteToTopOfCandidateList(String topic, NodeId nodeId) {
+            return false;
+        }
+
+        @Override
+        public void unregister(NodeId nodeId) {
+        }
+
+        @Override
+        public Map<String, Leadership> getLeaderBoard() {
+            // Copied before events received meanwhile may change it
+            Map<String, Leadership> snapshot = ImmutableMap.copyOf(leaderBoard);
+            onGetLeaderBoard.run();
+            return snapshot;
+        }
+    }
+
+    private static class TestClusterService extends ClusterServiceAdapter {
+        private final Set<ControllerNode> nodes = ImmutableSet.of(
+                new DefaultControllerNode(N1, IpAddress.valueOf("10.0.0.1")),
+                new DefaultControllerNode(N2, IpAddress.valueOf("10.0.0.2")),
+                new DefaultControllerNode(N3, IpAddress.valueOf("10.0.0.3")));
+
+        @Override
+        public ControllerNode getLocalNode() {
+            return nodes.iterator().next();
+        }
+
+        @Override
+        public Set<ControllerNode> getNodes() {
+            return nodes;
+        }
+    }
+
+    /**
+     * Executor running the tasks on demand only.
+     */
+    private static class ManualExecutor extends AbstractExecutorService {
+        private final List<Runnable> tasks = Lists.newArrayList();
+
+        void runTasks() {
+            List<Runnable> pending = ImmutableList.copyOf(tasks);
+            tasks.clear();
+            pending.forEach(Runnable::run);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
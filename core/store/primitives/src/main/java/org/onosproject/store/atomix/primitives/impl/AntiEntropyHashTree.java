@@ -0,0 +1,286 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Hash tree summarizing the entries of an eventually consistent map for
+ * anti-entropy exchanges.
+ * <p>
+ * Entries are spread over the leaves of the tree by the hash of their
+ * serialized key, each leaf holding the sum of the hashes of its entries,
+ * i.e. of their serialized key and digest. Every inner node hashes the
+ * hashes of its {@value #FANOUT} children, up to the single root node.
+ * Replicas holding the same entries thus have the same root hash, while
+ * replicas which diverge can tell apart the leaves holding the differing
+ * entries by descending into the mismatching nodes only.
+ * <p>
+ * As leaves are sums, they can be kept up to date as entries are updated,
+ * see {@link Leaves}, so that the tree is built without hashing every entry.
+ * The leaves also index the keys of their entries, so that the entries of
+ * the mismatching leaves are found without hashing every key.
+ */
+final class AntiEntropyHashTree {
+
+    /**
+     * Number of children of each inner node.
+     */
+    static final int FANOUT = 16;
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    // Hashes of the nodes of each level, from the root to the leaves.
+    private final long[][] levels;
+
+    private AntiEntropyHashTree(long[][] levels) {
+        this.levels = levels;
+    }
+
+    /**
+     * Builds the hash tree of the given map entries.
+     *
+     * @param depth   number of levels of the tree, root and leaves included
+     * @param items   map entries
+     * @param encoder serializer of the keys and value digests
+     * @param <K>     key type
+     * @return hash tree
+     */
+    static <K> AntiEntropyHashTree build(int depth, Map<K, ? extends MapValue<?>> items,
+                                         Function<Object, byte[]> encoder) {
+        Leaves<K> leaves = new Leaves<>(depth, encoder);
+        items.forEach((key, value) -> leaves.update(key, null, value));
+        return leaves.tree();
+    }
+
+    private static AntiEntropyHashTree build(long[] leaves) {
+        int depth = 1 + Integer.numberOfTrailingZeros(leaves.length) / 4;
+        long[][] levels = new long[depth][];
+        levels[depth - 1] = leaves;
+        for (int level = depth - 2; level >= 0; level--) {
+            long[] children = levels[level + 1];
+            long[] nodes = new long[children.length / FANOUT];
+            for (int node = 0; node < nodes.length; node++) {
+                Hasher hasher = HASH.newHasher();
+                for (int child = node * FANOUT; child < (node + 1) * FANOUT; child++) {
+                    hasher.putLong(children[child]);
+                }
+                nodes[node] = hasher.hash().asLong();
+            }
+            levels[level] = nodes;
+        }
+        return new AntiEntropyHashTree(levels);
+    }
+
+    /**
+     * Returns the number of leaves of a hash tree of the given depth.
+     *
+     * @param depth number of levels of the tree
+     * @return number of leaves
+     */
+    static int leafCount(int depth) {
+        checkArgument(depth > 0 && depth <= 8, "Hash tree depth must be between 1 and 8");
+        return 1 << (4 * (depth - 1));
+    }
+
+    /**
+     * Returns the leaf holding the entry with the given serialized key in a
+     * hash tree of the given depth.
+     *
+     * @param encodedKey serialized key
+     * @param depth      number of levels of the tree
+     * @return leaf index
+     */
+    static int leafOf(byte[] encodedKey, int depth) {
+        return (int) (HASH.hashBytes(encodedKey).asLong() & (leafCount(depth) - 1));
+    }
+
+    /**
+     * Returns the children of the given nodes.
+     *
+     * @param nodes node indexes within a level
+     * @return indexes of their children within the next level
+     */
+    static int[] children(int[] nodes) {
+        int[] children = new int[nodes.length * FANOUT];
+        for (int i = 0; i < nodes.length; i++) {
+            for (int j = 0; j < FANOUT; j++) {
+                children[i * FANOUT + j] = nodes[i] * FANOUT + j;
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Returns the number of levels of this tree.
+     *
+     * @return depth of the tree
+     */
+    int depth() {
+        return levels.length;
+    }
+
+    /**
+     * Returns the hashes of the given nodes.
+     *
+     * @param level level of the nodes, 0 being the root
+     * @param nodes node indexes within the level
+     * @return node hashes, in the order of the nodes
+     */
+    long[] hashes(int level, int[] nodes) {
+        long[] hashes = new long[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            hashes[i] = levels[level][nodes[i]];
+        }
+        return hashes;
+    }
+
+    /**
+     * Returns the nodes whose hashes differ from the given ones.
+     *
+     * @param level  level of the nodes, 0 being the root
+     * @param nodes  node indexes within the level
+     * @param hashes hashes of the nodes on another replica
+     * @return indexes of the mismatching nodes
+     */
+    int[] mismatches(int level, int[] nodes, long[] hashes) {
+        checkArgument(level >= 0 && level < levels.length, "Invalid hash tree level %s", level);
+        checkArgument(nodes.length == hashes.length, "Node and hash counts differ");
+        int[] mismatches = new int[nodes.length];
+        int count = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            if (levels[level][nodes[i]] != hashes[i]) {
+                mismatches[count++] = nodes[i];
+            }
+        }
+        return Arrays.copyOf(mismatches, count);
+    }
+
+    /**
+     * Leaves of a hash tree, kept up to date as the map entries are updated.
+     * Updating an entry costs hashing its previous and current values, while
+     * building the tree only costs hashing its inner nodes.
+     *
+     * @param <K> key type
+     */
+    static final class Leaves<K> {
+
+        private final int depth;
+        private final Function<Object, byte[]> encoder;
+        private final AtomicLongArray hashes;
+        // Keys of the entries of each leaf.
+        private final Map<Integer, Set<K>> keys = new ConcurrentHashMap<>();
+
+        /**
+         * Creates the leaves of a hash tree without entries.
+         *
+         * @param depth   number of levels of the tree, root and leaves included
+         * @param encoder serializer of the keys and value digests
+         */
+        Leaves(int depth, Function<Object, byte[]> encoder) {
+            checkArgument(depth > 0, "Hash tree depth must be positive");
+            this.depth = depth;
+            this.encoder = encoder;
+            this.hashes = new AtomicLongArray(leafCount(depth));
+        }
+
+        /**
+         * Updates the leaf of the entry with the given key, whose value
+         * changed. Concurrent updates can be applied in any order, as long as
+         * each one is given the value the entry had before it, but the key
+         * index may then miss a key removed and added again concurrently;
+         * see {@link #index(Object)}.
+         *
+         * @param key      entry key
+         * @param previous previous value, null if the entry was absent
+         * @param current  current value, null if the entry was removed
+         */
+        void update(K key, MapValue<?> previous, MapValue<?> current) {
+            if (previous == current) {
+                return;
+            }
+            byte[] encodedKey = encoder.apply(key);
+            int leaf = leafOf(encodedKey, depth);
+            long delta = hashOf(encodedKey, current) - hashOf(encodedKey, previous);
+            if (delta != 0) {
+                hashes.addAndGet(leaf, delta);
+            }
+            if (current != null) {
+                keys.computeIfAbsent(leaf, l -> ConcurrentHashMap.newKeySet()).add(key);
+            } else {
+                keys.getOrDefault(leaf, Collections.emptySet()).remove(key);
+            }
+        }
+
+        /**
+         * Adds the given key to the index of its leaf, e.g. if the entry was
+         * found again after its removal.
+         *
+         * @param key entry key
+         */
+        void index(K key) {
+            keys.computeIfAbsent(leafOf(encoder.apply(key), depth), l -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+
+        /**
+         * Returns the keys of the entries of the given leaf, which may still
+         * hold keys of entries removed concurrently.
+         *
+         * @param leaf leaf index
+         * @return view of the keys of the leaf
+         */
+        Set<K> keys(int leaf) {
+            Set<K> leafKeys = keys.get(leaf);
+            return leafKeys == null ? Collections.emptySet() : Collections.unmodifiableSet(leafKeys);
+        }
+
+        /**
+         * Builds the hash tree of the current leaves.
+         *
+         * @return hash tree
+         */
+        AntiEntropyHashTree tree() {
+            long[] leaves = new long[hashes.length()];
+            for (int leaf = 0; leaf < leaves.length; leaf++) {
+                leaves[leaf] = hashes.get(leaf);
+            }
+            return build(leaves);
+        }
+
+        private long hashOf(byte[] encodedKey, MapValue<?> value) {
+            if (value == null) {
+                return 0;
+            }
+            return HASH.newHasher()
+                    .putBytes(encodedKey)
+                    .putBytes(encoder.apply(value.digest()))
+                    .hash()
+                    .asLong();
+        }
+    }
+}
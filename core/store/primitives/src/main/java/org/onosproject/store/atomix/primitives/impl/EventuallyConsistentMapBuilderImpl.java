@@ -54,6 +54,7 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
     private long antiEntropyPeriod = 5;
     private TimeUnit antiEntropyTimeUnit = TimeUnit.SECONDS;
     private boolean convergeFaster = false;
+    private boolean hashTreeAntiEntropy = false;
     private boolean persistent = false;
     private boolean persistentMap = false;
     private final PersistenceService persistenceService;
@@ -154,6 +155,12 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
         return this;
     }
 
+    @Override
+    public EventuallyConsistentMapBuilder<K, V> withHashTreeAntiEntropy() {
+        hashTreeAntiEntropy = true;
+        return this;
+    }
+
     @Override
     public EventuallyConsistentMapBuilder<K, V> withPersistence() {
         checkNotNull(this.persistenceService);
@@ -185,6 +192,7 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
                 antiEntropyPeriod,
                 antiEntropyTimeUnit,
                 convergeFaster,
+                hashTreeAntiEntropy,
                 persistent,
                 persistenceService,
                 peersSupplier,
@@ -34,6 +34,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -43,9 +44,11 @@ import java.util.stream.Collectors;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.primitives.Ints;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.onlab.util.AbstractAccumulator;
@@ -89,6 +92,9 @@ public class EventuallyConsistentMapImpl<K, V>
     private static final int WINDOW_SIZE = 5;
     private static final int HIGH_LOAD_THRESHOLD = 2;
     private static final int LOAD_WINDOW = 2;
+    // 4096 leaves, so that steady state exchanges fit in a single message
+    // while divergence is narrowed down in at most four round trips.
+    private static final int HASH_TREE_DEPTH = 4;
 
     private final Map<K, MapValue<V>> items;
     private final ClusterCommunicationService clusterCommunicator;
@@ -100,6 +106,8 @@ public class EventuallyConsistentMapImpl<K, V>
     private final MessageSubject updateMessageSubject;
     private final MessageSubject antiEntropyAdvertisementSubject;
     private final MessageSubject updateRequestSubject;
+    private final MessageSubject hashTreeAdvertisementSubject;
+    private final MessageSubject hashTreeLeafAdvertisementSubject;
     private final Set<EventuallyConsistentMapListener<K, V>> listeners
             = Sets.newCopyOnWriteArraySet();
     private final ExecutorService executor;
@@ -112,12 +120,19 @@ public class EventuallyConsistentMapImpl<K, V>
     private final String destroyedMessage;
     private final long initialDelaySec = 5;
     private final boolean lightweightAntiEntropy;
+    private final boolean hashTreeAntiEntropy;
     private final boolean tombstonesDisabled;
     private final boolean persistent;
     private final Supplier<List<NodeId>> peersSupplier;
     private final Supplier<List<NodeId>> bootstrapPeersSupplier;
     private final NodeId localNodeId;
     private long previousTombstonePurgeTime;
+    // Number of updates of the items, telling when the hash tree is stale.
+    private final AtomicLong modifications = new AtomicLong();
+    // Leaves of the hash tree, updated along with the items.
+    private final AntiEntropyHashTree.Leaves<K> hashTreeLeaves;
+    private AntiEntropyHashTree hashTree;
+    private long hashTreeModifications;
     private volatile boolean destroyed = false;
     private SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW_SIZE);
 
@@ -142,6 +157,7 @@ public class EventuallyConsistentMapImpl<K, V>
      * @param antiEntropyPeriod      period that the anti-entropy task should run
      * @param antiEntropyTimeUnit    time unit for anti-entropy period
      * @param convergeFaster         make anti-entropy try to converge faster
+     * @param hashTreeAntiEntropy    make anti-entropy exchange hash trees
      * @param persistent             persist data to disk
      * @param persistenceService     persistence service
      * @param peersSupplier          supplier for peers
@@ -162,6 +178,7 @@ public class EventuallyConsistentMapImpl<K, V>
             long antiEntropyPeriod,
             TimeUnit antiEntropyTimeUnit,
             boolean convergeFaster,
+            boolean hashTreeAntiEntropy,
             boolean persistent,
             PersistenceService persistenceService,
             Supplier<List<NodeId>> peersSupplier,
@@ -182,6 +199,12 @@ public class EventuallyConsistentMapImpl<K, V>
         } else {
             items = Maps.newConcurrentMap();
         }
+        if (hashTreeAntiEntropy) {
+            hashTreeLeaves = new AntiEntropyHashTree.Leaves<>(HASH_TREE_DEPTH, serializer::encode);
+            items.forEach((key, value) -> hashTreeLeaves.update(key, null, value));
+        } else {
+            hashTreeLeaves = null;
+        }
         senderPending = Maps.newConcurrentMap();
         destroyedMessage = mapName + ERROR_DESTROYED;
 
@@ -281,6 +304,29 @@ public class EventuallyConsistentMapImpl<K, V>
                 this.backgroundExecutor
         );
 
+        if (hashTreeAntiEntropy) {
+            hashTreeAdvertisementSubject = new MessageSubject("ecm-" + mapName + "-anti-entropy-tree");
+            clusterCommunicator.addSubscriber(
+                    hashTreeAdvertisementSubject,
+                    serializer::decode,
+                    this::handleHashTreeAdvertisement,
+                    serializer::encode,
+                    this.backgroundExecutor
+            );
+
+            hashTreeLeafAdvertisementSubject = new MessageSubject("ecm-" + mapName + "-anti-entropy-leaves");
+            clusterCommunicator.addSubscriber(
+                    hashTreeLeafAdvertisementSubject,
+                    serializer::decode,
+                    this::handleHashTreeLeafAdvertisement,
+                    serializer::encode,
+                    this.backgroundExecutor
+            );
+        } else {
+            hashTreeAdvertisementSubject = null;
+            hashTreeLeafAdvertisementSubject = null;
+        }
+
         if (!tombstonesDisabled) {
             previousTombstonePurgeTime = 0;
             this.backgroundExecutor.scheduleWithFixedDelay(
@@ -293,6 +339,7 @@ public class EventuallyConsistentMapImpl<K, V>
 
         this.tombstonesDisabled = tombstonesDisabled;
         this.lightweightAntiEntropy = !convergeFaster;
+        this.hashTreeAntiEntropy = hashTreeAntiEntropy;
 
         // Initiate first round of Gossip
         this.bootstrap();
@@ -313,6 +360,9 @@ public class EventuallyConsistentMapImpl<K, V>
                 .register(MapValue.class)
                 .register(MapValue.Digest.class)
                 .register(UpdateRequest.class)
+                .register(HashTreeAdvertisement.class)
+                .register(HashTreeResponse.class)
+                .register(HashTreeLeafAdvertisement.class)
                 .build(name() + "-ecmap"));
     }
 
@@ -434,6 +484,9 @@ public class EventuallyConsistentMapImpl<K, V>
                 return existing;
             }
         });
+        if (updated.get()) {
+            itemUpdated(key, previousValue.get(), tombstone.orElse(null));
+        }
         return previousValue.get();
     }
 
@@ -463,6 +516,7 @@ public class EventuallyConsistentMapImpl<K, V>
             }
         });
         if (updated.get()) {
+            itemUpdated(key, previousValue.get(), computedValue);
             notifyPeers(new UpdateEntry<>(key, computedValue), peerUpdateFunction.apply(key, computedValue.get()));
             EventuallyConsistentMapEvent.Type updateType = computedValue.isTombstone() ? REMOVE : PUT;
             V value = computedValue.isTombstone()
@@ -525,13 +579,18 @@ public class EventuallyConsistentMapImpl<K, V>
         checkState(newValue.isAlive());
         counter.incrementCount();
         AtomicBoolean updated = new AtomicBoolean(false);
+        AtomicReference<MapValue<V>> previousValue = new AtomicReference<>();
         items.compute(key, (k, existing) -> {
             if (existing == null || newValue.isNewerThan(existing)) {
                 updated.set(true);
+                previousValue.set(existing);
                 return newValue;
             }
             return existing;
         });
+        if (updated.get()) {
+            itemUpdated(key, previousValue.get(), newValue);
+        }
         return updated.get();
     }
 
@@ -569,6 +628,10 @@ public class EventuallyConsistentMapImpl<K, V>
         clusterCommunicator.removeSubscriber(updateMessageSubject);
         clusterCommunicator.removeSubscriber(updateRequestSubject);
         clusterCommunicator.removeSubscriber(antiEntropyAdvertisementSubject);
+        if (hashTreeAntiEntropy) {
+            clusterCommunicator.removeSubscriber(hashTreeAdvertisementSubject);
+            clusterCommunicator.removeSubscriber(hashTreeLeafAdvertisementSubject);
+        }
         return CompletableFuture.completedFuture(null);
     }
 
@@ -599,7 +662,11 @@ public class EventuallyConsistentMapImpl<K, V>
             if (underHighLoad() || destroyed) {
                 return;
             }
-            pickRandomActivePeer().ifPresent(this::sendAdvertisementToPeer);
+            if (hashTreeAntiEntropy) {
+                pickRandomActivePeer().ifPresent(this::sendHashTreeAdvertisementToPeer);
+            } else {
+                pickRandomActivePeer().ifPresent(this::sendAdvertisementToPeer);
+            }
         } catch (Exception e) {
             // Catch all exceptions to avoid scheduled task being suppressed.
             log.error("Exception thrown while sending advertisement", e);
@@ -658,7 +725,7 @@ public class EventuallyConsistentMapImpl<K, V>
                 log.trace("Received anti-entropy advertisement from {} for {} with {} entries in it",
                         ad.sender(), mapName, ad.digest().size());
             }
-            antiEntropyCheckLocalItems(ad).forEach(this::notifyListeners);
+            antiEntropyCheckLocalItems(ad.sender(), ad.digest(), items).forEach(this::notifyListeners);
         } catch (Exception e) {
             log.warn("Error handling anti-entropy advertisement", e);
             return AntiEntropyResponse.FAILED;
@@ -671,18 +738,18 @@ public class EventuallyConsistentMapImpl<K, V>
      * 1. If peer has an old entry, updates peer.
      * 2. If peer indicates an entry is removed and has a more recent
      * timestamp than the local entry, update local state.
+     * Only the given local entries, within the scope of the ad, are considered.
      */
     private List<EventuallyConsistentMapEvent<K, V>> antiEntropyCheckLocalItems(
-            AntiEntropyAdvertisement<K> ad) {
+            NodeId sender, Map<K, MapValue.Digest> digest, Map<K, MapValue<V>> localItems) {
         final List<EventuallyConsistentMapEvent<K, V>> externalEvents = Lists.newLinkedList();
-        final NodeId sender = ad.sender();
         final List<NodeId> peers = ImmutableList.of(sender);
         Set<K> staleOrMissing = new HashSet<>();
-        Set<K> locallyUnknown = new HashSet<>(ad.digest().keySet());
+        Set<K> locallyUnknown = new HashSet<>(digest.keySet());
 
-        items.forEach((key, localValue) -> {
+        localItems.forEach((key, localValue) -> {
             locallyUnknown.remove(key);
-            MapValue.Digest remoteValueDigest = ad.digest().get(key);
+            MapValue.Digest remoteValueDigest = digest.get(key);
             if (remoteValueDigest == null || localValue.isNewerThan(remoteValueDigest.timestamp())) {
                 // local value is more recent, push to sender
                 queueUpdate(new UpdateEntry<>(key, localValue), peers);
@@ -707,6 +774,148 @@ public class EventuallyConsistentMapImpl<K, V>
         return externalEvents;
     }
 
+    /**
+     * Accounts for an update of the items, from the previous to the current
+     * value of the given key, either of them being null if absent.
+     */
+    private void itemUpdated(K key, MapValue<V> previous, MapValue<V> current) {
+        if (hashTreeLeaves != null) {
+            hashTreeLeaves.update(key, previous, current);
+            if (current == null && items.containsKey(key)) {
+                // Added again concurrently, possibly before the key was unindexed
+                hashTreeLeaves.index(key);
+            }
+        }
+        // Counted once the leaves are updated, so the tree is not cached without it.
+        modifications.incrementAndGet();
+    }
+
+    /**
+     * Returns the hash tree of the local items, rebuilding it from the
+     * up-to-date leaves only when the items were updated since it was last
+     * built.
+     */
+    private synchronized AntiEntropyHashTree hashTree() {
+        long currentModifications = modifications.get();
+        if (hashTree == null || hashTreeModifications != currentModifications) {
+            hashTree = hashTreeLeaves.tree();
+            hashTreeModifications = currentModifications;
+        }
+        return hashTree;
+    }
+
+    private void sendHashTreeAdvertisementToPeer(NodeId peer) {
+        long adCreationTime = System.currentTimeMillis();
+        sendHashTreeAdvertisementToPeer(peer, hashTree(), 0, new int[]{0}, adCreationTime);
+    }
+
+    /**
+     * Advertises the hashes of the given nodes of the local hash tree to the
+     * peer, descending into the nodes it reports as mismatching until the
+     * leaves are reached.
+     */
+    private void sendHashTreeAdvertisementToPeer(NodeId peer, AntiEntropyHashTree tree,
+                                                 int level, int[] nodes, long adCreationTime) {
+        HashTreeAdvertisement ad = new HashTreeAdvertisement(localNodeId, tree.depth(), level,
+                nodes, tree.hashes(level, nodes));
+        clusterCommunicator.<HashTreeAdvertisement, HashTreeResponse>sendAndReceive(ad,
+                hashTreeAdvertisementSubject,
+                serializer::encode,
+                serializer::decode,
+                peer)
+                .whenCompleteAsync((result, error) -> {
+                    if (error != null) {
+                        log.debug("Failed to send hash tree advertisement to {}: {}",
+                                peer, error.getMessage());
+                    } else if (result.status() != AntiEntropyResponse.PROCESSED || destroyed) {
+                        return;
+                    } else if (result.mismatches().length == 0) {
+                        antiEntropyTimes.put(peer, adCreationTime);
+                    } else if (level + 1 < tree.depth()) {
+                        sendHashTreeAdvertisementToPeer(peer, tree, level + 1,
+                                AntiEntropyHashTree.children(result.mismatches()), adCreationTime);
+                    } else {
+                        sendHashTreeLeafAdvertisementToPeer(peer, tree, result.mismatches(), adCreationTime);
+                    }
+                }, backgroundExecutor);
+    }
+
+    private void sendHashTreeLeafAdvertisementToPeer(NodeId peer, AntiEntropyHashTree tree,
+                                                     int[] leaves, long adCreationTime) {
+        Set<Integer> leafSet = ImmutableSet.copyOf(Ints.asList(leaves));
+        HashTreeLeafAdvertisement<K> ad = new HashTreeLeafAdvertisement<>(localNodeId, tree.depth(), leafSet,
+                ImmutableMap.copyOf(Maps.transformValues(itemsInLeaves(leafSet), MapValue::digest)));
+        clusterCommunicator.sendAndReceive(ad,
+                hashTreeLeafAdvertisementSubject,
+                serializer::encode,
+                serializer::decode,
+                peer)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.debug("Failed to send hash tree leaf advertisement to {}: {}",
+                                peer, error.getMessage());
+                    } else if (result == AntiEntropyResponse.PROCESSED) {
+                        antiEntropyTimes.put(peer, adCreationTime);
+                    }
+                });
+    }
+
+    /**
+     * Returns the local items held by the given leaves of the hash tree,
+     * looked up through the keys indexed by the leaves.
+     */
+    private Map<K, MapValue<V>> itemsInLeaves(Set<Integer> leaves) {
+        Map<K, MapValue<V>> leafItems = Maps.newHashMap();
+        leaves.forEach(leaf -> hashTreeLeaves.keys(leaf).forEach(key -> {
+            MapValue<V> value = items.get(key);
+            if (value != null) {
+                leafItems.put(key, value);
+            }
+        }));
+        return leafItems;
+    }
+
+    private HashTreeResponse handleHashTreeAdvertisement(HashTreeAdvertisement ad) {
+        if (destroyed || underHighLoad()) {
+            return new HashTreeResponse(AntiEntropyResponse.IGNORED);
+        }
+        if (ad.depth() != HASH_TREE_DEPTH) {
+            log.warn("Hash tree advertisement from {} for {} has depth {} instead of {}",
+                    ad.sender(), mapName, ad.depth(), HASH_TREE_DEPTH);
+            return new HashTreeResponse(AntiEntropyResponse.FAILED);
+        }
+        try {
+            return new HashTreeResponse(AntiEntropyResponse.PROCESSED,
+                    hashTree().mismatches(ad.level(), ad.nodes(), ad.hashes()));
+        } catch (Exception e) {
+            log.warn("Error handling hash tree advertisement", e);
+            return new HashTreeResponse(AntiEntropyResponse.FAILED);
+        }
+    }
+
+    private AntiEntropyResponse handleHashTreeLeafAdvertisement(HashTreeLeafAdvertisement<K> ad) {
+        if (destroyed || underHighLoad()) {
+            return AntiEntropyResponse.IGNORED;
+        }
+        if (ad.depth() != HASH_TREE_DEPTH) {
+            log.warn("Hash tree leaf advertisement from {} for {} has depth {} instead of {}",
+                    ad.sender(), mapName, ad.depth(), HASH_TREE_DEPTH);
+            return AntiEntropyResponse.FAILED;
+        }
+        try {
+            if (log.isTraceEnabled()) {
+                log.trace("Received hash tree leaf advertisement from {} for {} with {} leaves and {} entries in it",
+                        ad.sender(), mapName, ad.leaves().size(), ad.digest().size());
+            }
+            antiEntropyCheckLocalItems(ad.sender(), ad.digest(), itemsInLeaves(ad.leaves()))
+                    .forEach(this::notifyListeners);
+        } catch (Exception e) {
+            log.warn("Error handling hash tree leaf advertisement", e);
+            return AntiEntropyResponse.FAILED;
+        }
+        return AntiEntropyResponse.PROCESSED;
+    }
+
     private void handleUpdateRequests(UpdateRequest<K> request) {
         final Set<K> keys = request.keys();
         final NodeId sender = request.sender();
@@ -738,7 +947,11 @@ public class EventuallyConsistentMapImpl<K, V>
                 .filter(e -> e.getValue().creationTime() <= currentSafeTombstonePurgeTime)
                 .collect(Collectors.toList());
         previousTombstonePurgeTime = currentSafeTombstonePurgeTime;
-        tombStonesToDelete.forEach(entry -> items.remove(entry.getKey(), entry.getValue()));
+        tombStonesToDelete.forEach(entry -> {
+            if (items.remove(entry.getKey(), entry.getValue())) {
+                itemUpdated(entry.getKey(), entry.getValue(), null);
+            }
+        });
     }
 
     private void processUpdates(Collection<UpdateEntry<K, V>> updates) {
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import java.util.Arrays;
+
+import com.google.common.base.MoreObjects;
+import org.onosproject.cluster.NodeId;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Anti-entropy advertisement of the hashes of some nodes of the hash tree of
+ * an eventually consistent map.
+ */
+final class HashTreeAdvertisement {
+
+    private final NodeId sender;
+    private final int depth;
+    private final int level;
+    private final int[] nodes;
+    private final long[] hashes;
+
+    /**
+     * Creates a new hash tree advertisement message.
+     *
+     * @param sender the sender's node ID
+     * @param depth  depth of the sender's hash tree
+     * @param level  level of the advertised nodes, 0 being the root
+     * @param nodes  indexes of the advertised nodes within their level
+     * @param hashes hashes of the advertised nodes
+     */
+    HashTreeAdvertisement(NodeId sender, int depth, int level, int[] nodes, long[] hashes) {
+        checkArgument(nodes.length == hashes.length, "Node and hash counts differ");
+        this.sender = checkNotNull(sender);
+        this.depth = depth;
+        this.level = level;
+        this.nodes = nodes;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Returns the sender's node ID.
+     *
+     * @return the sender's node ID
+     */
+    NodeId sender() {
+        return sender;
+    }
+
+    /**
+     * Returns the depth of the sender's hash tree.
+     *
+     * @return number of levels of the hash tree
+     */
+    int depth() {
+        return depth;
+    }
+
+    /**
+     * Returns the level of the advertised nodes.
+     *
+     * @return level, 0 being the root
+     */
+    int level() {
+        return level;
+    }
+
+    /**
+     * Returns the indexes of the advertised nodes.
+     *
+     * @return node indexes within their level
+     */
+    int[] nodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the hashes of the advertised nodes.
+     *
+     * @return node hashes, in the order of the nodes
+     */
+    long[] hashes() {
+        return hashes;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("sender", sender)
+                .add("level", level)
+                .add("nodes", Arrays.toString(nodes))
+                .toString();
+    }
+}
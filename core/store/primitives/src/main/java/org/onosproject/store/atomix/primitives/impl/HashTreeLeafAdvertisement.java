@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.cluster.NodeId;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Anti-entropy advertisement of the digests of the entries held by some
+ * leaves of the hash tree of an eventually consistent map.
+ */
+final class HashTreeLeafAdvertisement<K> {
+
+    private final NodeId sender;
+    private final int depth;
+    private final Set<Integer> leaves;
+    private final Map<K, MapValue.Digest> digest;
+
+    /**
+     * Creates a new hash tree leaf advertisement message.
+     *
+     * @param sender the sender's node ID
+     * @param depth  depth of the sender's hash tree
+     * @param leaves indexes of the advertised leaves
+     * @param digest digests of all entries held by the advertised leaves
+     */
+    HashTreeLeafAdvertisement(NodeId sender, int depth, Set<Integer> leaves,
+                              Map<K, MapValue.Digest> digest) {
+        this.sender = checkNotNull(sender);
+        this.depth = depth;
+        this.leaves = ImmutableSet.copyOf(checkNotNull(leaves));
+        this.digest = ImmutableMap.copyOf(checkNotNull(digest));
+    }
+
+    /**
+     * Returns the sender's node ID.
+     *
+     * @return the sender's node ID
+     */
+    NodeId sender() {
+        return sender;
+    }
+
+    /**
+     * Returns the depth of the sender's hash tree.
+     *
+     * @return number of levels of the hash tree
+     */
+    int depth() {
+        return depth;
+    }
+
+    /**
+     * Returns the advertised leaves.
+     *
+     * @return leaf indexes
+     */
+    Set<Integer> leaves() {
+        return leaves;
+    }
+
+    /**
+     * Returns the digest for the entries of the advertised leaves.
+     *
+     * @return mapping from key to associated digest
+     */
+    Map<K, MapValue.Digest> digest() {
+        return digest;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("sender", sender)
+                .add("leaves", leaves.size())
+                .add("totalEntries", digest.size())
+                .toString();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import java.util.Arrays;
+
+import com.google.common.base.MoreObjects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Response to a hash tree advertisement, returned by the receiver.
+ */
+final class HashTreeResponse {
+
+    private static final int[] NONE = new int[0];
+
+    private final AntiEntropyResponse status;
+    private final int[] mismatches;
+
+    /**
+     * Creates a new hash tree response.
+     *
+     * @param status     status of the anti-entropy exchange
+     * @param mismatches indexes of the advertised nodes whose hashes differ
+     *                   from those of the receiver
+     */
+    HashTreeResponse(AntiEntropyResponse status, int[] mismatches) {
+        this.status = checkNotNull(status);
+        this.mismatches = checkNotNull(mismatches);
+    }
+
+    /**
+     * Creates a new hash tree response for an advertisement which was not
+     * compared with the receiver's hash tree.
+     *
+     * @param status status of the anti-entropy exchange
+     */
+    HashTreeResponse(AntiEntropyResponse status) {
+        this(status, NONE);
+    }
+
+    /**
+     * Returns the status of the anti-entropy exchange.
+     *
+     * @return anti-entropy response
+     */
+    AntiEntropyResponse status() {
+        return status;
+    }
+
+    /**
+     * Returns the advertised nodes whose hashes differ from those of the
+     * receiver.
+     *
+     * @return node indexes within the advertised level
+     */
+    int[] mismatches() {
+        return mismatches;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("status", status)
+                .add("mismatches", Arrays.toString(mismatches))
+                .toString();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.atomix.primitives.impl;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.google.common.primitives.Ints;
+import org.junit.Test;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.store.LogicalTimestamp;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.Serializer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Unit tests for AntiEntropyHashTree.
+ */
+public class AntiEntropyHashTreeTest {
+
+    private static final int DEPTH = 3;
+
+    private final Serializer serializer = Serializer.using(KryoNamespace.newBuilder()
+            .register(KryoNamespaces.BASIC)
+            .register(LogicalTimestamp.class)
+            .register(MapValue.class)
+            .register(MapValue.Digest.class)
+            .build());
+
+    private static Map<String, MapValue<String>> items(int count) {
+        Map<String, MapValue<String>> items = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            items.put("key" + i, new MapValue<>("value" + i, new LogicalTimestamp(i)));
+        }
+        return items;
+    }
+
+    private AntiEntropyHashTree build(Map<String, MapValue<String>> items) {
+        return AntiEntropyHashTree.build(DEPTH, items, serializer::encode);
+    }
+
+    private int leafOf(String key) {
+        return AntiEntropyHashTree.leafOf(serializer.encode(key), DEPTH);
+    }
+
+    // Descends from the root of the local tree into the nodes mismatching
+    // the remote tree, the way peers do, returning the mismatching leaves.
+    private static Set<Integer> mismatchingLeaves(AntiEntropyHashTree local, AntiEntropyHashTree remote) {
+        int[] nodes = {0};
+        for (int level = 0; level < local.depth(); level++) {
+            int[] mismatches = remote.mismatches(level, nodes, local.hashes(level, nodes));
+            if (level + 1 == local.depth() || mismatches.length == 0) {
+                return new TreeSet<>(Ints.asList(mismatches));
+            }
+            nodes = AntiEntropyHashTree.children(mismatches);
+        }
+        throw new AssertionError("Unreachable");
+    }
+
+    /**
+     * Tests that the same entries give the same tree, whatever their order.
+     */
+    @Test
+    public void testSameEntries() {
+        Map<String, MapValue<String>> items = items(1000);
+        Map<String, MapValue<String>> reversed = new HashMap<>();
+        items.forEach(reversed::put);
+
+        AntiEntropyHashTree tree = build(items);
+        assertThat(tree.depth(), is(DEPTH));
+        assertThat(mismatchingLeaves(tree, build(reversed)).isEmpty(), is(true));
+        long emptyRoot = build(new HashMap<>()).hashes(0, new int[]{0})[0];
+        assertThat(tree.hashes(0, new int[]{0})[0], not(emptyRoot));
+    }
+
+    /**
+     * Tests that descending into mismatching nodes narrows the differences
+     * down to the leaves of the differing entries.
+     */
+    @Test
+    public void testDifferentEntries() {
+        Map<String, MapValue<String>> local = items(1000);
+        Map<String, MapValue<String>> remote = items(1000);
+        remote.put("key7", new MapValue<>("value7", new LogicalTimestamp(5000)));
+        remote.put("key500", MapValue.tombstone(new LogicalTimestamp(500)));
+        remote.put("extra", new MapValue<>("extra", new LogicalTimestamp(1)));
+
+        Set<Integer> expected = new TreeSet<>();
+        expected.add(leafOf("key7"));
+        expected.add(leafOf("key500"));
+        expected.add(leafOf("extra"));
+        assertThat(mismatchingLeaves(build(local), build(remote)), is(expected));
+        assertThat(mismatchingLeaves(build(remote), build(local)), is(expected));
+    }
+
+    /**
+     * Tests that leaves updated along with the entries give the same tree as
+     * the one built from the resulting entries, and index their keys.
+     */
+    @Test
+    public void testUpdatedLeaves() {
+        Map<String, MapValue<String>> items = new HashMap<>();
+        AntiEntropyHashTree.Leaves<String> leaves = new AntiEntropyHashTree.Leaves<>(DEPTH, serializer::encode);
+        items(1000).forEach((key, value) -> leaves.update(key, items.put(key, value), value));
+        assertThat(mismatchingLeaves(leaves.tree(), build(items)).isEmpty(), is(true));
+
+        MapValue<String> updated = new MapValue<>("value7", new LogicalTimestamp(5000));
+        leaves.update("key7", items.put("key7", updated), updated);
+        MapValue<String> tombstone = MapValue.tombstone(new LogicalTimestamp(500));
+        leaves.update("key500", items.put("key500", tombstone), tombstone);
+        leaves.update("key9", items.remove("key9"), null);
+        leaves.update("missing", items.remove("missing"), null);
+        assertThat(mismatchingLeaves(leaves.tree(), build(items)).isEmpty(), is(true));
+        assertThat(mismatchingLeaves(leaves.tree(), build(items(1000))).size(), is(3));
+        assertThat(leaves.keys(leafOf("key7")).contains("key7"), is(true));
+        assertThat(leaves.keys(leafOf("key500")).contains("key500"), is(true));
+        assertThat(leaves.keys(leafOf("key9")).contains("key9"), is(false));
+
+        items.forEach((key, value) -> leaves.update(key, value, null));
+        assertThat(mismatchingLeaves(leaves.tree(), build(new HashMap<>())).isEmpty(), is(true));
+        for (int leaf = 0; leaf < AntiEntropyHashTree.leafCount(DEPTH); leaf++) {
+            assertThat(leaves.keys(leaf).isEmpty(), is(true));
+        }
+    }
+
+    /**
+     * Tests the indexes of the children of inner nodes.
+     */
+    @Test
+    public void testChildren() {
+        assertThat(AntiEntropyHashTree.leafCount(DEPTH), is(256));
+        int[] children = AntiEntropyHashTree.children(new int[]{0, 3});
+        assertThat(children.length, is(2 * AntiEntropyHashTree.FANOUT));
+        assertThat(children[0], is(0));
+        assertThat(children[AntiEntropyHashTree.FANOUT - 1], is(15));
+        assertThat(children[AntiEntropyHashTree.FANOUT], is(48));
+        assertThat(children[2 * AntiEntropyHashTree.FANOUT - 1], is(63));
+    }
+}
@@ -26,10 +26,13 @@ import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.reset;
 import static org.easymock.EasyMock.verify;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.onlab.junit.TestTools.assertAfter;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -39,8 +42,12 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
@@ -59,6 +66,7 @@ import org.onosproject.cluster.DefaultControllerNode;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.persistence.PersistenceService;
+import org.onosproject.store.LogicalTimestamp;
 import org.onosproject.store.Timestamp;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
@@ -68,6 +76,7 @@ import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.EventuallyConsistentMap;
 import org.onosproject.store.service.EventuallyConsistentMapEvent;
 import org.onosproject.store.service.EventuallyConsistentMapListener;
+import org.onosproject.store.service.Serializer;
 import com.google.common.util.concurrent.MoreExecutors;
 
 /**
@@ -93,6 +102,8 @@ public class EventuallyConsistentMapImplTest {
     private static final MessageSubject UPDATE_REQUEST_SUBJECT
             = new MessageSubject("ecm-" + MAP_NAME + "-update-request");
 
+    private static final Serializer SERIALIZER = Serializer.using(KryoNamespaces.API);
+
     private static final String KEY1 = "one";
     private static final String KEY2 = "two";
     private static final String VALUE1 = "oneValue";
@@ -677,6 +688,83 @@ public class EventuallyConsistentMapImplTest {
         }
     }
 
+    /**
+     * Tests that maps exchanging hash tree advertisements converge, each of
+     * them advertising the entries of the mismatching leaves only.
+     */
+    @Test
+    public void testHashTreeAntiEntropy() throws Exception {
+        TestCluster cluster = new TestCluster();
+        NodeId nodeA = NodeId.nodeId("a");
+        NodeId nodeB = NodeId.nodeId("b");
+        List<NodeId> peersOfA = new CopyOnWriteArrayList<>();
+        ManualScheduledExecutor executorA = new ManualScheduledExecutor();
+        EventuallyConsistentMap<String, String> mapA = buildHashTreeMap(
+                cluster, nodeA, peersOfA, executorA);
+        EventuallyConsistentMap<String, String> mapB = buildHashTreeMap(
+                cluster, nodeB, new CopyOnWriteArrayList<>(), new ManualScheduledExecutor());
+        try {
+            for (int i = 0; i < 100; i++) {
+                mapA.put("key" + i, String.valueOf(i));
+                mapB.put("key" + i, String.valueOf(i));
+            }
+            mapA.put("key7", "1007");
+            mapB.put("extra", "5");
+
+            peersOfA.add(nodeB);
+            // Anti-entropy is skipped until the load of the updates above fades
+            assertAfter(5000, () -> {
+                executorA.runAntiEntropy();
+                assertNotNull(cluster.leafAdvertisement);
+            });
+
+            HashTreeLeafAdvertisement<String> ad = cluster.leafAdvertisement;
+            assertEquals(nodeA, ad.sender());
+            Set<Integer> leaves = new HashSet<>();
+            leaves.add(leafOf("key7", ad.depth()));
+            leaves.add(leafOf("extra", ad.depth()));
+            assertEquals(leaves, ad.leaves());
+            Set<String> advertised = new HashSet<>();
+            for (int i = 0; i < 100; i++) {
+                if (leaves.contains(leafOf("key" + i, ad.depth()))) {
+                    advertised.add("key" + i);
+                }
+            }
+            assertEquals(advertised, ad.digest().keySet());
+
+            assertAfter(2000, () -> {
+                assertEquals("1007", mapB.get("key7"));
+                assertEquals("5", mapA.get("extra"));
+            });
+            assertEquals(101, mapA.size());
+            assertEquals(101, mapB.size());
+        } finally {
+            mapA.destroy();
+            mapB.destroy();
+        }
+    }
+
+    private EventuallyConsistentMap<String, String> buildHashTreeMap(
+            TestCluster cluster, NodeId nodeId, List<NodeId> peers, ManualScheduledExecutor executor) {
+        return new EventuallyConsistentMapBuilderImpl<String, String>(
+                nodeId,
+                cluster.node(nodeId),
+                persistenceService,
+                () -> new ArrayList<>(peers),
+                ArrayList::new)
+                .withName(MAP_NAME)
+                .withSerializer(KryoNamespace.newBuilder().register(KryoNamespaces.API))
+                .withTimestampProvider((k, v) -> new LogicalTimestamp(Long.parseLong(v)))
+                .withCommunicationExecutor(MoreExecutors.newDirectExecutorService())
+                .withBackgroundExecutor(executor)
+                .withHashTreeAntiEntropy()
+                .build();
+    }
+
+    private static int leafOf(String key, int depth) {
+        return AntiEntropyHashTree.leafOf(SERIALIZER.encode(key), depth);
+    }
+
     private UpdateEntry<String, String> generatePutMessage(String key, String value, Timestamp timestamp) {
         return new UpdateEntry<>(key, new MapValue<>(value, timestamp));
     }
@@ -924,4 +1012,98 @@ public class EventuallyConsistentMapImplTest {
             latch.countDown();
         }
     }
+
+    /**
+     * Cluster of nodes whose messages are handled right away by the
+     * subscribers of the destination node.
+     */
+    private static final class TestCluster {
+
+        private final Map<NodeId, Map<MessageSubject, Function<byte[], byte[]>>> subscribers =
+                new ConcurrentHashMap<>();
+        private volatile HashTreeLeafAdvertisement<String> leafAdvertisement;
+
+        ClusterCommunicationService node(NodeId nodeId) {
+            Map<MessageSubject, Function<byte[], byte[]>> nodeSubscribers = new ConcurrentHashMap<>();
+            subscribers.put(nodeId, nodeSubscribers);
+            return new ClusterCommunicationServiceAdapter() {
+                @Override
+                public <M, R> void addSubscriber(MessageSubject subject,
+                        Function<byte[], M> decoder, Function<M, R> handler,
+                        Function<R, byte[]> encoder, Executor executor) {
+                    nodeSubscribers.put(subject, bytes -> {
+                        M message = decoder.apply(bytes);
+                        if (message instanceof HashTreeLeafAdvertisement) {
+                            leafAdvertisement = (HashTreeLeafAdvertisement<String>) message;
+                        }
+                        return encoder.apply(handler.apply(message));
+                    });
+                }
+
+                @Override
+                public <M> void addSubscriber(MessageSubject subject,
+                        Function<byte[], M> decoder, Consumer<M> handler, Executor executor) {
+                    nodeSubscribers.put(subject, bytes -> {
+                        handler.accept(decoder.apply(bytes));
+                        return null;
+                    });
+                }
+
+                @Override
+                public void removeSubscriber(MessageSubject subject) {
+                    nodeSubscribers.remove(subject);
+                }
+
+                @Override
+                public <M> CompletableFuture<Void> unicast(M message, MessageSubject subject,
+                        Function<M, byte[]> encoder, NodeId toNodeId) {
+                    subscribers.get(toNodeId).get(subject).apply(encoder.apply(message));
+                    return CompletableFuture.completedFuture(null);
+                }
+
+                @Override
+                public <M, R> CompletableFuture<R> sendAndReceive(M message, MessageSubject subject,
+                        Function<M, byte[]> encoder, Function<byte[], R> decoder, NodeId toNodeId,
+                        Duration timeout) {
+                    return CompletableFuture.completedFuture(decoder.apply(
+                            subscribers.get(toNodeId).get(subject).apply(encoder.apply(message))));
+                }
+            };
+        }
+    }
+
+    /**
+     * Background executor running tasks right away, except for the periodic
+     * ones, which are run on demand only.
+     */
+    private static final class ManualScheduledExecutor extends ScheduledThreadPoolExecutor {
+
+        private Runnable antiEntropyTask;
+
+        private ManualScheduledExecutor() {
+            super(1);
+        }
+
+        void runAntiEntropy() {
+            antiEntropyTask.run();
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay,
+                                                      long period, TimeUnit unit) {
+            antiEntropyTask = command;
+            return schedule(() -> { }, 1, TimeUnit.DAYS);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay,
+                                                         long delay, TimeUnit unit) {
+            return schedule(() -> { }, 1, TimeUnit.DAYS);
+        }
+    }
 }
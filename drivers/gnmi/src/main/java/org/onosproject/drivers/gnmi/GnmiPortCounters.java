@@ -0,0 +1,246 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.drivers.gnmi;
+
+import com.google.common.collect.ImmutableSet;
+import gnmi.Gnmi.Notification;
+import gnmi.Gnmi.Path;
+import gnmi.Gnmi.SubscribeRequest;
+import gnmi.Gnmi.SubscribeResponse;
+import org.onlab.util.SharedScheduledExecutors;
+import org.onosproject.gnmi.api.GnmiClient;
+import org.onosproject.net.DeviceId;
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Latest values of the interface counters of a gNMI device, as notified by
+ * Get responses or by a Subscribe RPC streaming the counters.
+ * <p>
+ * Notifications are coalesced by keeping only the latest value of each
+ * counter, so that bursts of notifications cost a map update each and the
+ * memory is bounded by the number of interfaces. A subscription which is not
+ * read for a while, e.g. because the mastership of the device moved to
+ * another node or the device was removed, is terminated by a periodic check,
+ * whether or not the device still sends notifications.
+ */
+final class GnmiPortCounters {
+
+    private static final Logger log = getLogger(GnmiPortCounters.class);
+
+    static final String SUBSCRIPTION_NAME = "onos-port-counters";
+
+    static final Set<String> COUNTER_NAMES = ImmutableSet.of(
+            "in-octets", "out-octets", "in-discards", "in-fcs-errors",
+            "out-discards", "in-errors", "out-errors", "in-unicast-pkts",
+            "in-broadcast-pkts", "in-multicast-pkts", "in-unknown-protos",
+            "out-unicast-pkts", "out-broadcast-pkts", "out-multicast-pkts");
+
+    static final long IDLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final long IDLE_CHECK_PERIOD_SECONDS = 10;
+
+    private static final ConcurrentMap<DeviceId, GnmiPortCounters> SUBSCRIBED =
+            new ConcurrentHashMap<>();
+
+    private final DeviceId deviceId;
+    private final LongSupplier nanoClock;
+    // Interface name -> counter name -> latest value.
+    private final Map<String, Map<String, Long>> counters = new ConcurrentHashMap<>();
+    // Interface name -> timestamp of the latest notification, in nanoseconds.
+    private final Map<String, Long> timestamps = new ConcurrentHashMap<>();
+
+    private GnmiClient client;
+    private SubscribeRequest request;
+    private Future<?> idleCheckTask;
+    private volatile long lastRead;
+
+    GnmiPortCounters(DeviceId deviceId) {
+        this(deviceId, System::nanoTime);
+    }
+
+    GnmiPortCounters(DeviceId deviceId, LongSupplier nanoClock) {
+        this.deviceId = deviceId;
+        this.nanoClock = nanoClock;
+        this.lastRead = nanoClock.getAsLong();
+    }
+
+    /**
+     * Returns the counters of the given device updated by a subscription,
+     * creating them if needed.
+     *
+     * @param deviceId device identifier
+     * @return port counters
+     */
+    static GnmiPortCounters subscribed(DeviceId deviceId) {
+        return SUBSCRIBED.computeIfAbsent(deviceId, GnmiPortCounters::new);
+    }
+
+    /**
+     * Terminates the subscription of the given device, if any.
+     *
+     * @param deviceId device identifier
+     */
+    static void unsubscribe(DeviceId deviceId) {
+        GnmiPortCounters portCounters = SUBSCRIBED.remove(deviceId);
+        if (portCounters != null) {
+            portCounters.unsubscribe();
+        }
+    }
+
+    /**
+     * Makes sure the counters are updated by a subscription with the given
+     * request on the given client. The Subscribe RPC is only restarted when
+     * either the client or the request changed.
+     *
+     * @param gnmiClient gNMI client
+     * @param subscribeRequest subscribe request
+     */
+    synchronized void subscribe(GnmiClient gnmiClient, SubscribeRequest subscribeRequest) {
+        lastRead = nanoClock.getAsLong();
+        // In case the idle check just removed these counters.
+        SUBSCRIBED.putIfAbsent(deviceId, this);
+        if (gnmiClient == client && subscribeRequest.equals(request)) {
+            return;
+        }
+        if (client != null && client != gnmiClient) {
+            client.unsubscribe(SUBSCRIPTION_NAME);
+        }
+        client = gnmiClient;
+        request = subscribeRequest;
+        log.debug("Subscribing to port counters of {}", deviceId);
+        client.subscribe(SUBSCRIPTION_NAME, request, this::accept);
+        if (idleCheckTask == null) {
+            // Not done on notifications, a device may stop sending them.
+            idleCheckTask = SharedScheduledExecutors.getPoolThreadExecutor().scheduleAtFixedRate(
+                    this::checkIdle,
+                    IDLE_CHECK_PERIOD_SECONDS,
+                    IDLE_CHECK_PERIOD_SECONDS,
+                    TimeUnit.SECONDS, true);
+        }
+    }
+
+    private synchronized void unsubscribe() {
+        if (idleCheckTask != null) {
+            idleCheckTask.cancel(false);
+            idleCheckTask = null;
+        }
+        if (client != null) {
+            log.debug("Unsubscribing from port counters of {}", deviceId);
+            client.unsubscribe(SUBSCRIPTION_NAME);
+            client = null;
+            request = null;
+        }
+    }
+
+    /**
+     * Terminates the subscription if the counters were not read for longer
+     * than the idle timeout.
+     */
+    synchronized void checkIdle() {
+        if (nanoClock.getAsLong() - lastRead > IDLE_TIMEOUT_NANOS) {
+            log.debug("Port counters of {} not read for {}s",
+                      deviceId, TimeUnit.NANOSECONDS.toSeconds(IDLE_TIMEOUT_NANOS));
+            SUBSCRIBED.remove(deviceId, this);
+            unsubscribe();
+        }
+    }
+
+    private void accept(SubscribeResponse response) {
+        if (response.hasUpdate()) {
+            update(response.getUpdate());
+        }
+    }
+
+    /**
+     * Updates the counters with the given notification.
+     *
+     * @param notification notification of a Get or Subscribe response
+     */
+    void update(Notification notification) {
+        notification.getUpdateList().forEach(update -> {
+            Path path = concat(notification.getPrefix(), update.getPath());
+            // /interfaces/interface[name=iface-name]/state/counters/[counter name]
+            if (path.getElemCount() < 2) {
+                return;
+            }
+            String ifName = path.getElem(1).getKeyOrDefault("name", null);
+            String counterName = path.getElem(path.getElemCount() - 1).getName();
+            if (ifName == null || !COUNTER_NAMES.contains(counterName)) {
+                log.debug("Unsupported counter {} of {}, ignored", counterName, deviceId);
+                return;
+            }
+            counters.computeIfAbsent(ifName, k -> new ConcurrentHashMap<>())
+                    .put(counterName, update.getVal().getUintVal());
+            timestamps.merge(ifName, notification.getTimestamp(), Math::max);
+        });
+    }
+
+    /**
+     * Tells whether any counter of the given interface is known.
+     *
+     * @param ifName interface name
+     * @return true if counters of the interface were notified
+     */
+    boolean contains(String ifName) {
+        return counters.containsKey(ifName);
+    }
+
+    /**
+     * Returns the sum of the latest values of the given counters of an
+     * interface, counters never notified counting as 0.
+     *
+     * @param ifName       interface name
+     * @param counterNames counter names
+     * @return sum of the counters
+     */
+    long sum(String ifName, String... counterNames) {
+        Map<String, Long> values = counters.get(ifName);
+        if (values == null) {
+            return 0;
+        }
+        long sum = 0;
+        for (String counterName : counterNames) {
+            sum += values.getOrDefault(counterName, 0L);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the timestamp of the latest notification of an interface.
+     *
+     * @param ifName interface name
+     * @return timestamp in nanoseconds; null if never notified
+     */
+    Long timestamp(String ifName) {
+        return timestamps.get(ifName);
+    }
+
+    private static Path concat(Path prefix, Path path) {
+        if (prefix.getElemCount() == 0) {
+            return path;
+        }
+        return prefix.toBuilder().addAllElem(path.getElemList()).build();
+    }
+}
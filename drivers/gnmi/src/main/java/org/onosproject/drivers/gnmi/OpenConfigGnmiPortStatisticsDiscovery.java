@@ -22,6 +22,10 @@ import gnmi.Gnmi;
 import gnmi.Gnmi.GetRequest;
 import gnmi.Gnmi.GetResponse;
 import gnmi.Gnmi.Path;
+import gnmi.Gnmi.SubscribeRequest;
+import gnmi.Gnmi.Subscription;
+import gnmi.Gnmi.SubscriptionList;
+import gnmi.Gnmi.SubscriptionMode;
 import org.apache.commons.lang3.tuple.Pair;
 import org.onosproject.gnmi.api.GnmiClient;
 import org.onosproject.gnmi.api.GnmiController;
@@ -39,10 +43,17 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * Behaviour to get port statistics from device via gNMI.
+ * <p>
+ * By default, counters are read with a Get request each time statistics are
+ * discovered. When the {@value #SUBSCRIPTION_MODE} driver property is set to
+ * "sample" or "on_change", the counters are instead streamed by the device
+ * over a Subscribe RPC and statistics are discovered from the latest
+ * streamed values, without any RPC.
  */
 public class OpenConfigGnmiPortStatisticsDiscovery
         extends AbstractGrpcHandlerBehaviour<GnmiClient, GnmiController>
@@ -52,6 +63,14 @@ public class OpenConfigGnmiPortStatisticsDiscovery
             Maps.newConcurrentMap();
     private static final String LAST_CHANGE = "last-changed";
 
+    // Driver property selecting how counters are read: "none" to use Get
+    // requests, "sample" or "on_change" to subscribe to them.
+    private static final String SUBSCRIPTION_MODE = "portStatsSubscription";
+    // Driver property giving the sample interval in seconds of the "sample"
+    // subscription mode.
+    private static final String SAMPLE_INTERVAL = "portStatsSampleInterval";
+    private static final int DEFAULT_SAMPLE_INTERVAL = 10;
+
     public OpenConfigGnmiPortStatisticsDiscovery() {
         super(GnmiController.class);
     }
@@ -64,108 +83,114 @@ public class OpenConfigGnmiPortStatisticsDiscovery
 
         Map<String, PortNumber> ifacePortNumberMapping = Maps.newHashMap();
         List<Port> ports = deviceService.getPorts(deviceId);
-        GetRequest.Builder getRequest = GetRequest.newBuilder();
-        getRequest.setEncoding(Gnmi.Encoding.PROTO);
-
-        // Use this path to get all counters from specific interface(port)
-        // /interfaces/interface[port-name]/state/counters/[counter name]
-        ports.forEach(port -> {
-            String portName = port.number().name();
-            Path path = interfaceCounterPath(portName);
-            getRequest.addPath(path);
-            ifacePortNumberMapping.put(portName, port.number());
-        });
-
-        GetResponse getResponse = Futures.getUnchecked(client.get(getRequest.build()));
-
-        Map<String, Long> inPkts = Maps.newHashMap();
-        Map<String, Long> outPkts = Maps.newHashMap();
-        Map<String, Long> inBytes = Maps.newHashMap();
-        Map<String, Long> outBytes = Maps.newHashMap();
-        Map<String, Long> inDropped = Maps.newHashMap();
-        Map<String, Long> outDropped = Maps.newHashMap();
-        Map<String, Long> inErrors = Maps.newHashMap();
-        Map<String, Long> outErrors = Maps.newHashMap();
-        Map<String, Duration> timestamps = Maps.newHashMap();
-
-        // Collect responses and sum {in,out,dropped} packets
-        getResponse.getNotificationList().forEach(notification -> {
-            notification.getUpdateList().forEach(update -> {
-                Path path = update.getPath();
-                String ifName = interfaceNameFromPath(path);
-                timestamps.putIfAbsent(ifName, Duration.ofNanos(notification.getTimestamp()));
-
-                // Last element is the counter name
-                String counterName = path.getElem(path.getElemCount() - 1).getName();
-                long counterValue = update.getVal().getUintVal();
-
-
-                switch (counterName) {
-                    case "in-octets":
-                        inBytes.put(ifName, counterValue);
-                        break;
-                    case "out-octets":
-                        outBytes.put(ifName, counterValue);
-                        break;
-                    case "in-discards":
-                    case "in-fcs-errors":
-                        inDropped.compute(ifName, (k, v) -> v == null ? counterValue : v + counterValue);
-                        break;
-                    case "out-discards":
-                        outDropped.put(ifName, counterValue);
-                        break;
-                    case "in-errors":
-                        inErrors.put(ifName, counterValue);
-                        break;
-                    case "out-errors":
-                        outErrors.put(ifName, counterValue);
-                        break;
-                    case "in-unicast-pkts":
-                    case "in-broadcast-pkts":
-                    case "in-multicast-pkts":
-                    case "in-unknown-protos":
-                        inPkts.compute(ifName, (k, v) -> v == null ? counterValue : v + counterValue);
-                        break;
-                    case "out-unicast-pkts":
-                    case "out-broadcast-pkts":
-                    case "out-multicast-pkts":
-                        outPkts.compute(ifName, (k, v) -> v == null ? counterValue : v + counterValue);
-                        break;
-                    default:
-                        log.warn("Unsupported counter name {}, ignored", counterName);
-                        break;
-                }
-            });
-        });
+        ports.forEach(port -> ifacePortNumberMapping.put(port.number().name(), port.number()));
+
+        GnmiPortCounters counters;
+        SubscriptionMode mode = subscriptionMode();
+        if (mode == null) {
+            GnmiPortCounters.unsubscribe(deviceId);
+            counters = new GnmiPortCounters(deviceId);
+            getCounters(ifacePortNumberMapping.keySet(), counters);
+        } else {
+            counters = GnmiPortCounters.subscribed(deviceId);
+            counters.subscribe(client, subscribeRequest(ifacePortNumberMapping.keySet(), mode));
+            // Until the subscription delivered the counters of all ports.
+            if (!ifacePortNumberMapping.keySet().stream().allMatch(counters::contains)) {
+                getCounters(ifacePortNumberMapping.keySet(), counters);
+            }
+        }
 
-        // Build ONOS port stats map
+        // Build ONOS port stats map, summing {in,out,dropped} packets
         return ifacePortNumberMapping.entrySet().stream()
             .map(e -> {
                 String ifName = e.getKey();
                 PortNumber portNumber = e.getValue();
-                Duration portActive = getDurationActive(portNumber, timestamps.get(ifName));
+                Long timestamp = counters.timestamp(ifName);
+                Duration portActive = getDurationActive(
+                        portNumber, timestamp == null ? null : Duration.ofNanos(timestamp));
                 return DefaultPortStatistics.builder()
                         .setDeviceId(deviceId)
                         .setPort(portNumber)
                         .setDurationSec(portActive.getSeconds())
                         .setDurationNano(portActive.getNano())
-                        .setPacketsSent(outPkts.getOrDefault(ifName, 0L))
-                        .setPacketsReceived(inPkts.getOrDefault(ifName, 0L))
-                        .setPacketsTxDropped(outDropped.getOrDefault(ifName, 0L))
-                        .setPacketsRxDropped(inDropped.getOrDefault(ifName, 0L))
-                        .setBytesSent(outBytes.getOrDefault(ifName, 0L))
-                        .setBytesReceived(inBytes.getOrDefault(ifName, 0L))
-                        .setPacketsTxErrors(outErrors.getOrDefault(ifName, 0L))
-                        .setPacketsRxErrors(inErrors.getOrDefault(ifName, 0L))
+                        .setPacketsSent(counters.sum(ifName, "out-unicast-pkts",
+                                                     "out-broadcast-pkts", "out-multicast-pkts"))
+                        .setPacketsReceived(counters.sum(ifName, "in-unicast-pkts", "in-broadcast-pkts",
+                                                         "in-multicast-pkts", "in-unknown-protos"))
+                        .setPacketsTxDropped(counters.sum(ifName, "out-discards"))
+                        .setPacketsRxDropped(counters.sum(ifName, "in-discards", "in-fcs-errors"))
+                        .setBytesSent(counters.sum(ifName, "out-octets"))
+                        .setBytesReceived(counters.sum(ifName, "in-octets"))
+                        .setPacketsTxErrors(counters.sum(ifName, "out-errors"))
+                        .setPacketsRxErrors(counters.sum(ifName, "in-errors"))
                         .build();
             })
             .collect(Collectors.toList());
 
     }
 
-    private String interfaceNameFromPath(Path path) {
-        // /interfaces/interface[name=iface-name]
-        return path.getElem(1).getKeyOrDefault("name", null);
+    private void getCounters(Collection<String> ifNames, GnmiPortCounters counters) {
+        GetRequest.Builder getRequest = GetRequest.newBuilder();
+        getRequest.setEncoding(Gnmi.Encoding.PROTO);
+
+        // Use this path to get all counters from specific interface(port)
+        // /interfaces/interface[port-name]/state/counters/[counter name]
+        ifNames.forEach(ifName -> getRequest.addPath(interfaceCounterPath(ifName)));
+
+        GetResponse getResponse = Futures.getUnchecked(client.get(getRequest.build()));
+        getResponse.getNotificationList().forEach(counters::update);
+    }
+
+    private SubscribeRequest subscribeRequest(Collection<String> ifNames, SubscriptionMode mode) {
+        long sampleInterval = TimeUnit.SECONDS.toNanos(sampleInterval());
+        SubscriptionList.Builder subscriptionList = SubscriptionList.newBuilder()
+                .setMode(SubscriptionList.Mode.STREAM)
+                .setEncoding(Gnmi.Encoding.PROTO)
+                .setUpdatesOnly(false);
+        ifNames.stream().sorted().forEach(ifName -> {
+            Subscription.Builder subscription = Subscription.newBuilder()
+                    .setPath(interfaceCounterPath(ifName))
+                    .setMode(mode);
+            if (mode == SubscriptionMode.SAMPLE) {
+                subscription.setSampleInterval(sampleInterval);
+            }
+            subscriptionList.addSubscription(subscription.build());
+        });
+        return SubscribeRequest.newBuilder()
+                .setSubscribe(subscriptionList.build())
+                .build();
+    }
+
+    private SubscriptionMode subscriptionMode() {
+        String value = handler().driver().getProperty(SUBSCRIPTION_MODE);
+        if (value == null || value.trim().equalsIgnoreCase("none")) {
+            return null;
+        }
+        switch (value.trim().toLowerCase()) {
+            case "sample":
+                return SubscriptionMode.SAMPLE;
+            case "on_change":
+                return SubscriptionMode.ON_CHANGE;
+            default:
+                log.warn("Invalid value for driver property {} of {}: {}",
+                         SUBSCRIPTION_MODE, deviceId, value);
+                return null;
+        }
+    }
+
+    private int sampleInterval() {
+        String value = handler().driver().getProperty(SAMPLE_INTERVAL);
+        if (value == null) {
+            return DEFAULT_SAMPLE_INTERVAL;
+        }
+        try {
+            int interval = Integer.parseInt(value.trim());
+            return interval > 0 ? interval : DEFAULT_SAMPLE_INTERVAL;
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value for driver property {} of {}: {}",
+                     SAMPLE_INTERVAL, deviceId, value);
+            return DEFAULT_SAMPLE_INTERVAL;
+        }
     }
 
     private Path interfaceCounterPath(String portName) {
@@ -178,7 +203,6 @@ public class OpenConfigGnmiPortStatisticsDiscovery
                 .addElem(Gnmi.PathElem.newBuilder().setName("counters").build())
                 .build();
     }
-
     private Duration getDurationActive(PortNumber portNumber, Duration timestamp) {
         Port port = deviceService.getPort(deviceId, portNumber);
         if (port == null || !port.isEnabled()) {
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.drivers.gnmi;
+
+import com.google.common.collect.Lists;
+import gnmi.Gnmi.CapabilityResponse;
+import gnmi.Gnmi.GetRequest;
+import gnmi.Gnmi.GetResponse;
+import gnmi.Gnmi.Notification;
+import gnmi.Gnmi.Path;
+import gnmi.Gnmi.PathElem;
+import gnmi.Gnmi.SetRequest;
+import gnmi.Gnmi.SetResponse;
+import gnmi.Gnmi.SubscribeRequest;
+import gnmi.Gnmi.SubscribeResponse;
+import gnmi.Gnmi.SubscriptionList;
+import gnmi.Gnmi.TypedValue;
+import gnmi.Gnmi.Update;
+import org.junit.After;
+import org.junit.Test;
+import org.onosproject.gnmi.api.GnmiClient;
+import org.onosproject.net.DeviceId;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the gNMI port counters.
+ */
+public class GnmiPortCountersTest {
+
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("device:gnmi:1");
+
+    private static final SubscribeRequest REQUEST1 = request(1);
+    private static final SubscribeRequest REQUEST2 = request(2);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @After
+    public void tearDown() {
+        GnmiPortCounters.unsubscribe(DEVICE_ID);
+    }
+
+    /**
+     * Tests that counters are parsed from the paths of the notifications,
+     * with or without prefix.
+     */
+    @Test
+    public void testUpdate() {
+        GnmiPortCounters counters = new GnmiPortCounters(DEVICE_ID);
+        assertFalse(counters.contains("eth0"));
+
+        counters.update(Notification.newBuilder()
+                                .setTimestamp(10)
+                                .setPrefix(countersPath("eth0"))
+                                .addUpdate(update(Path.newBuilder().addElem(elem("in-octets")).build(), 100))
+                                .addUpdate(update(Path.newBuilder().addElem(elem("in-unicast-pkts")).build(), 5))
+                                .addUpdate(update(Path.newBuilder().addElem(elem("unknown")).build(), 7))
+                                .build());
+        counters.update(Notification.newBuilder()
+                                .setTimestamp(20)
+                                .addUpdate(update(counterPath("eth1", "out-octets"), 200))
+                                .addUpdate(update(counterPath("eth0", "in-multicast-pkts"), 3))
+                                .build());
+        counters.update(Notification.newBuilder()
+                                .setTimestamp(5)
+                                .addUpdate(update(counterPath("eth0", "in-octets"), 150))
+                                // Neither interface name nor counter name.
+                                .addUpdate(update(Path.newBuilder().addElem(elem("interfaces")).build(), 9))
+                                .build());
+
+        assertTrue(counters.contains("eth0"));
+        assertTrue(counters.contains("eth1"));
+        assertFalse(counters.contains("eth2"));
+        assertEquals(150, counters.sum("eth0", "in-octets"));
+        assertEquals(8, counters.sum("eth0", "in-unicast-pkts", "in-multicast-pkts", "in-broadcast-pkts"));
+        assertEquals(0, counters.sum("eth0", "unknown"));
+        assertEquals(200, counters.sum("eth1", "out-octets"));
+        assertEquals(0, counters.sum("eth2", "out-octets"));
+        // Latest timestamp, not the one of the latest notification.
+        assertEquals(Long.valueOf(20), counters.timestamp("eth0"));
+        assertEquals(Long.valueOf(20), counters.timestamp("eth1"));
+        assertNull(counters.timestamp("eth2"));
+    }
+
+    /**
+     * Tests that the subscription is terminated once the counters are not
+     * read for the idle timeout, even without any notification.
+     */
+    @Test
+    public void testIdleTeardown() {
+        TestGnmiClient client = new TestGnmiClient();
+        GnmiPortCounters counters = new GnmiPortCounters(DEVICE_ID, clock::get);
+        counters.subscribe(client, REQUEST1);
+        assertSame(counters, GnmiPortCounters.subscribed(DEVICE_ID));
+
+        clock.addAndGet(GnmiPortCounters.IDLE_TIMEOUT_NANOS);
+        counters.checkIdle();
+        assertEquals(1, client.subscribed.size());
+        assertEquals(0, client.unsubscribed.size());
+
+        // Reading the counters again defers the teardown.
+        counters.subscribe(client, REQUEST1);
+        clock.addAndGet(GnmiPortCounters.IDLE_TIMEOUT_NANOS);
+        counters.checkIdle();
+        assertEquals(0, client.unsubscribed.size());
+
+        clock.incrementAndGet();
+        counters.checkIdle();
+        assertEquals(1, client.subscribed.size());
+        assertEquals(1, client.unsubscribed.size());
+        assertNotSame(counters, GnmiPortCounters.subscribed(DEVICE_ID));
+
+        // Subscribing again restarts the subscription.
+        counters.subscribe(client, REQUEST1);
+        assertEquals(2, client.subscribed.size());
+    }
+
+    /**
+     * Tests that the Subscribe RPC is restarted only when the client or the
+     * request changes, and that responses update the counters.
+     */
+    @Test
+    public void testSubscribe() {
+        TestGnmiClient client1 = new TestGnmiClient();
+        TestGnmiClient client2 = new TestGnmiClient();
+        GnmiPortCounters counters = GnmiPortCounters.subscribed(DEVICE_ID);
+
+        counters.subscribe(client1, REQUEST1);
+        counters.subscribe(client1, REQUEST1);
+        assertEquals(Lists.newArrayList(REQUEST1), client1.subscribed);
+
+        counters.subscribe(client1, REQUEST2);
+        assertEquals(Lists.newArrayList(REQUEST1, REQUEST2), client1.subscribed);
+        assertEquals(0, client1.unsubscribed.size());
+
+        client1.consumer.accept(SubscribeResponse.newBuilder()
+                                        .setUpdate(Notification.newBuilder()
+                                                           .setTimestamp(10)
+                                                           .addUpdate(update(counterPath("eth0", "in-octets"), 100)))
+                                        .build());
+        client1.consumer.accept(SubscribeResponse.newBuilder().setSyncResponse(true).build());
+        assertEquals(100, counters.sum("eth0", "in-octets"));
+
+        // New client, e.g. after the device reconnected.
+        counters.subscribe(client2, REQUEST2);
+        assertEquals(Lists.newArrayList(GnmiPortCounters.SUBSCRIPTION_NAME), client1.unsubscribed);
+        assertEquals(Lists.newArrayList(REQUEST2), client2.subscribed);
+
+        GnmiPortCounters.unsubscribe(DEVICE_ID);
+        assertEquals(Lists.newArrayList(GnmiPortCounters.SUBSCRIPTION_NAME), client2.unsubscribed);
+        assertNotSame(counters, GnmiPortCounters.subscribed(DEVICE_ID));
+    }
+
+    private static SubscribeRequest request(int counters) {
+        SubscriptionList.Builder subscriptionList = SubscriptionList.newBuilder()
+                .setMode(SubscriptionList.Mode.STREAM);
+        for (int i = 0; i < counters; i++) {
+            subscriptionList.addSubscriptionBuilder().setPath(countersPath("eth" + i));
+        }
+        return SubscribeRequest.newBuilder().setSubscribe(subscriptionList).build();
+    }
+
+    private static PathElem elem(String name) {
+        return PathElem.newBuilder().setName(name).build();
+    }
+
+    private static Path countersPath(String ifName) {
+        return Path.newBuilder()
+                .addElem(elem("interfaces"))
+                .addElem(PathElem.newBuilder().setName("interface").putKey("name", ifName))
+                .addElem(elem("state"))
+                .addElem(elem("counters"))
+                .build();
+    }
+
+    private static Path counterPath(String ifName, String counterName) {
+        return countersPath(ifName).toBuilder().addElem(elem(counterName)).build();
+    }
+
+    private static Update update(Path path, long value) {
+        return Update.newBuilder()
+                .setPath(path)
+                .setVal(TypedValue.newBuilder().setUintVal(value))
+                .build();
+    }
+
+    /**
+     * gNMI client recording the named subscriptions.
+     */
+    private static class TestGnmiClient implements GnmiClient {
+
+        private final List<SubscribeRequest> subscribed = Lists.newArrayList();
+        private final List<String> unsubscribed = Lists.newArrayList();
+        private Consumer<SubscribeResponse> consumer;
+
+        @Override
+        public void subscribe(String name, SubscribeRequest request,
+                              Consumer<SubscribeResponse> consumer) {
+            subscribed.add(request);
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void unsubscribe(String name) {
+            unsubscribed.add(name);
+        }
+
+        @Override
+        public CompletableFuture<CapabilityResponse> capabilities() {
+            return null;
+        }
+
+        @Override
+        public CompletableFuture<GetResponse> get(GetRequest request) {
+            return null;
+        }
+
+        @Override
+        public CompletableFuture<SetResponse> set(SetRequest request) {
+            return null;
+        }
+
+        @Override
+        public void subscribe(SubscribeRequest request) {
+        }
+
+        @Override
+        public void unsubscribe() {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public boolean isServerReachable() {
+            return true;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> probeService() {
+            return CompletableFuture.completedFuture(true);
+        }
+    }
+}
@@ -51,4 +51,17 @@ public final class P4RuntimeDriverProperties {
     // True if target supports reading and writing table entries.
     public static final String SUPPORT_DEFAULT_TABLE_ENTRY = "supportDefaultTableEntry";
     public static final boolean DEFAULT_SUPPORT_DEFAULT_TABLE_ENTRY = true;
+
+    // If true, when reading flow entries we read only the direct counters of
+    // the tables, and check them against the digests of the table mirror. The
+    // table entries are read from the device only when the digests mismatch,
+    // when a write failed, or every TABLE_FULL_READ_INTERVAL reads. Tables
+    // without direct counters are checked only when reading table entries.
+    public static final String INCREMENTAL_TABLE_READ = "tableIncrementalRead";
+    public static final boolean DEFAULT_INCREMENTAL_TABLE_READ = false;
+
+    // When INCREMENTAL_TABLE_READ is true, the number of consecutive reads of
+    // the direct counters after which the table entries are read anyway.
+    public static final String TABLE_FULL_READ_INTERVAL = "tableFullReadInterval";
+    public static final int DEFAULT_TABLE_FULL_READ_INTERVAL = 10;
 }
\ No newline at end of file
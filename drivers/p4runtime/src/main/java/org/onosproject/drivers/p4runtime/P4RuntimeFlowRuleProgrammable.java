@@ -23,7 +23,9 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.Striped;
 import org.onosproject.drivers.p4runtime.mirror.P4RuntimeDefaultEntryMirror;
 import org.onosproject.drivers.p4runtime.mirror.P4RuntimeTableMirror;
+import org.onosproject.drivers.p4runtime.mirror.TableDigest;
 import org.onosproject.drivers.p4runtime.mirror.TimedEntry;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.flow.DefaultFlowEntry;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowRule;
@@ -31,6 +33,7 @@ import org.onosproject.net.flow.FlowRuleProgrammable;
 import org.onosproject.net.pi.model.PiCounterType;
 import org.onosproject.net.pi.model.PiPipelineModel;
 import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.model.PiTableModel;
 import org.onosproject.net.pi.runtime.PiCounterCell;
 import org.onosproject.net.pi.runtime.PiCounterCellData;
 import org.onosproject.net.pi.runtime.PiCounterCellHandle;
@@ -50,6 +53,7 @@ import org.onosproject.p4runtime.api.P4RuntimeWriteClient.WriteResponse;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -60,15 +64,19 @@ import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_DELETE_BEFORE_UPDATE;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_INCREMENTAL_TABLE_READ;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_READ_COUNTERS_WITH_TABLE_ENTRIES;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_READ_FROM_MIRROR;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_SUPPORT_DEFAULT_TABLE_ENTRY;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_SUPPORT_TABLE_COUNTERS;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DEFAULT_TABLE_FULL_READ_INTERVAL;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.DELETE_BEFORE_UPDATE;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.INCREMENTAL_TABLE_READ;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.READ_COUNTERS_WITH_TABLE_ENTRIES;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.READ_FROM_MIRROR;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.SUPPORT_DEFAULT_TABLE_ENTRY;
 import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.SUPPORT_TABLE_COUNTERS;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.TABLE_FULL_READ_INTERVAL;
 import static org.onosproject.drivers.p4runtime.P4RuntimeFlowRuleProgrammable.Operation.APPLY;
 import static org.onosproject.drivers.p4runtime.P4RuntimeFlowRuleProgrammable.Operation.REMOVE;
 import static org.onosproject.net.flow.FlowEntry.FlowEntryState.ADDED;
@@ -87,6 +95,21 @@ public class P4RuntimeFlowRuleProgrammable
     // that each request gets consistent access to mirror state.
     private static final Striped<Lock> WRITE_LOCKS = Striped.lock(30);
 
+    // Number of incremental reads of each device since its table entries were
+    // last read. Absent if table entries should be read at the next poll, e.g.
+    // because a write failed and the mirror might not reflect the device.
+    private static final Map<DeviceId, Integer> INCREMENTAL_READS = Maps.newConcurrentMap();
+
+    /**
+     * Forgets the incremental reads of a device, e.g. when it is removed or
+     * disconnected, such that its table entries are read at the next poll.
+     *
+     * @param deviceId device identifier
+     */
+    static void resetIncrementalReads(DeviceId deviceId) {
+        INCREMENTAL_READS.remove(deviceId);
+    }
+
     private PiPipelineModel pipelineModel;
     private P4RuntimeTableMirror tableMirror;
     private PiFlowRuleTranslator translator;
@@ -118,6 +141,17 @@ public class P4RuntimeFlowRuleProgrammable
             return getFlowEntriesFromMirror();
         }
 
+        if (driverBoolProperty(INCREMENTAL_TABLE_READ,
+                               DEFAULT_INCREMENTAL_TABLE_READ) &&
+                driverBoolProperty(SUPPORT_TABLE_COUNTERS,
+                                   DEFAULT_SUPPORT_TABLE_COUNTERS) &&
+                !isFullReadDue()) {
+            final Collection<FlowEntry> flowEntries = getFlowEntriesIncrementally();
+            if (flowEntries != null) {
+                return flowEntries;
+            }
+        }
+
         final ImmutableList.Builder<FlowEntry> result = ImmutableList.builder();
         final List<PiTableEntry> inconsistentEntries = Lists.newArrayList();
 
@@ -130,6 +164,7 @@ public class P4RuntimeFlowRuleProgrammable
 
         // Synchronize mirror with the device state.
         tableMirror.sync(deviceId, deviceEntries);
+        INCREMENTAL_READS.put(deviceId, 0);
 
         if (deviceEntries.isEmpty()) {
             // Nothing to do.
@@ -170,6 +205,9 @@ public class P4RuntimeFlowRuleProgrammable
                     log.debug("Successfully removed {} out of {} inconsistent entries",
                               response.success().size(), response.all().size());
                 }
+                if (ex != null || !response.isSuccess()) {
+                    INCREMENTAL_READS.remove(deviceId);
+                }
                 tableMirror.applyWriteResponse(response);
             });
 
@@ -192,17 +230,89 @@ public class P4RuntimeFlowRuleProgrammable
                         request.defaultTableEntry(t.id());
                     }
                 });
-        final P4RuntimeReadClient.ReadResponse response = request.submitSync();
+        // Device implementation might return duplicate entries. For example
+        // if reading only default ones is not supported and non-default
+        // entries are returned, by collecting them in a set we are robust
+        // against that possibility.
+        final Set<PiTableEntry> entries = new LinkedHashSet<>();
+        final P4RuntimeReadClient.ReadResponse response = request.submitSync(entity -> {
+            if (entity instanceof PiTableEntry) {
+                entries.add((PiTableEntry) entity);
+            }
+        });
         if (!response.isSuccess()) {
             return null;
         }
-        return response.all(PiTableEntry.class).stream()
-                // Device implementation might return duplicate entries. For
-                // example if reading only default ones is not supported and
-                // non-default entries are returned, by using distinct() we
-                // are robust against that possibility.
-                .distinct()
+        return entries;
+    }
+
+    private boolean isFullReadDue() {
+        final Integer incrementalReads = INCREMENTAL_READS.get(deviceId);
+        return incrementalReads == null || incrementalReads >= driverIntProperty(
+                TABLE_FULL_READ_INTERVAL, DEFAULT_TABLE_FULL_READ_INTERVAL);
+    }
+
+    private Collection<FlowEntry> getFlowEntriesIncrementally() {
+        // Read the direct counters of the tables, which tell which entries
+        // are on the device without reading the entries themselves. Returns
+        // null if the table entries should be read instead.
+        final List<PiTableId> tableIds = pipelineModel.tables().stream()
+                .filter(t -> !t.isConstantTable())
+                .filter(t -> !t.counters().isEmpty())
+                .map(PiTableModel::id)
                 .collect(Collectors.toList());
+        final Map<PiTableEntryHandle, PiCounterCellData> counterCellMap = Maps.newHashMap();
+        final Map<PiTableId, TableDigest> deviceDigests = Maps.newHashMap();
+        final P4RuntimeReadClient.ReadRequest request = client.read(
+                p4DeviceId, pipeconf);
+        tableIds.forEach(request::directCounterCells);
+        // Process the cells as they are received, there might be many.
+        final P4RuntimeReadClient.ReadResponse response = request.submitSync(entity -> {
+            if (!(entity instanceof PiCounterCell)) {
+                return;
+            }
+            final PiCounterCell cell = (PiCounterCell) entity;
+            if (!cell.cellId().counterType().equals(PiCounterType.DIRECT) ||
+                    cell.cellId().tableEntry().isDefaultAction()) {
+                return;
+            }
+            final PiTableEntryHandle handle = cell.cellId().tableEntry().handle(deviceId);
+            counterCellMap.put(handle, cell.data());
+            deviceDigests.compute(handle.tableId(), (t, digest) -> (
+                    digest == null ? TableDigest.EMPTY : digest).add(handle));
+        });
+        if (!response.isSuccess()) {
+            return null;
+        }
+
+        for (PiTableId tableId : tableIds) {
+            final TableDigest deviceDigest = deviceDigests.getOrDefault(
+                    tableId, TableDigest.EMPTY);
+            final TableDigest mirrorDigest = tableMirror.digest(deviceId, tableId);
+            if (!deviceDigest.equals(mirrorDigest)) {
+                log.debug("Entries of table {} on {} differ from mirror " +
+                                  "(device={}, mirror={}), reading table entries...",
+                          tableId, deviceId, deviceDigest.size(), mirrorDigest.size());
+                return null;
+            }
+        }
+
+        final ImmutableList.Builder<FlowEntry> result = ImmutableList.builder();
+        for (TimedEntry<PiTableEntry> timedEntry : tableMirror.getAll(deviceId)) {
+            final PiTableEntry entry = timedEntry.entry();
+            final PiTableEntryHandle handle = entry.handle(deviceId);
+            final FlowEntry flowEntry = forgeFlowEntry(
+                    entry, handle, counterCellMap.get(handle));
+            if (flowEntry != null) {
+                result.add(flowEntry);
+            } else if (!isOriginalDefaultEntry(entry)) {
+                // Inconsistent, let the table entries read clean up.
+                return null;
+            }
+        }
+        // Unless a full read was requested in the meantime.
+        INCREMENTAL_READS.computeIfPresent(deviceId, (d, reads) -> reads + 1);
+        return result.build();
     }
 
     @Override
@@ -311,6 +421,11 @@ public class P4RuntimeFlowRuleProgrammable
         }
         // Wait for response.
         final WriteResponse response = Futures.getUnchecked(futureResponse);
+        if (!response.isSuccess()) {
+            // The mirror was updated optimistically, read table entries at the
+            // next poll to find out what was actually written.
+            INCREMENTAL_READS.remove(deviceId);
+        }
         // Derive successfully applied flow rule from response.
         final List<FlowRule> appliedRules = getAppliedFlowRules(
                 response, handleToRuleMap, driverOperation);
@@ -97,6 +97,14 @@ public class P4RuntimeHandshaker
         return client.isAnyPipelineConfigSet(p4DeviceId);
     }
 
+    @Override
+    public void disconnect() {
+        // Called when the device is removed, or its connection torn down:
+        // its table entries are to be read in full once connected again.
+        P4RuntimeFlowRuleProgrammable.resetIncrementalReads(data().deviceId());
+        super.disconnect();
+    }
+
     @Override
     public void roleChanged(MastershipRole newRole) {
         if (!setupBehaviour("roleChanged()")) {
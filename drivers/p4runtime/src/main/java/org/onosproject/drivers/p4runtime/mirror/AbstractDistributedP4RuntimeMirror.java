@@ -33,6 +33,8 @@ import org.onosproject.p4runtime.api.P4RuntimeWriteClient.WriteRequest;
 import org.onosproject.p4runtime.api.P4RuntimeWriteClient.WriteResponse;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.EventuallyConsistentMap;
+import org.onosproject.store.service.EventuallyConsistentMapEvent;
+import org.onosproject.store.service.EventuallyConsistentMapListener;
 import org.onosproject.store.service.StorageService;
 import org.onosproject.store.service.WallClockTimestamp;
 import org.osgi.service.component.annotations.Activate;
@@ -81,6 +83,9 @@ public abstract class AbstractDistributedP4RuntimeMirror
     private final PiPipeconfWatchdogListener pipeconfListener =
             new InternalPipeconfWatchdogListener();
 
+    private final EventuallyConsistentMapListener<PiHandle, TimedEntry<E>> mirrorMapListener =
+            new InternalMirrorMapListener();
+
     AbstractDistributedP4RuntimeMirror(PiEntityType entityType) {
         this.entityType = entityType;
         this.flushOnPipelineUnknown = false;
@@ -107,6 +112,7 @@ public abstract class AbstractDistributedP4RuntimeMirror
                 .withSerializer(serializer)
                 .withTimestampProvider((k, v) -> new WallClockTimestamp())
                 .build();
+        mirrorMap.addListener(mirrorMapListener);
 
         annotationsMap = storageService
                 .<PiHandle, Annotations>eventuallyConsistentMapBuilder()
@@ -122,6 +128,7 @@ public abstract class AbstractDistributedP4RuntimeMirror
     @Deactivate
     public void deactivate() {
         pipeconfWatchdogService.removeListener(pipeconfListener);
+        mirrorMap.removeListener(mirrorMapListener);
         mirrorMap.destroy();
         mirrorMap = null;
         log.info("Stopped");
@@ -142,6 +149,26 @@ public abstract class AbstractDistributedP4RuntimeMirror
         return mirrorMap.get(handle);
     }
 
+    /**
+     * Returns true if this mirror holds an entry for the given handle.
+     *
+     * @param handle handle
+     * @return true if an entry is present, false otherwise
+     */
+    protected boolean contains(H handle) {
+        return mirrorMap.containsKey(handle);
+    }
+
+    /**
+     * Invoked after the entry associated to the given handle was added,
+     * updated or removed, either by this instance or by a peer. Does nothing
+     * by default.
+     *
+     * @param handle handle
+     */
+    protected void entryChanged(H handle) {
+    }
+
     @Override
     public void put(H handle, E entry) {
         checkNotNull(handle);
@@ -275,6 +302,15 @@ public abstract class AbstractDistributedP4RuntimeMirror
                 });
     }
 
+    private class InternalMirrorMapListener
+            implements EventuallyConsistentMapListener<PiHandle, TimedEntry<E>> {
+        @Override
+        @SuppressWarnings("unchecked")
+        public void event(EventuallyConsistentMapEvent<PiHandle, TimedEntry<E>> event) {
+            entryChanged((H) event.key());
+        }
+    }
+
     public class InternalPipeconfWatchdogListener implements PiPipeconfWatchdogListener {
         @Override
         public void event(PiPipeconfWatchdogEvent event) {
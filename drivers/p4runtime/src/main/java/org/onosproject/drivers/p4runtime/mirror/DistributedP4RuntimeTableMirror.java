@@ -16,11 +16,19 @@
 
 package org.onosproject.drivers.p4runtime.mirror;
 
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.PiTableId;
 import org.onosproject.net.pi.runtime.PiEntityType;
+import org.onosproject.net.pi.runtime.PiMatchKey;
 import org.onosproject.net.pi.runtime.PiTableEntry;
 import org.onosproject.net.pi.runtime.PiTableEntryHandle;
 import org.osgi.service.component.annotations.Component;
 
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Distributed implementation of a P4Runtime table mirror.
  */
@@ -30,7 +38,43 @@ public final class DistributedP4RuntimeTableMirror
                         <PiTableEntryHandle, PiTableEntry>
         implements P4RuntimeTableMirror {
 
+    // Handles of the non-default entries known to this mirror, and digests of
+    // each table, both maintained as the mirror is updated.
+    private final Set<PiTableEntryHandle> digestedHandles = Sets.newConcurrentHashSet();
+    private final Map<DeviceId, Map<PiTableId, TableDigest>> digests = Maps.newConcurrentMap();
+
     public DistributedP4RuntimeTableMirror() {
         super(PiEntityType.TABLE_ENTRY);
     }
+
+    @Override
+    public TableDigest digest(DeviceId deviceId, PiTableId tableId) {
+        final Map<PiTableId, TableDigest> deviceDigests = digests.get(deviceId);
+        return deviceDigests == null
+                ? TableDigest.EMPTY
+                : deviceDigests.getOrDefault(tableId, TableDigest.EMPTY);
+    }
+
+    @Override
+    protected void entryChanged(PiTableEntryHandle handle) {
+        if (handle.matchKey().equals(PiMatchKey.EMPTY)) {
+            // Default entries are not digested.
+            return;
+        }
+        // Whatever the change, the mirror tells if the entry is still there.
+        // Checking it while holding the table digest serializes the updates
+        // of the same table, so that the digest ends up matching the mirror.
+        digests.computeIfAbsent(handle.deviceId(), d -> Maps.newConcurrentMap())
+                .compute(handle.tableId(), (t, digest) -> {
+                    TableDigest updated = digest == null ? TableDigest.EMPTY : digest;
+                    if (contains(handle)) {
+                        if (digestedHandles.add(handle)) {
+                            updated = updated.add(handle);
+                        }
+                    } else if (digestedHandles.remove(handle)) {
+                        updated = updated.remove(handle);
+                    }
+                    return updated.size() == 0 ? null : updated;
+                });
+    }
 }
@@ -16,6 +16,8 @@
 
 package org.onosproject.drivers.p4runtime.mirror;
 
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.PiTableId;
 import org.onosproject.net.pi.runtime.PiTableEntry;
 import org.onosproject.net.pi.runtime.PiTableEntryHandle;
 
@@ -24,4 +26,16 @@ import org.onosproject.net.pi.runtime.PiTableEntryHandle;
  */
 public interface P4RuntimeTableMirror
         extends P4RuntimeMirror<PiTableEntryHandle, PiTableEntry> {
+
+    /**
+     * Returns the digest of the non-default entries of the given table, as
+     * known by this mirror. The digest is maintained as entries are added or
+     * removed, and can be compared with the digest of the entries read from
+     * the device to detect inconsistencies without comparing all entries.
+     *
+     * @param deviceId device ID
+     * @param tableId  table ID
+     * @return table digest
+     */
+    TableDigest digest(DeviceId deviceId, PiTableId tableId);
 }
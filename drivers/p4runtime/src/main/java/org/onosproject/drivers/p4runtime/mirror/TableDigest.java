@@ -0,0 +1,178 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.drivers.p4runtime.mirror;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.onlab.util.ImmutableByteSequence;
+import org.onosproject.net.pi.runtime.PiExactFieldMatch;
+import org.onosproject.net.pi.runtime.PiFieldMatch;
+import org.onosproject.net.pi.runtime.PiLpmFieldMatch;
+import org.onosproject.net.pi.runtime.PiRangeFieldMatch;
+import org.onosproject.net.pi.runtime.PiTableEntryHandle;
+import org.onosproject.net.pi.runtime.PiTernaryFieldMatch;
+
+import java.util.Objects;
+
+/**
+ * Digest of the non-default entries of a table, made of their number and of
+ * the sum of the hashes of their handles. The digest of a set of entries does
+ * not depend on their order and can be updated incrementally, as entries are
+ * added or removed.
+ * <p>
+ * Handles are hashed from the values of their fields, rather than from their
+ * 32-bit hash codes, to make it unlikely that different sets of entries have
+ * the same digest.
+ */
+public final class TableDigest {
+
+    /**
+     * Digest of an empty table.
+     */
+    public static final TableDigest EMPTY = new TableDigest(0, 0);
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final int size;
+    private final long hash;
+
+    private TableDigest(int size, long hash) {
+        this.size = size;
+        this.hash = hash;
+    }
+
+    /**
+     * Returns the digest of the given table entry handles.
+     *
+     * @param handles table entry handles
+     * @return table digest
+     */
+    public static TableDigest of(Iterable<PiTableEntryHandle> handles) {
+        int size = 0;
+        long hash = 0;
+        for (PiTableEntryHandle handle : handles) {
+            size++;
+            hash += hashOf(handle);
+        }
+        return new TableDigest(size, hash);
+    }
+
+    /**
+     * Returns the digest of the entries of this one plus the given one.
+     *
+     * @param handle handle of the added entry
+     * @return table digest
+     */
+    public TableDigest add(PiTableEntryHandle handle) {
+        return new TableDigest(size + 1, hash + hashOf(handle));
+    }
+
+    /**
+     * Returns the digest of the entries of this one minus the given one.
+     *
+     * @param handle handle of the removed entry
+     * @return table digest
+     */
+    public TableDigest remove(PiTableEntryHandle handle) {
+        return new TableDigest(size - 1, hash - hashOf(handle));
+    }
+
+    /**
+     * Returns the number of entries summarized by this digest.
+     *
+     * @return number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    private static long hashOf(PiTableEntryHandle handle) {
+        // Field matches are summed up, as match keys do not depend on their order
+        long matchHash = 0;
+        for (PiFieldMatch fieldMatch : handle.matchKey().fieldMatches()) {
+            matchHash += hashOf(fieldMatch);
+        }
+        final Hasher hasher = HASH.newHasher();
+        putString(hasher, handle.deviceId().toString());
+        putString(hasher, handle.tableId().id());
+        return hasher.putInt(handle.priority().orElse(-1))
+                .putLong(matchHash)
+                .hash().asLong();
+    }
+
+    private static long hashOf(PiFieldMatch fieldMatch) {
+        final Hasher hasher = HASH.newHasher();
+        putString(hasher, fieldMatch.fieldId().id());
+        hasher.putInt(fieldMatch.type().ordinal());
+        switch (fieldMatch.type()) {
+            case EXACT:
+                putBytes(hasher, ((PiExactFieldMatch) fieldMatch).value());
+                break;
+            case LPM:
+                putBytes(hasher, ((PiLpmFieldMatch) fieldMatch).value());
+                hasher.putInt(((PiLpmFieldMatch) fieldMatch).prefixLength());
+                break;
+            case TERNARY:
+                putBytes(hasher, ((PiTernaryFieldMatch) fieldMatch).value());
+                putBytes(hasher, ((PiTernaryFieldMatch) fieldMatch).mask());
+                break;
+            case RANGE:
+                putBytes(hasher, ((PiRangeFieldMatch) fieldMatch).lowValue());
+                putBytes(hasher, ((PiRangeFieldMatch) fieldMatch).highValue());
+                break;
+            default:
+                putString(hasher, fieldMatch.toString());
+        }
+        return hasher.hash().asLong();
+    }
+
+    // Values are prefixed by their length, so that consecutive ones can't be confused.
+    private static void putString(Hasher hasher, String value) {
+        hasher.putInt(value.length()).putUnencodedChars(value);
+    }
+
+    private static void putBytes(Hasher hasher, ImmutableByteSequence value) {
+        hasher.putInt(value.size()).putBytes(value.asArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(size, hash);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final TableDigest other = (TableDigest) obj;
+        return this.size == other.size && this.hash == other.hash;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("size", size)
+                .add("hash", hash)
+                .toString();
+    }
+}
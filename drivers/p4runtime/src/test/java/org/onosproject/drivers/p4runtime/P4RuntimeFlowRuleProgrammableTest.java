@@ -0,0 +1,478 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.drivers.p4runtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.junit.TestUtils;
+import org.onlab.util.ImmutableByteSequence;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.drivers.p4runtime.mirror.P4RuntimeTableMirror;
+import org.onosproject.drivers.p4runtime.mirror.TestP4RuntimeTableMirror;
+import org.onosproject.grpc.utils.AbstractGrpcHandlerBehaviour;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.config.Config;
+import org.onosproject.net.config.NetworkConfigService;
+import org.onosproject.net.config.NetworkConfigServiceAdapter;
+import org.onosproject.net.config.basics.BasicDeviceConfig;
+import org.onosproject.net.driver.DefaultDriver;
+import org.onosproject.net.driver.DefaultDriverData;
+import org.onosproject.net.driver.DefaultDriverHandler;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.pi.model.PiActionId;
+import org.onosproject.net.pi.model.PiActionProfileId;
+import org.onosproject.net.pi.model.PiCounterId;
+import org.onosproject.net.pi.model.PiCounterModel;
+import org.onosproject.net.pi.model.PiMatchFieldId;
+import org.onosproject.net.pi.model.PiMeterId;
+import org.onosproject.net.pi.model.PiPipeconf;
+import org.onosproject.net.pi.model.PiPipelineModel;
+import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.model.PiTableModel;
+import org.onosproject.net.pi.runtime.PiAction;
+import org.onosproject.net.pi.runtime.PiCounterCell;
+import org.onosproject.net.pi.runtime.PiCounterCellId;
+import org.onosproject.net.pi.runtime.PiEntity;
+import org.onosproject.net.pi.runtime.PiExactFieldMatch;
+import org.onosproject.net.pi.runtime.PiHandle;
+import org.onosproject.net.pi.runtime.PiMatchKey;
+import org.onosproject.net.pi.runtime.PiTableEntry;
+import org.onosproject.net.pi.service.PiFlowRuleTranslator;
+import org.onosproject.net.pi.service.PiPipeconfService;
+import org.onosproject.net.pi.service.PiTranslatedEntity;
+import org.onosproject.net.pi.service.PiTranslationService;
+import org.onosproject.p4runtime.api.P4RuntimeClient;
+import org.onosproject.p4runtime.api.P4RuntimeController;
+import org.onosproject.p4runtime.api.P4RuntimeReadClient.ReadRequest;
+import org.onosproject.p4runtime.api.P4RuntimeReadClient.ReadResponse;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.easymock.EasyMock.anyLong;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.INCREMENTAL_TABLE_READ;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.READ_COUNTERS_WITH_TABLE_ENTRIES;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.READ_FROM_MIRROR;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.SUPPORT_DEFAULT_TABLE_ENTRY;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.SUPPORT_TABLE_COUNTERS;
+import static org.onosproject.drivers.p4runtime.P4RuntimeDriverProperties.TABLE_FULL_READ_INTERVAL;
+
+/**
+ * Tests for the incremental reads of the P4Runtime flow rule programmable.
+ */
+public class P4RuntimeFlowRuleProgrammableTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("device:1");
+    private static final URI MGMT_URI = URI.create("grpc://127.0.0.1:50001?device_id=1");
+    private static final PiTableId TABLE = PiTableId.of("ingress.table");
+    private static final PiMatchFieldId FIELD = PiMatchFieldId.of("hdr.field");
+    private static final int FULL_READ_INTERVAL = 3;
+
+    private static final PiTableEntry ENTRY1 = entry(1);
+    private static final PiTableEntry ENTRY2 = entry(2);
+
+    private final P4RuntimeTableMirror tableMirror = new TestP4RuntimeTableMirror();
+    private final TestFlowRuleTranslator translator = new TestFlowRuleTranslator();
+    private final List<TestReadRequest> requests = Lists.newArrayList();
+    // Entries on the device and the packet counts of their direct counters.
+    private final Map<PiTableEntry, Long> deviceEntries = Maps.newLinkedHashMap();
+
+    private P4RuntimeFlowRuleProgrammable programmable;
+    private ConcurrentMap<DeviceId, URI> channelUris;
+
+    private static PiTableEntry entry(int value) {
+        return PiTableEntry.builder()
+                .forTable(TABLE)
+                .withMatchKey(PiMatchKey.builder()
+                                      .addFieldMatch(new PiExactFieldMatch(
+                                              FIELD, ImmutableByteSequence.copyFrom(value)))
+                                      .build())
+                .withAction(PiAction.builder().withId(PiActionId.of("ingress.drop")).build())
+                .build();
+    }
+
+    private static FlowRule flowRule(int priority) {
+        return DefaultFlowRule.builder()
+                .forDevice(DID)
+                .forTable(TABLE)
+                .withSelector(DefaultTrafficSelector.emptySelector())
+                .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                .withPriority(priority)
+                .fromApp(new DefaultApplicationId(1, "test"))
+                .makePermanent()
+                .build();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final PiTableModel tableModel = createMock(PiTableModel.class);
+        expect(tableModel.id()).andReturn(TABLE).anyTimes();
+        expect(tableModel.isConstantTable()).andReturn(false).anyTimes();
+        expect(tableModel.constDefaultAction()).andReturn(Optional.empty()).anyTimes();
+        expect(tableModel.counters()).andReturn(ImmutableList.of(createMock(PiCounterModel.class))).anyTimes();
+        final PiPipelineModel pipelineModel = createMock(PiPipelineModel.class);
+        expect(pipelineModel.tables()).andReturn(ImmutableList.of(tableModel)).anyTimes();
+        expect(pipelineModel.table(TABLE)).andReturn(Optional.of(tableModel)).anyTimes();
+        final PiPipeconf pipeconf = createMock(PiPipeconf.class);
+        expect(pipeconf.pipelineModel()).andReturn(pipelineModel).anyTimes();
+        final PiPipeconfService pipeconfService = createMock(PiPipeconfService.class);
+        expect(pipeconfService.getPipeconf(DID)).andReturn(Optional.of(pipeconf)).anyTimes();
+        final PiTranslationService translationService = createMock(PiTranslationService.class);
+        expect(translationService.flowRuleTranslator()).andReturn(translator).anyTimes();
+        final P4RuntimeClient client = createMock(P4RuntimeClient.class);
+        expect(client.read(anyLong(), anyObject())).andAnswer(() -> {
+            final TestReadRequest request = new TestReadRequest();
+            requests.add(request);
+            return request;
+        }).anyTimes();
+        final P4RuntimeController controller = createMock(P4RuntimeController.class);
+        expect(controller.get(DID)).andReturn(client).anyTimes();
+        replay(tableModel, pipelineModel, pipeconf, pipeconfService, translationService, client, controller);
+
+        final BasicDeviceConfig deviceConfig = new BasicDeviceConfig();
+        final ObjectMapper mapper = new ObjectMapper();
+        deviceConfig.init(DID, "basic", mapper.createObjectNode(), mapper, null);
+        deviceConfig.managementAddress(MGMT_URI.toString());
+        final NetworkConfigService cfgService = new NetworkConfigServiceAdapter() {
+            @Override
+            public <S, C extends Config<S>> C getConfig(S subject, Class<C> configClass) {
+                return configClass.equals(BasicDeviceConfig.class) ? configClass.cast(deviceConfig) : null;
+            }
+        };
+
+        final DefaultDriver driver = new DefaultDriver(
+                "p4runtime", ImmutableList.of(), "test", "test", "test", ImmutableMap.of(),
+                ImmutableMap.<String, String>builder()
+                        .put(READ_FROM_MIRROR, "false")
+                        .put(INCREMENTAL_TABLE_READ, "true")
+                        .put(SUPPORT_TABLE_COUNTERS, "true")
+                        .put(READ_COUNTERS_WITH_TABLE_ENTRIES, "true")
+                        .put(SUPPORT_DEFAULT_TABLE_ENTRY, "false")
+                        .put(TABLE_FULL_READ_INTERVAL, String.valueOf(FULL_READ_INTERVAL))
+                        .build());
+        final Map<Class<?>, Object> services = ImmutableMap.<Class<?>, Object>builder()
+                .put(P4RuntimeController.class, controller)
+                .put(NetworkConfigService.class, cfgService)
+                .put(PiPipeconfService.class, pipeconfService)
+                .put(PiTranslationService.class, translationService)
+                .put(P4RuntimeTableMirror.class, tableMirror)
+                .build();
+        final DefaultDriverData data = new DefaultDriverData(driver, DID);
+        programmable = new P4RuntimeFlowRuleProgrammable();
+        programmable.setData(data);
+        programmable.setHandler(new DefaultDriverHandler(data) {
+            @Override
+            public <T> T get(Class<T> serviceClass) {
+                return serviceClass.cast(services.get(serviceClass));
+            }
+        });
+
+        channelUris = TestUtils.getField(AbstractGrpcHandlerBehaviour.class, "CHANNEL_URIS");
+        channelUris.put(DID, MGMT_URI);
+
+        translator.learn(ENTRY1, flowRule(1));
+        translator.learn(ENTRY2, flowRule(2));
+        deviceEntries.put(ENTRY1, 10L);
+        deviceEntries.put(ENTRY2, 20L);
+    }
+
+    @After
+    public void tearDown() {
+        channelUris.remove(DID);
+        P4RuntimeFlowRuleProgrammable.resetIncrementalReads(DID);
+    }
+
+    private Collection<FlowEntry> poll() {
+        requests.clear();
+        return programmable.getFlowEntries();
+    }
+
+    private boolean tableEntriesRead() {
+        return requests.stream().anyMatch(r -> r.tableEntries);
+    }
+
+    private static List<Long> packets(Collection<FlowEntry> flowEntries) {
+        return flowEntries.stream()
+                .map(FlowEntry::packets)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Tests that table entries are read first, and then that counters tell
+     * which entries are on the device until the next full read.
+     */
+    @Test
+    public void incrementalReads() {
+        assertEquals("incorrect flow entries", ImmutableList.of(0L, 0L), packets(poll()));
+        assertTrue("table entries should be read", tableEntriesRead());
+
+        for (int i = 0; i < FULL_READ_INTERVAL; i++) {
+            assertEquals("incorrect flow entries", ImmutableList.of(10L, 20L), packets(poll()));
+            assertFalse("table entries should not be read", tableEntriesRead());
+        }
+
+        assertEquals("incorrect flow entries", ImmutableList.of(0L, 0L), packets(poll()));
+        assertTrue("full read should be due", tableEntriesRead());
+    }
+
+    /**
+     * Tests that table entries are read when counters tell that the device
+     * differs from the mirror.
+     */
+    @Test
+    public void digestMismatch() {
+        poll();
+        deviceEntries.remove(ENTRY2);
+        assertEquals("incorrect flow entries", ImmutableList.of(0L), packets(poll()));
+        assertTrue("table entries should be read", tableEntriesRead());
+
+        assertEquals("incorrect flow entries", ImmutableList.of(10L), packets(poll()));
+        assertFalse("table entries should not be read", tableEntriesRead());
+    }
+
+    /**
+     * Tests that table entries are read after incremental reads are reset.
+     */
+    @Test
+    public void reset() {
+        poll();
+        poll();
+        assertFalse("table entries should not be read", tableEntriesRead());
+
+        P4RuntimeFlowRuleProgrammable.resetIncrementalReads(DID);
+        poll();
+        assertTrue("table entries should be read", tableEntriesRead());
+    }
+
+    /**
+     * Translator backed by a map.
+     */
+    private static class TestFlowRuleTranslator implements PiFlowRuleTranslator {
+
+        private final Map<PiHandle, PiTranslatedEntity<FlowRule, PiTableEntry>> entities = Maps.newHashMap();
+
+        void learn(PiTableEntry entry, FlowRule rule) {
+            learn(entry.handle(DID), new PiTranslatedEntity<>(rule, entry, entry.handle(DID)));
+        }
+
+        @Override
+        public PiTableEntry translate(FlowRule original, PiPipeconf pipeconf) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void learn(PiHandle handle, PiTranslatedEntity<FlowRule, PiTableEntry> entity) {
+            entities.put(handle, entity);
+        }
+
+        @Override
+        public Optional<PiTranslatedEntity<FlowRule, PiTableEntry>> lookup(PiHandle handle) {
+            return Optional.ofNullable(entities.get(handle));
+        }
+
+        @Override
+        public void forget(PiHandle handle) {
+            entities.remove(handle);
+        }
+    }
+
+    /**
+     * Read request of table entries and of their direct counters, which
+     * records what was requested.
+     */
+    private class TestReadRequest implements ReadRequest {
+
+        private boolean tableEntries;
+        private boolean directCounterCells;
+
+        @Override
+        public ReadRequest handle(PiHandle handle) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReadRequest handles(Iterable<? extends PiHandle> handles) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReadRequest tableEntries(PiTableId tableId) {
+            tableEntries = true;
+            return this;
+        }
+
+        @Override
+        public ReadRequest tableEntries(Iterable<PiTableId> tableIds) {
+            tableEntries = true;
+            return this;
+        }
+
+        @Override
+        public ReadRequest defaultTableEntry(PiTableId tableId) {
+            return this;
+        }
+
+        @Override
+        public ReadRequest defaultTableEntry(Iterable<PiTableId> tableIds) {
+            return this;
+        }
+
+        @Override
+        public ReadRequest actionProfileGroups(PiActionProfileId actionProfileId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReadRequest actionProfileGroups(Iterable<PiActionProfileId> actionProfileIds) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReadRequest actionProfileMembers(PiActionProfileId actionProfileId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReadRequest actionProfileMembers(Iterable<PiActionProfileId> actionProfileIds) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReadRequest counterCells(PiCounterId counterId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReadRequest counterCells(Iterable<PiCounterId> counterIds) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReadRequest directCounterCells(PiTableId tableId) {
+            directCounterCells = true;
+            return this;
+        }
+
+        @Override
+        public ReadRequest directCounterCells(Iterable<PiTableId> tableIds) {
+            directCounterCells = true;
+            return this;
+        }
+
+        @Override
+        public ReadRequest meterCells(PiMeterId meterId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReadRequest meterCells(Iterable<PiMeterId> meterIds) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReadRequest directMeterCells(PiTableId tableId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ReadRequest directMeterCells(Iterable<PiTableId> tableIds) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<ReadResponse> submit() {
+            return CompletableFuture.completedFuture(submitSync());
+        }
+
+        @Override
+        public ReadResponse submitSync() {
+            return submitSync(entity -> { });
+        }
+
+        @Override
+        public CompletableFuture<ReadResponse> submit(Consumer<PiEntity> consumer) {
+            return CompletableFuture.completedFuture(submitSync(consumer));
+        }
+
+        @Override
+        public ReadResponse submitSync(Consumer<PiEntity> consumer) {
+            final List<PiEntity> entities = Lists.newArrayList();
+            deviceEntries.forEach((entry, packets) -> {
+                if (tableEntries) {
+                    entities.add(entry);
+                }
+                if (directCounterCells) {
+                    entities.add(new PiCounterCell(PiCounterCellId.ofDirect(entry), packets, packets * 100));
+                }
+            });
+            entities.forEach(consumer);
+            return new ReadResponse() {
+                @Override
+                public boolean isSuccess() {
+                    return true;
+                }
+
+                @Override
+                public Collection<PiEntity> all() {
+                    return entities;
+                }
+
+                @Override
+                public <E extends PiEntity> Collection<E> all(Class<E> clazz) {
+                    return entities.stream()
+                            .filter(clazz::isInstance)
+                            .map(clazz::cast)
+                            .collect(Collectors.toList());
+                }
+
+                @Override
+                public String explanation() {
+                    return null;
+                }
+
+                @Override
+                public Throwable throwable() {
+                    return null;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.drivers.p4runtime.mirror;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.onlab.util.ImmutableByteSequence;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.PiActionId;
+import org.onosproject.net.pi.model.PiMatchFieldId;
+import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.runtime.PiAction;
+import org.onosproject.net.pi.runtime.PiExactFieldMatch;
+import org.onosproject.net.pi.runtime.PiFieldMatch;
+import org.onosproject.net.pi.runtime.PiLpmFieldMatch;
+import org.onosproject.net.pi.runtime.PiMatchKey;
+import org.onosproject.net.pi.runtime.PiTableEntry;
+import org.onosproject.net.pi.runtime.PiTableEntryHandle;
+import org.onosproject.net.pi.runtime.PiTernaryFieldMatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Tests for the table digest.
+ */
+public class TableDigestTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("device:1");
+    private static final PiTableId TABLE = PiTableId.of("ingress.table");
+    private static final PiTableId OTHER_TABLE = PiTableId.of("ingress.other");
+    private static final PiMatchFieldId FIELD1 = PiMatchFieldId.of("hdr.field1");
+    private static final PiMatchFieldId FIELD2 = PiMatchFieldId.of("hdr.field2");
+
+    private static PiTableEntryHandle handle(PiTableId tableId, int priority, PiFieldMatch... fieldMatches) {
+        return PiTableEntry.builder()
+                .forTable(tableId)
+                .withMatchKey(PiMatchKey.builder().addFieldMatches(ImmutableList.copyOf(fieldMatches)).build())
+                .withAction(PiAction.builder().withId(PiActionId.of("ingress.drop")).build())
+                .withPriority(priority)
+                .build()
+                .handle(DID);
+    }
+
+    private static PiFieldMatch exact(PiMatchFieldId fieldId, int value) {
+        return new PiExactFieldMatch(fieldId, ImmutableByteSequence.copyFrom(value));
+    }
+
+    private static PiFieldMatch ternary(PiMatchFieldId fieldId, int value, int mask) {
+        return new PiTernaryFieldMatch(fieldId, ImmutableByteSequence.copyFrom(value),
+                                       ImmutableByteSequence.copyFrom(mask));
+    }
+
+    private static PiFieldMatch lpm(PiMatchFieldId fieldId, int value, int prefixLength) {
+        return new PiLpmFieldMatch(fieldId, ImmutableByteSequence.copyFrom(value), prefixLength);
+    }
+
+    private static final PiTableEntryHandle H1 = handle(TABLE, 1, exact(FIELD1, 1));
+    private static final PiTableEntryHandle H2 = handle(TABLE, 1, exact(FIELD1, 2));
+    private static final PiTableEntryHandle H3 = handle(TABLE, 2, ternary(FIELD1, 3, 0xff), lpm(FIELD2, 4, 8));
+
+    /**
+     * Tests the digest of an empty table.
+     */
+    @Test
+    public void empty() {
+        assertEquals("incorrect digest", TableDigest.EMPTY, TableDigest.of(ImmutableList.of()));
+        assertEquals("incorrect size", 0, TableDigest.EMPTY.size());
+    }
+
+    /**
+     * Tests that digests do not depend on the order of the entries and can
+     * be updated incrementally.
+     */
+    @Test
+    public void incremental() {
+        TableDigest digest = TableDigest.of(ImmutableList.of(H1, H2, H3));
+        assertEquals("incorrect size", 3, digest.size());
+        assertEquals("order should not matter", digest, TableDigest.of(ImmutableList.of(H3, H1, H2)));
+        assertEquals("incorrect added digest", digest, TableDigest.EMPTY.add(H2).add(H3).add(H1));
+        assertEquals("incorrect removed digest", TableDigest.of(ImmutableList.of(H1, H3)), digest.remove(H2));
+        assertEquals("incorrect removed digest", TableDigest.EMPTY, digest.remove(H1).remove(H3).remove(H2));
+    }
+
+    /**
+     * Tests that digests depend on the values of the handle fields only.
+     */
+    @Test
+    public void contentBased() {
+        assertEquals("equal handles should have equal digests",
+                     TableDigest.of(ImmutableList.of(H3)),
+                     TableDigest.of(ImmutableList.of(
+                             handle(TABLE, 2, lpm(FIELD2, 4, 8), ternary(FIELD1, 3, 0xff)))));
+
+        TableDigest digest = TableDigest.of(ImmutableList.of(H1));
+        assertNotEquals("values should matter", digest, TableDigest.of(ImmutableList.of(H2)));
+        assertNotEquals("priorities should matter", digest,
+                        TableDigest.of(ImmutableList.of(handle(TABLE, 2, exact(FIELD1, 1)))));
+        assertNotEquals("tables should matter", digest,
+                        TableDigest.of(ImmutableList.of(handle(OTHER_TABLE, 1, exact(FIELD1, 1)))));
+        assertNotEquals("fields should matter", digest,
+                        TableDigest.of(ImmutableList.of(handle(TABLE, 1, exact(FIELD2, 1)))));
+        assertNotEquals("masks should matter", TableDigest.of(ImmutableList.of(H3)),
+                        TableDigest.of(ImmutableList.of(
+                                handle(TABLE, 2, ternary(FIELD1, 3, 0xf0), lpm(FIELD2, 4, 8)))));
+        assertNotEquals("prefix lengths should matter", TableDigest.of(ImmutableList.of(H3)),
+                        TableDigest.of(ImmutableList.of(
+                                handle(TABLE, 2, ternary(FIELD1, 3, 0xff), lpm(FIELD2, 4, 16)))));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.drivers.p4runtime.mirror;
+
+import com.google.common.collect.Maps;
+import org.onosproject.net.Annotations;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.PiTableId;
+import org.onosproject.net.pi.runtime.PiTableEntry;
+import org.onosproject.net.pi.runtime.PiTableEntryHandle;
+import org.onosproject.p4runtime.api.P4RuntimeWriteClient;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Table mirror backed by a map, which computes digests from its content.
+ */
+public class TestP4RuntimeTableMirror implements P4RuntimeTableMirror {
+
+    private final Map<PiTableEntryHandle, TimedEntry<PiTableEntry>> entries = Maps.newConcurrentMap();
+
+    @Override
+    public TableDigest digest(DeviceId deviceId, PiTableId tableId) {
+        return TableDigest.of(entries.keySet().stream()
+                                      .filter(h -> h.deviceId().equals(deviceId))
+                                      .filter(h -> h.tableId().equals(tableId))
+                                      .filter(h -> !h.matchKey().fieldMatches().isEmpty())
+                                      .collect(Collectors.toList()));
+    }
+
+    @Override
+    public Collection<TimedEntry<PiTableEntry>> getAll(DeviceId deviceId) {
+        return entries.entrySet().stream()
+                .filter(e -> e.getKey().deviceId().equals(deviceId))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public TimedEntry<PiTableEntry> get(PiTableEntryHandle handle) {
+        return entries.get(handle);
+    }
+
+    @Override
+    public void put(PiTableEntryHandle handle, PiTableEntry entry) {
+        entries.put(handle, new TimedEntry<>(System.currentTimeMillis(), entry));
+    }
+
+    @Override
+    public void remove(PiTableEntryHandle handle) {
+        entries.remove(handle);
+    }
+
+    @Override
+    public void putAnnotations(PiTableEntryHandle handle, Annotations annotations) {
+    }
+
+    @Override
+    public Annotations annotations(PiTableEntryHandle handle) {
+        return null;
+    }
+
+    @Override
+    public void sync(DeviceId deviceId, Collection<PiTableEntry> entities) {
+        entries.keySet().removeIf(h -> h.deviceId().equals(deviceId));
+        entities.forEach(e -> put(e.handle(deviceId), e));
+    }
+
+    @Override
+    public void applyWriteRequest(P4RuntimeWriteClient.WriteRequest request) {
+    }
+
+    @Override
+    public void applyWriteResponse(P4RuntimeWriteClient.WriteResponse response) {
+    }
+}
@@ -23,9 +23,11 @@ import gnmi.Gnmi.GetResponse;
 import gnmi.Gnmi.SetRequest;
 import gnmi.Gnmi.SetResponse;
 import gnmi.Gnmi.SubscribeRequest;
+import gnmi.Gnmi.SubscribeResponse;
 import org.onosproject.grpc.api.GrpcClient;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Client to control a gNMI server.
@@ -70,4 +72,29 @@ public interface GnmiClient extends GrpcClient {
      * Terminates any Subscribe RPC active.
      */
     void unsubscribe();
+
+    /**
+     * Starts a named subscription for the given request, whose responses are
+     * passed to the given consumer instead of being notified as controller
+     * events. The next response is not read from the channel until the
+     * consumer returns, such that slow consumers are throttled by gRPC flow
+     * control. As for {@link #subscribe(SubscribeRequest)}, the Subscribe RPC
+     * is kept active despite channel or server failures, until
+     * {@link #unsubscribe(String)} is called. Subscribing again with the same
+     * name replaces the previous subscription, unless both the request and
+     * the consumer are the same.
+     *
+     * @param name     subscription name
+     * @param request  the subscribe request
+     * @param consumer consumer of the subscribe responses
+     */
+    void subscribe(String name, SubscribeRequest request,
+                   Consumer<SubscribeResponse> consumer);
+
+    /**
+     * Terminates the named subscription, if any.
+     *
+     * @param name subscription name
+     */
+    void unsubscribe(String name);
 }
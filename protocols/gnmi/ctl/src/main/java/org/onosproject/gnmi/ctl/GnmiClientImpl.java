@@ -25,15 +25,20 @@ import gnmi.Gnmi.PathElem;
 import gnmi.Gnmi.SetRequest;
 import gnmi.Gnmi.SetResponse;
 import gnmi.Gnmi.SubscribeRequest;
+import gnmi.Gnmi.SubscribeResponse;
 import gnmi.gNMIGrpc;
 import io.grpc.ManagedChannel;
 import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import org.onosproject.gnmi.api.GnmiClient;
+import org.onosproject.gnmi.api.GnmiEvent;
+import org.onosproject.gnmi.api.GnmiUpdate;
 import org.onosproject.grpc.ctl.AbstractGrpcClient;
 import org.onosproject.net.DeviceId;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -50,12 +55,17 @@ public class GnmiClientImpl extends AbstractGrpcClient implements GnmiClient {
             ).build()).build();
 
     private GnmiSubscriptionManager subscribeManager;
+    private final ConcurrentMap<String, GnmiSubscriptionManager> namedSubscriptions =
+            new ConcurrentHashMap<>();
 
     GnmiClientImpl(DeviceId deviceId, ManagedChannel managedChannel,
                    GnmiControllerImpl controller) {
         super(deviceId, managedChannel, false, controller);
-        this.subscribeManager =
-                new GnmiSubscriptionManager(this, deviceId, controller);
+        this.subscribeManager = new GnmiSubscriptionManager(
+                this, deviceId, response -> controller.postEvent(new GnmiEvent(
+                        GnmiEvent.Type.UPDATE,
+                        new GnmiUpdate(deviceId, response.getUpdate(),
+                                       response.getSyncResponse()))));
     }
 
     @Override
@@ -120,6 +130,31 @@ public class GnmiClientImpl extends AbstractGrpcClient implements GnmiClient {
         subscribeManager.unsubscribe();
     }
 
+    @Override
+    public void subscribe(String name, SubscribeRequest request,
+                          Consumer<SubscribeResponse> consumer) {
+        namedSubscriptions.compute(name, (n, manager) -> {
+            if (manager != null && manager.consumer() != consumer) {
+                manager.shutdown();
+                manager = null;
+            }
+            if (manager == null) {
+                manager = new GnmiSubscriptionManager(this, deviceId, consumer);
+            }
+            // Same request as the active one is a no-op.
+            manager.subscribe(request);
+            return manager;
+        });
+    }
+
+    @Override
+    public void unsubscribe(String name) {
+        GnmiSubscriptionManager manager = namedSubscriptions.remove(name);
+        if (manager != null) {
+            manager.shutdown();
+        }
+    }
+
     @Override
     public CompletableFuture<Boolean> probeService() {
         final CompletableFuture<Boolean> future = new CompletableFuture<>();
@@ -151,6 +186,8 @@ public class GnmiClientImpl extends AbstractGrpcClient implements GnmiClient {
     @Override
     public void shutdown() {
         subscribeManager.shutdown();
+        namedSubscriptions.values().forEach(GnmiSubscriptionManager::shutdown);
+        namedSubscriptions.clear();
         super.shutdown();
     }
 
@@ -17,31 +17,32 @@
 package org.onosproject.gnmi.ctl;
 
 
-import com.google.common.util.concurrent.Futures;
 import gnmi.Gnmi;
 import io.grpc.StatusRuntimeException;
 import io.grpc.stub.ClientCallStreamObserver;
 import io.grpc.stub.StreamObserver;
-import org.onosproject.gnmi.api.GnmiEvent;
-import org.onosproject.gnmi.api.GnmiUpdate;
+import org.onlab.util.SharedScheduledExecutors;
 import org.onosproject.net.DeviceId;
 import org.slf4j.Logger;
 
 import java.net.ConnectException;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static java.lang.String.format;
-import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
-import static org.onlab.util.Tools.groupedThreads;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * A manager for the gNMI Subscribe RPC that opportunistically starts new RPC
- * (e.g. when one fails because of errors) and posts subscribe events via the
- * gNMI controller.
+ * (e.g. when one fails because of errors) and hands the subscribe responses
+ * to a consumer, e.g. posting them as events via the gNMI controller.
+ * <p>
+ * Responses are handed to the consumer on the gRPC thread reading the
+ * stream, and the next response is not read until the consumer returns,
+ * so that a slow consumer pushes back on the device through gRPC flow
+ * control.
  */
 final class GnmiSubscriptionManager {
 
@@ -52,11 +53,9 @@ final class GnmiSubscriptionManager {
 
     private final GnmiClientImpl client;
     private final DeviceId deviceId;
-    private final GnmiControllerImpl controller;
+    private final Consumer<Gnmi.SubscribeResponse> consumer;
     private final StreamObserver<Gnmi.SubscribeResponse> responseObserver;
 
-    private final ScheduledExecutorService streamCheckerExecutor =
-            newSingleThreadScheduledExecutor(groupedThreads("onos/gnmi-subscribe-check", "%d", log));
     private Future<?> checkTask;
 
     private ClientCallStreamObserver<Gnmi.SubscribeRequest> requestObserver;
@@ -64,13 +63,22 @@ final class GnmiSubscriptionManager {
     private AtomicBoolean active = new AtomicBoolean(false);
 
     GnmiSubscriptionManager(GnmiClientImpl client, DeviceId deviceId,
-                            GnmiControllerImpl controller) {
+                            Consumer<Gnmi.SubscribeResponse> consumer) {
         this.client = client;
         this.deviceId = deviceId;
-        this.controller = controller;
+        this.consumer = consumer;
         this.responseObserver = new InternalStreamResponseObserver();
     }
 
+    /**
+     * Returns the consumer of the subscribe responses.
+     *
+     * @return response consumer
+     */
+    Consumer<Gnmi.SubscribeResponse> consumer() {
+        return consumer;
+    }
+
     void subscribe(Gnmi.SubscribeRequest request) {
         synchronized (this) {
             if (existingSubscription != null) {
@@ -87,11 +95,14 @@ final class GnmiSubscriptionManager {
             }
             existingSubscription = request;
             sendSubscribeRequest();
-            if (checkTask != null) {
-                checkTask = streamCheckerExecutor.scheduleAtFixedRate(
-                        this::checkSubscription, 0,
+            if (checkTask == null) {
+                // Tasks of the shared pool must not block, the server is
+                // probed asynchronously.
+                checkTask = SharedScheduledExecutors.getPoolThreadExecutor().scheduleAtFixedRate(
+                        this::checkSubscription,
                         DEFAULT_RECONNECT_DELAY,
-                        TimeUnit.SECONDS);
+                        DEFAULT_RECONNECT_DELAY,
+                        TimeUnit.SECONDS, true);
             }
         }
     }
@@ -110,19 +121,33 @@ final class GnmiSubscriptionManager {
     public void shutdown() {
         log.debug("Shutting down gNMI subscription manager for {}", deviceId);
         unsubscribe();
-        streamCheckerExecutor.shutdownNow();
     }
 
     private void checkSubscription() {
+        synchronized (this) {
+            if (existingSubscription == null || active.get()) {
+                return;
+            }
+        }
+        if (client.isServerReachable()) {
+            restartSubscription();
+            return;
+        }
+        client.probeService().thenAccept(reachable -> {
+            if (reachable) {
+                restartSubscription();
+            } else {
+                log.debug("Not restarting Subscribe RPC for {}, server is NOT reachable",
+                          deviceId);
+            }
+        });
+    }
+
+    private void restartSubscription() {
         synchronized (this) {
             if (existingSubscription != null && !active.get()) {
-                if (client.isServerReachable() || Futures.getUnchecked(client.probeService())) {
-                    log.info("Re-starting Subscribe RPC for {}...", deviceId);
-                    sendSubscribeRequest();
-                } else {
-                    log.debug("Not restarting Subscribe RPC for {}, server is NOT reachable",
-                              deviceId);
-                }
+                log.info("Re-starting Subscribe RPC for {}...", deviceId);
+                sendSubscribeRequest();
             }
         }
     }
@@ -164,8 +189,7 @@ final class GnmiSubscriptionManager {
                     log.trace("Received SubscribeResponse from {}: {}",
                               deviceId, message.toString());
                 }
-                controller.postEvent(new GnmiEvent(GnmiEvent.Type.UPDATE, new GnmiUpdate(
-                        deviceId, message.getUpdate(), message.getSyncResponse())));
+                consumer.accept(message);
             } catch (Throwable ex) {
                 log.error("Exception processing SubscribeResponse from " + deviceId,
                           ex);
@@ -196,15 +220,6 @@ final class GnmiSubscriptionManager {
             log.warn("Subscribe RPC for {} has completed", deviceId);
         }
     }
-
-    @Override
-    protected void finalize() throws Throwable {
-        if (!streamCheckerExecutor.isShutdown()) {
-            log.error("Finalizing object but executor is still active! BUG? Shutting down...");
-            shutdown();
-        }
-        super.finalize();
-    }
 }
 
 
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.gnmi.ctl;
+
+import com.google.common.collect.Lists;
+import gnmi.Gnmi.Notification;
+import gnmi.Gnmi.SubscribeRequest;
+import gnmi.Gnmi.SubscribeResponse;
+import gnmi.Gnmi.SubscriptionList;
+import gnmi.gNMIGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.easymock.EasyMock.niceMock;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the named subscriptions of the gNMI client.
+ */
+public class GnmiClientImplTest {
+
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("device:gnmi:1");
+    private static final String GRPC_SERVER_NAME = "GnmiClientImplTest";
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private static final SubscribeRequest REQUEST1 = request(1);
+    private static final SubscribeRequest REQUEST2 = request(2);
+
+    private static MockGnmiServer gnmiServer = new MockGnmiServer();
+    private static Server grpcServer;
+    private static ManagedChannel grpcChannel;
+
+    private GnmiClientImpl client;
+
+    @BeforeClass
+    public static void globalSetup() throws IOException {
+        grpcServer = InProcessServerBuilder.forName(GRPC_SERVER_NAME)
+                .directExecutor()
+                .addService(gnmiServer)
+                .build()
+                .start();
+        grpcChannel = InProcessChannelBuilder.forName(GRPC_SERVER_NAME).build();
+    }
+
+    @AfterClass
+    public static void globalTearDown() {
+        grpcServer.shutdown();
+        grpcChannel.shutdown();
+    }
+
+    @Before
+    public void setup() {
+        gnmiServer.streams.clear();
+        GnmiControllerImpl controller = niceMock(GnmiControllerImpl.class);
+        replay(controller);
+        client = new GnmiClientImpl(DEVICE_ID, grpcChannel, controller);
+    }
+
+    @After
+    public void teardown() {
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    /**
+     * Tests that each named subscription has its own Subscribe RPC, whose
+     * responses go to its consumer, and which is terminated on unsubscribe.
+     */
+    @Test
+    public void testSubscribeUnsubscribe() throws Exception {
+        BlockingQueue<SubscribeResponse> responsesA = new LinkedBlockingQueue<>();
+        BlockingQueue<SubscribeResponse> responsesB = new LinkedBlockingQueue<>();
+
+        client.subscribe("a", REQUEST1, responsesA::add);
+        client.subscribe("b", REQUEST2, responsesB::add);
+        assertEquals(1, poll(responsesA).getUpdate().getUpdateCount());
+        assertEquals(2, poll(responsesB).getUpdate().getUpdateCount());
+        MockStream streamA = gnmiServer.stream(0);
+        MockStream streamB = gnmiServer.stream(1);
+        assertEquals(Lists.newArrayList(REQUEST1), streamA.requests);
+        assertEquals(Lists.newArrayList(REQUEST2), streamB.requests);
+
+        client.unsubscribe("a");
+        streamA.closed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertFalse(streamB.closed.isDone());
+        streamA.send(response(3));
+        streamB.send(response(4));
+        assertEquals(4, poll(responsesB).getUpdate().getUpdateCount());
+        assertTrue(responsesA.isEmpty());
+
+        // Unknown name.
+        client.unsubscribe("a");
+        assertFalse(streamB.closed.isDone());
+
+        client.shutdown();
+        client = null;
+        streamB.closed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(2, gnmiServer.streams.size());
+    }
+
+    /**
+     * Tests that subscribing again with the same name restarts the
+     * Subscribe RPC only if the request or the consumer changed.
+     */
+    @Test
+    public void testResubscribe() throws Exception {
+        BlockingQueue<SubscribeResponse> responses1 = new LinkedBlockingQueue<>();
+        BlockingQueue<SubscribeResponse> responses2 = new LinkedBlockingQueue<>();
+        Consumer<SubscribeResponse> consumer1 = responses1::add;
+        Consumer<SubscribeResponse> consumer2 = responses2::add;
+
+        client.subscribe("a", REQUEST1, consumer1);
+        assertEquals(1, poll(responses1).getUpdate().getUpdateCount());
+        client.subscribe("a", REQUEST1, consumer1);
+        MockStream stream1 = gnmiServer.stream(0);
+        assertEquals(1, gnmiServer.streams.size());
+        assertEquals(Lists.newArrayList(REQUEST1), stream1.requests);
+
+        // New request, same consumer.
+        client.subscribe("a", REQUEST2, consumer1);
+        assertEquals(2, poll(responses1).getUpdate().getUpdateCount());
+        stream1.closed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        MockStream stream2 = gnmiServer.stream(1);
+        assertEquals(Lists.newArrayList(REQUEST2), stream2.requests);
+
+        // Same request, new consumer.
+        client.subscribe("a", REQUEST2, consumer2);
+        assertEquals(2, poll(responses2).getUpdate().getUpdateCount());
+        stream2.closed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        MockStream stream3 = gnmiServer.stream(2);
+        assertEquals(Lists.newArrayList(REQUEST2), stream3.requests);
+        assertTrue(responses1.isEmpty());
+        assertEquals(3, gnmiServer.streams.size());
+    }
+
+    private static SubscribeResponse poll(BlockingQueue<SubscribeResponse> responses)
+            throws InterruptedException {
+        return responses.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static SubscribeRequest request(int subscriptions) {
+        SubscriptionList.Builder subscriptionList = SubscriptionList.newBuilder()
+                .setMode(SubscriptionList.Mode.STREAM);
+        for (int i = 0; i < subscriptions; i++) {
+            subscriptionList.addSubscriptionBuilder();
+        }
+        return SubscribeRequest.newBuilder().setSubscribe(subscriptionList).build();
+    }
+
+    private static SubscribeResponse response(int updates) {
+        Notification.Builder notification = Notification.newBuilder();
+        for (int i = 0; i < updates; i++) {
+            notification.addUpdateBuilder();
+        }
+        return SubscribeResponse.newBuilder().setUpdate(notification).build();
+    }
+
+    /**
+     * Subscribe RPC received by the mock server.
+     */
+    private static class MockStream {
+
+        private final StreamObserver<SubscribeResponse> responseObserver;
+        private final List<SubscribeRequest> requests = Lists.newCopyOnWriteArrayList();
+        private final CompletableFuture<Void> closed = new CompletableFuture<>();
+
+        MockStream(StreamObserver<SubscribeResponse> responseObserver) {
+            this.responseObserver = responseObserver;
+        }
+
+        void send(SubscribeResponse response) {
+            if (!closed.isDone()) {
+                responseObserver.onNext(response);
+            }
+        }
+    }
+
+    /**
+     * gNMI server answering each subscribe request with a notification of
+     * as many updates as the request has subscriptions.
+     */
+    private static class MockGnmiServer extends gNMIGrpc.gNMIImplBase {
+
+        private final List<MockStream> streams = Lists.newCopyOnWriteArrayList();
+
+        MockStream stream(int index) {
+            assertTrue(index < streams.size());
+            return streams.get(index);
+        }
+
+        @Override
+        public StreamObserver<SubscribeRequest> subscribe(
+                StreamObserver<SubscribeResponse> responseObserver) {
+            MockStream stream = new MockStream(responseObserver);
+            streams.add(stream);
+            return new StreamObserver<SubscribeRequest>() {
+                @Override
+                public void onNext(SubscribeRequest request) {
+                    stream.requests.add(request);
+                    stream.send(response(request.getSubscribe().getSubscriptionCount()));
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    stream.closed.complete(null);
+                }
+
+                @Override
+                public void onCompleted() {
+                    stream.closed.complete(null);
+                }
+            };
+        }
+    }
+}
@@ -25,8 +25,13 @@ import io.grpc.internal.DnsNameResolverProvider;
 import io.grpc.internal.PickFirstLoadBalancerProvider;
 import io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.NettyChannelBuilder;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.grpc.api.GrpcChannelController;
@@ -46,6 +51,8 @@ import java.util.Dictionary;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
@@ -54,8 +61,13 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.lang.String.format;
+import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.grpc.ctl.OsgiPropertyConstants.ENABLE_MESSAGE_LOG;
 import static org.onosproject.grpc.ctl.OsgiPropertyConstants.ENABLE_MESSAGE_LOG_DEFAULT;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.EVENT_LOOP_THREADS;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.EVENT_LOOP_THREADS_DEFAULT;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.EXECUTOR_THREADS;
+import static org.onosproject.grpc.ctl.OsgiPropertyConstants.EXECUTOR_THREADS_DEFAULT;
 
 /**
  * Default implementation of the GrpcChannelController.
@@ -63,6 +75,8 @@ import static org.onosproject.grpc.ctl.OsgiPropertyConstants.ENABLE_MESSAGE_LOG_
 @Component(immediate = true, service = GrpcChannelController.class,
         property = {
                 ENABLE_MESSAGE_LOG + ":Boolean=" + ENABLE_MESSAGE_LOG_DEFAULT,
+                EVENT_LOOP_THREADS + ":Integer=" + EVENT_LOOP_THREADS_DEFAULT,
+                EXECUTOR_THREADS + ":Integer=" + EXECUTOR_THREADS_DEFAULT,
         })
 public class GrpcChannelControllerImpl implements GrpcChannelController {
 
@@ -72,6 +86,8 @@ public class GrpcChannelControllerImpl implements GrpcChannelController {
     private static final int DEFAULT_MAX_INBOUND_MSG_SIZE = 256; // Megabytes.
     private static final int MEGABYTES = 1024 * 1024;
 
+    private static final String METRICS_COMPONENT = "GrpcChannel";
+
     private static final PickFirstLoadBalancerProvider PICK_FIRST_LOAD_BALANCER_PROVIDER =
             new PickFirstLoadBalancerProvider();
     private static final DnsNameResolverProvider DNS_NAME_RESOLVER_PROVIDER =
@@ -80,29 +96,64 @@ public class GrpcChannelControllerImpl implements GrpcChannelController {
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected ComponentConfigService componentConfigService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected MetricsService metricsService;
+
     /**
      * Indicates whether to log gRPC messages.
      */
     private final AtomicBoolean enableMessageLog = new AtomicBoolean(
             ENABLE_MESSAGE_LOG_DEFAULT);
 
+    /**
+     * Number of Netty event loop threads shared by all channels, applied at
+     * activation; default is the number of cores.
+     */
+    private int eventLoopThreads = EVENT_LOOP_THREADS_DEFAULT;
+
+    /**
+     * Number of threads running the call callbacks of all channels, applied
+     * at activation; default is a cached thread pool, as callbacks might
+     * block.
+     */
+    private int executorThreads = EXECUTOR_THREADS_DEFAULT;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private Map<URI, ManagedChannel> channels;
     private Map<URI, GrpcLoggingInterceptor> interceptors;
+    private Map<URI, GrpcChannelMetrics> channelMetrics;
+
+    // Event loop group and executor shared by the Netty channels.
+    private EventLoopGroup eventLoopGroup;
+    private ExecutorService executor;
+    private MetricsComponent metricsComponent;
 
     private final Striped<Lock> channelLocks = Striped.lock(30);
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
         componentConfigService.registerProperties(getClass());
+        modified(context);
         channels = new ConcurrentHashMap<>();
         interceptors = new ConcurrentHashMap<>();
+        channelMetrics = new ConcurrentHashMap<>();
+        final int loopThreads = eventLoopThreads > 0
+                ? eventLoopThreads : Runtime.getRuntime().availableProcessors();
+        eventLoopGroup = new NioEventLoopGroup(
+                loopThreads, groupedThreads("onos/grpc", "event-loop-%d", log));
+        executor = executorThreads > 0
+                ? Executors.newFixedThreadPool(
+                        executorThreads, groupedThreads("onos/grpc", "executor-%d", log))
+                : Executors.newCachedThreadPool(groupedThreads("onos/grpc", "executor-%d", log));
+        if (metricsService != null) {
+            metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+        }
         LoadBalancerRegistry.getDefaultRegistry()
                 .register(PICK_FIRST_LOAD_BALANCER_PROVIDER);
         NameResolverRegistry.getDefaultRegistry()
                 .register(DNS_NAME_RESOLVER_PROVIDER);
-        log.info("Started");
+        log.info("Started with {} shared event loop threads", loopThreads);
     }
 
     @Modified
@@ -113,9 +164,22 @@ public class GrpcChannelControllerImpl implements GrpcChannelController {
                     properties, ENABLE_MESSAGE_LOG, ENABLE_MESSAGE_LOG_DEFAULT));
             log.info("Configured. Logging of gRPC messages is {}",
                      enableMessageLog.get() ? "ENABLED" : "DISABLED");
+            // Thread pools are shared by live channels, changes apply at
+            // the next activation.
+            eventLoopThreads = threadsProperty(properties, EVENT_LOOP_THREADS, eventLoopThreads);
+            executorThreads = threadsProperty(properties, EXECUTOR_THREADS, executorThreads);
         }
     }
 
+    private int threadsProperty(Dictionary<?, ?> properties, String name, int current) {
+        final int value = Tools.getIntegerProperty(properties, name, current);
+        if (value < 0) {
+            log.warn("{} must not be negative, using current value of {}", name, current);
+            return current;
+        }
+        return value;
+    }
+
     @Deactivate
     public void deactivate() {
         LoadBalancerRegistry.getDefaultRegistry()
@@ -129,6 +193,16 @@ public class GrpcChannelControllerImpl implements GrpcChannelController {
         interceptors.values().forEach(GrpcLoggingInterceptor::close);
         interceptors.clear();
         interceptors = null;
+        if (metricsComponent != null) {
+            channelMetrics.values().forEach(m -> m.remove(metricsService, metricsComponent));
+            metricsComponent = null;
+        }
+        channelMetrics.clear();
+        channelMetrics = null;
+        eventLoopGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+        eventLoopGroup = null;
+        executor.shutdownNow();
+        executor = null;
         log.info("Stopped");
     }
 
@@ -151,14 +225,28 @@ public class GrpcChannelControllerImpl implements GrpcChannelController {
 
             log.info("Creating new gRPC channel {}...", channelUri);
 
+            if (channelBuilder instanceof NettyChannelBuilder) {
+                // Share threads among all channels, instead of leaving each
+                // builder to pick its own.
+                ((NettyChannelBuilder) channelBuilder)
+                        .eventLoopGroup(eventLoopGroup)
+                        .channelType(NioSocketChannel.class)
+                        .executor(executor);
+            }
+
             final GrpcLoggingInterceptor interceptor = new GrpcLoggingInterceptor(
                     channelUri, enableMessageLog);
-            channelBuilder.intercept(interceptor);
+            final GrpcChannelMetrics metrics = new GrpcChannelMetrics(channelUri);
+            channelBuilder.intercept(metrics, interceptor);
 
             final ManagedChannel channel = channelBuilder.build();
 
-            channels.put(channelUri, channelBuilder.build());
+            channels.put(channelUri, channel);
             interceptors.put(channelUri, interceptor);
+            channelMetrics.put(channelUri, metrics);
+            if (metricsComponent != null) {
+                metrics.register(metricsService, metricsComponent);
+            }
 
             return channel;
         } finally {
@@ -218,6 +306,10 @@ public class GrpcChannelControllerImpl implements GrpcChannelController {
             if (interceptor != null) {
                 interceptor.close();
             }
+            final GrpcChannelMetrics metrics = channelMetrics.remove(channelUri);
+            if (metrics != null && metricsComponent != null) {
+                metrics.remove(metricsService, metricsComponent);
+            }
         } finally {
             channelLocks.get(channelUri).unlock();
         }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.grpc.ctl;
+
+import com.codahale.metrics.Gauge;
+import com.google.protobuf.MessageLite;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * gRPC client interceptor that counts the calls, messages and bytes
+ * exchanged over a channel, exposing them as metrics.
+ * <p>
+ * Messages sent while the call is not ready, i.e. while the flow-control
+ * window of the stream is exhausted, are counted separately, as they are
+ * buffered in memory until the server consumes the previous ones.
+ */
+final class GrpcChannelMetrics implements ClientInterceptor {
+
+    private static final String ACTIVE_CALLS = "activeCalls";
+    private static final String MESSAGES_SENT = "messagesSent";
+    private static final String MESSAGES_RECEIVED = "messagesReceived";
+    private static final String BYTES_SENT = "bytesSent";
+    private static final String BYTES_RECEIVED = "bytesReceived";
+    private static final String MAX_MESSAGE_SENT = "maxMessageSent";
+    private static final String MAX_MESSAGE_RECEIVED = "maxMessageReceived";
+    private static final String FLOW_CONTROL_BLOCKED = "flowControlBlocked";
+
+    private final URI channelUri;
+    private final LongAdder activeCalls = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder messagesReceived = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final AtomicLong maxMessageSent = new AtomicLong();
+    private final AtomicLong maxMessageReceived = new AtomicLong();
+    private final LongAdder flowControlBlocked = new LongAdder();
+
+    GrpcChannelMetrics(URI channelUri) {
+        this.channelUri = channelUri;
+    }
+
+    /**
+     * Registers the metrics of this channel, under a feature named after the
+     * channel URI.
+     *
+     * @param metricsService metrics service
+     * @param component      metrics component
+     */
+    void register(MetricsService metricsService, MetricsComponent component) {
+        MetricsFeature feature = component.registerFeature(channelUri.toString());
+        metricsService.registerMetric(component, feature, ACTIVE_CALLS, (Gauge<Long>) activeCalls::sum);
+        metricsService.registerMetric(component, feature, MESSAGES_SENT, (Gauge<Long>) messagesSent::sum);
+        metricsService.registerMetric(component, feature, MESSAGES_RECEIVED, (Gauge<Long>) messagesReceived::sum);
+        metricsService.registerMetric(component, feature, BYTES_SENT, (Gauge<Long>) bytesSent::sum);
+        metricsService.registerMetric(component, feature, BYTES_RECEIVED, (Gauge<Long>) bytesReceived::sum);
+        metricsService.registerMetric(component, feature, MAX_MESSAGE_SENT, (Gauge<Long>) maxMessageSent::get);
+        metricsService.registerMetric(component, feature, MAX_MESSAGE_RECEIVED,
+                                      (Gauge<Long>) maxMessageReceived::get);
+        metricsService.registerMetric(component, feature, FLOW_CONTROL_BLOCKED,
+                                      (Gauge<Long>) flowControlBlocked::sum);
+    }
+
+    /**
+     * Removes the metrics of this channel.
+     *
+     * @param metricsService metrics service
+     * @param component      metrics component
+     */
+    void remove(MetricsService metricsService, MetricsComponent component) {
+        MetricsFeature feature = component.registerFeature(channelUri.toString());
+        metricsService.removeMetric(component, feature, ACTIVE_CALLS);
+        metricsService.removeMetric(component, feature, MESSAGES_SENT);
+        metricsService.removeMetric(component, feature, MESSAGES_RECEIVED);
+        metricsService.removeMetric(component, feature, BYTES_SENT);
+        metricsService.removeMetric(component, feature, BYTES_RECEIVED);
+        metricsService.removeMetric(component, feature, MAX_MESSAGE_SENT);
+        metricsService.removeMetric(component, feature, MAX_MESSAGE_RECEIVED);
+        metricsService.removeMetric(component, feature, FLOW_CONTROL_BLOCKED);
+    }
+
+    // Serialized size of protobuf messages, memoized by the messages
+    // themselves; other messages are not accounted for.
+    private static long sizeOf(Object message) {
+        return message instanceof MessageLite ? ((MessageLite) message).getSerializedSize() : 0;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+            MethodDescriptor<ReqT, RespT> methodDescriptor,
+            CallOptions callOptions, Channel channel) {
+        return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(
+                channel.newCall(methodDescriptor, callOptions)) {
+
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                activeCalls.increment();
+                Listener<RespT> listener = new ForwardingClientCallListener
+                        .SimpleForwardingClientCallListener<RespT>(responseListener) {
+                    @Override
+                    public void onMessage(RespT message) {
+                        long size = sizeOf(message);
+                        messagesReceived.increment();
+                        bytesReceived.add(size);
+                        maxMessageReceived.accumulateAndGet(size, Math::max);
+                        super.onMessage(message);
+                    }
+
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        activeCalls.decrement();
+                        super.onClose(status, trailers);
+                    }
+                };
+                super.start(listener, headers);
+            }
+
+            @Override
+            public void sendMessage(ReqT message) {
+                if (!isReady()) {
+                    flowControlBlocked.increment();
+                }
+                long size = sizeOf(message);
+                messagesSent.increment();
+                bytesSent.add(size);
+                maxMessageSent.accumulateAndGet(size, Math::max);
+                super.sendMessage(message);
+            }
+        };
+    }
+}
@@ -26,4 +26,10 @@ public final class OsgiPropertyConstants {
     public static final String ENABLE_MESSAGE_LOG = "enableMessageLog";
     public static final boolean ENABLE_MESSAGE_LOG_DEFAULT = false;
 
+    public static final String EVENT_LOOP_THREADS = "eventLoopThreads";
+    public static final int EVENT_LOOP_THREADS_DEFAULT = 0;
+
+    public static final String EXECUTOR_THREADS = "executorThreads";
+    public static final int EXECUTOR_THREADS_DEFAULT = 0;
+
 }
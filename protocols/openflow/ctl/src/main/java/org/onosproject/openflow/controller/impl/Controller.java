@@ -15,6 +15,8 @@
  */
 package org.onosproject.openflow.controller.impl;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
@@ -30,6 +32,9 @@ import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.concurrent.GlobalEventExecutor;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.ItemNotFoundException;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.config.NetworkConfigRegistry;
@@ -77,6 +82,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -108,6 +115,8 @@ public class Controller {
     // Configuration options
     protected List<Integer> openFlowPorts = ImmutableList.of(6633, 6653);
     protected int workerThreads = 0;
+    protected boolean sharedDispatcher = false;
+    protected int dispatcherThreads = 0;
     protected int[] cfgQueueSizes = {FIRST_QUEUE_SIZE, 0, 0, 0, 0, 0, 0, DEFAULT_QUEUE_SIZE};
     protected int[] cfgBulkSizes = new int[8];
 
@@ -119,6 +128,12 @@ public class Controller {
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
 
+    // Thread pool dispatching the messages of all channels, null unless the
+    // shared dispatcher is enabled, and the dispatching metrics if any
+    protected volatile ExecutorService dispatcherPool;
+    protected volatile Histogram[] queueDepths;
+    protected volatile Timer dispatchLatency;
+
     enum TlsMode {
         DISABLED, // TLS is not used for OpenFlow connections
         ENABLED,  // Clients are required use TLS and present a client certificate
@@ -264,6 +279,7 @@ public class Controller {
     public void setConfigParams(Dictionary<?, ?> properties) {
         boolean restartRequired = setOpenFlowPorts(properties);
         restartRequired |= setWorkerThreads(properties);
+        restartRequired |= setDispatcherParams(properties);
         restartRequired |= setTlsParameters(properties);
         if (restartRequired) {
             restart();
@@ -326,6 +342,54 @@ public class Controller {
         return oldValue != this.workerThreads; // restart if number of threads has changed
     }
 
+    /**
+     * Gets the shared dispatcher parameters from property dict.
+     *
+     * @param properties dictionary
+     * @return true if restart is required
+     */
+    private boolean setDispatcherParams(Dictionary<?, ?> properties) {
+        boolean oldShared = this.sharedDispatcher;
+        int oldThreads = this.dispatcherThreads;
+
+        String shared = get(properties, "sharedDispatcher");
+        if (!Strings.isNullOrEmpty(shared)) {
+            this.sharedDispatcher = Boolean.parseBoolean(shared);
+        }
+        String threads = get(properties, "dispatcherThreads");
+        if (!Strings.isNullOrEmpty(threads)) {
+            int value = Integer.parseInt(threads);
+            if (value < 0) {
+                throw new IllegalArgumentException("dispatcherThreads value must not be negative");
+            }
+            this.dispatcherThreads = value;
+        }
+        log.debug("Shared dispatcher {} with {} threads", this.sharedDispatcher ? "enabled" : "disabled",
+                  this.dispatcherThreads);
+
+        // restart so that the channels pick up the new dispatching mode
+        return oldShared != this.sharedDispatcher ||
+                (this.sharedDispatcher && oldThreads != this.dispatcherThreads);
+    }
+
+    /**
+     * Registers the metrics of the message dispatching, i.e. the depth of
+     * each dispatch queue when drained and, with the shared dispatcher, the
+     * time the channels wait for a dispatcher thread.
+     *
+     * @param metricsService metrics service
+     */
+    public void setDispatchMetrics(MetricsService metricsService) {
+        MetricsComponent component = metricsService.registerComponent("OpenFlowDispatcher");
+        MetricsFeature feature = component.registerFeature("queues");
+        Histogram[] depths = new Histogram[cfgQueueSizes.length];
+        for (int i = 0; i < depths.length; i++) {
+            depths[i] = metricsService.createHistogram(component, feature, "depthN" + i);
+        }
+        this.queueDepths = depths;
+        this.dispatchLatency = metricsService.createTimer(component, feature, "dispatchLatency");
+    }
+
     static class TlsParams {
         final TlsMode mode;
         final String ksLocation;
@@ -641,6 +705,11 @@ public class Controller {
         this.driverService = driverService;
         this.netCfgService = netCfgService;
         this.init();
+        if (sharedDispatcher) {
+            int threads = dispatcherThreads > 0 ? dispatcherThreads : Runtime.getRuntime().availableProcessors();
+            dispatcherPool = Executors.newFixedThreadPool(threads, groupedThreads("onos/of", "dispatcher-%d", log));
+            log.info("Using a shared dispatcher with {} threads", threads);
+        }
         this.addListeningPorts(this.openFlowPorts);
     }
 
@@ -664,6 +733,11 @@ public class Controller {
             log.warn("Interrupted while stopping", e);
             Thread.currentThread().interrupt();
         }
+
+        if (dispatcherPool != null) {
+            dispatcherPool.shutdownNow();
+            dispatcherPool = null;
+        }
     }
 
     private void restart() {
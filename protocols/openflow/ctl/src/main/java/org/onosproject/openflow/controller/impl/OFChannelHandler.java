@@ -40,10 +40,13 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
@@ -53,6 +56,7 @@ import org.osgi.service.component.annotations.ReferenceCardinality;
 import org.onlab.osgi.DefaultServiceDirectory;
 import org.onlab.packet.Ethernet;
 import org.onlab.packet.IpAddress;
+import org.onlab.util.OrderedExecutor;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.PortNumber;
@@ -107,6 +111,9 @@ import org.projectfloodlight.openflow.types.U32;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
@@ -217,7 +224,8 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
     /**
      * Single thread executor for OFMessage dispatching.
      *
-     * Gets initialized on channelActive, shutdown on channelInactive.
+     * Gets initialized on channelActive, unless the controller uses a shared
+     * dispatcher, shutdown on channelInactive.
      */
     private ExecutorService dispatcher;
 
@@ -228,6 +236,25 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
      */
     private Future<?> dispatcherHandle = CompletableFuture.completedFuture(null);
 
+    /**
+     * Shared thread pool dispatching the OFMessages in place of the dispatcher
+     * thread, or null if the controller does not use a shared dispatcher.
+     */
+    private final Executor dispatchPool;
+
+    /**
+     * Whether a dispatch round is scheduled on the shared dispatcher pool.
+     * <p>
+     * At most one round is scheduled at a time, so that the messages of the
+     * switch are handled in order.
+     */
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+
+    /**
+     * Whether the channel went inactive, its messages being discarded.
+     */
+    private volatile boolean dispatchStopped;
+
     /**
      * Dispatch backlog.
      * <p>
@@ -239,7 +266,7 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
      * Port Status executor to offload from the main thread the processing of port
      * status OF messages.
      */
-    protected ExecutorService portStatusExecutor;
+    protected Executor portStatusExecutor;
 
     /**
      * Create a new unconnected OFChannelHandler.
@@ -252,8 +279,13 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
         this.pendingPortStatusMsg = new CopyOnWriteArrayList<>();
         this.portDescReplies = new ArrayList<>();
         duplicateDpidFound = Boolean.FALSE;
-        portStatusExecutor = newSingleThreadExecutor(
-                groupedThreads("onos/of-channel-handler", "port-status-%d", log));
+        dispatchPool = controller.dispatcherPool;
+        if (dispatchPool != null) {
+            portStatusExecutor = new OrderedExecutor(dispatchPool);
+        } else {
+            portStatusExecutor = newSingleThreadExecutor(
+                    groupedThreads("onos/of-channel-handler", "port-status-%d", log));
+        }
         //Initialize queues and classifiers
         dispatchBacklog = new LinkedBlockingDeque<>(BACKLOG_READ_BUFFER_DEFAULT);
         for (int i = 0; i < NUM_OF_QUEUES; i++) {
@@ -920,7 +952,8 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
                 // getting blocked on the main thread and resulting other OF
                 // message being delayed.
                 // Ordering of the port status messages is guaranteed by portStatsExecutor
-                // being a single threaded executor.
+                // being a single threaded executor, or an ordered executor on top
+                // of the shared dispatcher pool.
                 // This executor will execute concurrently to the netty thread;
                 // meaning that the order is no more guaranteed like it was in the
                 // past between port status handling and the other events handled
@@ -930,12 +963,14 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
                 // is ignored here: https://github.com/opennetworkinglab/onos/blob/master/
                 // protocols/openflow/api/src/main/java/org/onosproject/openflow/controller/
                 // driver/AbstractOpenFlowSwitch.java#L279
-                h.portStatusExecutor.submit(() -> {
+                h.portStatusExecutor.execute(() -> {
                     try {
                         handlePortStatusMessage(h, m, true);
                     } catch (SwitchStateException e) {
                         log.error("SwitchStateException while processing " +
                                           "port status message {}", m, e);
+                    } catch (RuntimeException e) {
+                        log.error("Unable to process port status message {}", m, e);
                     }
                 });
                 //h.dispatchMessage(m);
@@ -1386,7 +1421,9 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
             channelId = channel.toString();
         }
 
-        dispatcher = Executors.newSingleThreadExecutor(groupedThreads("onos/of/dispatcher", channelId, log));
+        if (dispatchPool == null) {
+            dispatcher = Executors.newSingleThreadExecutor(groupedThreads("onos/of/dispatcher", channelId, log));
+        }
 
         /*
             hack to wait for the switch to tell us what it's
@@ -1404,6 +1441,7 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
         log.info("Switch disconnected callback for sw:{}. Cleaning up ...",
                  getSwitchInfoString());
 
+        dispatchStopped = true;
         if (dispatcher != null) {
             dispatcher.shutdownNow();
             dispatcher = null;
@@ -1498,7 +1536,7 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
                                IdleStateEvent e)
             throws IOException {
         // dispatcher terminated for some reason, restart
-        if (dispatcherHandle.isDone()) {
+        if (dispatcher != null && dispatcherHandle.isDone()) {
             dispatcherHandle = dispatcher.submit(new Dispatcher());
         }
         // drain the backlog
@@ -1575,6 +1613,11 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
      * Increment totalCount variable and send signal to executor.
      */
     private void incrementAndSignal() {
+        if (dispatchPool != null) {
+            totalCount.incrementAndGet();
+            scheduleDispatch();
+            return;
+        }
         try {
             totalCount.incrementAndGet();
             takeLock.lockInterruptibly();
@@ -1664,6 +1707,7 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
         List<OFMessage> msgs = new ArrayList<>();
         int processed;
         do {
+            recordQueueDepths();
             processed = 0;
             while (processed < queuesSize) {
                 for (LinkedBlockingMessagesQueue<OFMessage> queue :
@@ -1679,6 +1723,65 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
         } while (queuesSize > 0);
     }
 
+    /**
+     * Schedules a dispatch round on the shared dispatcher pool, unless one
+     * is already scheduled.
+     */
+    private void scheduleDispatch() {
+        if (!dispatchScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long scheduled = System.nanoTime();
+        try {
+            dispatchPool.execute(() -> dispatchRound(scheduled));
+        } catch (RejectedExecutionException e) {
+            // the controller is stopping
+            dispatchScheduled.set(false);
+            log.warn("Could not dispatch messages of {}: dispatcher stopped", getSwitchInfoString());
+        }
+    }
+
+    /**
+     * Dispatches a bulk of messages from each dispatch queue, then yields the
+     * shared dispatcher pool to the other switches by scheduling another
+     * round if messages are left.
+     *
+     * @param scheduled time the round was scheduled at, in nanoseconds
+     */
+    private void dispatchRound(long scheduled) {
+        Timer latency = controller.dispatchLatency;
+        if (latency != null) {
+            latency.update(System.nanoTime() - scheduled, TimeUnit.NANOSECONDS);
+        }
+        try {
+            if (!dispatchStopped) {
+                recordQueueDepths();
+                List<OFMessage> msgs = new ArrayList<>();
+                int processed = 0;
+                for (LinkedBlockingMessagesQueue<OFMessage> queue : dispatchQueuesMapProducer.values()) {
+                    processed += queue.drainTo(msgs);
+                }
+                totalCount.addAndGet(-1 * processed);
+                msgs.forEach(sw::handleMessage);
+            }
+        } finally {
+            dispatchScheduled.set(false);
+            if (!dispatchStopped && totalCount.get() > 0) {
+                scheduleDispatch();
+            }
+        }
+    }
+
+    /**
+     * Records the current depth of the dispatch queues, if metrics are enabled.
+     */
+    private void recordQueueDepths() {
+        Histogram[] depths = controller.queueDepths;
+        if (depths != null) {
+            dispatchQueuesMapProducer.values().forEach(queue -> depths[queue.idQueue()].update(queue.size()));
+        }
+    }
+
     private void dispatchMessage(OFMessage m) {
         log.debug("Begin dispatch OpenFlow Message");
         boolean backlogEmpty = processDispatchBacklogQueue();
@@ -1691,7 +1794,7 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
             }
         }
 
-        if (dispatcherHandle.isDone()) {
+        if (dispatcher != null && dispatcherHandle.isDone()) {
             // dispatcher terminated for some reason, restart
             dispatcherHandle = dispatcher.submit(new Dispatcher());
         }
@@ -18,6 +18,7 @@ package org.onosproject.openflow.controller.impl;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.CoreService;
 import org.onosproject.net.DeviceId;
@@ -103,6 +104,8 @@ import static org.onosproject.openflow.controller.impl.OsgiPropertyConstants.*;
         property = {
                 OFPORTS + "=" + OFPORTS_DEFAULT,
                 WORKER_THREADS + ":Integer=" + WORKER_THREADS_DEFAULT,
+                SHARED_DISPATCHER + ":Boolean=" + SHARED_DISPATCHER_DEFAULT,
+                DISPATCHER_THREADS + ":Integer=" + DISPATCHER_THREADS_DEFAULT,
                 TLS_MODE + "=" + TLS_MODE_DEFAULT,
                 KEY_STORE + "=" + KEY_STORE_DEFAULT,
                 KEY_STORE_PASSWORD + "=" + KEY_STORE_PASSWORD_DEFAULT,
@@ -152,6 +155,12 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     /** Number of controller worker threads. */
     private int workerThreads = WORKER_THREADS_DEFAULT;
 
+    /** Dispatch the messages of all switches with a shared thread pool rather than one thread per switch. */
+    private boolean sharedDispatcher = SHARED_DISPATCHER_DEFAULT;
+
+    /** Number of threads of the shared dispatcher; default is the number of cores. */
+    private int dispatcherThreads = DISPATCHER_THREADS_DEFAULT;
+
     /** TLS mode for OpenFlow channel; options are: disabled [default], enabled, strict. */
     private String tlsMode;
 
@@ -161,6 +170,9 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     protected OpenFlowService openFlowManager;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected MetricsService metricsService;
+
     private final OpenFlowListener openFlowListener = new InternalOpenFlowListener();
 
     /** Key store password. */
@@ -340,6 +352,9 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         cfgService.registerProperties(getClass());
         netCfgService.registerConfigFactory(factory);
         netCfgService.addListener(netCfgListener);
+        if (metricsService != null) {
+            ctrl.setDispatchMetrics(metricsService);
+        }
         ctrl.setConfigParams(context.getProperties());
         ctrl.start(agent, driverService, netCfgService);
         openFlowManager.addListener(openFlowListener);
@@ -31,6 +31,12 @@ public final class OsgiPropertyConstants {
     public static final String WORKER_THREADS = "workerThreads";
     public static final int WORKER_THREADS_DEFAULT = 0;
 
+    public static final String SHARED_DISPATCHER = "sharedDispatcher";
+    public static final boolean SHARED_DISPATCHER_DEFAULT = false;
+
+    public static final String DISPATCHER_THREADS = "dispatcherThreads";
+    public static final int DISPATCHER_THREADS_DEFAULT = 0;
+
     public static final String TLS_MODE = "tlsMode";
     public static final String TLS_MODE_DEFAULT = "";
 
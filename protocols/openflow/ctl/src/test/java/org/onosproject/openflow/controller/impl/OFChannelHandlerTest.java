@@ -21,11 +21,22 @@ import io.netty.channel.ChannelHandlerContext;
 import org.junit.Before;
 import org.junit.Test;
 import org.onosproject.openflow.ChannelHandlerContextAdapter;
+import org.onosproject.openflow.ExecutorServiceAdapter;
 import org.onosproject.openflow.MockOfPortStatus;
 import org.onosproject.openflow.OFDescStatsReplyAdapter;
 import org.onosproject.openflow.OpenflowSwitchDriverAdapter;
 import org.onosproject.openflow.controller.Dpid;
 import org.projectfloodlight.openflow.protocol.OFDescStatsReply;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowRemovedReason;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.types.TableId;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
 
 import static org.easymock.EasyMock.*;
 import static org.hamcrest.CoreMatchers.is;
@@ -157,4 +168,76 @@ public class OFChannelHandlerTest {
         verify(controller);
     }
 
+    // Dispatch through the shared dispatcher pool
+    @Test
+    public void testSharedDispatcher() throws Exception {
+        // Shared pool and dispatch queues holding 2 messages per bulk
+        ManualExecutorService pool = new ManualExecutorService();
+        reset(controller);
+        controller.dispatcherPool = pool;
+        for (int i = 0; i < OFChannelHandler.NUM_OF_QUEUES - 1; i++) {
+            expect(controller.getQueueSize(i)).andReturn(0);
+        }
+        expect(controller.getQueueSize(OFChannelHandler.NUM_OF_QUEUES - 1)).andReturn(10).times(2);
+        expect(controller.getBulkSize(OFChannelHandler.NUM_OF_QUEUES - 1)).andReturn(2);
+        OFDescStatsReply reply = new OFDescStatsReplyAdapter();
+        List<OFMessage> handled = new ArrayList<>();
+        expect(controller.getOFSwitchInstance(0, reply, OF_13)).andReturn(
+                new OpenflowSwitchDriverAdapter(ImmutableSet.of(), Dpid.dpid(Dpid.uri(0)), true) {
+                    @Override
+                    public void handleMessage(OFMessage fromSwitch) {
+                        handled.add(fromSwitch);
+                    }
+                });
+        replay(controller);
+
+        channelHandler = new OFChannelHandler(controller);
+        channelHandler.ofVersion = OF_13;
+        channelHandler.channelActive(channelHandlerContext);
+        channelHandler.setState(WAIT_DESCRIPTION_STAT_REPLY);
+        channelHandler.channelRead(channelHandlerContext, reply);
+        assertThat(channelHandler.getStateForTesting(), is(ACTIVE));
+
+        List<OFMessage> sent = new ArrayList<>();
+        OFFactory factory = OFFactories.getFactory(OF_13);
+        for (int i = 0; i < 5; i++) {
+            OFMessage m = factory.buildFlowRemoved()
+                    .setXid(i)
+                    .setReason(OFFlowRemovedReason.DELETE)
+                    .setTableId(TableId.ZERO)
+                    .setMatch(factory.matchWildcardAll())
+                    .build();
+            sent.add(m);
+            channelHandler.channelRead(channelHandlerContext, m);
+        }
+        // A single dispatch round is scheduled, handling the messages in order
+        assertThat(pool.tasks.size(), is(1));
+        assertThat(handled.isEmpty(), is(true));
+        pool.runAll();
+        assertThat(handled, is(sent));
+        assertThat(pool.rounds, is(3));
+
+        // Finally verify
+        verify(controller);
+    }
+
+    // Executor service running its tasks only when told to
+    private static final class ManualExecutorService extends ExecutorServiceAdapter {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private int rounds;
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                rounds++;
+                task.run();
+            }
+        }
+    }
+
 }
@@ -26,6 +26,7 @@ import org.onosproject.net.pi.runtime.PiHandle;
 
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * P4Runtime client interface for the Read RPC that allows reading multiple
@@ -216,10 +217,26 @@ public interface P4RuntimeReadClient {
          */
         ReadResponse submitSync();
 
-        //TODO: implement per-entity asynchronous reads. This would allow a user
-        // of this client to process read entities as they arrive, instead of
-        // waiting for the client to receive them all. Java 9 Reactive Streams
-        // seems a good way of doing it.
+        /**
+         * Submits the read request, passing each entity to the given consumer
+         * as soon as it is received and decoded by the P4Runtime client. The
+         * entities are not collected, hence the returned read response holds
+         * none of them and only tells if the request was successful. This
+         * allows processing large responses without buffering them.
+         *
+         * @param consumer consumer of the received entities
+         * @return completable future of a read response
+         */
+        CompletableFuture<ReadResponse> submit(Consumer<PiEntity> consumer);
+
+        /**
+         * Similar to {@link #submit(Consumer)}, but blocks until the operation
+         * is completed, after which, it returns a read response.
+         *
+         * @param consumer consumer of the received entities
+         * @return read response
+         */
+        ReadResponse submitSync(Consumer<PiEntity> consumer);
     }
 
     /**
@@ -71,6 +71,7 @@ public final class P4RuntimeClientImpl
     private final PiPipeconfService pipeconfService;
     private final MasterElectionIdStore masterElectionIdStore;
     private final ConcurrentMap<Long, StreamClientImpl> streamClients = Maps.newConcurrentMap();
+    private final ConcurrentMap<Long, WritePipeline> writePipelines = Maps.newConcurrentMap();
 
     /**
      * Instantiates a new client with the given arguments.
@@ -162,6 +163,11 @@ public final class P4RuntimeClientImpl
 
     @Override
     public WriteRequest write(long p4DeviceId, PiPipeconf pipeconf) {
+        if (controller.isWritePipeliningEnabled()) {
+            return new WriteRequestImpl(this, p4DeviceId, pipeconf, writePipelines.computeIfAbsent(
+                    p4DeviceId, id -> new WritePipeline(this, id, controller::writeBatchSize,
+                                                        controller::maxInFlightWrites)));
+        }
         return new WriteRequestImpl(this, p4DeviceId, pipeconf);
     }
 
@@ -16,11 +16,8 @@
 
 package org.onosproject.p4runtime.ctl.client;
 
-import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
-import com.google.common.collect.ListMultimap;
-import com.google.common.collect.Lists;
 import com.google.protobuf.TextFormat;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.pi.model.PiPipeconf;
@@ -31,7 +28,7 @@ import org.slf4j.Logger;
 import p4.v1.P4RuntimeOuterClass;
 
 import java.util.Collection;
-import java.util.List;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onosproject.p4runtime.ctl.codec.Codecs.CODECS;
@@ -91,7 +88,12 @@ public final class ReadResponseImpl implements P4RuntimeReadClient.ReadResponse
     }
 
     static Builder builder(DeviceId deviceId, PiPipeconf pipeconf) {
-        return new Builder(deviceId, pipeconf);
+        return new Builder(deviceId, pipeconf, null);
+    }
+
+    static Builder builder(DeviceId deviceId, PiPipeconf pipeconf,
+                           Consumer<PiEntity> consumer) {
+        return new Builder(deviceId, pipeconf, consumer);
     }
 
     /**
@@ -101,24 +103,36 @@ public final class ReadResponseImpl implements P4RuntimeReadClient.ReadResponse
 
         private final DeviceId deviceId;
         private final PiPipeconf pipeconf;
-        private final List<PiEntity> entities = Lists.newArrayList();
-        private final ListMultimap<Class<? extends PiEntity>, PiEntity>
-                typeToEntities = ArrayListMultimap.create();
+        // If set, entities are passed to the consumer instead of being
+        // collected in the response.
+        private final Consumer<PiEntity> consumer;
+        private final ImmutableList.Builder<PiEntity> entities = ImmutableList.builder();
+        private final ImmutableListMultimap.Builder<Class<? extends PiEntity>, PiEntity>
+                typeToEntities = ImmutableListMultimap.builder();
+
+        private boolean empty = true;
 
         private boolean success = true;
         private String explanation;
         private Throwable throwable;
 
-        private Builder(DeviceId deviceId, PiPipeconf pipeconf) {
+        private Builder(DeviceId deviceId, PiPipeconf pipeconf,
+                        Consumer<PiEntity> consumer) {
             this.deviceId = deviceId;
             this.pipeconf = pipeconf;
+            this.consumer = consumer;
         }
 
         void addEntity(P4RuntimeOuterClass.Entity entityMsg) {
             try {
                 final PiEntity piEntity = CODECS.entity().decode(entityMsg, null, pipeconf);
+                if (consumer != null) {
+                    consumer.accept(piEntity);
+                    return;
+                }
                 entities.add(piEntity);
                 typeToEntities.put(piEntity.getClass(), piEntity);
+                empty = false;
             } catch (CodecException e) {
                 log.warn("Unable to decode {} message from {}: {} [{}]",
                          entityMsg.getEntityCase().name(), deviceId,
@@ -135,12 +149,11 @@ public final class ReadResponseImpl implements P4RuntimeReadClient.ReadResponse
         }
 
         ReadResponseImpl build() {
-            if (success && entities.isEmpty()) {
+            if (success && empty) {
                 return EMPTY;
             }
             return new ReadResponseImpl(
-                    success, ImmutableList.copyOf(entities),
-                    ImmutableListMultimap.copyOf(typeToEntities),
+                    success, entities.build(), typeToEntities.build(),
                     explanation, throwable);
         }
     }
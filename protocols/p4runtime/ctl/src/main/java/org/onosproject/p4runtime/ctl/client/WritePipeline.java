@@ -0,0 +1,226 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.p4runtime.ctl.client;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.protobuf.Any;
+import com.google.protobuf.TextFormat;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.onosproject.net.pi.runtime.PiHandle;
+import org.onosproject.p4runtime.api.P4RuntimeWriteClient;
+import org.slf4j.Logger;
+import p4.v1.P4RuntimeOuterClass;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntSupplier;
+
+import static org.onosproject.p4runtime.ctl.client.P4RuntimeClientImpl.SHORT_TIMEOUT_SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Pipeline of the Write RPCs sent to a P4Runtime-internal device, which
+ * aggregates the updates of the write requests submitted by different callers
+ * into Write RPCs of bounded size, and bounds the number of RPCs in flight.
+ * <p>
+ * Requests are sent right away while fewer than the maximum number of RPCs
+ * are in flight. Otherwise they are queued, and the updates of the queued
+ * requests are sent together as soon as an RPC completes. The updates of a
+ * request are never split across RPCs, and the response to each request
+ * reports the status of its own updates only.
+ * <p>
+ * As the server may apply the updates of an RPC in any order, updates of
+ * different requests for the same entity are never sent in the same RPC.
+ * RPCs in flight at the same time may still be applied in any order, hence
+ * the submission order is preserved only with at most one RPC in flight.
+ */
+final class WritePipeline {
+
+    private static final Logger log = getLogger(WritePipeline.class);
+
+    private static final P4RuntimeOuterClass.WriteResponse P4RT_DEFAULT_WRITE_RESPONSE_MSG =
+            P4RuntimeOuterClass.WriteResponse.getDefaultInstance();
+
+    private final P4RuntimeClientImpl client;
+    private final long p4DeviceId;
+    private final IntSupplier maxBatchSize;
+    private final IntSupplier maxInFlight;
+
+    // Guarded by this.
+    private final Queue<PendingWrite> queue = new ArrayDeque<>();
+    private int inFlight;
+
+    /**
+     * Creates a new pipeline.
+     *
+     * @param client       P4Runtime client
+     * @param p4DeviceId   P4Runtime-internal device ID
+     * @param maxBatchSize supplier of the number of updates above which
+     *                     queued requests are sent in different RPCs
+     * @param maxInFlight  supplier of the maximum number of RPCs in flight
+     */
+    WritePipeline(P4RuntimeClientImpl client, long p4DeviceId,
+                  IntSupplier maxBatchSize, IntSupplier maxInFlight) {
+        this.client = client;
+        this.p4DeviceId = p4DeviceId;
+        this.maxBatchSize = maxBatchSize;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Submits the given updates of a write request, returning the response to
+     * the request once the RPC holding the updates has completed.
+     *
+     * @param updates         update messages of the request
+     * @param responseBuilder response builder of the request
+     * @return completable future of the write response
+     */
+    CompletableFuture<P4RuntimeWriteClient.WriteResponse> submit(
+            List<P4RuntimeOuterClass.Update> updates,
+            WriteResponseImpl.Builder responseBuilder) {
+        final PendingWrite write = new PendingWrite(updates, responseBuilder);
+        synchronized (this) {
+            queue.add(write);
+        }
+        dispatch();
+        return write.future;
+    }
+
+    private void dispatch() {
+        while (true) {
+            final List<PendingWrite> batch = Lists.newArrayList();
+            synchronized (this) {
+                if (queue.isEmpty() || inFlight >= Math.max(1, maxInFlight.getAsInt())) {
+                    return;
+                }
+                final Set<PiHandle> handles = Sets.newHashSet();
+                int size = 0;
+                while (!queue.isEmpty()) {
+                    final PendingWrite next = queue.peek();
+                    final int updates = next.updates.size();
+                    if (size > 0 && (size + updates > maxBatchSize.getAsInt()
+                            || !Collections.disjoint(handles, next.handles))) {
+                        break;
+                    }
+                    batch.add(queue.poll());
+                    handles.addAll(next.handles);
+                    size += updates;
+                }
+                inFlight++;
+            }
+            send(batch);
+        }
+    }
+
+    private void completed() {
+        synchronized (this) {
+            inFlight--;
+        }
+        dispatch();
+    }
+
+    private void send(List<PendingWrite> batch) {
+        final P4RuntimeOuterClass.WriteRequest.Builder requestMsg =
+                P4RuntimeOuterClass.WriteRequest.newBuilder()
+                        .setDeviceId(p4DeviceId)
+                        .setElectionId(client.lastUsedElectionId(p4DeviceId));
+        batch.forEach(write -> requestMsg.addAllUpdates(write.updates));
+        final P4RuntimeOuterClass.WriteRequest writeRequest = requestMsg.build();
+        log.debug("Sending write request to {} with {} updates of {} requests...",
+                  client.deviceId(), writeRequest.getUpdatesCount(), batch.size());
+        final StreamObserver<P4RuntimeOuterClass.WriteResponse> observer =
+                new StreamObserver<P4RuntimeOuterClass.WriteResponse>() {
+                    @Override
+                    public void onNext(P4RuntimeOuterClass.WriteResponse value) {
+                        if (!P4RT_DEFAULT_WRITE_RESPONSE_MSG.equals(value)) {
+                            log.warn("Received invalid WriteResponse message from {}: {}",
+                                     client.deviceId(), TextFormat.shortDebugString(value));
+                            // Leave all entity responses in pending state.
+                            batch.forEach(w -> w.future.complete(
+                                    w.responseBuilder.buildAsIs()));
+                        } else {
+                            log.debug("Received write response from {}...",
+                                      client.deviceId());
+                            batch.forEach(w -> w.future.complete(
+                                    w.responseBuilder.setSuccessAllAndBuild()));
+                        }
+                        completed();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        handleErrors(batch, writeRequest.getUpdatesCount(), t);
+                        completed();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        // Nothing to do, unary call.
+                    }
+                };
+        client.execRpc(s -> s.write(writeRequest, observer), SHORT_TIMEOUT_SECONDS);
+    }
+
+    private void handleErrors(List<PendingWrite> batch, int updateCount, Throwable t) {
+        final List<Any> errors = WriteResponseImpl.errorDetails(t, client.deviceId());
+        if (errors == null) {
+            client.handleRpcError(t, "WRITE");
+            batch.forEach(w -> w.future.complete(
+                    w.responseBuilder.setFailAllAndBuild(t)));
+            return;
+        }
+        if (errors.size() != updateCount) {
+            // Leave all entity responses in pending state.
+            log.warn("Unable to reconcile write error details from {}, " +
+                             "sent {} updates, but server returned {} errors: {}",
+                     client.deviceId(), updateCount, errors.size(),
+                     Status.fromThrowable(t).getDescription());
+            client.handleRpcError(t, "WRITE");
+            batch.forEach(w -> w.future.complete(w.responseBuilder.buildAsIs()));
+            return;
+        }
+        // Hand over to each request the errors of its own updates.
+        int offset = 0;
+        for (PendingWrite write : batch) {
+            final int size = write.updates.size();
+            write.future.complete(write.responseBuilder.setErrorsAndBuild(
+                    errors.subList(offset, offset + size)));
+            offset += size;
+        }
+    }
+
+    private static final class PendingWrite {
+        private final List<P4RuntimeOuterClass.Update> updates;
+        private final Set<PiHandle> handles = Sets.newHashSet();
+        private final WriteResponseImpl.Builder responseBuilder;
+        private final CompletableFuture<P4RuntimeWriteClient.WriteResponse> future =
+                new CompletableFuture<>();
+
+        private PendingWrite(List<P4RuntimeOuterClass.Update> updates,
+                             WriteResponseImpl.Builder responseBuilder) {
+            this.updates = updates;
+            this.responseBuilder = responseBuilder;
+            responseBuilder.pendingUpdates().forEach(u -> handles.add(u.handle()));
+        }
+    }
+}
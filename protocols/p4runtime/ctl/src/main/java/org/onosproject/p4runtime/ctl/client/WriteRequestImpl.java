@@ -61,10 +61,18 @@ final class WriteRequestImpl implements P4RuntimeWriteClient.WriteRequest {
     // entities to this request. The status of each entity response will be
     // set once we receive a response from the device.
     private final WriteResponseImpl.Builder responseBuilder;
+    // If not null, the pipeline through which the updates are written.
+    private final WritePipeline pipeline;
 
     WriteRequestImpl(P4RuntimeClientImpl client, long p4DeviceId, PiPipeconf pipeconf) {
+        this(client, p4DeviceId, pipeconf, null);
+    }
+
+    WriteRequestImpl(P4RuntimeClientImpl client, long p4DeviceId, PiPipeconf pipeconf,
+                     WritePipeline pipeline) {
         this.client = checkNotNull(client);
         this.pipeconf = checkNotNull(pipeconf);
+        this.pipeline = pipeline;
         this.requestMsg = P4RuntimeOuterClass.WriteRequest.newBuilder()
                 .setDeviceId(p4DeviceId);
         this.responseBuilder = WriteResponseImpl.builder(client.deviceId());
@@ -161,6 +169,10 @@ final class WriteRequestImpl implements P4RuntimeWriteClient.WriteRequest {
     public CompletableFuture<P4RuntimeWriteClient.WriteResponse> submit() {
         checkState(!submitted.getAndSet(true),
                    "Request has already been submitted, cannot submit again");
+        if (pipeline != null && requestMsg.getUpdatesCount() > 0) {
+            // The pipeline sets the election ID when sending the updates.
+            return pipeline.submit(requestMsg.getUpdatesList(), responseBuilder);
+        }
         final P4RuntimeOuterClass.WriteRequest writeRequest = requestMsg
                 .setElectionId(client.lastUsedElectionId(
                         requestMsg.getDeviceId()))
@@ -110,6 +110,41 @@ final class WriteResponseImpl implements P4RuntimeWriteClient.WriteResponse {
         return statusMultimap.get(status);
     }
 
+    /**
+     * Returns the P4Runtime errors carried by the given Write RPC error, one
+     * for each update of the request, in the same order. Returns null if the
+     * throwable carries no such details, e.g. if the whole RPC failed.
+     *
+     * @param throwable Write RPC error
+     * @param deviceId  device ID
+     * @return list of P4Runtime errors packed as Any messages, or null
+     */
+    static List<Any> errorDetails(Throwable throwable, DeviceId deviceId) {
+        if (!(throwable instanceof StatusRuntimeException)) {
+            return null;
+        }
+        final StatusRuntimeException sre = (StatusRuntimeException) throwable;
+        if (sre.getStatus().getCode() != Status.Code.UNKNOWN) {
+            // Error trailers expected only if status is UNKNOWN.
+            return null;
+        }
+        // Extract error details.
+        if (!sre.getTrailers().containsKey(STATUS_DETAILS_KEY)) {
+            log.warn("Cannot parse write error details from {}, " +
+                             "missing status trailers in StatusRuntimeException",
+                     deviceId);
+            return null;
+        }
+        com.google.rpc.Status status = sre.getTrailers().get(STATUS_DETAILS_KEY);
+        if (status == null) {
+            log.warn("Cannot parse write error details from {}, " +
+                             "found NULL status trailers in StatusRuntimeException",
+                     deviceId);
+            return null;
+        }
+        return status.getDetailsList();
+    }
+
     /**
      * Returns a new response builder for the given device.
      *
@@ -232,40 +267,36 @@ final class WriteResponseImpl implements P4RuntimeWriteClient.WriteResponse {
             }
         }
 
+        WriteResponseImpl setErrorsAndBuild(List<Any> errors) {
+            synchronized (this) {
+                checkArgument(errors.size() == pendingResponses.size(),
+                              "Expected one error for each update");
+                // Errors are in the same order as in the request.
+                int index = 0;
+                for (Any any : errors) {
+                    unpackP4Error(index, any, true);
+                    index += 1;
+                }
+                return buildAsIs();
+            }
+        }
+
         private WriteResponseImpl doSetErrorsAndBuild(Throwable throwable) {
-            if (!(throwable instanceof StatusRuntimeException)) {
+            final List<Any> errors = errorDetails(throwable, deviceId);
+            if (errors == null) {
                 // Leave all entity responses in pending state.
                 return setFailAllAndBuild(throwable);
             }
-            final StatusRuntimeException sre = (StatusRuntimeException) throwable;
-            if (sre.getStatus().getCode() != Status.Code.UNKNOWN) {
-                // Error trailers expected only if status is UNKNOWN.
-                return setFailAllAndBuild(throwable);
-            }
-            // Extract error details.
-            if (!sre.getTrailers().containsKey(STATUS_DETAILS_KEY)) {
-                log.warn("Cannot parse write error details from {}, " +
-                                 "missing status trailers in StatusRuntimeException",
-                         deviceId);
-                return setFailAllAndBuild(throwable);
-            }
-            com.google.rpc.Status status = sre.getTrailers().get(STATUS_DETAILS_KEY);
-            if (status == null) {
-                log.warn("Cannot parse write error details from {}, " +
-                                 "found NULL status trailers in StatusRuntimeException",
-                         deviceId);
-                return setFailAllAndBuild(throwable);
-            }
-            final boolean reconcilable = status.getDetailsList().size() == pendingResponses.size();
+            final boolean reconcilable = errors.size() == pendingResponses.size();
             // We expect one error for each entity...
             if (!reconcilable) {
                 log.warn("Unable to reconcile write error details from {}, " +
                                  "sent {} updates, but server returned {} errors",
-                         deviceId, pendingResponses.size(), status.getDetailsList().size());
+                         deviceId, pendingResponses.size(), errors.size());
             }
             // ...in the same order as in the request.
             int index = 0;
-            for (Any any : status.getDetailsList()) {
+            for (Any any : errors) {
                 // Set response entities only if reconcilable, otherwise log.
                 unpackP4Error(index, any, reconcilable);
                 index += 1;
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.p4runtime.ctl.controller;
+
+/**
+ * Constants for default values of configurable properties.
+ */
+public final class OsgiPropertyConstants {
+
+    private OsgiPropertyConstants() {}
+
+    public static final String WRITE_PIPELINING = "writePipelining";
+    public static final boolean WRITE_PIPELINING_DEFAULT = false;
+
+    public static final String WRITE_BATCH_SIZE = "writeBatchSize";
+    public static final int WRITE_BATCH_SIZE_DEFAULT = 1000;
+
+    public static final String MAX_IN_FLIGHT_WRITES = "maxInFlightWrites";
+    public static final int MAX_IN_FLIGHT_WRITES_DEFAULT = 2;
+
+}
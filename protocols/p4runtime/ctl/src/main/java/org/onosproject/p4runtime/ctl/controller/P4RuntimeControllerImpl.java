@@ -17,6 +17,8 @@
 package org.onosproject.p4runtime.ctl.controller;
 
 import io.grpc.ManagedChannel;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.grpc.ctl.AbstractGrpcClientController;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.pi.service.PiPipeconfService;
@@ -25,29 +27,140 @@ import org.onosproject.p4runtime.api.P4RuntimeController;
 import org.onosproject.p4runtime.api.P4RuntimeEvent;
 import org.onosproject.p4runtime.api.P4RuntimeEventListener;
 import org.onosproject.p4runtime.ctl.client.P4RuntimeClientImpl;
+import org.osgi.service.component.ComponentContext;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.slf4j.Logger;
+
+import java.util.Dictionary;
+
+import static org.onosproject.p4runtime.ctl.controller.OsgiPropertyConstants.MAX_IN_FLIGHT_WRITES;
+import static org.onosproject.p4runtime.ctl.controller.OsgiPropertyConstants.MAX_IN_FLIGHT_WRITES_DEFAULT;
+import static org.onosproject.p4runtime.ctl.controller.OsgiPropertyConstants.WRITE_BATCH_SIZE;
+import static org.onosproject.p4runtime.ctl.controller.OsgiPropertyConstants.WRITE_BATCH_SIZE_DEFAULT;
+import static org.onosproject.p4runtime.ctl.controller.OsgiPropertyConstants.WRITE_PIPELINING;
+import static org.onosproject.p4runtime.ctl.controller.OsgiPropertyConstants.WRITE_PIPELINING_DEFAULT;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * P4Runtime controller implementation.
  */
-@Component(immediate = true, service = P4RuntimeController.class)
+@Component(immediate = true, service = P4RuntimeController.class,
+        property = {
+                WRITE_PIPELINING + ":Boolean=" + WRITE_PIPELINING_DEFAULT,
+                WRITE_BATCH_SIZE + ":Integer=" + WRITE_BATCH_SIZE_DEFAULT,
+                MAX_IN_FLIGHT_WRITES + ":Integer=" + MAX_IN_FLIGHT_WRITES_DEFAULT,
+        })
 public class P4RuntimeControllerImpl
         extends AbstractGrpcClientController
         <P4RuntimeClient, P4RuntimeEvent, P4RuntimeEventListener>
         implements P4RuntimeController {
 
+    private final Logger log = getLogger(getClass());
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    protected ComponentConfigService componentConfigService;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     private PiPipeconfService pipeconfService;
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     private MasterElectionIdStore masterElectionIdStore;
 
+    /**
+     * Enables aggregating the write requests to a device in a bounded number
+     * of Write RPCs in flight; default is false.
+     */
+    private volatile boolean writePipelining = WRITE_PIPELINING_DEFAULT;
+
+    /**
+     * Number of updates above which the pipelined write requests are sent in
+     * different Write RPCs; default is 1000.
+     */
+    private volatile int writeBatchSize = WRITE_BATCH_SIZE_DEFAULT;
+
+    /**
+     * Maximum number of pipelined Write RPCs in flight for each device;
+     * default is 2.
+     */
+    private volatile int maxInFlightWrites = MAX_IN_FLIGHT_WRITES_DEFAULT;
+
     public P4RuntimeControllerImpl() {
         super(P4RuntimeEvent.class, "P4Runtime");
     }
 
+    @Activate
+    public void activate(ComponentContext context) {
+        super.activate();
+        componentConfigService.registerProperties(getClass());
+        modified(context);
+    }
+
+    @Deactivate
+    @Override
+    public void deactivate() {
+        componentConfigService.unregisterProperties(getClass(), false);
+        super.deactivate();
+    }
+
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+        writePipelining = Tools.isPropertyEnabled(
+                properties, WRITE_PIPELINING, WRITE_PIPELINING_DEFAULT);
+        int batchSize = Tools.getIntegerProperty(
+                properties, WRITE_BATCH_SIZE, WRITE_BATCH_SIZE_DEFAULT);
+        int inFlight = Tools.getIntegerProperty(
+                properties, MAX_IN_FLIGHT_WRITES, MAX_IN_FLIGHT_WRITES_DEFAULT);
+        if (batchSize <= 0 || inFlight <= 0) {
+            log.warn("Ignoring invalid write pipelining settings: {}={}, {}={}",
+                     WRITE_BATCH_SIZE, batchSize, MAX_IN_FLIGHT_WRITES, inFlight);
+        } else {
+            writeBatchSize = batchSize;
+            maxInFlightWrites = inFlight;
+        }
+        log.info("Configured. Write pipelining is {} ({}={}, {}={})",
+                 writePipelining ? "ENABLED" : "DISABLED",
+                 WRITE_BATCH_SIZE, writeBatchSize, MAX_IN_FLIGHT_WRITES, maxInFlightWrites);
+    }
+
+    /**
+     * Returns true if the write requests of the clients should go through
+     * the write pipeline of the device.
+     *
+     * @return true if write pipelining is enabled
+     */
+    public boolean isWritePipeliningEnabled() {
+        return writePipelining;
+    }
+
+    /**
+     * Returns the number of updates above which pipelined write requests are
+     * sent in different Write RPCs.
+     *
+     * @return write batch size
+     */
+    public int writeBatchSize() {
+        return writeBatchSize;
+    }
+
+    /**
+     * Returns the maximum number of pipelined Write RPCs in flight for each
+     * device.
+     *
+     * @return maximum number of Write RPCs in flight
+     */
+    public int maxInFlightWrites() {
+        return maxInFlightWrites;
+    }
+
     @Override
     public void remove(DeviceId deviceId) {
         super.remove(deviceId);
@@ -17,6 +17,10 @@
 package org.onosproject.p4runtime.ctl;
 
 import com.google.common.collect.Lists;
+import com.google.protobuf.Any;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.protobuf.lite.ProtoLiteUtils;
 import io.grpc.stub.StreamObserver;
 import p4.v1.P4RuntimeGrpc;
 import p4.v1.P4RuntimeOuterClass;
@@ -32,7 +36,9 @@ import p4.v1.P4RuntimeOuterClass.WriteResponse;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
@@ -44,6 +50,14 @@ public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
     private List<ReadRequest> readReqs;
     private List<ReadResponse> readResps;
 
+    private static final Metadata.Key<com.google.rpc.Status> STATUS_DETAILS_KEY =
+            Metadata.Key.of("grpc-status-details-bin",
+                            ProtoLiteUtils.metadataMarshaller(com.google.rpc.Status.getDefaultInstance()));
+
+    // Write RPCs left without response until released.
+    private volatile boolean holdWrites;
+    private final Queue<StreamObserver<WriteResponse>> heldWrites = new ConcurrentLinkedQueue<>();
+
     /**
      * Expect N times request sent by client.
      *
@@ -68,6 +82,37 @@ public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
         this.readResps = Lists.newArrayList(readResps);
     }
 
+    /**
+     * Holds the responses to write requests until released.
+     *
+     * @param hold true to hold the responses, false to respond right away
+     */
+    public void holdWrites(boolean hold) {
+        holdWrites = hold;
+    }
+
+    /**
+     * Responds to the oldest held write request, with the given per-update
+     * errors if any, or with a successful response otherwise.
+     *
+     * @param errors P4Runtime errors, one for each update of the request
+     */
+    public void releaseWrite(List<P4RuntimeOuterClass.Error> errors) {
+        StreamObserver<WriteResponse> responseObserver = heldWrites.remove();
+        if (errors.isEmpty()) {
+            responseObserver.onNext(WriteResponse.getDefaultInstance());
+            responseObserver.onCompleted();
+            return;
+        }
+        com.google.rpc.Status status = com.google.rpc.Status.newBuilder()
+                .setCode(Status.Code.UNKNOWN.value())
+                .addAllDetails(Lists.transform(errors, Any::pack))
+                .build();
+        Metadata trailers = new Metadata();
+        trailers.put(STATUS_DETAILS_KEY, status);
+        responseObserver.onError(Status.UNKNOWN.asRuntimeException(trailers));
+    }
+
     public List<WriteRequest> getWriteReqs() {
         return writeReqs;
     }
@@ -79,8 +124,12 @@ public class MockP4RuntimeServer extends P4RuntimeGrpc.P4RuntimeImplBase {
     @Override
     public void write(WriteRequest request, StreamObserver<WriteResponse> responseObserver) {
         writeReqs.add(request);
-        responseObserver.onNext(WriteResponse.getDefaultInstance());
-        responseObserver.onCompleted();
+        if (holdWrites) {
+            heldWrites.add(responseObserver);
+        } else {
+            responseObserver.onNext(WriteResponse.getDefaultInstance());
+            responseObserver.onCompleted();
+        }
         complete();
     }
 
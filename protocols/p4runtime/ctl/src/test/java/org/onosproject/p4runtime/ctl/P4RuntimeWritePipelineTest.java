@@ -0,0 +1,228 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.p4runtime.ctl;
+
+import com.google.common.collect.ImmutableList;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.onlab.util.ImmutableByteSequence;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.pi.model.DefaultPiPipeconf;
+import org.onosproject.net.pi.model.PiActionId;
+import org.onosproject.net.pi.model.PiActionParamId;
+import org.onosproject.net.pi.model.PiActionProfileId;
+import org.onosproject.net.pi.model.PiPipeconf;
+import org.onosproject.net.pi.model.PiPipeconfId;
+import org.onosproject.net.pi.model.PiPipelineModel;
+import org.onosproject.net.pi.runtime.PiAction;
+import org.onosproject.net.pi.runtime.PiActionParam;
+import org.onosproject.net.pi.runtime.PiActionProfileMember;
+import org.onosproject.net.pi.runtime.PiActionProfileMemberId;
+import org.onosproject.p4runtime.api.P4RuntimeWriteClient.EntityUpdateStatus;
+import org.onosproject.p4runtime.api.P4RuntimeWriteClient.WriteResponse;
+import org.onosproject.p4runtime.ctl.client.P4RuntimeClientImpl;
+import org.onosproject.p4runtime.ctl.controller.P4RuntimeControllerImpl;
+import p4.v1.P4RuntimeOuterClass.Error;
+import p4.v1.P4RuntimeOuterClass.Update;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.niceMock;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.pi.model.PiPipeconf.ExtensionType.P4_INFO_TEXT;
+
+/**
+ * Tests of the pipelined writes of the P4Runtime client.
+ */
+public class P4RuntimeWritePipelineTest {
+    private static final PiPipeconf PIPECONF = DefaultPiPipeconf.builder()
+            .withId(new PiPipeconfId("p4runtime-mock-pipeconf"))
+            .withPipelineModel(EasyMock.niceMock(PiPipelineModel.class))
+            .addExtension(P4_INFO_TEXT, P4RuntimeWritePipelineTest.class.getResource("/test.p4info"))
+            .build();
+    private static final PiActionProfileId ACT_PROF_ID = PiActionProfileId.of("ecmp_selector");
+    private static final DeviceId DEVICE_ID = DeviceId.deviceId("device:p4runtime:1");
+    private static final int P4_DEVICE_ID = 1;
+    private static final String GRPC_SERVER_NAME = "P4RuntimeWritePipelineTest";
+    private static final long DEFAULT_TIMEOUT_TIME = 10;
+    private static final int BATCH_SIZE = 3;
+
+    private static MockP4RuntimeServer p4RuntimeServerImpl = new MockP4RuntimeServer();
+    private static Server grpcServer;
+    private static ManagedChannel grpcChannel;
+
+    private P4RuntimeClientImpl client;
+
+    private static PiActionProfileMember member(int memberId) {
+        PiAction piAction = PiAction.builder()
+                .withId(PiActionId.of("set_egress_port"))
+                .withParameter(new PiActionParam(PiActionParamId.of("port"),
+                                                 ImmutableByteSequence.copyFrom((short) memberId)))
+                .build();
+        return PiActionProfileMember.builder()
+                .forActionProfile(ACT_PROF_ID)
+                .withAction(piAction)
+                .withId(PiActionProfileMemberId.of(memberId))
+                .build();
+    }
+
+    private static Error error(Status.Code code) {
+        return Error.newBuilder().setCanonicalCode(code.value()).build();
+    }
+
+    @BeforeClass
+    public static void globalSetup() throws IOException {
+        grpcServer = InProcessServerBuilder.forName(GRPC_SERVER_NAME).directExecutor()
+                .addService(p4RuntimeServerImpl)
+                .build().start();
+        grpcChannel = InProcessChannelBuilder.forName(GRPC_SERVER_NAME)
+                .directExecutor()
+                .build();
+    }
+
+    @AfterClass
+    public static void globalTearDown() {
+        grpcServer.shutdown();
+        grpcChannel.shutdown();
+    }
+
+    @Before
+    public void setup() {
+        P4RuntimeControllerImpl controller = niceMock(P4RuntimeControllerImpl.class);
+        expect(controller.isWritePipeliningEnabled()).andReturn(true).anyTimes();
+        expect(controller.writeBatchSize()).andReturn(BATCH_SIZE).anyTimes();
+        expect(controller.maxInFlightWrites()).andReturn(1).anyTimes();
+        replay(controller);
+        client = new P4RuntimeClientImpl(
+                DEVICE_ID, grpcChannel, controller, new MockPipeconfService(),
+                new MockMasterElectionIdStore());
+        p4RuntimeServerImpl.holdWrites(true);
+    }
+
+    @After
+    public void teardown() {
+        p4RuntimeServerImpl.holdWrites(false);
+        client.shutdown();
+    }
+
+    /**
+     * Tests that requests queued while a Write RPC is in flight are sent
+     * together, in RPCs of bounded size, and that each request gets the
+     * status of its own updates.
+     */
+    @Test
+    public void testPipelinedWrites() throws Exception {
+        CompletableFuture<Void> complete = p4RuntimeServerImpl.expectRequests(3);
+        CompletableFuture<WriteResponse> first = client.write(P4_DEVICE_ID, PIPECONF)
+                .insert(member(1)).submit();
+        CompletableFuture<WriteResponse> second = client.write(P4_DEVICE_ID, PIPECONF)
+                .insert(ImmutableList.of(member(2), member(3))).submit();
+        CompletableFuture<WriteResponse> third = client.write(P4_DEVICE_ID, PIPECONF)
+                .modify(member(1)).submit();
+        CompletableFuture<WriteResponse> fourth = client.write(P4_DEVICE_ID, PIPECONF)
+                .delete(member(2).handle(DEVICE_ID)).submit();
+        assertEquals(1, p4RuntimeServerImpl.getWriteReqs().size());
+        assertFalse(first.isDone());
+
+        p4RuntimeServerImpl.releaseWrite(ImmutableList.of());
+        assertTrue(first.get().isSuccess());
+        assertEquals(2, p4RuntimeServerImpl.getWriteReqs().size());
+        assertFalse(second.isDone());
+        assertFalse(third.isDone());
+
+        p4RuntimeServerImpl.releaseWrite(ImmutableList.of(
+                error(Status.Code.OK), error(Status.Code.ALREADY_EXISTS), error(Status.Code.OK)));
+        WriteResponse secondResponse = second.get();
+        assertFalse(secondResponse.isSuccess());
+        assertEquals(1, secondResponse.success().size());
+        assertEquals(member(2), secondResponse.success().iterator().next().entity());
+        assertEquals(member(3), secondResponse.status(EntityUpdateStatus.ALREADY_EXIST)
+                .iterator().next().entity());
+        assertTrue(third.get().isSuccess());
+        assertFalse(fourth.isDone());
+
+        p4RuntimeServerImpl.releaseWrite(ImmutableList.of());
+        assertTrue(fourth.get().isSuccess());
+        complete.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+
+        List<List<Update.Type>> updateTypes = p4RuntimeServerImpl.getWriteReqs().stream()
+                .map(r -> r.getUpdatesList().stream().map(Update::getType).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+        assertEquals(ImmutableList.of(
+                ImmutableList.of(Update.Type.INSERT),
+                ImmutableList.of(Update.Type.INSERT, Update.Type.INSERT, Update.Type.MODIFY),
+                ImmutableList.of(Update.Type.DELETE)), updateTypes);
+    }
+
+    /**
+     * Tests that queued requests updating an entity already in the batch are
+     * sent in a different RPC, as the server may apply the updates of an RPC
+     * in any order.
+     */
+    @Test
+    public void testSameEntityNotBatched() throws Exception {
+        CompletableFuture<Void> complete = p4RuntimeServerImpl.expectRequests(3);
+        CompletableFuture<WriteResponse> first = client.write(P4_DEVICE_ID, PIPECONF)
+                .insert(member(1)).submit();
+        CompletableFuture<WriteResponse> second = client.write(P4_DEVICE_ID, PIPECONF)
+                .insert(member(2)).submit();
+        CompletableFuture<WriteResponse> third = client.write(P4_DEVICE_ID, PIPECONF)
+                .modify(member(2)).submit();
+        CompletableFuture<WriteResponse> fourth = client.write(P4_DEVICE_ID, PIPECONF)
+                .insert(member(3)).submit();
+        assertEquals(1, p4RuntimeServerImpl.getWriteReqs().size());
+
+        p4RuntimeServerImpl.releaseWrite(ImmutableList.of());
+        assertTrue(first.get().isSuccess());
+        assertEquals(2, p4RuntimeServerImpl.getWriteReqs().size());
+        assertFalse(third.isDone());
+
+        p4RuntimeServerImpl.releaseWrite(ImmutableList.of());
+        assertTrue(second.get().isSuccess());
+        assertFalse(third.isDone());
+
+        p4RuntimeServerImpl.releaseWrite(ImmutableList.of());
+        assertTrue(third.get().isSuccess());
+        assertTrue(fourth.get().isSuccess());
+        complete.get(DEFAULT_TIMEOUT_TIME, TimeUnit.SECONDS);
+
+        List<List<Update.Type>> updateTypes = p4RuntimeServerImpl.getWriteReqs().stream()
+                .map(r -> r.getUpdatesList().stream().map(Update::getType).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+        assertEquals(ImmutableList.of(
+                ImmutableList.of(Update.Type.INSERT),
+                ImmutableList.of(Update.Type.INSERT),
+                ImmutableList.of(Update.Type.MODIFY, Update.Type.INSERT)), updateTypes);
+    }
+}
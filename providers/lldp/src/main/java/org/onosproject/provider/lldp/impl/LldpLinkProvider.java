@@ -374,7 +374,9 @@ public class LldpLinkProvider extends AbstractProvider implements ProbedLinkProv
         providerService = providerRegistry.register(this);
         masterService.addListener(roleListener);
         deviceService.addListener(deviceListener);
-        packetService.addProcessor(packetProcessor, PacketProcessor.advisor(0));
+        packetService.addProcessor(packetProcessor, PacketProcessor.advisor(0),
+                                   ImmutableSet.of(DefaultTrafficSelector.builder().matchEthType(TYPE_LLDP).build(),
+                                                   DefaultTrafficSelector.builder().matchEthType(TYPE_BSN).build()));
 
         loadDevices();
 
@@ -18,6 +18,7 @@ package org.onosproject.provider.of.flow.impl;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import org.onlab.util.SlidingWindowCounter;
+import org.onosproject.openflow.controller.Dpid;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.RoleState;
 import org.projectfloodlight.openflow.protocol.OFFlowStatsRequest;
@@ -34,6 +35,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.Math.max;
 import static java.lang.Math.min;
+import static org.onosproject.provider.of.flow.impl.FlowStatsScheduler.jitter;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -59,6 +61,8 @@ class FlowStatsCollector implements SwitchDataCollector {
     private static final int MAX_LOAD_RATE = 500;
 
     private final OpenFlowSwitch sw;
+    private final Dpid dpid;
+    private final FlowStatsScheduler statsScheduler;
     private ScheduledExecutorService executorService;
     private TimerTask pauseTask;
     private ScheduledFuture<?> scheduledPauseTask;
@@ -78,12 +82,16 @@ class FlowStatsCollector implements SwitchDataCollector {
      * Creates a new collector for the given switch and poll frequency.
      *
      * @param executorService executor used for scheduling
+     * @param statsScheduler scheduler of the flow stats requests
      * @param sw switch to pull
      * @param pollInterval poll frequency in seconds
      */
-    FlowStatsCollector(ScheduledExecutorService executorService, OpenFlowSwitch sw, int pollInterval) {
+    FlowStatsCollector(ScheduledExecutorService executorService, FlowStatsScheduler statsScheduler,
+                       OpenFlowSwitch sw, int pollInterval) {
         this.executorService = executorService;
+        this.statsScheduler = statsScheduler;
         this.sw = checkNotNull(sw, "Null switch");
+        this.dpid = new Dpid(sw.getId());
         this.pollInterval = pollInterval;
     }
 
@@ -103,7 +111,7 @@ class FlowStatsCollector implements SwitchDataCollector {
         // If we went through start - let's schedule it
         if (loadCounter != null) {
             pollTask = new PollTimerTask();
-            scheduledPollTask = executorService.scheduleAtFixedRate(pollTask, pollInterval * MS,
+            scheduledPollTask = executorService.scheduleAtFixedRate(pollTask, jitter(pollInterval),
                                                 pollInterval * MS, TimeUnit.MILLISECONDS);
         }
         waiting.set(0);
@@ -202,18 +210,22 @@ class FlowStatsCollector implements SwitchDataCollector {
                         loadCounter.getWindowRate(HIGH_WINDOW));
                 }
 
-                log.trace("Collecting stats for {}", sw.getStringId());
-                OFFlowStatsRequest request = sw.factory().buildFlowStatsRequest()
-                        .setMatch(sw.factory().matchWildcardAll())
-                        .setTableId(TableId.ALL)
-                        .setOutPort(OFPort.NO_MASK)
-                        .build();
-                sw.sendMsg(request);
-                // Other flow stats will not be asked
-                // if we don't see first the reply of this request
-                waiting.set(WAITING_ATTEMPTS);
+                statsScheduler.submit(dpid, this::sendRequest);
             }
         }
+
+        private void sendRequest() {
+            log.trace("Collecting stats for {}", sw.getStringId());
+            OFFlowStatsRequest request = sw.factory().buildFlowStatsRequest()
+                    .setMatch(sw.factory().matchWildcardAll())
+                    .setTableId(TableId.ALL)
+                    .setOutPort(OFPort.NO_MASK)
+                    .build();
+            sw.sendMsg(request);
+            // Other flow stats will not be asked
+            // if we don't see first the reply of this request
+            waiting.set(WAITING_ATTEMPTS);
+        }
     }
 
     public synchronized void start() {
@@ -224,8 +236,9 @@ class FlowStatsCollector implements SwitchDataCollector {
             scheduledPauseTask = executorService.scheduleAtFixedRate(pauseTask, 1 * MS,
                     1 * MS, TimeUnit.MILLISECONDS);
             pollTask = new PollTimerTask();
-            // Initially start polling quickly. Then drop down to configured value
-            scheduledPollTask = executorService.scheduleAtFixedRate(pollTask, 1 * MS,
+            // Initially start polling quickly. Then drop down to configured value,
+            // the polls of the switches being spread over the interval
+            scheduledPollTask = executorService.scheduleAtFixedRate(pollTask, 1 * MS + jitter(pollInterval),
                     pollInterval * MS, TimeUnit.MILLISECONDS);
         } else {
             // Trigger the poll only once
@@ -255,7 +268,7 @@ class FlowStatsCollector implements SwitchDataCollector {
                   loadCounter.getWindowRate(PAUSE_WINDOW),
                   loadCounter.getWindowRate(HIGH_WINDOW));
         pollTask = new PollTimerTask();
-        scheduledPollTask = executorService.scheduleAtFixedRate(pollTask, pollInterval * MS,
+        scheduledPollTask = executorService.scheduleAtFixedRate(pollTask, pollInterval * MS + jitter(pollInterval),
                                             pollInterval * MS, TimeUnit.MILLISECONDS);
     }
 
@@ -277,6 +290,7 @@ class FlowStatsCollector implements SwitchDataCollector {
             scheduledPollTask.cancel(false);
             scheduledPollTask = null;
         }
+        statsScheduler.cancel(dpid);
         if (loadCounter != null) {
             loadCounter.destroy();
             loadCounter = null;
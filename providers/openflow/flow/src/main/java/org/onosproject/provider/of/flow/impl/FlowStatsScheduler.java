@@ -0,0 +1,211 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.flow.impl;
+
+import com.google.common.collect.Sets;
+import org.onosproject.openflow.controller.Dpid;
+import org.slf4j.Logger;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Schedules the flow statistics requests of all the switches.
+ * <p>
+ * Collectors submit their requests to the scheduler instead of sending them
+ * right away. When a rate limit is set, the requests are queued and sent at
+ * most at that rate over all the switches: first those of the switches whose
+ * flows changed since their last poll, then the oldest ones. A switch has at
+ * most one queued request; a newer request replaces the queued one, in its
+ * place in the queue.
+ */
+final class FlowStatsScheduler {
+
+    private final Logger log = getLogger(getClass());
+
+    // Period at which the queued requests are sent, in milliseconds
+    private static final long TICK_MS = 100;
+    private static final int MS = 1000;
+
+    private final ScheduledExecutorService executorService;
+    private final Set<Dpid> changed = Sets.newConcurrentHashSet();
+
+    // Guarded by this
+    private final Map<Dpid, Request> pending = new HashMap<>();
+    private int maxRate;
+    private double credits;
+    private long sequence;
+    private ScheduledFuture<?> dispatchTask;
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param executorService executor used for scheduling
+     * @param maxRate         maximum number of requests per second; 0 for no limit
+     */
+    FlowStatsScheduler(ScheduledExecutorService executorService, int maxRate) {
+        this.executorService = executorService;
+        setMaxRate(maxRate);
+    }
+
+    /**
+     * Returns a random delay, for collectors to spread their polls over
+     * the poll interval rather than polling all at the same time.
+     *
+     * @param pollInterval poll frequency in seconds
+     * @return delay in milliseconds, between 0 and the poll interval
+     */
+    static long jitter(int pollInterval) {
+        return pollInterval > 0 ? ThreadLocalRandom.current().nextLong(pollInterval * MS) : 0;
+    }
+
+    /**
+     * Adjusts the rate limit; queued requests are sent right away when the
+     * limit is removed.
+     *
+     * @param maxRate maximum number of requests per second; 0 for no limit
+     */
+    void setMaxRate(int maxRate) {
+        checkArgument(maxRate >= 0, "Flow stats rate limit must not be negative");
+        List<Map.Entry<Dpid, Request>> flushed = null;
+        synchronized (this) {
+            this.maxRate = maxRate;
+            credits = 0;
+            if (maxRate > 0 && dispatchTask == null) {
+                dispatchTask = executorService.scheduleAtFixedRate(this::dispatch, TICK_MS, TICK_MS,
+                                                                   TimeUnit.MILLISECONDS);
+            } else if (maxRate == 0) {
+                if (dispatchTask != null) {
+                    dispatchTask.cancel(false);
+                    dispatchTask = null;
+                }
+                flushed = sorted(pending.size());
+                pending.clear();
+            }
+        }
+        if (flushed != null) {
+            flushed.forEach(e -> send(e.getKey(), e.getValue().request));
+        }
+    }
+
+    /**
+     * Submits a flow statistics request for a switch.
+     *
+     * @param dpid    switch identifier
+     * @param request task sending the request to the switch
+     */
+    void submit(Dpid dpid, Runnable request) {
+        synchronized (this) {
+            if (maxRate > 0) {
+                // A replaced request keeps its place in the queue
+                Request previous = pending.get(dpid);
+                pending.put(dpid, new Request(request, previous != null ? previous.sequence : sequence++));
+                return;
+            }
+        }
+        send(dpid, request);
+    }
+
+    /**
+     * Records that the flows of a switch changed, giving priority to its
+     * next request.
+     *
+     * @param dpid switch identifier
+     */
+    void flowsChanged(Dpid dpid) {
+        changed.add(dpid);
+    }
+
+    /**
+     * Drops the queued request of a switch, if any.
+     *
+     * @param dpid switch identifier
+     */
+    synchronized void cancel(Dpid dpid) {
+        pending.remove(dpid);
+    }
+
+    /**
+     * Stops the scheduler, dropping the queued requests.
+     */
+    synchronized void stop() {
+        if (dispatchTask != null) {
+            dispatchTask.cancel(false);
+            dispatchTask = null;
+        }
+        pending.clear();
+        changed.clear();
+    }
+
+    private void dispatch() {
+        List<Map.Entry<Dpid, Request>> batch;
+        int left;
+        synchronized (this) {
+            // Credits do not pile up beyond a tick worth of requests, to avoid
+            // bursts, but the fraction of a request left over is carried over
+            double perTick = maxRate * TICK_MS / (double) MS;
+            credits = Math.min(credits + perTick, Math.max(perTick, 1) + credits % 1);
+            if (pending.isEmpty() || credits < 1) {
+                return;
+            }
+            batch = sorted((int) credits);
+            batch.forEach(e -> pending.remove(e.getKey()));
+            credits -= batch.size();
+            left = pending.size();
+        }
+        log.trace("Sending {} flow stats requests, {} left", batch.size(), left);
+        batch.forEach(e -> send(e.getKey(), e.getValue().request));
+    }
+
+    // Returns the first queued requests by priority; to be called holding this
+    private List<Map.Entry<Dpid, Request>> sorted(int limit) {
+        Comparator<Map.Entry<Dpid, Request>> byChange = Comparator.comparing(e -> !changed.contains(e.getKey()));
+        return pending.entrySet().stream()
+                .sorted(byChange.thenComparingLong(e -> e.getValue().sequence))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private void send(Dpid dpid, Runnable request) {
+        changed.remove(dpid);
+        try {
+            request.run();
+        } catch (RuntimeException e) {
+            log.warn("Unable to send flow stats request to {}", dpid, e);
+        }
+    }
+
+    private static final class Request {
+        private final Runnable request;
+        private final long sequence;
+
+        private Request(Runnable request, long sequence) {
+            this.request = request;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -44,6 +44,7 @@ import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.Thread.sleep;
+import static org.onosproject.provider.of.flow.impl.FlowStatsScheduler.jitter;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -69,6 +70,8 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
     private final DriverService driverService;
     private final OpenFlowSwitch sw;
     private final DeviceId did;
+    private final Dpid dpid;
+    private final FlowStatsScheduler statsScheduler;
 
     private ScheduledExecutorService adaptiveFlowStatsScheduler =
             Executors.newScheduledThreadPool(4, groupedThreads("onos/flow", "device-stats-collector-%d", log));
@@ -117,13 +120,17 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
     /**
      * Creates a new adaptive collector for the given switch and default cal_and_poll frequency.
      *
-     * @param driverService driver service reference
-     * @param sw            switch to pull
-     * @param pollInterval  cal and immediate poll frequency in seconds
+     * @param driverService  driver service reference
+     * @param statsScheduler scheduler of the entire flow stats requests
+     * @param sw             switch to pull
+     * @param pollInterval   cal and immediate poll frequency in seconds
      */
-    NewAdaptiveFlowStatsCollector(DriverService driverService, OpenFlowSwitch sw, int pollInterval) {
+    NewAdaptiveFlowStatsCollector(DriverService driverService, FlowStatsScheduler statsScheduler,
+                                  OpenFlowSwitch sw, int pollInterval) {
         this.driverService = driverService;
+        this.statsScheduler = statsScheduler;
         this.sw = sw;
+        this.dpid = new Dpid(sw.getId());
         this.did = DeviceId.deviceId(Dpid.uri(sw.getId()));
 
         flowRuleService = get(FlowRuleService.class);
@@ -196,26 +203,29 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
             longFlowsThread.cancel(false);
         }
 
+        // Spread the polls of the switches over the new interval
+        long initialDelay = jitter(calAndPollInterval);
+
         calAndShortFlowsTask = new CalAndShortFlowsTask();
         calAndShortFlowsThread = adaptiveFlowStatsScheduler.scheduleWithFixedDelay(
                 calAndShortFlowsTask,
-                0,
-                calAndPollInterval,
-                TimeUnit.SECONDS);
+                initialDelay,
+                TimeUnit.SECONDS.toMillis(calAndPollInterval),
+                TimeUnit.MILLISECONDS);
 
         midFlowsTask = new MidFlowsTask();
         midFlowsThread = adaptiveFlowStatsScheduler.scheduleWithFixedDelay(
                 midFlowsTask,
-                0,
-                midPollInterval,
-                TimeUnit.SECONDS);
+                initialDelay,
+                TimeUnit.SECONDS.toMillis(midPollInterval),
+                TimeUnit.MILLISECONDS);
 
         longFlowsTask = new LongFlowsTask();
         longFlowsThread = adaptiveFlowStatsScheduler.scheduleWithFixedDelay(
                 longFlowsTask,
-                0,
-                longPollInterval,
-                TimeUnit.SECONDS);
+                initialDelay,
+                TimeUnit.SECONDS.toMillis(longPollInterval),
+                TimeUnit.MILLISECONDS);
 
         log.debug("calAndPollInterval={} is adjusted", calAndPollInterval);
     }
@@ -230,14 +240,14 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
                     // isFirstTimeStart, get entire flow stats from a given switch sw
                     log.trace("CalAndShortFlowsTask Collecting Entire AdaptiveStats at first time start for {}",
                             sw.getStringId());
-                    ofFlowStatsRequestAllSend();
+                    statsScheduler.submit(dpid, NewAdaptiveFlowStatsCollector.this::ofFlowStatsRequestAllSend);
 
                     callCountCalAndShortFlowsTask += CAL_AND_POLL_TIMES;
                     isFirstTimeStart = false;
                 } else  if (callCountCalAndShortFlowsTask >= ENTIRE_POLL_TIMES) {
                     // entire_poll_times, get entire flow stats from a given switch sw
                     log.trace("CalAndShortFlowsTask Collecting Entire AdaptiveStats for {}", sw.getStringId());
-                    ofFlowStatsRequestAllSend();
+                    statsScheduler.submit(dpid, NewAdaptiveFlowStatsCollector.this::ofFlowStatsRequestAllSend);
 
                     callCountCalAndShortFlowsTask = CAL_AND_POLL_TIMES;
                     //TODO: check flows deleted in switch, but exist in controller flow table, then remove them
@@ -403,27 +413,29 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
         longFlowsTask = new LongFlowsTask();
 
         if (pollPeriodically) {
-            // Initially start polling quickly. Then drop down to configured value
+            // Initially start polling quickly. Then drop down to configured value,
+            // the polls of the switches being spread over the interval
+            long initialDelay = TimeUnit.SECONDS.toMillis(1) + jitter(calAndPollInterval);
 
             calAndShortFlowsThread = adaptiveFlowStatsScheduler.scheduleWithFixedDelay(
                     calAndShortFlowsTask,
-                    1,
-                    calAndPollInterval,
-                    TimeUnit.SECONDS);
+                    initialDelay,
+                    TimeUnit.SECONDS.toMillis(calAndPollInterval),
+                    TimeUnit.MILLISECONDS);
 
 
             midFlowsThread = adaptiveFlowStatsScheduler.scheduleWithFixedDelay(
                     midFlowsTask,
-                    1,
-                    midPollInterval,
-                    TimeUnit.SECONDS);
+                    initialDelay,
+                    TimeUnit.SECONDS.toMillis(midPollInterval),
+                    TimeUnit.MILLISECONDS);
 
 
             longFlowsThread = adaptiveFlowStatsScheduler.scheduleWithFixedDelay(
                     longFlowsTask,
-                    1,
-                    longPollInterval,
-                    TimeUnit.SECONDS);
+                    initialDelay,
+                    TimeUnit.SECONDS.toMillis(longPollInterval),
+                    TimeUnit.MILLISECONDS);
         } else {
             // Trigger the polls only once
             adaptiveFlowStatsScheduler.schedule(
@@ -461,6 +473,7 @@ public class NewAdaptiveFlowStatsCollector implements SwitchDataCollector {
         }
 
         adaptiveFlowStatsScheduler.shutdownNow();
+        statsScheduler.cancel(dpid);
 
         isFirstTimeStart = false;
 
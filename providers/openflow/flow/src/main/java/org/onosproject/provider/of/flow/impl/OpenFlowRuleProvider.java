@@ -105,6 +105,8 @@ import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.ADAPTI
 import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.ADAPTIVE_FLOW_SAMPLING_DEFAULT;
 import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.POLL_FREQUENCY;
 import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.POLL_FREQUENCY_DEFAULT;
+import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.POLL_RATE_LIMIT;
+import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.POLL_RATE_LIMIT_DEFAULT;
 import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.POLL_STATS_PERIODICALLY;
 import static org.onosproject.provider.of.flow.impl.OsgiPropertyConstants.POLL_STATS_PERIODICALLY_DEFAULT;
 import static org.onlab.util.Tools.groupedThreads;
@@ -118,6 +120,7 @@ import static org.slf4j.LoggerFactory.getLogger;
         property = {
                 POLL_FREQUENCY + ":Integer=" + POLL_FREQUENCY_DEFAULT,
                 ADAPTIVE_FLOW_SAMPLING + ":Boolean=" + ADAPTIVE_FLOW_SAMPLING_DEFAULT,
+                POLL_RATE_LIMIT + ":Integer=" + POLL_RATE_LIMIT_DEFAULT,
         })
 public class OpenFlowRuleProvider extends AbstractProvider
         implements FlowRuleProvider {
@@ -148,6 +151,9 @@ public class OpenFlowRuleProvider extends AbstractProvider
     /** Poll Stats Periodically ON/OFF. */
     private boolean pollStatsPeriodically = POLL_STATS_PERIODICALLY_DEFAULT;
 
+    /** Maximum number of flow statistics requests per second to all switches; 0 for no limit. */
+    private int flowPollRateLimit = POLL_RATE_LIMIT_DEFAULT;
+
     private FlowRuleProviderService providerService;
 
     private final InternalFlowProvider listener = new InternalFlowProvider();
@@ -157,6 +163,8 @@ public class OpenFlowRuleProvider extends AbstractProvider
     private ScheduledExecutorService executorService = newScheduledThreadPool(1,
                                    groupedThreads("onos/of", "collector-%d", log));
 
+    private final FlowStatsScheduler statsScheduler = new FlowStatsScheduler(executorService, flowPollRateLimit);
+
     // Old simple collector set
     private final Map<Dpid, FlowStatsCollector> simpleCollectors = Maps.newConcurrentMap();
 
@@ -194,6 +202,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
     protected void deactivate(ComponentContext context) {
         cfgService.unregisterProperties(getClass(), false);
         stopCollectors();
+        statsScheduler.stop();
         providerRegistry.unregister(this);
         providerService = null;
         executorService.shutdown();
@@ -244,6 +253,19 @@ public class OpenFlowRuleProvider extends AbstractProvider
             }
         }
         log.info("Settings: pollStatsPeriodically={}", pollStatsPeriodically);
+
+        int newFlowPollRateLimit;
+        try {
+            String rate = get(properties, POLL_RATE_LIMIT);
+            newFlowPollRateLimit = isNullOrEmpty(rate) ? flowPollRateLimit : Integer.parseInt(rate.trim());
+        } catch (NumberFormatException | ClassCastException e) {
+            newFlowPollRateLimit = flowPollRateLimit;
+        }
+        if (newFlowPollRateLimit != flowPollRateLimit && newFlowPollRateLimit >= 0) {
+            flowPollRateLimit = newFlowPollRateLimit;
+            statsScheduler.setMaxRate(flowPollRateLimit);
+        }
+        log.info("Settings: flowPollRateLimit={}", flowPollRateLimit);
     }
 
     private Cache<Long, InternalCacheEntry> createBatchCache() {
@@ -269,11 +291,11 @@ public class OpenFlowRuleProvider extends AbstractProvider
             if (adaptiveFlowSampling) {
                 // NewAdaptiveFlowStatsCollector Constructor
                 NewAdaptiveFlowStatsCollector fsc =
-                        new NewAdaptiveFlowStatsCollector(driverService, sw, flowPollFrequency);
+                        new NewAdaptiveFlowStatsCollector(driverService, statsScheduler, sw, flowPollFrequency);
                 stopCollectorIfNeeded(afsCollectors.put(new Dpid(sw.getId()), fsc));
                 fsc.start();
             } else {
-                FlowStatsCollector fsc = new FlowStatsCollector(executorService, sw, flowPollFrequency);
+                FlowStatsCollector fsc = new FlowStatsCollector(executorService, statsScheduler, sw, flowPollFrequency);
                 stopCollectorIfNeeded(simpleCollectors.put(new Dpid(sw.getId()), fsc));
                 fsc.start();
             }
@@ -332,6 +354,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
     }
 
     private void recordEvents(Dpid dpid, int events) {
+        statsScheduler.flowsChanged(dpid);
         SwitchDataCollector collector;
         if (adaptiveFlowSampling) {
             collector = afsCollectors.get(dpid);
@@ -449,10 +472,10 @@ public class OpenFlowRuleProvider extends AbstractProvider
         SwitchDataCollector sdc = adaptiveFlowSampling ? afsCollectors.get(dpid) : simpleCollectors.get(dpid);
         if (sdc == null) {
             if (adaptiveFlowSampling) {
-                sdc = new NewAdaptiveFlowStatsCollector(driverService, sw, -1);
+                sdc = new NewAdaptiveFlowStatsCollector(driverService, statsScheduler, sw, -1);
                 afsCollectors.put(dpid, (NewAdaptiveFlowStatsCollector) sdc);
             } else {
-                sdc = new FlowStatsCollector(executorService, sw, -1);
+                sdc = new FlowStatsCollector(executorService, statsScheduler, sw, -1);
                 simpleCollectors.put(dpid, (FlowStatsCollector) sdc);
             }
         }
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.flow.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+import org.onlab.junit.NullScheduledExecutor;
+import org.onosproject.openflow.controller.Dpid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the flow statistics request scheduler.
+ */
+public class FlowStatsSchedulerTest {
+
+    private static final Dpid DPID1 = new Dpid(1);
+    private static final Dpid DPID2 = new Dpid(2);
+    private static final Dpid DPID3 = new Dpid(3);
+
+    private final ManualExecutor executor = new ManualExecutor();
+    private final List<String> sent = new ArrayList<>();
+
+    private Runnable request(String name) {
+        return () -> sent.add(name);
+    }
+
+    /**
+     * Tests that the jitter spreads the polls over the poll interval.
+     */
+    @Test
+    public void jitter() {
+        assertEquals("no jitter expected", 0, FlowStatsScheduler.jitter(0));
+        Set<Long> delays = Sets.newHashSet();
+        for (int i = 0; i < 100; i++) {
+            long delay = FlowStatsScheduler.jitter(5);
+            assertTrue("jitter out of the poll interval", delay >= 0 && delay < 5000);
+            delays.add(delay);
+        }
+        assertTrue("jitter should vary", delays.size() > 1);
+    }
+
+    /**
+     * Tests that requests are sent right away without rate limit.
+     */
+    @Test
+    public void noRateLimit() {
+        FlowStatsScheduler scheduler = new FlowStatsScheduler(executor, 0);
+        assertNull("no dispatch task expected", executor.task);
+        scheduler.submit(DPID1, request("1"));
+        scheduler.submit(DPID2, request("2"));
+        assertEquals("incorrect requests sent", ImmutableList.of("1", "2"), sent);
+    }
+
+    /**
+     * Tests that queued requests are sent at most at the rate limit, without
+     * bursts after idle periods.
+     */
+    @Test
+    public void rateLimit() {
+        // 20 requests per second, i.e. 2 per tick
+        FlowStatsScheduler scheduler = new FlowStatsScheduler(executor, 20);
+        assertNotNull("dispatch task expected", executor.task);
+        executor.tick(10);
+
+        scheduler.submit(DPID1, request("1"));
+        scheduler.submit(DPID2, request("2"));
+        scheduler.submit(DPID3, request("3"));
+        assertTrue("requests should be queued", sent.isEmpty());
+
+        executor.tick(1);
+        assertEquals("incorrect requests sent", ImmutableList.of("1", "2"), sent);
+        executor.tick(1);
+        assertEquals("incorrect requests sent", ImmutableList.of("1", "2", "3"), sent);
+    }
+
+    /**
+     * Tests that rate limits which are not a whole number of requests per
+     * tick are met under a backlog.
+     */
+    @Test
+    public void fractionalRateLimit() {
+        assertEquals("incorrect requests sent", 5, sentInOneSecond(5));
+        assertEquals("incorrect requests sent", 15, sentInOneSecond(15));
+        assertEquals("incorrect requests sent", 25, sentInOneSecond(25));
+        assertEquals("incorrect requests sent", 99, sentInOneSecond(99));
+    }
+
+    // Returns the number of requests sent over 10 ticks with a backlog.
+    private int sentInOneSecond(int maxRate) {
+        sent.clear();
+        FlowStatsScheduler scheduler = new FlowStatsScheduler(executor, maxRate);
+        for (int i = 0; i < 2 * maxRate; i++) {
+            scheduler.submit(new Dpid(i), request(String.valueOf(i)));
+        }
+        executor.tick(10);
+        scheduler.stop();
+        return sent.size();
+    }
+
+    /**
+     * Tests that requests of switches whose flows changed are sent first and
+     * that replaced requests keep their place in the queue.
+     */
+    @Test
+    public void changedFirst() {
+        // 10 requests per second, i.e. 1 per tick
+        FlowStatsScheduler scheduler = new FlowStatsScheduler(executor, 10);
+        scheduler.submit(DPID1, request("1"));
+        scheduler.submit(DPID2, request("2"));
+        scheduler.submit(DPID3, request("3"));
+        scheduler.submit(DPID1, request("1'"));
+        scheduler.flowsChanged(DPID3);
+
+        executor.tick(3);
+        assertEquals("incorrect request order", ImmutableList.of("3", "1'", "2"), sent);
+
+        sent.clear();
+        scheduler.submit(DPID1, request("1"));
+        scheduler.submit(DPID2, request("2"));
+        scheduler.flowsChanged(DPID2);
+        scheduler.cancel(DPID1);
+        executor.tick(2);
+        assertEquals("incorrect requests sent", ImmutableList.of("2"), sent);
+    }
+
+    /**
+     * Tests that removing the rate limit sends the queued requests in
+     * priority order and stops the dispatch task.
+     */
+    @Test
+    public void removeRateLimit() {
+        FlowStatsScheduler scheduler = new FlowStatsScheduler(executor, 10);
+        scheduler.submit(DPID1, request("1"));
+        scheduler.submit(DPID2, request("2"));
+        scheduler.flowsChanged(DPID2);
+
+        scheduler.setMaxRate(0);
+        assertEquals("incorrect requests sent", ImmutableList.of("2", "1"), sent);
+        assertTrue("dispatch task should be cancelled", executor.task.isCancelled());
+    }
+
+    /**
+     * Tests that stopping the scheduler drops the queued requests.
+     */
+    @Test
+    public void stop() {
+        FlowStatsScheduler scheduler = new FlowStatsScheduler(executor, 10);
+        scheduler.submit(DPID1, request("1"));
+        scheduler.stop();
+        assertTrue("dispatch task should be cancelled", executor.task.isCancelled());
+        executor.tick(1);
+        assertFalse("no request expected", sent.contains("1"));
+    }
+
+    // Executor whose periodic task only runs when the test ticks.
+    private static final class ManualExecutor extends NullScheduledExecutor {
+        private ManualFuture task;
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay,
+                                                      long period, TimeUnit unit) {
+            task = new ManualFuture(command);
+            return task;
+        }
+
+        void tick(int count) {
+            for (int i = 0; i < count && task != null && !task.isCancelled(); i++) {
+                task.command.run();
+            }
+        }
+    }
+
+    private static final class ManualFuture extends FutureTask<Void> implements ScheduledFuture<Void> {
+        private final Runnable command;
+
+        private ManualFuture(Runnable command) {
+            super(command, null);
+            this.command = command;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return 0;
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
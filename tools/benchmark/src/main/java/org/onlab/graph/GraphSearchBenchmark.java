@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks of the graph path searches between random vertex pairs of a
+ * synthetic, randomly weighted torus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GraphSearchBenchmark {
+
+    private static final int PAIRS = 256;
+    private static final int MAX_PATHS = 4;
+
+    private static final Map<String, Supplier<GraphPathSearch<TestVertex, TestEdge>>> SEARCHES =
+            ImmutableMap.of("Dijkstra", DijkstraGraphSearch::new,
+                            "CompactDijkstra", CompactDijkstraGraphSearch::new,
+                            "Suurballe", SuurballeGraphSearch::new,
+                            "KShortestPaths", KShortestPathsSearch::new);
+
+    @Param({"10", "30"})
+    public int side;
+
+    @Param({"Dijkstra", "CompactDijkstra", "Suurballe", "KShortestPaths"})
+    public String algorithm;
+
+    private final EdgeWeigher<TestVertex, TestEdge> weigher = new TestEdgeWeigher();
+    private GraphPathSearch<TestVertex, TestEdge> search;
+    private Graph<TestVertex, TestEdge> graph;
+    private TestVertex[] sources;
+    private TestVertex[] destinations;
+    private int next;
+
+    /**
+     * Builds the torus and the vertex pairs to search between.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<TestVertex> vertexes = new ArrayList<>();
+        for (int i = 0; i < side * side; i++) {
+            vertexes.add(new TestVertex("v" + i));
+        }
+
+        // Bidirectional links to the right and bottom neighbours of each
+        // vertex, wrapping around at the edges. Weights are distinct so that
+        // the searches do not depend on how they break ties.
+        Set<TestEdge> edges = new HashSet<>();
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                TestVertex v = vertexes.get(row * side + col);
+                link(edges, random, v, vertexes.get(row * side + (col + 1) % side));
+                link(edges, random, v, vertexes.get(((row + 1) % side) * side + col));
+            }
+        }
+        graph = new AdjacencyListsGraph<>(new HashSet<>(vertexes), edges);
+
+        sources = new TestVertex[PAIRS];
+        destinations = new TestVertex[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            sources[i] = vertexes.get(random.nextInt(vertexes.size()));
+            do {
+                destinations[i] = vertexes.get(random.nextInt(vertexes.size()));
+            } while (destinations[i].equals(sources[i]));
+        }
+        search = SEARCHES.get(algorithm).get();
+    }
+
+    private static void link(Set<TestEdge> edges, Random random, TestVertex a, TestVertex b) {
+        TestDoubleWeight weight = new TestDoubleWeight(1 + 2 * random.nextDouble());
+        edges.add(new TestEdge(a, b, weight));
+        edges.add(new TestEdge(b, a, weight));
+    }
+
+    /**
+     * Searches for the paths between the next vertex pair.
+     *
+     * @return search result
+     */
+    @Benchmark
+    public GraphPathSearch.Result<TestVertex, TestEdge> search() {
+        int i = next++ & (PAIRS - 1);
+        return search.search(graph, sources[i], destinations[i], weigher, MAX_PATHS);
+    }
+
+    private static final class TestEdgeWeigher implements EdgeWeigher<TestVertex, TestEdge> {
+        @Override
+        public Weight weight(TestEdge edge) {
+            return edge.weight();
+        }
+
+        @Override
+        public Weight getInitialWeight() {
+            return new TestDoubleWeight(0);
+        }
+
+        @Override
+        public Weight getNonViableWeight() {
+            return TestDoubleWeight.NON_VIABLE_WEIGHT;
+        }
+    }
+}
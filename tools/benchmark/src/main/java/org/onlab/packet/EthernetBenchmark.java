@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the parsing of a VLAN tagged IPv4/UDP frame, comparing full
+ * deserialization with the read-only views.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class EthernetBenchmark {
+
+    @Param({"64", "1500"})
+    public int payloadSize;
+
+    private Ethernet frame;
+    private byte[] bytes;
+
+    /**
+     * Builds the frame and its serialized form.
+     */
+    @Setup
+    public void setUp() {
+        UDP udp = new UDP();
+        udp.setSourcePort(5000);
+        udp.setDestinationPort(5001);
+        udp.setPayload(new Data(new byte[payloadSize]));
+        IPv4 ipv4 = new IPv4();
+        ipv4.setSourceAddress(Ip4Address.valueOf("10.0.0.1").toInt());
+        ipv4.setDestinationAddress(Ip4Address.valueOf("10.0.0.2").toInt());
+        ipv4.setProtocol(IPv4.PROTOCOL_UDP);
+        ipv4.setTtl((byte) 64);
+        ipv4.setPayload(udp);
+        frame = new Ethernet();
+        frame.setDestinationMACAddress(MacAddress.valueOf("00:00:00:00:00:02"));
+        frame.setSourceMACAddress(MacAddress.valueOf("00:00:00:00:00:01"));
+        frame.setVlanID((short) 10);
+        frame.setEtherType(Ethernet.TYPE_IPV4);
+        frame.setPayload(ipv4);
+        bytes = frame.serialize();
+    }
+
+    /**
+     * Fully deserializes the frame.
+     *
+     * @return deserialized frame
+     * @throws DeserializationException if the frame is malformed
+     */
+    @Benchmark
+    public Ethernet deserialize() throws DeserializationException {
+        return Ethernet.deserializer().deserialize(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads the IP protocol of the frame through the views.
+     *
+     * @return IP protocol
+     * @throws DeserializationException if the frame is malformed
+     */
+    @Benchmark
+    public byte viewProtocol() throws DeserializationException {
+        return EthernetView.view(ByteBuffer.wrap(bytes)).ipv4().protocol();
+    }
+
+    /**
+     * Serializes the frame, recomputing the IPv4 and UDP checksums.
+     *
+     * @return serialized frame
+     */
+    @Benchmark
+    public byte[] serialize() {
+        frame.getPayload().getPayload().resetChecksum();
+        return frame.serialize();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.util;
+
+import org.onosproject.benchmark.SyntheticNetwork;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the Kryo serialization of flow rule batches using the API
+ * namespace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class KryoNamespaceBenchmark {
+
+    private static final int BUFFER_SIZE = 16 * 1024 * 1024;
+
+    @Param({"1", "100", "1000"})
+    public int rules;
+
+    private KryoNamespace serializer;
+    private List<FlowRule> batch;
+    private byte[] bytes;
+    private ByteBuffer buffer;
+
+    /**
+     * Prepares the batch to serialize and its serialized form.
+     */
+    @Setup
+    public void setUp() {
+        serializer = KryoNamespaces.API;
+        batch = new ArrayList<>(SyntheticNetwork.flowRules(SyntheticNetwork.devices(1), rules));
+        bytes = serializer.serialize(batch);
+        buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    /**
+     * Serializes the batch to a byte array.
+     *
+     * @return serialized batch
+     */
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(batch);
+    }
+
+    /**
+     * Serializes the batch to a reused buffer.
+     *
+     * @return buffer holding the serialized batch
+     */
+    @Benchmark
+    public ByteBuffer serializeToBuffer() {
+        buffer.clear();
+        serializer.serialize(batch, buffer);
+        return buffer;
+    }
+
+    /**
+     * Deserializes the batch from a byte array.
+     *
+     * @return deserialized batch
+     */
+    @Benchmark
+    public List<FlowRule> deserialize() {
+        return serializer.deserialize(bytes);
+    }
+}
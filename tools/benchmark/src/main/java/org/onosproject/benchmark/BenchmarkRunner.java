@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Entry point of the ONOS benchmarks. Accepts the standard JMH command line
+ * options; unless told otherwise, results are written in JSON format to a
+ * time-stamped file in the directory from which the benchmarks were invoked,
+ * so that runs of different releases can be compared by tooling.
+ */
+public final class BenchmarkRunner {
+
+    private static final String WORKING_DIRECTORY = "BUILD_WORKING_DIRECTORY";
+    private static final String RESULT_FILE = "onos-benchmarks-%s.%s";
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the benchmarks selected by the given command line.
+     *
+     * @param args JMH command line options
+     * @throws Exception if the options are invalid or the benchmarks fail
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp()) {
+            cmd.showHelp();
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        ResultFormatType format = cmd.getResultFormat().orElse(ResultFormatType.JSON);
+        options.resultFormat(format);
+        if (!cmd.getResult().hasValue()) {
+            options.result(resultFile(format));
+        }
+
+        Runner runner = new Runner(options.build());
+        if (cmd.shouldList()) {
+            runner.list();
+        } else if (cmd.shouldListWithParams()) {
+            runner.listWithParams(cmd);
+        } else {
+            runner.run();
+        }
+    }
+
+    // Returns the default result file, placed in the directory from which
+    // the benchmarks were run through Bazel, if any.
+    private static String resultFile(ResultFormatType format) {
+        String name = String.format(RESULT_FILE,
+                                    new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()),
+                                    format.toString().toLowerCase());
+        String directory = System.getenv(WORKING_DIRECTORY);
+        return directory != null ? Paths.get(directory, name).toString() : name;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmark;
+
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.Ip4Address;
+import org.onlab.packet.Ip4Prefix;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.link.DefaultLinkDescription;
+import org.onosproject.net.link.LinkDescription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generators of synthetic network elements of configurable size, shared by
+ * the benchmarks.
+ */
+public final class SyntheticNetwork {
+
+    /**
+     * Application to which the synthetic flow rules belong.
+     */
+    public static final ApplicationId APP_ID = new DefaultApplicationId(1, "org.onosproject.benchmark");
+
+    private static final String SCHEME = "of:";
+    private static final int BASE_ADDRESS = Ip4Address.valueOf("10.0.0.0").toInt();
+    private static final int PORTS = 48;
+
+    private SyntheticNetwork() {
+    }
+
+    /**
+     * Returns the identifiers of the given number of devices.
+     *
+     * @param count number of devices
+     * @return device identifiers
+     */
+    public static List<DeviceId> devices(int count) {
+        List<DeviceId> devices = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            devices.add(DeviceId.deviceId(String.format("%s%016x", SCHEME, i)));
+        }
+        return devices;
+    }
+
+    /**
+     * Returns the given number of egress links for each device, linking it
+     * to the devices which follow it in the list, wrapping around. Egress
+     * links leave through ports 1 to linksPerDevice and ingress links enter
+     * through the ports after those, so that all links have distinct end
+     * points.
+     *
+     * @param devices        devices to link
+     * @param linksPerDevice number of egress links per device; less than the
+     *                       number of devices
+     * @return descriptions of the links of all devices
+     */
+    public static List<LinkDescription> links(List<DeviceId> devices, int linksPerDevice) {
+        List<LinkDescription> links = new ArrayList<>(devices.size() * linksPerDevice);
+        for (int i = 0; i < devices.size(); i++) {
+            for (int j = 1; j <= linksPerDevice; j++) {
+                DeviceId dst = devices.get((i + j) % devices.size());
+                links.add(new DefaultLinkDescription(
+                        new ConnectPoint(devices.get(i), PortNumber.portNumber(j)),
+                        new ConnectPoint(dst, PortNumber.portNumber(linksPerDevice + j)),
+                        Link.Type.DIRECT));
+            }
+        }
+        return links;
+    }
+
+    /**
+     * Returns a flow table of the given size for each device; each rule
+     * forwards a distinct IPv4 host address out of one of the device ports.
+     *
+     * @param devices        devices to populate
+     * @param rulesPerDevice number of rules per device
+     * @return flow rules of all devices
+     */
+    public static List<FlowRule> flowRules(List<DeviceId> devices, int rulesPerDevice) {
+        List<FlowRule> rules = new ArrayList<>(devices.size() * rulesPerDevice);
+        for (DeviceId device : devices) {
+            for (int i = 0; i < rulesPerDevice; i++) {
+                rules.add(DefaultFlowRule.builder()
+                                  .forDevice(device)
+                                  .withSelector(DefaultTrafficSelector.builder()
+                                                        .matchEthType(Ethernet.TYPE_IPV4)
+                                                        .matchIPDst(Ip4Prefix.valueOf(BASE_ADDRESS + i, 32))
+                                                        .build())
+                                  .withTreatment(DefaultTrafficTreatment.builder()
+                                                         .setOutput(PortNumber.portNumber(1 + i % PORTS))
+                                                         .build())
+                                  .withPriority(40000)
+                                  .makePermanent()
+                                  .fromApp(APP_ID)
+                                  .build());
+            }
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.flow.impl;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.onlab.metrics.MetricsServiceAdapter;
+import org.onosproject.benchmark.SyntheticNetwork;
+import org.onosproject.cfg.ComponentConfigAdapter;
+import org.onosproject.cluster.ClusterServiceAdapter;
+import org.onosproject.common.event.impl.TestEventDispatcher;
+import org.onosproject.core.CoreServiceAdapter;
+import org.onosproject.core.IdGenerator;
+import org.onosproject.mastership.MastershipServiceAdapter;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.MastershipRole;
+import org.onosproject.net.device.DeviceServiceAdapter;
+import org.onosproject.net.flow.CompletedBatchOperation;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleOperations;
+import org.onosproject.net.flow.FlowRuleOperationsContext;
+import org.onosproject.net.flow.FlowRuleProvider;
+import org.onosproject.net.flow.FlowRuleProviderService;
+import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
+import org.onosproject.net.provider.AbstractProvider;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.store.flow.impl.ECFlowRuleStore;
+import org.onosproject.store.flow.impl.LocalFlowRuleStores;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.onosproject.net.NetTestTools.injectEventDispatcher;
+
+/**
+ * Benchmarks of the application of flow rule batches through the flow rule
+ * manager, backed by a single node flow rule store and a provider which
+ * acknowledges every batch immediately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FlowRuleManagerBenchmark {
+
+    private static final ProviderId PID = new ProviderId("of", "org.onosproject.benchmark");
+
+    @Param({"1", "10"})
+    public int devices;
+
+    @Param({"100", "1000"})
+    public int rulesPerDevice;
+
+    private FlowRuleManager manager;
+    private ECFlowRuleStore store;
+    private FlowRuleOperations add;
+    private FlowRuleOperations remove;
+    private volatile CompletableFuture<Void> pending;
+
+    /**
+     * Activates the manager and prepares the batches to apply.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = new FlowRuleManager();
+        store = LocalFlowRuleStores.activate();
+        manager.store = store;
+        injectEventDispatcher(manager, new TestEventDispatcher());
+        manager.deviceService = new DeviceServiceAdapter();
+        manager.mastershipService = new MasterOfAll();
+        manager.coreService = new TestCoreService();
+        manager.clusterService = new ClusterServiceAdapter();
+        manager.cfgService = new ComponentConfigAdapter();
+        manager.metricsService = new MetricsServiceAdapter();
+        manager.operationsService = MoreExecutors.newDirectExecutorService();
+        manager.deviceInstallers = MoreExecutors.newDirectExecutorService();
+        manager.activate(null);
+        new TestProvider().register(manager);
+
+        List<FlowRule> rules = SyntheticNetwork.flowRules(SyntheticNetwork.devices(devices), rulesPerDevice);
+        FlowRuleOperations.Builder addBuilder = FlowRuleOperations.builder();
+        FlowRuleOperations.Builder removeBuilder = FlowRuleOperations.builder();
+        rules.forEach(addBuilder::add);
+        rules.forEach(removeBuilder::remove);
+        FlowRuleOperationsContext context = new FlowRuleOperationsContext() {
+            @Override
+            public void onSuccess(FlowRuleOperations ops) {
+                pending.complete(null);
+            }
+
+            @Override
+            public void onError(FlowRuleOperations ops) {
+                pending.completeExceptionally(new IllegalStateException("Failed to apply " + ops));
+            }
+        };
+        add = addBuilder.build(context);
+        remove = removeBuilder.build(context);
+    }
+
+    /**
+     * Deactivates the manager.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.deactivate();
+        LocalFlowRuleStores.deactivate(store);
+    }
+
+    /**
+     * Installs the flow tables of all devices and then removes them again,
+     * waiting for both operations to complete.
+     */
+    @Benchmark
+    public void applyAndRemove() {
+        apply(add);
+        apply(remove);
+    }
+
+    private void apply(FlowRuleOperations ops) {
+        pending = new CompletableFuture<>();
+        manager.apply(ops);
+        pending.join();
+    }
+
+    // Provider which acknowledges every batch as soon as it is executed.
+    private static final class TestProvider extends AbstractProvider implements FlowRuleProvider {
+        private FlowRuleProviderService providerService;
+
+        private TestProvider() {
+            super(PID);
+        }
+
+        void register(FlowRuleManager manager) {
+            providerService = manager.register(this);
+        }
+
+        @Override
+        public void applyFlowRule(FlowRule... flowRules) {
+        }
+
+        @Override
+        public void removeFlowRule(FlowRule... flowRules) {
+        }
+
+        @Override
+        public void executeBatch(FlowRuleBatchOperation batch) {
+            providerService.batchOperationCompleted(
+                    batch.id(), new CompletedBatchOperation(true, Collections.emptySet(), batch.deviceId()));
+        }
+    }
+
+    private static final class MasterOfAll extends MastershipServiceAdapter {
+        @Override
+        public MastershipRole getLocalRole(DeviceId deviceId) {
+            return MastershipRole.MASTER;
+        }
+    }
+
+    private static final class TestCoreService extends CoreServiceAdapter {
+        @Override
+        public IdGenerator getIdGenerator(String topic) {
+            AtomicLong counter = new AtomicLong();
+            return counter::getAndIncrement;
+        }
+    }
+}
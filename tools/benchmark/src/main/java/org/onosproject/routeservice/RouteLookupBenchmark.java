@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routeservice;
+
+import com.googlecode.concurrenttrees.radix.node.concrete.DefaultByteArrayNodeFactory;
+import com.googlecode.concurrenttrees.radixinverted.ConcurrentInvertedRadixTree;
+import com.googlecode.concurrenttrees.radixinverted.InvertedRadixTree;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of the longest prefix match lookups of the route stores over a
+ * full IPv4 table, comparing the prefix trie with the inverted radix tree of
+ * binary strings it replaced.
+ * <p>
+ * The table is read from the dump file given by the {@code dump} parameter,
+ * holding a prefix per line as the first token containing a '/' (e.g. the
+ * output of {@code bgpdump -m}); a synthetic table of {@code prefixes}
+ * random prefixes is used otherwise. The heap used per prefix is printed
+ * once the table is loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = {"-Xmx8g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RouteLookupBenchmark {
+
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param({"trie", "radix"})
+    public String structure;
+
+    @Param({""})
+    public String dump;
+
+    @Param({"900000"})
+    public int prefixes;
+
+    private IpPrefixTrie<IpPrefix> trie;
+    private InvertedRadixTree<IpPrefix> radixTree;
+    private IpAddress[] addresses;
+    private int next;
+
+    /**
+     * Loads the table and the addresses to look up.
+     *
+     * @throws IOException if the dump cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        List<IpPrefix> table = dump.isEmpty() ? syntheticTable() : readTable();
+        Random random = new Random(0);
+        addresses = new IpAddress[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            // Mostly addresses within the table, as for real traffic.
+            IpPrefix prefix = table.get(random.nextInt(table.size()));
+            int host = random.nextInt() >>> Math.min(prefix.prefixLength(), 31);
+            addresses[i] = random.nextInt(10) == 0 ? IpAddress.valueOf(random.nextInt()) :
+                    IpAddress.valueOf(prefix.address().getIp4Address().toInt() | host);
+        }
+
+        long before = usedMemory();
+        if (structure.equals("trie")) {
+            trie = new IpPrefixTrie<>(IpAddress.Version.INET);
+            table.forEach(prefix -> trie.put(prefix, prefix));
+        } else {
+            radixTree = new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
+            table.forEach(prefix -> radixTree.put(RouteTools.createBinaryString(prefix), prefix));
+        }
+        long used = usedMemory() - before;
+        System.out.printf("%n%s: %d prefixes, %d bytes per prefix%n",
+                          structure, table.size(), used / table.size());
+    }
+
+    /**
+     * Looks up the longest prefix matching the next address.
+     *
+     * @return matching prefix; null if none
+     */
+    @Benchmark
+    public IpPrefix longestPrefixMatch() {
+        IpAddress address = addresses[next++ & (LOOKUPS - 1)];
+        if (trie != null) {
+            return trie.longestPrefixMatch(address);
+        }
+        IpPrefix match = null;
+        for (IpPrefix prefix : radixTree.getValuesForKeysPrefixing(
+                RouteTools.createBinaryString(address.toIpPrefix()))) {
+            match = prefix;
+        }
+        return match;
+    }
+
+    // Prefix lengths roughly distributed as in the Internet IPv4 table,
+    // where more than half of the prefixes are /24.
+    private List<IpPrefix> syntheticTable() {
+        int[] lengths = {24, 24, 24, 24, 24, 24, 23, 22, 22, 21, 20, 19, 18, 17, 16, 16};
+        Random random = new Random(42);
+        List<IpPrefix> table = new ArrayList<>(prefixes);
+        for (int i = 0; i < prefixes; i++) {
+            table.add(IpPrefix.valueOf(random.nextInt(), lengths[random.nextInt(lengths.length)]));
+        }
+        return table;
+    }
+
+    // Dumps usually hold the routes of several peers, prefixes are deduplicated.
+    private List<IpPrefix> readTable() throws IOException {
+        Set<IpPrefix> table = new LinkedHashSet<>();
+        try (Stream<String> lines = Files.lines(Paths.get(dump))) {
+            lines.forEach(line -> {
+                for (String token : line.split("[\\s|]+")) {
+                    if (token.contains("/") && !token.contains(":")) {
+                        try {
+                            table.add(IpPrefix.valueOf(token));
+                        } catch (IllegalArgumentException e) {
+                            // Not a prefix after all
+                            continue;
+                        }
+                        break;
+                    }
+                }
+            });
+        }
+        return new ArrayList<>(table);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
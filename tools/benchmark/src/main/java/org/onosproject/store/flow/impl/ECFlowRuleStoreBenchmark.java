@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import org.onosproject.benchmark.SyntheticNetwork;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.oldbatch.FlowRuleBatchEntry;
+import org.onosproject.net.flow.oldbatch.FlowRuleBatchOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks of the flow entry lookups of the eventually consistent flow rule
+ * store, with the local node mastering every device.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ECFlowRuleStoreBenchmark {
+
+    @Param({"1", "10"})
+    public int devices;
+
+    @Param({"100", "10000"})
+    public int rulesPerDevice;
+
+    private ECFlowRuleStore store;
+    private DeviceId[] deviceIds;
+    private FlowRule[] rules;
+    private int nextRule;
+    private int nextDevice;
+
+    /**
+     * Activates the store and populates the flow tables of all devices.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = LocalFlowRuleStores.activate();
+        store.setDelegate(event -> { });
+
+        List<DeviceId> ids = SyntheticNetwork.devices(devices);
+        List<FlowRule> all = SyntheticNetwork.flowRules(ids, rulesPerDevice);
+        long batchId = 0;
+        for (DeviceId id : ids) {
+            List<FlowRuleBatchEntry> entries = all.stream()
+                    .filter(rule -> rule.deviceId().equals(id))
+                    .map(rule -> new FlowRuleBatchEntry(FlowRuleBatchEntry.FlowRuleOperation.ADD, rule))
+                    .collect(Collectors.toList());
+            store.storeBatch(new FlowRuleBatchOperation(entries, id, batchId++));
+        }
+        deviceIds = ids.toArray(new DeviceId[0]);
+        rules = all.toArray(new FlowRule[0]);
+    }
+
+    /**
+     * Deactivates the store.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        LocalFlowRuleStores.deactivate(store);
+    }
+
+    /**
+     * Looks up the stored entry of the next flow rule.
+     *
+     * @return stored flow entry
+     */
+    @Benchmark
+    public FlowEntry getFlowEntry() {
+        FlowRule rule = rules[nextRule];
+        nextRule = (nextRule + 1) % rules.length;
+        return store.getFlowEntry(rule);
+    }
+
+    /**
+     * Walks all flow entries of the next device.
+     *
+     * @return number of flow entries of the device
+     */
+    @Benchmark
+    public int getFlowEntries() {
+        DeviceId deviceId = deviceIds[nextDevice];
+        nextDevice = (nextDevice + 1) % deviceIds.length;
+        int count = 0;
+        for (FlowEntry ignored : store.getFlowEntries(deviceId)) {
+            count++;
+        }
+        return count;
+    }
+}
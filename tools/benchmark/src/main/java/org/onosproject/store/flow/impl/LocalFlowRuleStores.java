@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import com.google.common.collect.ImmutableMap;
+import org.onosproject.cfg.ComponentConfigAdapter;
+import org.onosproject.cluster.ClusterServiceAdapter;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.core.CoreServiceAdapter;
+import org.onosproject.core.IdGenerator;
+import org.onosproject.mastership.MastershipInfo;
+import org.onosproject.mastership.MastershipService;
+import org.onosproject.mastership.MastershipServiceAdapter;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.MastershipRole;
+import org.onosproject.net.device.DeviceServiceAdapter;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
+import org.onosproject.store.persistence.PersistenceServiceAdapter;
+import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.AsyncConsistentMapAdapter;
+import org.onosproject.store.service.ConsistentMap;
+import org.onosproject.store.service.ConsistentMapBuilder;
+import org.onosproject.store.service.TestStorageService;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Factory of eventually consistent flow rule stores running on a single,
+ * local node which masters every device.
+ */
+public final class LocalFlowRuleStores {
+
+    private LocalFlowRuleStores() {
+    }
+
+    /**
+     * Creates and activates a flow rule store.
+     *
+     * @return activated flow rule store, without a delegate
+     */
+    public static ECFlowRuleStore activate() {
+        MastershipService mastershipService = new MasterOfAll();
+        ReplicaInfoManager replicaInfoManager = new ReplicaInfoManager();
+        replicaInfoManager.mastershipService = mastershipService;
+
+        ECFlowRuleStore store = new ECFlowRuleStore();
+        store.storageService = new TestStorageService() {
+            @Override
+            public <K, V> ConsistentMapBuilder<K, V> consistentMapBuilder() {
+                return new ConsistentMapBuilder<K, V>() {
+                    @Override
+                    public AsyncConsistentMap<K, V> buildAsyncMap() {
+                        return new AsyncConsistentMapAdapter<>();
+                    }
+
+                    @Override
+                    public ConsistentMap<K, V> build() {
+                        return null;
+                    }
+                };
+            }
+        };
+        store.replicaInfoManager = replicaInfoManager;
+        store.clusterService = new ClusterServiceAdapter();
+        store.clusterCommunicator = new ClusterCommunicationServiceAdapter();
+        store.mastershipService = mastershipService;
+        store.deviceService = new DeviceServiceAdapter();
+        store.coreService = new TestCoreService();
+        store.configService = new ComponentConfigAdapter();
+        store.persistenceService = new PersistenceServiceAdapter();
+        store.activate(null);
+        return store;
+    }
+
+    /**
+     * Deactivates a flow rule store created by {@link #activate()}.
+     *
+     * @param store flow rule store
+     */
+    public static void deactivate(ECFlowRuleStore store) {
+        store.deactivate(null);
+    }
+
+    // Mastership service which makes the local node master of every device.
+    private static final class MasterOfAll extends MastershipServiceAdapter {
+        private final NodeId local = new ClusterServiceAdapter().getLocalNode().id();
+
+        @Override
+        public MastershipRole getLocalRole(DeviceId deviceId) {
+            return MastershipRole.MASTER;
+        }
+
+        @Override
+        public boolean isLocalMaster(DeviceId deviceId) {
+            return true;
+        }
+
+        @Override
+        public NodeId getMasterFor(DeviceId deviceId) {
+            return local;
+        }
+
+        @Override
+        public MastershipInfo getMastershipFor(DeviceId deviceId) {
+            return new MastershipInfo(1, Optional.of(local), ImmutableMap.of(local, MastershipRole.MASTER));
+        }
+    }
+
+    private static final class TestCoreService extends CoreServiceAdapter {
+        @Override
+        public IdGenerator getIdGenerator(String topic) {
+            AtomicLong counter = new AtomicLong();
+            return counter::getAndIncrement;
+        }
+    }
+}
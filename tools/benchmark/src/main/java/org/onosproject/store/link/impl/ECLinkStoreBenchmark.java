@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.link.impl;
+
+import org.onosproject.benchmark.SyntheticNetwork;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.link.LinkDescription;
+import org.onosproject.net.provider.ProviderId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the link lookups of the eventually consistent link store,
+ * over a synthetic topology of up to 10k links.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ECLinkStoreBenchmark {
+
+    private static final ProviderId PID = new ProviderId("of", "org.onosproject.benchmark");
+    private static final int LINKS_PER_DEVICE = 10;
+
+    @Param({"100", "1000"})
+    public int devices;
+
+    private ECLinkStore store;
+    private DeviceId[] deviceIds;
+    private ConnectPoint[] points;
+    private int nextDevice;
+    private int nextPoint;
+
+    /**
+     * Activates the store and populates it with the links of all devices.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = LocalLinkStores.activate();
+        store.setDelegate(event -> { });
+
+        List<DeviceId> ids = SyntheticNetwork.devices(devices);
+        List<LinkDescription> links = SyntheticNetwork.links(ids, LINKS_PER_DEVICE);
+        links.forEach(link -> store.createOrUpdateLink(PID, link));
+        if (store.getLinkCount() != links.size()) {
+            throw new IllegalStateException("Expected " + links.size() + " links, found " + store.getLinkCount());
+        }
+        deviceIds = ids.toArray(new DeviceId[0]);
+        points = links.stream().map(LinkDescription::dst).toArray(ConnectPoint[]::new);
+    }
+
+    /**
+     * Deactivates the store.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        LocalLinkStores.deactivate(store);
+    }
+
+    /**
+     * Looks up the egress links of the next device.
+     *
+     * @return egress links of the device
+     */
+    @Benchmark
+    public Set<Link> getDeviceEgressLinks() {
+        DeviceId deviceId = deviceIds[nextDevice];
+        nextDevice = (nextDevice + 1) % deviceIds.length;
+        return store.getDeviceEgressLinks(deviceId);
+    }
+
+    /**
+     * Looks up the ingress links of the next connect point.
+     *
+     * @return ingress links of the connect point
+     */
+    @Benchmark
+    public Set<Link> getIngressLinks() {
+        ConnectPoint point = points[nextPoint];
+        nextPoint = (nextPoint + 1) % points.length;
+        return store.getIngressLinks(point);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Dijkstra shortest-path graph search algorithm capable of finding all
+ * shortest paths between the source and destinations, operating on the
+ * {@link CompactGraph compact form} of the graph. Costs and parent edges are
+ * tracked in arrays indexed by vertex and edge, and vertexes are ordered
+ * using a binary heap of vertex indexes, so the search produces the same
+ * results as {@link DijkstraGraphSearch} without per-search hashing or
+ * re-heapifying of all the graph vertexes.
+ * <p>
+ * The compact form of {@link AdjacencyListsGraph} instances is built once per
+ * graph and reused by subsequent searches; other graphs are indexed anew on
+ * every search.
+ */
+public class CompactDijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
+        extends AbstractGraphPathSearch<V, E> {
+
+    private static final int NONE = -1;
+
+    @Override
+    protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
+                                          EdgeWeigher<V, E> weigher, int maxPaths) {
+        CompactGraph<V, E> compact = compactGraph(graph);
+        int vertexCount = compact.vertexCount();
+
+        // Cumulative costs and parent edges of each vertex; the parent edges
+        // of a vertex form a list threaded through the edge indexes.
+        Weight[] costs = new Weight[vertexCount];
+        int[] firstParent = new int[vertexCount];
+        int[] parentCount = new int[vertexCount];
+        int[] nextParent = new int[compact.edgeCount()];
+        Arrays.fill(firstParent, NONE);
+
+        int source = compact.index(src);
+        int destination = dst != null ? compact.index(dst) : NONE;
+        costs[source] = weigher.getInitialWeight();
+
+        VertexQueue queue = new VertexQueue(costs);
+        queue.update(source);
+        while (!queue.isEmpty()) {
+            int nearest = queue.extractMin();
+            if (nearest == destination) {
+                break;
+            }
+
+            Weight cost = costs[nearest];
+            for (int e = compact.firstEdge(nearest); e < compact.lastEdge(nearest); e++) {
+                Weight hopCost = weigher.weight(compact.edge(e));
+                if (!hopCost.isViable() || hopCost.isNegative()) {
+                    continue;
+                }
+                Weight newCost = cost.merge(hopCost);
+
+                int v = compact.target(e);
+                int compareResult = costs[v] == null ? -1 : newCost.compareTo(costs[v]);
+                if (compareResult < 0) {
+                    costs[v] = newCost;
+                    firstParent[v] = NONE;
+                    parentCount[v] = 0;
+                    queue.update(v);
+                }
+                if (compareResult <= 0 && (maxPaths == ALL_PATHS || parentCount[v] < maxPaths)) {
+                    nextParent[e] = firstParent[v];
+                    firstParent[v] = e;
+                    parentCount[v]++;
+                }
+            }
+        }
+
+        // Hand the costs and parent edges of the reached vertexes over to
+        // the default result to construct the paths.
+        DefaultResult result = new DefaultResult(src, dst, maxPaths);
+        for (int i = 0; i < vertexCount; i++) {
+            if (costs[i] == null) {
+                continue;
+            }
+            V vertex = compact.vertex(i);
+            result.costs.put(vertex, costs[i]);
+            if (firstParent[i] != NONE) {
+                Set<E> edges = new HashSet<>(parentCount[i]);
+                for (int e = firstParent[i]; e != NONE; e = nextParent[e]) {
+                    edges.add(compact.edge(e));
+                }
+                result.parents.put(vertex, edges);
+            }
+        }
+        result.buildPaths();
+        return result;
+    }
+
+    // Returns the compact form of the graph, reusing that of immutable graphs.
+    private CompactGraph<V, E> compactGraph(Graph<V, E> graph) {
+        if (graph instanceof AdjacencyListsGraph) {
+            return ((AdjacencyListsGraph<V, E>) graph).compactGraph();
+        }
+        return CompactGraph.of(graph);
+    }
+
+    // Binary min-heap of vertex indexes ordered by their current costs,
+    // supporting in-place decrease of the cost of a queued vertex.
+    private static final class VertexQueue {
+        private static final int DONE = -2;
+
+        private final Weight[] costs;
+        private final int[] heap;
+        private final int[] positions;
+        private int size;
+
+        VertexQueue(Weight[] costs) {
+            this.costs = costs;
+            this.heap = new int[costs.length];
+            this.positions = new int[costs.length];
+            Arrays.fill(positions, NONE);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        // Queues the vertex or restores heap order after its cost decreased;
+        // vertexes which have already been extracted are not queued again.
+        void update(int vertex) {
+            int position = positions[vertex];
+            if (position == DONE) {
+                return;
+            }
+            if (position == NONE) {
+                position = size++;
+                heap[position] = vertex;
+                positions[vertex] = position;
+            }
+            siftUp(position);
+        }
+
+        int extractMin() {
+            int min = heap[0];
+            positions[min] = DONE;
+            int last = heap[--size];
+            if (size > 0) {
+                heap[0] = last;
+                positions[last] = 0;
+                siftDown(0);
+            }
+            return min;
+        }
+
+        private void siftUp(int position) {
+            int vertex = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (costs[heap[parent]].compareTo(costs[vertex]) <= 0) {
+                    break;
+                }
+                move(heap[parent], position);
+                position = parent;
+            }
+            move(vertex, position);
+        }
+
+        private void siftDown(int position) {
+            int vertex = heap[position];
+            int half = size >>> 1;
+            while (position < half) {
+                int child = 2 * position + 1;
+                int right = child + 1;
+                if (right < size && costs[heap[right]].compareTo(costs[heap[child]]) < 0) {
+                    child = right;
+                }
+                if (costs[vertex].compareTo(costs[heap[child]]) <= 0) {
+                    break;
+                }
+                move(heap[child], position);
+                position = child;
+            }
+            move(vertex, position);
+        }
+
+        private void move(int vertex, int position) {
+            heap[position] = vertex;
+            positions[vertex] = position;
+        }
+    }
+}
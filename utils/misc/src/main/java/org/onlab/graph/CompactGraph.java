@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable, integer-indexed snapshot of a graph in compressed sparse row
+ * form. Vertexes are numbered from 0 to {@link #vertexCount()} - 1 and the
+ * egress edges of each vertex occupy a contiguous range of edge indexes, so
+ * that searches can keep their per-vertex and per-edge state in arrays
+ * rather than in maps keyed by vertex and edge objects.
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ */
+public final class CompactGraph<V extends Vertex, E extends Edge<V>> {
+
+    private final Graph<V, E> graph;
+    private final Map<V, Integer> indexes;
+    private final Object[] vertexes;
+    private final int[] offsets;
+    private final int[] targets;
+    private final Object[] edges;
+
+    private CompactGraph(Graph<V, E> graph) {
+        this.graph = graph;
+        int vertexCount = graph.getVertexes().size();
+        this.indexes = new HashMap<>(vertexCount * 2);
+        this.vertexes = new Object[vertexCount];
+        for (V vertex : graph.getVertexes()) {
+            vertexes[indexes.size()] = vertex;
+            indexes.put(vertex, indexes.size());
+        }
+
+        this.offsets = new int[vertexCount + 1];
+        this.targets = new int[graph.getEdges().size()];
+        this.edges = new Object[targets.length];
+        int edge = 0;
+        for (int i = 0; i < vertexCount; i++) {
+            offsets[i] = edge;
+            for (E e : graph.getEdgesFrom(vertex(i))) {
+                Integer target = indexes.get(e.dst());
+                checkArgument(target != null, "Edge destination not in graph");
+                targets[edge] = target;
+                edges[edge++] = e;
+            }
+        }
+        offsets[vertexCount] = edge;
+    }
+
+    /**
+     * Creates a compact snapshot of the specified graph. The graph must not
+     * be modified while the snapshot is in use.
+     *
+     * @param graph graph to index
+     * @param <V>   vertex type
+     * @param <E>   edge type
+     * @return compact graph
+     */
+    public static <V extends Vertex, E extends Edge<V>> CompactGraph<V, E> of(Graph<V, E> graph) {
+        checkNotNull(graph, "Graph cannot be null");
+        return new CompactGraph<>(graph);
+    }
+
+    /**
+     * Returns the graph from which this snapshot was built.
+     *
+     * @return original graph
+     */
+    public Graph<V, E> graph() {
+        return graph;
+    }
+
+    /**
+     * Returns the number of vertexes.
+     *
+     * @return vertex count
+     */
+    public int vertexCount() {
+        return vertexes.length;
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return edge count
+     */
+    public int edgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Returns the index of the specified vertex.
+     *
+     * @param vertex vertex to look up
+     * @return vertex index; -1 if the vertex is not in the graph
+     */
+    public int index(V vertex) {
+        Integer index = indexes.get(vertex);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the vertex with the specified index.
+     *
+     * @param index vertex index
+     * @return vertex
+     */
+    @SuppressWarnings("unchecked")
+    public V vertex(int index) {
+        return (V) vertexes[index];
+    }
+
+    /**
+     * Returns the index of the first egress edge of the specified vertex.
+     *
+     * @param vertex vertex index
+     * @return first edge index
+     */
+    public int firstEdge(int vertex) {
+        return offsets[vertex];
+    }
+
+    /**
+     * Returns the index following the last egress edge of the specified
+     * vertex.
+     *
+     * @param vertex vertex index
+     * @return edge index bound, exclusive
+     */
+    public int lastEdge(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    /**
+     * Returns the index of the destination vertex of the specified edge.
+     *
+     * @param edge edge index
+     * @return destination vertex index
+     */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Returns the edge with the specified index.
+     *
+     * @param edge edge index
+     * @return edge
+     */
+    @SuppressWarnings("unchecked")
+    public E edge(int edge) {
+        return (E) edges[edge];
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("vertexes", vertexCount())
+                .add("edges", edgeCount())
+                .toString();
+    }
+}
@@ -53,7 +53,7 @@ public class KShortestPathsSearch<V extends Vertex, E extends Edge<V>> extends A
         ArrayList<Path<V, E>> resultPaths = new ArrayList<>(maxPaths);
         ArrayList<Path<V, E>> potentialPaths = Lists.newArrayList();
 
-        DijkstraGraphSearch<V, E> dijkstraSearch = new DijkstraGraphSearch<>();
+        CompactDijkstraGraphSearch<V, E> dijkstraSearch = new CompactDijkstraGraphSearch<>();
         Set<Path<V, E>> dijkstraResults = dijkstraSearch.search(originalGraph, src, dst, modifiedWeighter, 1).paths();
         //Checks if the dst was reachable
         if (dijkstraResults.isEmpty()) {
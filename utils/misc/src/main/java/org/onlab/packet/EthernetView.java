@@ -0,0 +1,247 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static org.onlab.packet.Ethernet.DATALAYER_ADDRESS_LENGTH;
+import static org.onlab.packet.Ethernet.ETHERNET_HEADER_LENGTH;
+import static org.onlab.packet.Ethernet.TYPE_IPV4;
+import static org.onlab.packet.Ethernet.TYPE_IPV6;
+import static org.onlab.packet.Ethernet.TYPE_QINQ;
+import static org.onlab.packet.Ethernet.TYPE_VLAN;
+import static org.onlab.packet.Ethernet.VLAN_HEADER_LENGTH;
+import static org.onlab.packet.Ethernet.VLAN_UNTAGGED;
+import static org.onlab.packet.PacketUtils.checkHeaderLength;
+
+/**
+ * Read-only view of an Ethernet frame, decoding header fields on demand.
+ * <p>
+ * VLAN tags are interpreted as by {@link Ethernet#deserializer()}: with two
+ * tags, the outer one is reported as the QinQ tag.
+ * </p>
+ */
+public final class EthernetView extends PacketView<Ethernet> {
+
+    private static final int SOURCE_MAC_OFFSET = DATALAYER_ADDRESS_LENGTH;
+    private static final int TPID_OFFSET = 2 * DATALAYER_ADDRESS_LENGTH;
+    private static final int NO_TAG = -1;
+
+    private final int qinqTagOffset;
+    private final int vlanTagOffset;
+    private final int payloadOffset;
+    private final short etherType;
+
+    private EthernetView(ByteBuffer buffer, int offset, int length) throws DeserializationException {
+        super(buffer, offset, length);
+        checkHeaderLength(length, ETHERNET_HEADER_LENGTH);
+
+        int index = TPID_OFFSET;
+        short type = getShort(index);
+        int qinqTag = NO_TAG;
+        int vlanTag = NO_TAG;
+        if (type == TYPE_QINQ) {
+            checkHeaderLength(length, ETHERNET_HEADER_LENGTH + 2 * VLAN_HEADER_LENGTH);
+            qinqTag = index;
+            index += VLAN_HEADER_LENGTH;
+            type = getShort(index);
+        }
+        if (type == TYPE_VLAN) {
+            checkHeaderLength(length, index + VLAN_HEADER_LENGTH + Short.BYTES);
+            vlanTag = index;
+            index += VLAN_HEADER_LENGTH;
+            type = getShort(index);
+            if (type == TYPE_VLAN && qinqTag == NO_TAG) {
+                // Double tagged with the VLAN TPID; outer tag reported as QinQ
+                checkHeaderLength(length, index + VLAN_HEADER_LENGTH + Short.BYTES);
+                qinqTag = vlanTag;
+                vlanTag = index;
+                index += VLAN_HEADER_LENGTH;
+                type = getShort(index);
+            }
+        }
+        this.qinqTagOffset = qinqTag;
+        this.vlanTagOffset = vlanTag;
+        this.payloadOffset = index + Short.BYTES;
+        this.etherType = type;
+    }
+
+    /**
+     * Creates a view of the Ethernet frame between the position and the
+     * limit of the given buffer. The buffer position is left unchanged.
+     *
+     * @param buffer buffer holding the frame
+     * @return Ethernet view
+     * @throws DeserializationException if the buffer is too short to hold
+     * the Ethernet header
+     */
+    public static EthernetView view(ByteBuffer buffer) throws DeserializationException {
+        return new EthernetView(buffer, buffer.position(), buffer.remaining());
+    }
+
+    /**
+     * Creates a view of the Ethernet frame in the given byte array region.
+     *
+     * @param data byte array holding the frame
+     * @param offset offset of the frame in the array
+     * @param length length of the frame
+     * @return Ethernet view
+     * @throws DeserializationException if the region is invalid or too short
+     * to hold the Ethernet header
+     */
+    public static EthernetView view(byte[] data, int offset, int length) throws DeserializationException {
+        PacketUtils.checkInput(data, offset, length, ETHERNET_HEADER_LENGTH);
+        return new EthernetView(ByteBuffer.wrap(data), offset, length);
+    }
+
+    /**
+     * Returns the destination MAC address.
+     *
+     * @return destination MAC address
+     */
+    public MacAddress destinationMac() {
+        return MacAddress.valueOf(getMac(0));
+    }
+
+    /**
+     * Returns the source MAC address.
+     *
+     * @return source MAC address
+     */
+    public MacAddress sourceMac() {
+        return MacAddress.valueOf(getMac(SOURCE_MAC_OFFSET));
+    }
+
+    /**
+     * Indicates whether the destination MAC address is the broadcast address.
+     *
+     * @return true if the frame is a broadcast
+     */
+    public boolean isBroadcast() {
+        return getShort(0) == (short) 0xffff && getInt(Short.BYTES) == 0xffffffff;
+    }
+
+    /**
+     * Indicates whether the destination MAC address is a multicast address.
+     *
+     * @return true if the frame is a multicast, broadcast excluded
+     */
+    public boolean isMulticast() {
+        return (getByte(0) & 0x01) != 0 && !isBroadcast();
+    }
+
+    /**
+     * Returns the EtherType of the payload, after any VLAN tags.
+     *
+     * @return EtherType
+     */
+    public short etherType() {
+        return etherType;
+    }
+
+    /**
+     * Returns the VLAN identifier of the frame.
+     *
+     * @return VLAN identifier; {@link Ethernet#VLAN_UNTAGGED} if untagged
+     */
+    public short vlanId() {
+        return vlanTagOffset == NO_TAG ? VLAN_UNTAGGED : vid(vlanTagOffset);
+    }
+
+    /**
+     * Returns the priority code point of the VLAN tag.
+     *
+     * @return priority code; 0 if untagged
+     */
+    public byte priorityCode() {
+        return vlanTagOffset == NO_TAG ? 0 : pcp(vlanTagOffset);
+    }
+
+    /**
+     * Returns the VLAN identifier of the outer QinQ tag.
+     *
+     * @return QinQ VLAN identifier; {@link Ethernet#VLAN_UNTAGGED} if none
+     */
+    public short qinqVid() {
+        return qinqTagOffset == NO_TAG ? VLAN_UNTAGGED : vid(qinqTagOffset);
+    }
+
+    /**
+     * Returns the priority code point of the outer QinQ tag.
+     *
+     * @return QinQ priority code; 0 if none
+     */
+    public byte qinqPriorityCode() {
+        return qinqTagOffset == NO_TAG ? 0 : pcp(qinqTagOffset);
+    }
+
+    /**
+     * Returns a view of the IPv4 packet carried by the frame.
+     *
+     * @return IPv4 view; null if the frame does not carry IPv4
+     * @throws DeserializationException if the IPv4 header is truncated
+     */
+    public IPv4View ipv4() throws DeserializationException {
+        return etherType == TYPE_IPV4 ?
+                IPv4View.view(buffer, offset + payloadOffset, length - payloadOffset) : null;
+    }
+
+    /**
+     * Returns a view of the IPv6 packet carried by the frame.
+     *
+     * @return IPv6 view; null if the frame does not carry IPv6
+     * @throws DeserializationException if the IPv6 header is truncated
+     */
+    public IPv6View ipv6() throws DeserializationException {
+        return etherType == TYPE_IPV6 ?
+                IPv6View.view(buffer, offset + payloadOffset, length - payloadOffset) : null;
+    }
+
+    @Override
+    protected int payloadOffset() {
+        return payloadOffset;
+    }
+
+    @Override
+    protected int payloadLength() {
+        return length - payloadOffset;
+    }
+
+    @Override
+    protected Deserializer<Ethernet> deserializer() {
+        return Ethernet.deserializer();
+    }
+
+    private short vid(int tagOffset) {
+        return (short) (getShort(tagOffset + Short.BYTES) & 0x0fff);
+    }
+
+    private byte pcp(int tagOffset) {
+        return (byte) (getShort(tagOffset + Short.BYTES) >> 13 & 0x07);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(getClass())
+                .add("destinationMac", destinationMac())
+                .add("sourceMac", sourceMac())
+                .add("etherType", String.format("0x%04x", etherType))
+                .add("vlanId", vlanId())
+                .add("qinqVid", qinqVid())
+                .toString();
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static org.onlab.packet.PacketUtils.checkHeaderLength;
+
+/**
+ * Read-only view of an IPv4 packet, decoding header fields on demand.
+ */
+public final class IPv4View extends PacketView<IPv4> {
+
+    private static final int MIN_HEADER_LENGTH = 20;
+    private static final int TOTAL_LENGTH_OFFSET = 2;
+    private static final int FLAGS_OFFSET = 6;
+    private static final int TTL_OFFSET = 8;
+    private static final int PROTOCOL_OFFSET = 9;
+    private static final int SOURCE_ADDRESS_OFFSET = 12;
+    private static final int DESTINATION_ADDRESS_OFFSET = 16;
+
+    private IPv4View(ByteBuffer buffer, int offset, int length) throws DeserializationException {
+        super(buffer, offset, length);
+        checkHeaderLength(length, MIN_HEADER_LENGTH);
+        checkHeaderLength(length, headerLength() * 4);
+    }
+
+    /**
+     * Creates a view of the IPv4 packet in the given buffer region.
+     *
+     * @param buffer buffer holding the packet
+     * @param offset absolute offset of the packet in the buffer
+     * @param length number of bytes available from the offset
+     * @return IPv4 view
+     * @throws DeserializationException if the region is too short to hold
+     * the IPv4 header
+     */
+    public static IPv4View view(ByteBuffer buffer, int offset, int length) throws DeserializationException {
+        return new IPv4View(buffer, offset, length);
+    }
+
+    /**
+     * Returns the IP version.
+     *
+     * @return version
+     */
+    public byte version() {
+        return (byte) (getByte(0) >> 4 & 0xf);
+    }
+
+    /**
+     * Returns the header length in 32-bit words.
+     *
+     * @return header length
+     */
+    public byte headerLength() {
+        return (byte) (getByte(0) & 0xf);
+    }
+
+    /**
+     * Returns the differentiated services field.
+     *
+     * @return DSCP and ECN bits
+     */
+    public byte diffServ() {
+        return getByte(1);
+    }
+
+    /**
+     * Returns the DSCP value.
+     *
+     * @return DSCP
+     */
+    public byte dscp() {
+        return (byte) (diffServ() >> 2 & 0x3f);
+    }
+
+    /**
+     * Returns the total length of the packet as stated by the header.
+     *
+     * @return total length in bytes
+     */
+    public int totalLength() {
+        return getShort(TOTAL_LENGTH_OFFSET) & 0xffff;
+    }
+
+    /**
+     * Returns the fragmentation flags.
+     *
+     * @return flags
+     */
+    public byte flags() {
+        return (byte) (getShort(FLAGS_OFFSET) >> 13 & 0x7);
+    }
+
+    /**
+     * Returns the fragment offset.
+     *
+     * @return fragment offset
+     */
+    public short fragmentOffset() {
+        return (short) (getShort(FLAGS_OFFSET) & 0x1fff);
+    }
+
+    /**
+     * Returns the time to live.
+     *
+     * @return TTL
+     */
+    public byte ttl() {
+        return getByte(TTL_OFFSET);
+    }
+
+    /**
+     * Returns the protocol of the payload.
+     *
+     * @return IP protocol number
+     */
+    public byte protocol() {
+        return getByte(PROTOCOL_OFFSET);
+    }
+
+    /**
+     * Returns the source address as an integer.
+     *
+     * @return source address
+     */
+    public int sourceAddress() {
+        return getInt(SOURCE_ADDRESS_OFFSET);
+    }
+
+    /**
+     * Returns the destination address as an integer.
+     *
+     * @return destination address
+     */
+    public int destinationAddress() {
+        return getInt(DESTINATION_ADDRESS_OFFSET);
+    }
+
+    /**
+     * Returns the source IP address.
+     *
+     * @return source address
+     */
+    public Ip4Address sourceIp() {
+        return Ip4Address.valueOf(sourceAddress());
+    }
+
+    /**
+     * Returns the destination IP address.
+     *
+     * @return destination address
+     */
+    public Ip4Address destinationIp() {
+        return Ip4Address.valueOf(destinationAddress());
+    }
+
+    @Override
+    protected int payloadOffset() {
+        return headerLength() * 4;
+    }
+
+    @Override
+    protected int payloadLength() {
+        return Math.max(0, Math.min(totalLength(), length) - payloadOffset());
+    }
+
+    @Override
+    protected Deserializer<IPv4> deserializer() {
+        return IPv4.deserializer();
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(getClass())
+                .add("sourceAddress", sourceIp())
+                .add("destinationAddress", destinationIp())
+                .add("protocol", protocol())
+                .add("ttl", ttl())
+                .add("totalLength", totalLength())
+                .toString();
+    }
+}
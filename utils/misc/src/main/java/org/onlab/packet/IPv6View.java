@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static org.onlab.packet.IPv6.FIXED_HEADER_LENGTH;
+import static org.onlab.packet.PacketUtils.checkHeaderLength;
+
+/**
+ * Read-only view of an IPv6 packet, decoding fixed header fields on demand.
+ * Extension headers are not interpreted; they are part of the payload.
+ */
+public final class IPv6View extends PacketView<IPv6> {
+
+    private static final int PAYLOAD_LENGTH_OFFSET = 4;
+    private static final int NEXT_HEADER_OFFSET = 6;
+    private static final int HOP_LIMIT_OFFSET = 7;
+    private static final int SOURCE_ADDRESS_OFFSET = 8;
+    private static final int DESTINATION_ADDRESS_OFFSET = 24;
+
+    private IPv6View(ByteBuffer buffer, int offset, int length) throws DeserializationException {
+        super(buffer, offset, length);
+        checkHeaderLength(length, FIXED_HEADER_LENGTH);
+    }
+
+    /**
+     * Creates a view of the IPv6 packet in the given buffer region.
+     *
+     * @param buffer buffer holding the packet
+     * @param offset absolute offset of the packet in the buffer
+     * @param length number of bytes available from the offset
+     * @return IPv6 view
+     * @throws DeserializationException if the region is too short to hold
+     * the IPv6 header
+     */
+    public static IPv6View view(ByteBuffer buffer, int offset, int length) throws DeserializationException {
+        return new IPv6View(buffer, offset, length);
+    }
+
+    /**
+     * Returns the IP version.
+     *
+     * @return version
+     */
+    public byte version() {
+        return (byte) (getInt(0) >> 28 & 0xf);
+    }
+
+    /**
+     * Returns the traffic class.
+     *
+     * @return traffic class
+     */
+    public byte trafficClass() {
+        return (byte) (getInt(0) >> 20 & 0xff);
+    }
+
+    /**
+     * Returns the flow label.
+     *
+     * @return flow label
+     */
+    public int flowLabel() {
+        return getInt(0) & 0xfffff;
+    }
+
+    /**
+     * Returns the payload length as stated by the header.
+     *
+     * @return payload length in bytes
+     */
+    public int statedPayloadLength() {
+        return getShort(PAYLOAD_LENGTH_OFFSET) & 0xffff;
+    }
+
+    /**
+     * Returns the type of the header following the fixed header.
+     *
+     * @return next header
+     */
+    public byte nextHeader() {
+        return getByte(NEXT_HEADER_OFFSET);
+    }
+
+    /**
+     * Returns the hop limit.
+     *
+     * @return hop limit
+     */
+    public byte hopLimit() {
+        return getByte(HOP_LIMIT_OFFSET);
+    }
+
+    /**
+     * Returns the source IP address.
+     *
+     * @return source address
+     */
+    public Ip6Address sourceIp() {
+        return Ip6Address.valueOf(address(SOURCE_ADDRESS_OFFSET));
+    }
+
+    /**
+     * Returns the destination IP address.
+     *
+     * @return destination address
+     */
+    public Ip6Address destinationIp() {
+        return Ip6Address.valueOf(address(DESTINATION_ADDRESS_OFFSET));
+    }
+
+    private byte[] address(int index) {
+        byte[] address = new byte[Ip6Address.BYTE_LENGTH];
+        for (int i = 0; i < address.length; i++) {
+            address[i] = getByte(index + i);
+        }
+        return address;
+    }
+
+    @Override
+    protected int payloadOffset() {
+        return FIXED_HEADER_LENGTH;
+    }
+
+    @Override
+    protected int payloadLength() {
+        return Math.min(statedPayloadLength(), length - FIXED_HEADER_LENGTH);
+    }
+
+    @Override
+    protected Deserializer<IPv6> deserializer() {
+        return IPv6.deserializer();
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(getClass())
+                .add("sourceAddress", sourceIp())
+                .add("destinationAddress", destinationIp())
+                .add("nextHeader", nextHeader())
+                .add("hopLimit", hopLimit())
+                .add("payloadLength", statedPayloadLength())
+                .toString();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Read-only view of a packet header backed by a byte buffer.
+ * <p>
+ * Views decode header fields on demand directly from the underlying buffer,
+ * without copying the packet bytes or building the packet object tree. The
+ * buffer must not be modified for as long as the view is in use. The full
+ * {@link IPacket} representation can still be obtained with
+ * {@link #materialize()}.
+ * </p>
+ *
+ * @param <T> type of the packet represented by the view
+ */
+public abstract class PacketView<T extends IPacket> {
+
+    protected final ByteBuffer buffer;
+    protected final int offset;
+    protected final int length;
+
+    /**
+     * Creates a view of the given buffer region.
+     *
+     * @param buffer backing buffer
+     * @param offset absolute offset of the header in the buffer
+     * @param length number of bytes available from the offset
+     */
+    protected PacketView(ByteBuffer buffer, int offset, int length) {
+        this.buffer = checkNotNull(buffer);
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns the number of bytes available to the view, headers included.
+     *
+     * @return length in bytes
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the offset of the payload relative to the start of the view.
+     *
+     * @return payload offset in bytes
+     */
+    protected abstract int payloadOffset();
+
+    /**
+     * Returns the length of the payload available in the buffer.
+     *
+     * @return payload length in bytes
+     */
+    protected abstract int payloadLength();
+
+    /**
+     * Returns the deserializer for the packet represented by the view.
+     *
+     * @return packet deserializer
+     */
+    protected abstract Deserializer<T> deserializer();
+
+    /**
+     * Returns a read-only buffer sharing the payload bytes of the packet.
+     *
+     * @return payload buffer
+     */
+    public ByteBuffer payload() {
+        return slice(payloadOffset(), payloadLength());
+    }
+
+    /**
+     * Deserializes the packet into its full object representation.
+     *
+     * @return deserialized packet
+     * @throws DeserializationException if the packet cannot be deserialized
+     */
+    public T materialize() throws DeserializationException {
+        if (buffer.hasArray()) {
+            return deserializer().deserialize(buffer.array(), buffer.arrayOffset() + offset, length);
+        }
+        byte[] data = new byte[length];
+        ByteBuffer bb = buffer.duplicate();
+        bb.position(offset);
+        bb.get(data);
+        return deserializer().deserialize(data, 0, length);
+    }
+
+    /**
+     * Returns a read-only buffer sharing the given region of the view.
+     *
+     * @param from offset relative to the start of the view
+     * @param count number of bytes
+     * @return buffer for the region
+     */
+    protected ByteBuffer slice(int from, int count) {
+        ByteBuffer bb = buffer.asReadOnlyBuffer();
+        bb.limit(offset + from + count);
+        bb.position(offset + from);
+        return bb.slice();
+    }
+
+    protected byte getByte(int index) {
+        return buffer.get(offset + index);
+    }
+
+    protected short getShort(int index) {
+        return buffer.getShort(offset + index);
+    }
+
+    protected int getInt(int index) {
+        return buffer.getInt(offset + index);
+    }
+
+    protected long getMac(int index) {
+        return (getShort(index) & 0xffffL) << Integer.SIZE | getInt(index + Short.BYTES) & 0xffffffffL;
+    }
+}
@@ -33,8 +33,6 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.objenesis.strategy.StdInstantiatorStrategy;
 import org.slf4j.Logger;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
@@ -42,6 +40,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -60,6 +61,14 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
     public static final int DEFAULT_BUFFER_SIZE = 4096;
     public static final int MAX_BUFFER_SIZE = 100 * 1000 * 1000;
 
+    /**
+     * Largest serialization buffer a thread keeps around for reuse.
+     */
+    static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<ThreadBuffers> THREAD_BUFFERS =
+            ThreadLocal.withInitial(ThreadBuffers::new);
+
     /**
      * ID to use if this KryoNamespace does not define registration id.
      */
@@ -288,7 +297,8 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
     /**
      * Serializes given object to byte array using Kryo instance in pool.
      * <p>
-     * Note: Serialized bytes must be smaller than {@link #MAX_BUFFER_SIZE}.
+     * The object is written to a buffer reused by the calling thread, which
+     * grows as needed, without bounding the size of serialized bytes.
      *
      * @param obj Object to serialize
      * @return serialized bytes
@@ -299,19 +309,30 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
 
     /**
      * Serializes given object to byte array using Kryo instance in pool.
+     * <p>
+     * The object is written to a buffer reused by the calling thread; a new
+     * buffer of the given initial size is only allocated when that buffer is
+     * already in use, e.g. by a serializer that serializes nested objects.
+     * Buffers grow as needed, without bounding the size of serialized bytes.
      *
      * @param obj Object to serialize
-     * @param bufferSize maximum size of serialized bytes
+     * @param bufferSize initial size of the buffer, if one needs allocating
      * @return serialized bytes
      */
     public byte[] serialize(final Object obj, final int bufferSize) {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bufferSize);
-        Output out = new Output(outputStream);
-        return pool.run(kryo -> {
+        ThreadBuffers buffers = THREAD_BUFFERS.get();
+        Output out = buffers.acquireOutput();
+        if (out == null) {
+            out = new Output(bufferSize, -1);
+        }
+        Kryo kryo = borrow();
+        try {
             kryo.writeClassAndObject(out, obj);
-            out.flush();
-            return outputStream.toByteArray();
-        });
+            return out.toBytes();
+        } finally {
+            release(kryo);
+            buffers.releaseOutput(out);
+        }
     }
 
     /**
@@ -346,16 +367,48 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      *
      * @param obj Object to serialize
      * @param stream to write to
-     * @param bufferSize size of the buffer in front of the stream
+     * @param bufferSize size of the buffer in front of the stream, if one needs allocating
      */
     public void serialize(final Object obj, final OutputStream stream, final int bufferSize) {
-        ByteBufferOutput out = new ByteBufferOutput(stream, bufferSize);
+        writeToStream(stream, bufferSize, (kryo, out) -> kryo.writeClassAndObject(out, obj));
+    }
+
+    /**
+     * Serializes given objects to OutputStream one after the other, using a
+     * single Kryo instance in pool.
+     * <p>
+     * Unlike serializing the whole collection, neither the objects nor their
+     * serialized form need to be held in memory all at once. The stream can
+     * be decoded with {@link #deserializeEach(InputStream, Consumer)}.
+     *
+     * @param objects Objects to serialize
+     * @param stream to write to
+     */
+    public void serializeEach(final Iterable<?> objects, final OutputStream stream) {
+        writeToStream(stream, DEFAULT_BUFFER_SIZE, (kryo, out) -> {
+            for (Object obj : objects) {
+                out.writeBoolean(true);
+                kryo.writeClassAndObject(out, obj);
+            }
+            out.writeBoolean(false);
+        });
+    }
+
+    private void writeToStream(OutputStream stream, int bufferSize, BiConsumer<Kryo, Output> writer) {
+        ThreadBuffers buffers = THREAD_BUFFERS.get();
+        Output out = buffers.acquireOutput();
+        if (out == null) {
+            out = new Output(bufferSize, -1);
+        }
+        out.setOutputStream(stream);
         Kryo kryo = borrow();
         try {
-            kryo.writeClassAndObject(out, obj);
+            writer.accept(kryo, out);
             out.flush();
         } finally {
             release(kryo);
+            out.setOutputStream(null);
+            buffers.releaseOutput(out);
         }
     }
 
@@ -367,7 +420,7 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * @return deserialized Object
      */
     public <T> T deserialize(final byte[] bytes) {
-        Input in = new Input(new ByteArrayInputStream(bytes));
+        Input in = new Input(bytes);
         Kryo kryo = borrow();
         try {
             @SuppressWarnings("unchecked")
@@ -414,17 +467,71 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * @param stream input stream
      * @param <T> deserialized Object type
      * @return deserialized Object
-     * @param bufferSize size of the buffer in front of the stream
+     * @param bufferSize size of the buffer in front of the stream, if one needs allocating
      */
     public <T> T deserialize(final InputStream stream, final int bufferSize) {
-        ByteBufferInput in = new ByteBufferInput(stream, bufferSize);
+        return readFromStream(stream, bufferSize, (kryo, in) -> {
+            @SuppressWarnings("unchecked")
+            T obj = (T) kryo.readClassAndObject(in);
+            return obj;
+        });
+    }
+
+    /**
+     * Deserializes the Objects written by {@link #serializeEach(Iterable, OutputStream)}
+     * to the given InputStream, handing each to the consumer as soon as it is decoded.
+     *
+     * @param stream input stream
+     * @param consumer consumer of the deserialized Objects
+     * @param <T> deserialized Object type
+     */
+    public <T> void deserializeEach(final InputStream stream, final Consumer<? super T> consumer) {
+        readFromStream(stream, DEFAULT_BUFFER_SIZE, (kryo, in) -> {
+            readEach(kryo, in, consumer);
+            return null;
+        });
+    }
+
+    /**
+     * Deserializes the Objects written by {@link #serializeEach(Iterable, OutputStream)}
+     * to the given byte array, handing each to the consumer as soon as it is decoded.
+     *
+     * @param bytes serialized bytes
+     * @param consumer consumer of the deserialized Objects
+     * @param <T> deserialized Object type
+     */
+    public <T> void deserializeEach(final byte[] bytes, final Consumer<? super T> consumer) {
+        Input in = new Input(bytes);
         Kryo kryo = borrow();
         try {
+            readEach(kryo, in, consumer);
+        } finally {
+            release(kryo);
+        }
+    }
+
+    private <T> void readEach(Kryo kryo, Input in, Consumer<? super T> consumer) {
+        while (in.readBoolean()) {
             @SuppressWarnings("unchecked")
             T obj = (T) kryo.readClassAndObject(in);
-            return obj;
+            consumer.accept(obj);
+        }
+    }
+
+    private <R> R readFromStream(InputStream stream, int bufferSize, BiFunction<Kryo, Input, R> reader) {
+        ThreadBuffers buffers = THREAD_BUFFERS.get();
+        Input in = buffers.acquireInput();
+        if (in == null) {
+            in = new Input(bufferSize);
+        }
+        in.setInputStream(stream);
+        Kryo kryo = borrow();
+        try {
+            return reader.apply(kryo, in);
         } finally {
             release(kryo);
+            in.setInputStream(null);
+            buffers.releaseInput(in);
         }
     }
 
@@ -551,6 +658,54 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
                     .toString();
     }
 
+    /**
+     * Serialization buffers reused by a thread across namespaces.
+     * <p>
+     * Buffers are handed out to one caller at a time; re-entrant callers get
+     * nothing and allocate their own. Buffers which grew beyond
+     * {@link #MAX_RETAINED_BUFFER_SIZE} are replaced by default sized ones on
+     * release, so that occasional large payloads do not pin memory.
+     */
+    private static final class ThreadBuffers {
+        private final Output output = new Output(DEFAULT_BUFFER_SIZE, -1);
+        private final Input input = new Input(DEFAULT_BUFFER_SIZE);
+        private boolean outputInUse;
+        private boolean inputInUse;
+
+        Output acquireOutput() {
+            if (outputInUse) {
+                return null;
+            }
+            outputInUse = true;
+            output.clear();
+            return output;
+        }
+
+        void releaseOutput(Output out) {
+            if (out != output) {
+                return;
+            }
+            if (output.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+                output.setBuffer(new byte[DEFAULT_BUFFER_SIZE], -1);
+            }
+            outputInUse = false;
+        }
+
+        Input acquireInput() {
+            if (inputInUse) {
+                return null;
+            }
+            inputInUse = true;
+            return input;
+        }
+
+        void releaseInput(Input in) {
+            if (in == input) {
+                inputInUse = false;
+            }
+        }
+    }
+
     static final class RegistrationBlock {
         private final int begin;
         private final ImmutableList<Pair<Class<?>[], Serializer<?>>> types;
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import org.junit.Test;
+
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableSet.of;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test of the compact Dijkstra algorithm, which must behave exactly as the
+ * map-based one.
+ */
+public class CompactDijkstraGraphSearchTest extends DijkstraGraphSearchTest {
+
+    @Override
+    protected AbstractGraphPathSearch<TestVertex, TestEdge> graphSearch() {
+        return new CompactDijkstraGraphSearch<>();
+    }
+
+    @Test
+    public void sameAsDijkstra() {
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        GraphPathSearch<TestVertex, TestEdge> dijkstra = new DijkstraGraphSearch<>();
+        GraphPathSearch<TestVertex, TestEdge> compact = graphSearch();
+        for (TestVertex src : vertexes()) {
+            GraphPathSearch.Result<TestVertex, TestEdge> expected =
+                    dijkstra.search(graph, src, null, weigher, GraphPathSearch.ALL_PATHS);
+            GraphPathSearch.Result<TestVertex, TestEdge> actual =
+                    compact.search(graph, src, null, weigher, GraphPathSearch.ALL_PATHS);
+            assertEquals("incorrect paths", expected.paths(), actual.paths());
+            assertEquals("incorrect costs", expected.costs(), actual.costs());
+
+            for (TestVertex dst : vertexes()) {
+                assertEquals("incorrect paths",
+                             dijkstra.search(graph, src, dst, weigher, GraphPathSearch.ALL_PATHS).paths(),
+                             compact.search(graph, src, dst, weigher, GraphPathSearch.ALL_PATHS).paths());
+            }
+        }
+    }
+
+    @Test
+    public void mutableGraph() {
+        MutableAdjacencyListsGraph<TestVertex, TestEdge> mutable =
+                new MutableAdjacencyListsGraph<>(of(A, B, C), of(new TestEdge(A, B, W1)));
+        GraphPathSearch<TestVertex, TestEdge> gs = graphSearch();
+        assertEquals("incorrect paths count", 0, gs.search(mutable, A, C, weigher, 1).paths().size());
+
+        mutable.addEdge(new TestEdge(B, C, W1));
+        Set<Path<TestVertex, TestEdge>> paths = gs.search(mutable, A, C, weigher, 1).paths();
+        assertEquals("incorrect paths count", 1, paths.size());
+        assertEquals("incorrect path cost", W2, paths.iterator().next().cost());
+    }
+}
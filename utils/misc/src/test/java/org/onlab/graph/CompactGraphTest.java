@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test of the compact graph representation.
+ */
+public class CompactGraphTest extends GraphTest {
+
+    @Test
+    public void basics() {
+        AdjacencyListsGraph<TestVertex, TestEdge> graph =
+                new AdjacencyListsGraph<>(vertexes(), edges());
+        CompactGraph<TestVertex, TestEdge> compact = graph.compactGraph();
+        assertSame("compact graph should be reused", compact, graph.compactGraph());
+        assertSame("incorrect graph", graph, compact.graph());
+        assertEquals("incorrect vertex count", vertexes().size(), compact.vertexCount());
+        assertEquals("incorrect edge count", edges().size(), compact.edgeCount());
+        assertEquals("unknown vertex should not be indexed", -1, compact.index(Z));
+
+        for (TestVertex vertex : vertexes()) {
+            int index = compact.index(vertex);
+            assertEquals("incorrect vertex", vertex, compact.vertex(index));
+
+            Set<TestEdge> egress = new HashSet<>();
+            for (int e = compact.firstEdge(index); e < compact.lastEdge(index); e++) {
+                TestEdge edge = compact.edge(e);
+                assertEquals("incorrect edge target", edge.dst(), compact.vertex(compact.target(e)));
+                egress.add(edge);
+            }
+            assertEquals("incorrect egress edges", graph.getEdgesFrom(vertex), egress);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Unit tests for the Ethernet view class.
+ */
+public class EthernetViewTest {
+
+    private static final MacAddress DST_MAC = MacAddress.valueOf("00:01:02:03:04:05");
+    private static final MacAddress SRC_MAC = MacAddress.valueOf("06:07:08:09:0a:0b");
+    private static final short ETH_TYPE = (short) 0x88b5; // local experimental
+    private static final byte[] PAYLOAD = {1, 2, 3, 4, 5, 6, 7, 8};
+
+    private static Ethernet frame(short vlan) {
+        Ethernet eth = new Ethernet();
+        eth.setDestinationMACAddress(DST_MAC);
+        eth.setSourceMACAddress(SRC_MAC);
+        eth.setEtherType(ETH_TYPE);
+        eth.setVlanID(vlan);
+        eth.setPriorityCode((byte) 5);
+        eth.setPayload(new Data(PAYLOAD));
+        return eth;
+    }
+
+    /**
+     * Tests the header fields of an untagged frame.
+     */
+    @Test
+    public void testUntagged() throws Exception {
+        EthernetView view = EthernetView.view(ByteBuffer.wrap(frame(Ethernet.VLAN_UNTAGGED).serialize()));
+
+        assertThat(view.destinationMac(), is(DST_MAC));
+        assertThat(view.sourceMac(), is(SRC_MAC));
+        assertThat(view.etherType(), is(ETH_TYPE));
+        assertThat(view.vlanId(), is(Ethernet.VLAN_UNTAGGED));
+        assertThat(view.qinqVid(), is(Ethernet.VLAN_UNTAGGED));
+        assertThat(view.isBroadcast(), is(false));
+        assertThat(view.isMulticast(), is(false));
+        assertThat(view.ipv4(), nullValue());
+        assertThat(view.ipv6(), nullValue());
+
+        ByteBuffer payload = view.payload();
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        assertThat(bytes, is(PAYLOAD));
+    }
+
+    /**
+     * Tests the header fields of VLAN and QinQ tagged frames.
+     */
+    @Test
+    public void testTagged() throws Exception {
+        EthernetView view = EthernetView.view(ByteBuffer.wrap(frame((short) 10).serialize()));
+        assertThat(view.etherType(), is(ETH_TYPE));
+        assertThat(view.vlanId(), is((short) 10));
+        assertThat(view.priorityCode(), is((byte) 5));
+        assertThat(view.payload().remaining(), is(PAYLOAD.length));
+
+        Ethernet qinq = frame((short) 10);
+        qinq.setQinQVID((short) 20);
+        qinq.setQinQPriorityCode((byte) 3);
+        view = EthernetView.view(ByteBuffer.wrap(qinq.serialize()));
+        assertThat(view.etherType(), is(ETH_TYPE));
+        assertThat(view.vlanId(), is((short) 10));
+        assertThat(view.qinqVid(), is((short) 20));
+        assertThat(view.qinqPriorityCode(), is((byte) 3));
+        assertThat(view.payload().remaining(), is(PAYLOAD.length));
+    }
+
+    /**
+     * Tests that views honour the buffer position and materialize as the
+     * deserializer would.
+     */
+    @Test
+    public void testMaterialize() throws Exception {
+        Ethernet eth = frame((short) 10);
+        byte[] bytes = eth.serialize();
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 4);
+        buffer.position(4);
+        buffer.put(bytes);
+        buffer.position(4);
+
+        EthernetView view = EthernetView.view(buffer);
+        assertThat(view.materialize(), is(eth));
+        assertThat(buffer.position(), is(4));
+        assertThat(EthernetView.view(bytes, 0, bytes.length).materialize(), is(eth));
+        assertThat(EthernetView.view(buffer.asReadOnlyBuffer()).materialize(), is(eth));
+    }
+
+    /**
+     * Tests that views of truncated frames are rejected.
+     */
+    @Test(expected = DeserializationException.class)
+    public void testTruncated() throws Exception {
+        EthernetView.view(ByteBuffer.wrap(new byte[Ethernet.ETHERNET_HEADER_LENGTH - 1]));
+    }
+
+    /**
+     * Tests that views of truncated tagged frames are rejected.
+     */
+    @Test(expected = DeserializationException.class)
+    public void testTruncatedTag() throws Exception {
+        byte[] bytes = frame((short) 10).serialize();
+        EthernetView.view(bytes, 0, Ethernet.ETHERNET_HEADER_LENGTH + 1);
+    }
+}
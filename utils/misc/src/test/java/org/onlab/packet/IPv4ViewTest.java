@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Unit tests for the IPv4 view class.
+ */
+public class IPv4ViewTest {
+
+    private static final Ip4Address SRC_IP = Ip4Address.valueOf("10.0.0.1");
+    private static final Ip4Address DST_IP = Ip4Address.valueOf("10.0.0.2");
+
+    /**
+     * Tests the header fields of an IPv4 packet carried in a frame.
+     */
+    @Test
+    public void testIpv4() throws Exception {
+        UDP udp = new UDP();
+        udp.setSourcePort(5000);
+        udp.setDestinationPort(5001);
+        udp.setPayload(new Data(new byte[10]));
+        IPv4 ipv4 = new IPv4();
+        ipv4.setSourceAddress(SRC_IP.toInt());
+        ipv4.setDestinationAddress(DST_IP.toInt());
+        ipv4.setProtocol(IPv4.PROTOCOL_UDP);
+        ipv4.setTtl((byte) 64);
+        ipv4.setDiffServ((byte) 0xb8);
+        ipv4.setPayload(udp);
+        Ethernet eth = new Ethernet();
+        eth.setDestinationMACAddress(MacAddress.BROADCAST);
+        eth.setSourceMACAddress(MacAddress.valueOf("00:00:00:00:00:01"));
+        eth.setEtherType(Ethernet.TYPE_IPV4);
+        eth.setPayload(ipv4);
+
+        EthernetView frame = EthernetView.view(ByteBuffer.wrap(eth.serialize()));
+        assertThat(frame.isBroadcast(), is(true));
+        assertThat(frame.ipv6(), nullValue());
+
+        IPv4View view = frame.ipv4();
+        assertThat(view, notNullValue());
+        assertThat(view.version(), is((byte) 4));
+        assertThat(view.headerLength(), is((byte) 5));
+        assertThat(view.dscp(), is((byte) 46));
+        assertThat(view.ttl(), is((byte) 64));
+        assertThat(view.protocol(), is(IPv4.PROTOCOL_UDP));
+        assertThat(view.sourceIp(), is(SRC_IP));
+        assertThat(view.destinationIp(), is(DST_IP));
+        assertThat(view.totalLength(), is(20 + 8 + 10));
+        assertThat(view.payload().remaining(), is(8 + 10));
+        assertThat(view.materialize(), is(eth.getPayload()));
+    }
+
+    /**
+     * Tests that views of truncated IPv4 headers are rejected.
+     */
+    @Test(expected = DeserializationException.class)
+    public void testTruncated() throws Exception {
+        IPv4View.view(ByteBuffer.wrap(new byte[19]), 0, 19);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Unit tests for the IPv6 view class.
+ */
+public class IPv6ViewTest {
+
+    private static final Ip6Address SRC_IP = Ip6Address.valueOf("2001:db8::1");
+    private static final Ip6Address DST_IP = Ip6Address.valueOf("ff02::1:ff00:2");
+
+    /**
+     * Tests the header fields of an IPv6 packet carried in a frame.
+     */
+    @Test
+    public void testIpv6() throws Exception {
+        IPv6 ipv6 = new IPv6();
+        ipv6.setSourceAddress(SRC_IP.toOctets());
+        ipv6.setDestinationAddress(DST_IP.toOctets());
+        ipv6.setNextHeader(IPv6.PROTOCOL_UDP);
+        ipv6.setHopLimit((byte) 255);
+        ipv6.setTrafficClass((byte) 0x20);
+        ipv6.setFlowLabel(0x12345);
+        ipv6.setPayload(new Data(new byte[12]));
+        Ethernet eth = new Ethernet();
+        eth.setDestinationMACAddress(MacAddress.valueOf("33:33:ff:00:00:02"));
+        eth.setSourceMACAddress(MacAddress.valueOf("00:00:00:00:00:01"));
+        eth.setEtherType(Ethernet.TYPE_IPV6);
+        eth.setPayload(ipv6);
+
+        EthernetView frame = EthernetView.view(ByteBuffer.wrap(eth.serialize()));
+        assertThat(frame.isMulticast(), is(true));
+        assertThat(frame.ipv4(), nullValue());
+
+        IPv6View view = frame.ipv6();
+        assertThat(view, notNullValue());
+        assertThat(view.version(), is((byte) 6));
+        assertThat(view.trafficClass(), is((byte) 0x20));
+        assertThat(view.flowLabel(), is(0x12345));
+        assertThat(view.nextHeader(), is(IPv6.PROTOCOL_UDP));
+        assertThat(view.hopLimit(), is((byte) 255));
+        assertThat(view.sourceIp(), is(SRC_IP));
+        assertThat(view.destinationIp(), is(DST_IP));
+        assertThat(view.statedPayloadLength(), is(12));
+        assertThat(view.payload().remaining(), is(12));
+        assertThat(view.materialize().getNextHeader(), is(IPv6.PROTOCOL_UDP));
+    }
+
+    /**
+     * Tests that views of truncated IPv6 headers are rejected.
+     */
+    @Test(expected = DeserializationException.class)
+    public void testTruncated() throws Exception {
+        IPv6View.view(ByteBuffer.wrap(new byte[39]), 0, 39);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.util;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests of the KryoNamespace serialization.
+ */
+public class KryoNamespaceTest {
+
+    private static final KryoNamespace INNER = KryoNamespace.newBuilder()
+            .register(byte[].class)
+            .build("inner");
+
+    private final KryoNamespace namespace = KryoNamespace.newBuilder()
+            .register(ArrayList.class, byte[].class)
+            .register(new WrapperSerializer(), Wrapper.class)
+            .build("test");
+
+    private static List<String> strings(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> "item-" + i)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Tests round trips through byte arrays, byte buffers and streams.
+     */
+    @Test
+    public void roundTrip() {
+        List<String> value = strings(10);
+
+        assertThat(namespace.deserialize(namespace.serialize(value)), is(value));
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        namespace.serialize(value, buffer);
+        buffer.flip();
+        assertThat(namespace.deserialize(buffer), is(value));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        namespace.serialize(value, stream);
+        assertThat(namespace.deserialize(new ByteArrayInputStream(stream.toByteArray())), is(value));
+    }
+
+    /**
+     * Tests that the reused buffers do not carry over bytes between calls,
+     * including after growing beyond the retained size.
+     */
+    @Test
+    public void reusedBuffers() {
+        byte[] small = namespace.serialize("small");
+        byte[] large = new byte[2 * KryoNamespace.MAX_RETAINED_BUFFER_SIZE];
+        Arrays.fill(large, (byte) 7);
+
+        assertThat(namespace.deserialize(namespace.serialize(large)), is(large));
+        assertThat(namespace.serialize("small"), is(small));
+        assertThat(namespace.deserialize(namespace.serialize(strings(1000))), is(strings(1000)));
+        assertThat(namespace.serialize("small"), is(small));
+    }
+
+    /**
+     * Tests serializers which serialize nested objects with a namespace of
+     * their own while the thread's buffers are in use.
+     */
+    @Test
+    public void nestedSerialization() {
+        Wrapper wrapper = new Wrapper(new byte[]{1, 2, 3});
+
+        Wrapper decoded = namespace.deserialize(namespace.serialize(wrapper));
+        assertThat(decoded.bytes, is(wrapper.bytes));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        namespace.serialize(wrapper, stream);
+        decoded = namespace.deserialize(new ByteArrayInputStream(stream.toByteArray()));
+        assertThat(decoded.bytes, is(wrapper.bytes));
+    }
+
+    /**
+     * Tests streaming the elements of a collection which does not fit in a
+     * single buffer.
+     */
+    @Test
+    public void serializeEach() {
+        List<String> values = strings(10_000);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        namespace.serializeEach(values, stream);
+        byte[] bytes = stream.toByteArray();
+
+        List<String> fromStream = new ArrayList<>();
+        namespace.<String>deserializeEach(new ByteArrayInputStream(bytes), fromStream::add);
+        assertThat(fromStream, is(values));
+
+        List<String> fromBytes = new ArrayList<>();
+        namespace.<String>deserializeEach(bytes, fromBytes::add);
+        assertThat(fromBytes, is(values));
+
+        stream.reset();
+        namespace.serializeEach(new ArrayList<>(), stream);
+        List<String> none = new ArrayList<>();
+        namespace.<String>deserializeEach(stream.toByteArray(), none::add);
+        assertThat(none.isEmpty(), is(true));
+    }
+
+    private static final class Wrapper {
+        private final byte[] bytes;
+
+        private Wrapper(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    // Serializes the wrapped bytes with another namespace, the way some
+    // store serializers embed independently encoded values.
+    private static final class WrapperSerializer extends Serializer<Wrapper> {
+        @Override
+        public void write(Kryo kryo, Output output, Wrapper object) {
+            byte[] encoded = INNER.serialize(object.bytes);
+            output.writeInt(encoded.length);
+            output.writeBytes(encoded);
+        }
+
+        @Override
+        public Wrapper read(Kryo kryo, Input input, Class<Wrapper> type) {
+            byte[] encoded = input.readBytes(input.readInt());
+            return new Wrapper(INNER.deserialize(new ByteArrayInputStream(encoded)));
+        }
+    }
+}